@@ -0,0 +1,190 @@
+// Minimal CBOR (RFC 8949) codec for the API's opt-in binary bodies: maps, arrays, text,
+// byte strings (returned as Uint8Array), numbers, booleans and null. Tags are skipped.
+const CBOR = (() => {
+  const textEncoder = new TextEncoder();
+  const textDecoder = new TextDecoder();
+
+  function encode(value) {
+    const out = [];
+    write(out, value);
+    return new Uint8Array(out);
+  }
+
+  function writeHead(out, major, length) {
+    if (length < 24) {
+      out.push((major << 5) | length);
+    } else if (length < 0x100) {
+      out.push((major << 5) | 24, length);
+    } else if (length < 0x10000) {
+      out.push((major << 5) | 25, length >> 8, length & 0xff);
+    } else if (length < 0x100000000) {
+      out.push((major << 5) | 26, length >>> 24, (length >> 16) & 0xff, (length >> 8) & 0xff, length & 0xff);
+    } else {
+      const high = Math.floor(length / 0x100000000);
+      out.push((major << 5) | 27);
+      writeUint32(out, high);
+      writeUint32(out, length >>> 0);
+    }
+  }
+
+  function writeUint32(out, value) {
+    out.push(value >>> 24, (value >> 16) & 0xff, (value >> 8) & 0xff, value & 0xff);
+  }
+
+  function write(out, value) {
+    if (value === null || value === undefined) {
+      out.push(0xf6);
+    } else if (value === false || value === true) {
+      out.push(value ? 0xf5 : 0xf4);
+    } else if (typeof value === "number") {
+      if (Number.isSafeInteger(value)) {
+        if (value >= 0) writeHead(out, 0, value);
+        else writeHead(out, 1, -1 - value);
+      } else {
+        const view = new DataView(new ArrayBuffer(8));
+        view.setFloat64(0, value);
+        out.push(0xfb, ...new Uint8Array(view.buffer));
+      }
+    } else if (typeof value === "string") {
+      const bytes = textEncoder.encode(value);
+      writeHead(out, 3, bytes.length);
+      bytes.forEach((b) => out.push(b));
+    } else if (value instanceof Uint8Array || value instanceof ArrayBuffer) {
+      const bytes = value instanceof Uint8Array ? value : new Uint8Array(value);
+      writeHead(out, 2, bytes.length);
+      bytes.forEach((b) => out.push(b));
+    } else if (Array.isArray(value)) {
+      writeHead(out, 4, value.length);
+      value.forEach((item) => write(out, item));
+    } else {
+      const keys = Object.keys(value).filter((key) => value[key] !== undefined);
+      writeHead(out, 5, keys.length);
+      keys.forEach((key) => {
+        write(out, key);
+        write(out, value[key]);
+      });
+    }
+  }
+
+  function decode(buffer) {
+    const bytes = buffer instanceof Uint8Array ? buffer : new Uint8Array(buffer);
+    const view = new DataView(bytes.buffer, bytes.byteOffset, bytes.byteLength);
+    let offset = 0;
+    const BREAK = {};
+
+    function readLength(info) {
+      if (info < 24) return info;
+      let value;
+      if (info === 24) value = view.getUint8(offset);
+      else if (info === 25) value = view.getUint16(offset);
+      else if (info === 26) value = view.getUint32(offset);
+      else if (info === 27) value = view.getUint32(offset) * 0x100000000 + view.getUint32(offset + 4);
+      else if (info === 31) return -1;
+      else throw new Error("Invalid CBOR length");
+      offset += 1 << (info - 24);
+      return value;
+    }
+
+    function readChunks(major, info) {
+      const length = readLength(info);
+      if (length >= 0) {
+        const chunk = bytes.subarray(offset, offset + length);
+        offset += length;
+        return [chunk];
+      }
+      // Indefinite length: definite chunks of the same type up to a break.
+      const chunks = [];
+      for (;;) {
+        const head = view.getUint8(offset++);
+        if (head === 0xff) return chunks;
+        if (head >> 5 !== major) throw new Error("Invalid CBOR chunk");
+        chunks.push(...readChunks(major, head & 0x1f));
+      }
+    }
+
+    function concat(chunks) {
+      if (chunks.length === 1) return chunks[0].slice();
+      const total = chunks.reduce((sum, chunk) => sum + chunk.length, 0);
+      const joined = new Uint8Array(total);
+      let position = 0;
+      chunks.forEach((chunk) => {
+        joined.set(chunk, position);
+        position += chunk.length;
+      });
+      return joined;
+    }
+
+    function read() {
+      const head = view.getUint8(offset++);
+      const major = head >> 5;
+      const info = head & 0x1f;
+      switch (major) {
+        case 0:
+          return readLength(info);
+        case 1:
+          return -1 - readLength(info);
+        case 2:
+          return concat(readChunks(2, info));
+        case 3:
+          return textDecoder.decode(concat(readChunks(3, info)));
+        case 4: {
+          const length = readLength(info);
+          const items = [];
+          for (let i = 0; length < 0 || i < length; i++) {
+            const item = read();
+            if (item === BREAK) break;
+            items.push(item);
+          }
+          return items;
+        }
+        case 5: {
+          const length = readLength(info);
+          const map = {};
+          for (let i = 0; length < 0 || i < length; i++) {
+            const key = read();
+            if (key === BREAK) break;
+            map[key] = read();
+          }
+          return map;
+        }
+        case 6:
+          readLength(info);
+          return read();
+        default:
+          return readSimple(info);
+      }
+    }
+
+    function readSimple(info) {
+      if (info === 20) return false;
+      if (info === 21) return true;
+      if (info === 22 || info === 23) return null;
+      if (info === 25) {
+        const half = view.getUint16(offset);
+        offset += 2;
+        const exponent = (half >> 10) & 0x1f;
+        const fraction = half & 0x3ff;
+        const sign = half & 0x8000 ? -1 : 1;
+        if (exponent === 0) return sign * fraction * Math.pow(2, -24);
+        if (exponent === 31) return fraction ? NaN : sign * Infinity;
+        return sign * (1 + fraction / 1024) * Math.pow(2, exponent - 15);
+      }
+      if (info === 26) {
+        const value = view.getFloat32(offset);
+        offset += 4;
+        return value;
+      }
+      if (info === 27) {
+        const value = view.getFloat64(offset);
+        offset += 8;
+        return value;
+      }
+      if (info === 31) return BREAK;
+      return undefined;
+    }
+
+    return read();
+  }
+
+  return { encode, decode };
+})();
@@ -183,6 +183,41 @@ function buildHeaders(extra = {}) {
   return headers;
 }
 
+// Opt-in binary bodies: localStorage.translatorWireFormat = "cbor". JSON stays the default;
+// with CBOR, audio arrives as raw bytes instead of base64.
+function useCbor() {
+  return localStorage.getItem("translatorWireFormat") === "cbor" && typeof CBOR !== "undefined";
+}
+
+function acceptHeaders() {
+  return useCbor() ? { Accept: "application/cbor" } : {};
+}
+
+function encodeRequest(payload) {
+  if (useCbor()) {
+    return {
+      headers: { "Content-Type": "application/cbor", ...acceptHeaders() },
+      body: CBOR.encode(payload),
+    };
+  }
+  return { headers: { "Content-Type": "application/json" }, body: JSON.stringify(payload) };
+}
+
+async function readBody(response) {
+  const type = response.headers.get("Content-Type") || "";
+  if (type.startsWith("application/cbor")) {
+    return CBOR.decode(await response.arrayBuffer());
+  }
+  return response.json();
+}
+
+function audioSource(audio, mimeType) {
+  if (audio instanceof Uint8Array) {
+    return URL.createObjectURL(new Blob([audio], { type: mimeType }));
+  }
+  return "data:" + mimeType + ";base64," + audio;
+}
+
 async function fetchWithAuthRetry(url, options = {}) {
   const headers = { ...(options.headers || {}) };
   const auth = getAuthHeader();
@@ -239,8 +274,7 @@ async function doTranslate() {
   try {
     const response = await fetchWithAuthRetry(getApiBase() + "/translate", {
       method: "POST",
-      headers: { "Content-Type": "application/json" },
-      body: JSON.stringify({
+      ...encodeRequest({
         text: input,
         sourceLanguage: languageState.source,
         targetLanguage: languageState.target,
@@ -251,7 +285,7 @@ async function doTranslate() {
       throw new Error("HTTP error " + response.status);
     }
 
-    const data = await response.json();
+    const data = await readBody(response);
     setResult(data.translation || "Aucune traduction retournee.", "success");
   } catch (e) {
     setResult("Erreur serveur : " + e.message, "danger");
@@ -272,18 +306,18 @@ async function doReadAloud() {
   try {
     const response = await fetchWithAuthRetry(getApiBase() + "/read-aloud", {
       method: "POST",
-      headers: { "Content-Type": "application/json" },
-      body: JSON.stringify({ text: input, voice: "standard" }),
+      ...encodeRequest({ text: input, voice: "standard" }),
     });
 
     if (!response.ok) {
       throw new Error("HTTP error " + response.status);
     }
 
-    const data = await response.json();
+    const data = await readBody(response);
     if (data.audioBase64 && playback) {
       playback.style.display = "block";
-      playback.src = "data:audio/wav;base64," + data.audioBase64;
+      if (playback.src.startsWith("blob:")) URL.revokeObjectURL(playback.src);
+      playback.src = audioSource(data.audioBase64, "audio/wav");
       playback.play().catch(() => {});
       setResult("Audio pret (backend TTS).", "success");
     } else {
@@ -315,13 +349,7 @@ function handleFileSelection(file) {
     return;
   }
 
-  const reader = new FileReader();
-  reader.onload = () => {
-    const result = reader.result || "";
-    const base64 = result.toString().split(",")[1] || "";
-    translateImageBase64(base64, file.name, file.type);
-  };
-  reader.readAsDataURL(file);
+  translateImageFile(file);
 }
 
 function initUploadZone() {
@@ -371,27 +399,29 @@ function updateImageResult(text, translation) {
   if (transEl) transEl.textContent = translation || "--";
 }
 
-async function translateImageBase64(imageBase64, filename, mimeType) {
+async function translateImageFile(file) {
   setUploadStatus("Analyse de l'image en cours...", "info");
   updateImageResult("", "");
+  const filename = file.name;
+
+  // Sent as multipart: no base64 encoding on either side.
+  const form = new FormData();
+  form.append("image", file, file.name);
+  form.append("sourceLanguage", languageState.source || "auto");
+  form.append("targetLanguage", languageState.target || "ary");
 
   try {
     const response = await fetchWithAuthRetry(getApiBase() + "/image/translate", {
       method: "POST",
-      headers: { "Content-Type": "application/json" },
-      body: JSON.stringify({
-        imageBase64,
-        imageMimeType: mimeType || "",
-        sourceLanguage: languageState.source || "auto",
-        targetLanguage: languageState.target || "ary",
-      }),
+      headers: acceptHeaders(),
+      body: form,
     });
 
     if (!response.ok) {
       throw new Error("HTTP error " + response.status);
     }
 
-    const data = await response.json();
+    const data = await readBody(response);
     updateImageResult(data.extractedText || data.text || "", data.translation || data.translatedText || "");
     const label = filename ? " pour " + filename : "";
     setUploadStatus("Traduction terminee" + label + ".", "success");
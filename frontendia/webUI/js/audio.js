@@ -6,7 +6,9 @@ const speakDarijaBtn = document.getElementById("speakDarija");
 
 let recorder;
 let chunks = [];
-let translatedAudioBase64 = null;
+let translatedAudioClips = [];
+let audioQueue = [];
+let audioPlaying = false;
 let recordedMimeType = "";
 
 function apiBase() {
@@ -73,12 +75,12 @@ async function handleRecordingStop() {
 
   let payload;
   try {
-    payload = await convertToWavPayload(blob);
+    payload = await convertToWav(blob);
   } catch (err) {
     console.warn("WAV conversion failed, sending original audio:", err);
-    payload = { base64: await blobToBase64(blob), mimeType };
+    payload = blob;
   }
-  sendSpeechToBackend(payload.base64, payload.mimeType);
+  sendSpeechToBackend(payload);
 }
 
 function toggleRecord() {
@@ -95,28 +97,13 @@ function toggleRecord() {
   }
 }
 
-function blobToBase64(blob) {
-  return new Promise((resolve, reject) => {
-    const reader = new FileReader();
-    reader.onloadend = () => {
-      const result = reader.result || "";
-      const base64 = result.toString().split(",")[1];
-      resolve(base64);
-    };
-    reader.onerror = reject;
-    reader.readAsDataURL(blob);
-  });
-}
-
-async function convertToWavPayload(blob) {
+async function convertToWav(blob) {
   const audioContext = new (window.AudioContext || window.webkitAudioContext)();
   try {
     const arrayBuffer = await blob.arrayBuffer();
     const audioBuffer = await audioContext.decodeAudioData(arrayBuffer);
     const wavBuffer = audioBufferToWav(audioBuffer);
-    const wavBlob = new Blob([wavBuffer], { type: "audio/wav" });
-    const base64 = await blobToBase64(wavBlob);
-    return { base64, mimeType: "audio/wav" };
+    return new Blob([wavBuffer], { type: "audio/wav" });
   } finally {
     audioContext.close();
   }
@@ -167,43 +154,89 @@ function writeString(view, offset, value) {
   }
 }
 
-async function sendSpeechToBackend(audioBase64, audioMimeType) {
-  translatedAudioBase64 = null;
+async function sendSpeechToBackend(audioBlob) {
+  translatedAudioClips = [];
   const lang = languageConfig();
   const sourceLanguage = lang.source || "en";
   const targetLanguage = lang.target || "ary";
 
+  // Sent as multipart: the part's Content-Type carries the audio mime type.
+  const form = new FormData();
+  form.append("audio", audioBlob, audioBlob.type === "audio/wav" ? "speech.wav" : "speech");
+  form.append("sourceLanguage", sourceLanguage);
+  form.append("targetLanguage", targetLanguage);
+  form.append("voice", "standard");
+
   try {
-    const response = await authorizedFetch(apiBase() + "/speech/translate", {
+    // Streamed: one event per sentence, so the first sentence plays while the rest is translated.
+    const response = await authorizedFetch(apiBase() + "/speech/translate/stream", {
       method: "POST",
-      headers: { "Content-Type": "application/json" },
-      body: JSON.stringify({
-        audioBase64,
-        audioMimeType,
-        sourceLanguage,
-        targetLanguage,
-        voice: "standard",
-      }),
+      body: form,
     });
 
     if (!response.ok) {
       throw new Error("HTTP error " + response.status);
     }
 
-    const data = await response.json();
-    txtInEl.textContent = data.transcript || "";
-    txtOutEl.textContent = data.translatedText || "";
-    translatedAudioBase64 = data.translatedAudioBase64 || null;
-
-    if (translatedAudioBase64) {
-      playBase64Audio(translatedAudioBase64);
-    }
+    const translations = [];
+    txtOutEl.textContent = "";
+    await readServerEvents(response, (event, data) => {
+      if (event === "transcript") {
+        txtInEl.textContent = data.transcript || "";
+      } else if (event === "sentence") {
+        translations.push(data.translation || "");
+        txtOutEl.textContent = translations.join(" ");
+        if (data.audioBase64) {
+          translatedAudioClips.push(data.audioBase64);
+          enqueueAudio(data.audioBase64);
+        }
+      } else if (event === "error") {
+        throw new Error(data.message || "HTTP error " + data.status);
+      }
+    });
   } catch (err) {
     console.error("Speech translate error:", err);
     txtOutEl.textContent = "Speech translation failed: " + err.message;
   }
 }
 
+async function readServerEvents(response, onEvent) {
+  const reader = response.body.getReader();
+  const decoder = new TextDecoder();
+  let buffer = "";
+  for (;;) {
+    const { value, done } = await reader.read();
+    if (done) break;
+    buffer += decoder.decode(value, { stream: true });
+    let boundary;
+    while ((boundary = buffer.indexOf("\n\n")) >= 0) {
+      const block = buffer.slice(0, boundary);
+      buffer = buffer.slice(boundary + 2);
+      let event = "message";
+      const data = [];
+      block.split("\n").forEach((line) => {
+        if (line.startsWith("event:")) event = line.slice(6).trim();
+        else if (line.startsWith("data:")) data.push(line.slice(5).trim());
+      });
+      if (data.length) onEvent(event, JSON.parse(data.join("\n")));
+    }
+  }
+}
+
+function enqueueAudio(encoded) {
+  audioQueue.push(encoded);
+  if (!audioPlaying) playNextClip();
+}
+
+function playNextClip() {
+  const next = audioQueue.shift();
+  audioPlaying = Boolean(next);
+  if (!next) return;
+  playBase64Audio(next);
+  playbackEl.onended = playNextClip;
+  playbackEl.onerror = playNextClip;
+}
+
 function playBase64Audio(encoded) {
   if (!encoded) return;
   const src = "data:audio/wav;base64," + encoded;
@@ -217,7 +250,7 @@ function bindAudioUi() {
     recordBtn.addEventListener("click", toggleRecord);
   }
   if (speakDarijaBtn) {
-    speakDarijaBtn.addEventListener("click", () => playBase64Audio(translatedAudioBase64));
+    speakDarijaBtn.addEventListener("click", () => translatedAudioClips.forEach(enqueueAudio));
   }
 }
 
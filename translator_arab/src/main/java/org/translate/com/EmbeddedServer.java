@@ -2,26 +2,205 @@ package org.translate.com;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
 
+import org.glassfish.grizzly.Connection;
+import org.glassfish.grizzly.ConnectionProbe;
 import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.server.NetworkListener;
+import org.glassfish.grizzly.http2.Http2AddOn;
+import org.glassfish.grizzly.http2.Http2Configuration;
+import org.glassfish.grizzly.ssl.SSLContextConfigurator;
+import org.glassfish.grizzly.ssl.SSLEngineConfigurator;
+import org.glassfish.grizzly.threadpool.ThreadPoolConfig;
 import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
 import org.glassfish.jersey.server.ResourceConfig;
 import org.translate.com.config.EnvConfig;
+import org.translate.com.config.ServerStats;
 import org.translate.com.config.TranslatorApplication;
+import org.translate.com.config.Tunables;
+import org.translate.com.config.WireFormats;
+import org.translate.com.dto.TranslationRequest;
+import org.translate.com.services.DocumentService;
+import org.translate.com.services.ImageService;
+import org.translate.com.services.LlmService;
+import org.translate.com.services.ServiceExecutors;
+import org.translate.com.services.TTSService;
+import org.translate.com.services.WhisperService;
+import org.translate.com.websocket.GrizzlySpeechStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 
 public class EmbeddedServer {
 
     public static void main(String[] args) throws IOException, InterruptedException {
         EnvConfig.loadDotEnv();
-        String baseUri = System.getProperty("translator.api.uri", "http://localhost:8080/");
+        Tunables.watchDotEnv();
+        warmUpInBackground();
+        SSLEngineConfigurator tls = tlsConfig();
+        String baseUri = System.getProperty("translator.api.uri",
+                (tls != null ? "https" : "http") + "://localhost:8080/");
         ResourceConfig config = new TranslatorApplication();
 
-        HttpServer server = GrizzlyHttpServerFactory.createHttpServer(URI.create(baseUri), config);
+        HttpServer server = GrizzlyHttpServerFactory.createHttpServer(URI.create(baseUri), config, tls != null, tls,
+                false);
+        ExecutorService virtualWorkers = virtualWorkers();
+        String workers = configureWorkers(server, virtualWorkers);
+        String protocols = configureHttp2(server, tls != null, virtualWorkers);
+        countConnections(server);
+        GrizzlySpeechStream.install(server, "/api");
         Runtime.getRuntime().addShutdownHook(new Thread(server::shutdownNow));
+        ServerStats.describe("grizzly", workers, protocols);
 
-        System.out.println("Translator API running on " + baseUri + " (Ctrl+C to stop)");
+        System.out.println("Translator API running on " + baseUri + " (" + protocols + ") with " + workers
+                + " (Ctrl+C to stop)");
         server.start();
         Thread.currentThread().join();
     }
+
+    /**
+     * Initializes the services' shared state (HTTP clients, caches) and the JSON, CBOR and Smile
+     * codecs on another thread while Jersey starts, instead of in the first requests. On by
+     * default with more than one CPU ({@code SERVER_WARMUP}); with one it only competes with
+     * the startup it should overlap. Everything here also happens lazily on first use.
+     */
+    private static void warmUpInBackground() {
+        if (!EnvConfig.getBoolean("SERVER_WARMUP", Runtime.getRuntime().availableProcessors() > 1)) {
+            return;
+        }
+        Thread warmUp = new Thread(() -> {
+            long started = System.nanoTime();
+            try {
+                ClassLoader loader = EmbeddedServer.class.getClassLoader();
+                for (Class<?> service : List.of(LlmService.class, TTSService.class, WhisperService.class,
+                        ImageService.class, DocumentService.class)) {
+                    Class.forName(service.getName(), true, loader);
+                }
+                new ObjectMapper().readValue(new ObjectMapper().writeValueAsBytes(new TranslationRequest("salam")),
+                        TranslationRequest.class);
+                WireFormats.initMappers();
+            } catch (Exception | LinkageError e) {
+                System.err.println("Warm-up failed: " + e);
+                return;
+            }
+            System.out.println("Warm-up done in " + (System.nanoTime() - started) / 1_000_000 + " ms");
+        }, "warm-up");
+        warmUp.setDaemon(true);
+        warmUp.start();
+    }
+
+    /**
+     * TLS from a key store ({@code SERVER_TLS_KEYSTORE}, PKCS12 by default), or null to serve
+     * plain HTTP. Browsers only speak HTTP/2 over TLS.
+     */
+    static SSLEngineConfigurator tlsConfig() {
+        String keyStore = EnvConfig.get("SERVER_TLS_KEYSTORE");
+        if (keyStore == null || keyStore.isBlank()) {
+            return null;
+        }
+        SSLContextConfigurator context = new SSLContextConfigurator();
+        context.setKeyStoreFile(keyStore);
+        context.setKeyStoreType(EnvConfig.getOrDefault("SERVER_TLS_KEYSTORE_TYPE", "PKCS12"));
+        String password = EnvConfig.getPreferringFile("SERVER_TLS_KEYSTORE_PASSWORD");
+        if (password != null) {
+            context.setKeyStorePass(password);
+        }
+        try {
+            return new SSLEngineConfigurator(context.createSSLContext(true), false, false, false);
+        } catch (SSLContextConfigurator.GenericStoreException ex) {
+            throw new IllegalStateException("Cannot load the TLS key store " + keyStore, ex);
+        }
+    }
+
+    /**
+     * One virtual thread per task when {@code SERVER_EXECUTION=virtual} and the runtime has
+     * them (Java 21+), otherwise null.
+     */
+    private static ExecutorService virtualWorkers() {
+        String mode = EnvConfig.getOrDefault("SERVER_EXECUTION", "pool").trim().toLowerCase(Locale.ROOT);
+        if ("virtual".equals(mode)) {
+            ExecutorService executor = ServiceExecutors.newVirtualThreadPerTaskExecutor("http");
+            if (executor == null) {
+                System.err.println("SERVER_EXECUTION=virtual needs Java 21 or later; using the worker pool");
+            }
+            return executor;
+        }
+        if (!"pool".equals(mode)) {
+            System.err.println("Unknown SERVER_EXECUTION '" + mode + "'; using the worker pool");
+        }
+        return null;
+    }
+
+    /**
+     * Chooses how requests are dispatched ({@code SERVER_EXECUTION}). {@code pool} keeps
+     * Grizzly's bounded worker pool, sized by {@code SERVER_WORKER_THREADS} when set.
+     * {@code virtual} runs every request on its own virtual thread, so a request waiting on
+     * an LLM, Whisper or TTS call no longer holds a platform thread; it needs Java 21, older
+     * runtimes fall back to the pool. Must run before the server is started.
+     */
+    static String configureWorkers(HttpServer server, ExecutorService virtualWorkers) {
+        if (virtualWorkers != null) {
+            for (NetworkListener listener : server.getListeners()) {
+                listener.getTransport().setWorkerThreadPool(virtualWorkers);
+            }
+            return "virtual-thread workers";
+        }
+
+        int threads = EnvConfig.getInt("SERVER_WORKER_THREADS", 0);
+        int size = 0;
+        for (NetworkListener listener : server.getListeners()) {
+            ThreadPoolConfig pool = listener.getTransport().getWorkerThreadPoolConfig();
+            if (threads > 0) {
+                pool.setCorePoolSize(threads).setMaxPoolSize(threads);
+            }
+            size = pool.getMaxPoolSize();
+        }
+        return "a pool of " + size + " worker threads";
+    }
+
+    /**
+     * With {@code SERVER_HTTP2=true}, accepts HTTP/2 next to HTTP/1.1: negotiated with ALPN
+     * (h2) over TLS, by Upgrade (h2c) in clear text. Many small parallel requests, as the
+     * extension sends, then share one connection instead of opening one each. HTTP/2 streams
+     * run on the same workers as HTTP/1.1 requests.
+     */
+    static String configureHttp2(HttpServer server, boolean secure, ExecutorService virtualWorkers) {
+        if (!EnvConfig.getBoolean("SERVER_HTTP2", false)) {
+            return "http/1.1";
+        }
+        Http2Configuration.Http2ConfigurationBuilder http2 = Http2Configuration.builder()
+                .enablePush(false)
+                .maxConcurrentStreams(Math.max(1, EnvConfig.getInt("SERVER_HTTP2_MAX_STREAMS", 100)));
+        if (virtualWorkers != null) {
+            http2.executorService(virtualWorkers);
+        }
+        for (NetworkListener listener : server.getListeners()) {
+            listener.registerAddOn(new Http2AddOn(http2.build()));
+        }
+        return secure ? "h2, http/1.1" : "h2c, http/1.1";
+    }
+
+    private static void countConnections(HttpServer server) {
+        // Grizzly declares the probe methods with the raw Connection type; an override
+        // cannot narrow them to Connection<?>.
+        ConnectionProbe probe = new ConnectionProbe.Adapter() {
+            @Override
+            @SuppressWarnings("rawtypes")
+            public void onAcceptEvent(Connection serverConnection, Connection clientConnection) {
+                ServerStats.connectionAccepted();
+            }
+
+            @Override
+            @SuppressWarnings("rawtypes")
+            public void onCloseEvent(Connection connection) {
+                ServerStats.connectionClosed();
+            }
+        };
+        for (NetworkListener listener : server.getListeners()) {
+            listener.getTransport().getConnectionMonitoringConfig().addProbes(probe);
+        }
+    }
 }
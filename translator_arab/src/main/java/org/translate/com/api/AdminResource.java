@@ -0,0 +1,86 @@
+package org.translate.com.api;
+
+import java.util.Map;
+
+import org.translate.com.config.Tunables;
+import org.translate.com.config.WireFormats;
+
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.PATCH;
+import jakarta.ws.rs.PUT;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.SecurityContext;
+
+/**
+ * Reads and changes the runtime settings in {@link Tunables}. Only for accounts listed in
+ * {@code ADMIN_USERS}; with authentication off nobody is an admin.
+ */
+@Path("/translator/admin/tunables")
+public class AdminResource {
+
+    @Context
+    private SecurityContext securityContext;
+
+    @GET
+    @Produces({ MediaType.APPLICATION_JSON, WireFormats.CBOR_OUT, WireFormats.SMILE_OUT })
+    public Response list() {
+        if (!isAdmin()) {
+            return forbidden();
+        }
+        return Response.ok(Tunables.snapshot()).build();
+    }
+
+    @PUT
+    @Path("/{key}")
+    @Consumes(MediaType.TEXT_PLAIN)
+    @Produces({ MediaType.APPLICATION_JSON, WireFormats.CBOR_OUT, WireFormats.SMILE_OUT })
+    public Response set(@PathParam("key") String key, String value) {
+        return update(Map.of(key, value == null ? "" : value));
+    }
+
+    /**
+     * Several settings at once, as a {@code {"KEY": "value"}} object: either all are applied
+     * or, when one is invalid, none.
+     */
+    @PATCH
+    @Consumes({ MediaType.APPLICATION_JSON, WireFormats.CBOR, WireFormats.SMILE })
+    @Produces({ MediaType.APPLICATION_JSON, WireFormats.CBOR_OUT, WireFormats.SMILE_OUT })
+    public Response setAll(Map<String, String> values) {
+        if (values == null || values.isEmpty()) {
+            return Response.status(Response.Status.BAD_REQUEST).entity("No settings given").build();
+        }
+        return update(values);
+    }
+
+    private Response update(Map<String, String> values) {
+        if (!isAdmin()) {
+            return forbidden();
+        }
+        try {
+            String admin = securityContext.getUserPrincipal().getName();
+            return Response.ok(Tunables.update(values, "admin:" + admin)).build();
+        } catch (IllegalArgumentException ex) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(ex.getMessage())
+                    .build();
+        }
+    }
+
+    private boolean isAdmin() {
+        return securityContext != null && securityContext.getUserPrincipal() != null
+                && securityContext.isUserInRole("admin");
+    }
+
+    private static Response forbidden() {
+        return Response.status(Response.Status.FORBIDDEN)
+                .type(MediaType.TEXT_PLAIN_TYPE)
+                .entity("Admin account required")
+                .build();
+    }
+}
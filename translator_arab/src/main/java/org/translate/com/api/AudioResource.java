@@ -0,0 +1,150 @@
+package org.translate.com.api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.translate.com.services.AudioAssetStore;
+import org.translate.com.services.TTSService;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+/**
+ * Serves audio published with {@code "audioDelivery": "url"}. The id is random and
+ * unguessable, so this path needs no credentials and works as an {@code <audio src>}.
+ * Supports single byte ranges for seeking, and a strong ETag plus an immutable
+ * Cache-Control, so replays are answered by the browser cache or with a 304.
+ */
+@Path("/translator/audio")
+public class AudioResource {
+
+    private static final String BYTES_PREFIX = "bytes=";
+
+    @GET
+    @Path("/{id}")
+    public Response audio(@PathParam("id") String id, @HeaderParam("Range") String range,
+            @HeaderParam("If-Range") String ifRange, @Context Request request) {
+        AudioAssetStore.Asset asset = TTSService.audioAsset(id);
+        if (asset == null) {
+            return Response.status(Response.Status.NOT_FOUND)
+                    .entity("Audio not found or expired")
+                    .build();
+        }
+
+        EntityTag etag = new EntityTag(asset.getId());
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setPrivate(true);
+        cacheControl.setMaxAge((int) Math.max(0, (asset.getExpiresAt() - System.currentTimeMillis()) / 1000));
+        cacheControl.getCacheExtension().put("immutable", null);
+
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+        if (notModified != null) {
+            return notModified.tag(etag).cacheControl(cacheControl).build();
+        }
+
+        long size = asset.getSize();
+        long start = 0;
+        long end = size - 1;
+        boolean partial = false;
+        // A stale If-Range (another version of the resource) asks for the whole file.
+        if (range != null && (ifRange == null || ifRange.trim().equals("\"" + asset.getId() + "\""))) {
+            long[] bounds = parseRange(range, size);
+            if (bounds == null) {
+                return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header("Content-Range", "bytes */" + size)
+                        .build();
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                partial = true;
+            }
+        }
+
+        long offset = start;
+        long length = end - start + 1;
+        StreamingOutput body = out -> transfer(asset, offset, length, out);
+        Response.ResponseBuilder response = (partial ? Response.status(Response.Status.PARTIAL_CONTENT) : Response.ok())
+                .entity(body)
+                .type(asset.getMediaType())
+                .tag(etag)
+                .cacheControl(cacheControl)
+                .header("Accept-Ranges", "bytes")
+                .header(HttpHeaders.CONTENT_LENGTH, length);
+        if (partial) {
+            response.header("Content-Range", "bytes " + start + "-" + end + "/" + size);
+        }
+        return response.build();
+    }
+
+    /**
+     * Copies the byte range with {@link FileChannel#transferTo}: the file is never loaded
+     * into the heap, whatever its size.
+     */
+    private static void transfer(AudioAssetStore.Asset asset, long offset, long length, OutputStream out)
+            throws IOException {
+        try (FileChannel file = FileChannel.open(asset.getFile(), StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = offset;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = file.transferTo(position, remaining, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    /**
+     * {@code [start, end]} for a single satisfiable range, an empty array to serve the
+     * whole file (malformed or multiple ranges, which a server may ignore), or null when
+     * the range lies past the end of the file.
+     */
+    private static long[] parseRange(String header, long size) {
+        String value = header.trim();
+        if (!value.startsWith(BYTES_PREFIX) || value.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String spec = value.substring(BYTES_PREFIX.length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // Suffix range: the last N bytes.
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return null;
+                }
+                return new long[] { Math.max(0, size - suffix), size - 1 };
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            if (start >= size) {
+                return null;
+            }
+            return end < start ? new long[0] : new long[] { start, end };
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package org.translate.com.api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.glassfish.jersey.server.ChunkedOutput;
+import org.translate.com.services.AudioStream;
+import org.translate.com.services.ServiceExecutors;
+
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+/**
+ * Binary audio responses. Audio of known length is written as a plain entity with its
+ * Content-Length. Otherwise it goes out as a {@link ChunkedOutput}, which Jersey sends
+ * piece by piece instead of buffering the first 8 KB to size the response. Either way the
+ * upstream stream is released if the container has not started writing the response within
+ * {@value #UNWRITTEN_TIMEOUT_SECONDS} seconds (an error after the entity was built, a client
+ * that is already gone).
+ */
+final class AudioResponses {
+
+    private static final long UNWRITTEN_TIMEOUT_SECONDS = 30;
+
+    private AudioResponses() {
+    }
+
+    static Response.ResponseBuilder ok(AudioStream audio) {
+        Response.ResponseBuilder response;
+        if (audio.getLength() >= 0) {
+            response = Response.ok(new AudioEntity(audio), audio.getMediaType())
+                    .header(HttpHeaders.CONTENT_LENGTH, audio.getLength());
+        } else {
+            response = Response.ok(new AudioOutput(audio), audio.getMediaType());
+        }
+        return response.header("X-Audio-Source", audio.getSource());
+    }
+
+    /**
+     * Closes {@code audio} unless {@code started} is set first.
+     */
+    private static ScheduledFuture<?> releaseIfUnwritten(AudioStream audio, AtomicBoolean started) {
+        return ServiceExecutors.timers().schedule(() -> {
+            if (started.compareAndSet(false, true)) {
+                closeQuietly(audio);
+            }
+        }, UNWRITTEN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static final class AudioEntity implements StreamingOutput {
+        private final AudioStream audio;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final ScheduledFuture<?> expiry;
+
+        AudioEntity(AudioStream audio) {
+            this.audio = audio;
+            this.expiry = releaseIfUnwritten(audio, started);
+        }
+
+        @Override
+        public void write(OutputStream output) throws IOException {
+            if (!started.compareAndSet(false, true)) {
+                throw new IOException("Audio stream was released before the response was written");
+            }
+            expiry.cancel(false);
+            audio.transferTo(output);
+        }
+    }
+
+    /**
+     * Starts copying once the container attaches to the response, so nothing piles up in the
+     * chunk queue before there is a client to send it to. The copy is paced by the client, so
+     * it runs on {@link ServiceExecutors#audioOut()} and never holds an upstream slot.
+     */
+    private static final class AudioOutput extends ChunkedOutput<byte[]> {
+        private final AudioStream audio;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final ScheduledFuture<?> expiry;
+
+        AudioOutput(AudioStream audio) {
+            super(byte[].class);
+            this.audio = audio;
+            this.expiry = releaseIfUnwritten(audio, started);
+        }
+
+        @Override
+        protected void flushQueue() throws IOException {
+            // Until the copy starts, the only caller is the container attaching (or close()).
+            if (!isClosed() && started.compareAndSet(false, true)) {
+                expiry.cancel(false);
+                try {
+                    ServiceExecutors.audioOut().execute(() -> pump(audio, this));
+                } catch (RejectedExecutionException e) {
+                    closeQuietly(audio);
+                    throw new IOException("Audio output is shutting down", e);
+                }
+            }
+            super.flushQueue();
+        }
+    }
+
+    private static void pump(AudioStream audio, ChunkedOutput<byte[]> chunks) {
+        OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] { (byte) b }, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                chunks.write(Arrays.copyOfRange(b, off, off + len));
+            }
+        };
+        try {
+            audio.transferTo(out);
+        } catch (IOException e) {
+            // Client went away or the backend broke off: the response simply ends early.
+            System.err.println("Audio stream interrupted: " + e.getMessage());
+        } finally {
+            try {
+                chunks.close();
+            } catch (IOException ignored) {
+                // already closed by the container
+            }
+        }
+    }
+
+    private static void closeQuietly(AudioStream audio) {
+        try {
+            audio.close();
+        } catch (IOException ignored) {
+            // Best-effort release of the upstream connection.
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.translate.com.api;
+
+import java.util.Map;
+
+import org.translate.com.config.WireFormats;
+import org.translate.com.dto.DocumentTranslationRequest;
+import org.translate.com.dto.DocumentTranslationResponse;
+import org.translate.com.services.DocumentService;
+
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+
+@Path("/translator/document")
+public class DocumentResource {
+
+    private final DocumentService documentService = new DocumentService();
+
+    @POST
+    @Path("/translate")
+    @Consumes({ MediaType.APPLICATION_JSON, WireFormats.CBOR, WireFormats.SMILE })
+    @Produces({ MediaType.APPLICATION_JSON, WireFormats.CBOR_OUT, WireFormats.SMILE_OUT })
+    public Response translateDocument(DocumentTranslationRequest request) {
+        try {
+            DocumentTranslationResponse translated = documentService.translate(request);
+            return Response.ok(translated).build();
+        } catch (IllegalArgumentException ex) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(ex.getMessage())
+                    .build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Error while processing document translation: " + e.getMessage())
+                    .build();
+        }
+    }
+
+    /**
+     * Same as {@link #translateDocument} but emits one {@code page} event per page as soon as
+     * it is translated (pages may arrive out of order), then a final {@code done} event.
+     */
+    @POST
+    @Path("/translate/stream")
+    @Consumes({ MediaType.APPLICATION_JSON, WireFormats.CBOR, WireFormats.SMILE })
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void translateDocumentStream(DocumentTranslationRequest request,
+            @Context SseEventSink sink, @Context Sse sse) {
+        try (SseEventSink events = sink) {
+            try {
+                int pageCount = documentService.translate(request, page -> SseEvents.send(events, sse, "page", page));
+                SseEvents.send(events, sse, "done", Map.of("pageCount", pageCount));
+            } catch (IllegalArgumentException ex) {
+                SseEvents.send(events, sse, "error", Map.of("status", 400, "message", String.valueOf(ex.getMessage())));
+            } catch (Exception e) {
+                e.printStackTrace();
+                SseEvents.send(events, sse, "error", Map.of("status", 500,
+                        "message", "Error while processing document translation: " + e.getMessage()));
+            }
+        }
+    }
+}
@@ -1,36 +1,151 @@
 package org.translate.com.api;
 
+import org.translate.com.config.RequestSizeFilter;
+import org.translate.com.config.RequestSizeFilter.PayloadTooLargeException;
+import org.translate.com.config.WireFormats;
 import org.translate.com.dto.ReadAloudRequest;
 import org.translate.com.dto.ReadAloudResponse;
+import org.translate.com.dto.SpeechSentence;
 import org.translate.com.dto.SpeechTranslationRequest;
 import org.translate.com.dto.SpeechTranslationResponse;
+import org.translate.com.security.StreamTokens;
 import org.translate.com.services.WhisperBasedSpeechService;
+import org.translate.com.services.WhisperBasedSpeechService.SentenceListener;
+import org.translate.com.services.WhisperBasedSpeechService.SpokenTranslation;
+import org.translate.com.websocket.SpeechStreamSession;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.Map;
+
+import org.glassfish.jersey.media.multipart.FormDataBodyPart;
+import org.glassfish.jersey.media.multipart.FormDataParam;
 
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.SecurityContext;
+import jakarta.ws.rs.core.UriInfo;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
 
 @Path("/translator")
 public class SpeechResource {
 
+    // Offered below JSON so that clients sending */* keep getting JSON.
+    private static final String AUDIO_MPEG = "audio/mpeg;qs=0.5";
+    private static final String AUDIO_WAV = "audio/wav;qs=0.5";
+    private static final int MAX_HEADER_TEXT = 1024;
+
     private final WhisperBasedSpeechService speechService = new WhisperBasedSpeechService();
 
+    @Context
+    private HttpHeaders headers;
+
+    @Context
+    private UriInfo uriInfo;
+
+    @Context
+    private SecurityContext securityContext;
+
+    /**
+     * Returns JSON with the speech as base64 by default; CBOR and Smile carry it as raw bytes.
+     * With {@code Accept: audio/*} the body is the speech itself, streamed from the TTS
+     * backend, and the transcript and translation come back in the {@code X-Transcript} /
+     * {@code X-Translation} headers (percent-encoded UTF-8). The same applies to every variant below and to read-aloud.
+     */
     @POST
     @Path("/speech/translate")
-    @Consumes(MediaType.APPLICATION_JSON)
-    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes({ MediaType.APPLICATION_JSON, WireFormats.CBOR, WireFormats.SMILE })
+    @Produces({ MediaType.APPLICATION_JSON, WireFormats.CBOR_OUT, WireFormats.SMILE_OUT, AUDIO_MPEG, AUDIO_WAV })
     public Response translateSpeech(SpeechTranslationRequest request) {
         try {
+            if (wantsAudio()) {
+                return spokenResponse(speechService.voiceToVoiceAudio(request));
+            }
             SpeechTranslationResponse translated = speechService.voiceToVoice(request);
+            translated.setTranslatedAudioUrl(absolute(uriInfo.getBaseUri(), translated.getTranslatedAudioUrl()));
+            return Response.ok(translated).build();
+        } catch (IllegalArgumentException ex) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(ex.getMessage())
+                    .build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+                    .entity("Error while processing speech translation: " + e.getMessage())
+                    .build();
+        }
+    }
+
+    /**
+     * multipart/form-data variant: the recording goes in the {@code audio} part, the options in
+     * form fields. The part is streamed to Whisper without a base64 round trip.
+     */
+    @POST
+    @Path("/speech/translate")
+    @Consumes(MediaType.MULTIPART_FORM_DATA)
+    @Produces({ MediaType.APPLICATION_JSON, WireFormats.CBOR_OUT, WireFormats.SMILE_OUT, AUDIO_MPEG, AUDIO_WAV })
+    public Response translateSpeechUpload(@FormDataParam("audio") FormDataBodyPart audio,
+            @FormDataParam("sourceLanguage") String sourceLanguage,
+            @FormDataParam("targetLanguage") String targetLanguage,
+            @FormDataParam("voice") String voice,
+            @FormDataParam("audioDelivery") String audioDelivery) {
+        if (audio == null) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("audio part is required")
+                    .build();
+        }
+        return translateSpeechStream(audio.getValueAs(InputStream.class),
+                speechOptions(audio.getMediaType().toString(), sourceLanguage, targetLanguage, voice, audioDelivery));
+    }
+
+    /**
+     * Raw body variant: the request body is the recording, its type comes from Content-Type
+     * and the options from the query string.
+     */
+    @POST
+    @Path("/speech/translate")
+    @Consumes({ MediaType.APPLICATION_OCTET_STREAM, "audio/*" })
+    @Produces({ MediaType.APPLICATION_JSON, WireFormats.CBOR_OUT, WireFormats.SMILE_OUT, AUDIO_MPEG, AUDIO_WAV })
+    public Response translateSpeechBinary(InputStream body,
+            @HeaderParam(HttpHeaders.CONTENT_TYPE) String contentType,
+            @QueryParam("sourceLanguage") String sourceLanguage,
+            @QueryParam("targetLanguage") String targetLanguage,
+            @QueryParam("voice") String voice,
+            @QueryParam("audioDelivery") String audioDelivery) {
+        return translateSpeechStream(body,
+                speechOptions(contentType, sourceLanguage, targetLanguage, voice, audioDelivery));
+    }
+
+    private Response translateSpeechStream(InputStream body, SpeechTranslationRequest options) {
+        try (InputStream audio = body) {
+            if (wantsAudio()) {
+                return spokenResponse(speechService.voiceToVoiceAudio(audio, options));
+            }
+            SpeechTranslationResponse translated = speechService.voiceToVoice(audio, options);
+            translated.setTranslatedAudioUrl(absolute(uriInfo.getBaseUri(), translated.getTranslatedAudioUrl()));
             return Response.ok(translated).build();
         } catch (IllegalArgumentException ex) {
             return Response.status(Response.Status.BAD_REQUEST)
                     .entity(ex.getMessage())
                     .build();
         } catch (Exception e) {
+            PayloadTooLargeException tooLarge = RequestSizeFilter.findTooLarge(e);
+            if (tooLarge != null) {
+                return RequestSizeFilter.tooLarge(tooLarge.getLimit());
+            }
             e.printStackTrace();
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
                     .entity("Error while processing speech translation: " + e.getMessage())
@@ -38,13 +153,133 @@ public class SpeechResource {
         }
     }
 
+    private SpeechTranslationRequest speechOptions(String mimeType, String sourceLanguage, String targetLanguage,
+            String voice, String audioDelivery) {
+        SpeechTranslationRequest options = new SpeechTranslationRequest();
+        options.setAudioMimeType(mimeType);
+        if (sourceLanguage != null && !sourceLanguage.isBlank()) {
+            options.setSourceLanguage(sourceLanguage);
+        }
+        if (targetLanguage != null && !targetLanguage.isBlank()) {
+            options.setTargetLanguage(targetLanguage);
+        }
+        if (voice != null && !voice.isBlank()) {
+            options.setVoice(voice);
+        }
+        if (audioDelivery != null && !audioDelivery.isBlank()) {
+            options.setAudioDelivery(audioDelivery);
+        }
+        return options;
+    }
+
+    /**
+     * Pipelined variant of {@link #translateSpeech}: emits a {@code transcript} event, then one
+     * {@code sentence} event per sentence (in order, with its translation and audio) as soon as
+     * it is synthesized, then {@code done}.
+     */
+    @POST
+    @Path("/speech/translate/stream")
+    @Consumes({ MediaType.APPLICATION_JSON, WireFormats.CBOR, WireFormats.SMILE })
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void translateSpeechStream(SpeechTranslationRequest request,
+            @Context SseEventSink sink, @Context Sse sse) {
+        try (SseEventSink events = sink) {
+            try {
+                int count = speechService.voiceToVoiceStreaming(request,
+                        sentenceEvents(events, sse, uriInfo.getBaseUri()));
+                SseEvents.send(events, sse, "done", Map.of("sentences", count));
+            } catch (IllegalArgumentException ex) {
+                SseEvents.send(events, sse, "error", Map.of("status", 400, "message", String.valueOf(ex.getMessage())));
+            } catch (Exception e) {
+                e.printStackTrace();
+                SseEvents.send(events, sse, "error", Map.of("status", 500,
+                        "message", "Error while processing speech translation: " + e.getMessage()));
+            }
+        }
+    }
+
+    @POST
+    @Path("/speech/translate/stream")
+    @Consumes(MediaType.MULTIPART_FORM_DATA)
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void translateSpeechUploadStream(@FormDataParam("audio") FormDataBodyPart audio,
+            @FormDataParam("sourceLanguage") String sourceLanguage,
+            @FormDataParam("targetLanguage") String targetLanguage,
+            @FormDataParam("voice") String voice,
+            @FormDataParam("audioDelivery") String audioDelivery,
+            @Context SseEventSink sink, @Context Sse sse) {
+        try (SseEventSink events = sink) {
+            if (audio == null) {
+                SseEvents.send(events, sse, "error", Map.of("status", 400, "message", "audio part is required"));
+                return;
+            }
+            try (InputStream input = audio.getValueAs(InputStream.class)) {
+                SpeechTranslationRequest options = speechOptions(audio.getMediaType().toString(), sourceLanguage,
+                        targetLanguage, voice, audioDelivery);
+                int count = speechService.voiceToVoiceStreaming(input, options,
+                        sentenceEvents(events, sse, uriInfo.getBaseUri()));
+                SseEvents.send(events, sse, "done", Map.of("sentences", count));
+            } catch (IllegalArgumentException ex) {
+                SseEvents.send(events, sse, "error", Map.of("status", 400, "message", String.valueOf(ex.getMessage())));
+            } catch (Exception e) {
+                PayloadTooLargeException tooLarge = RequestSizeFilter.findTooLarge(e);
+                if (tooLarge != null) {
+                    SseEvents.send(events, sse, "error", Map.of("status", 413,
+                            "message", RequestSizeFilter.tooLargeMessage(tooLarge.getLimit())));
+                    return;
+                }
+                e.printStackTrace();
+                SseEvents.send(events, sse, "error", Map.of("status", 500,
+                        "message", "Error while processing speech translation: " + e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * {@code base} is resolved up front: sentences arrive on worker threads, outside the request scope.
+     */
+    private SentenceListener sentenceEvents(SseEventSink events, Sse sse, URI base) {
+        return new SentenceListener() {
+            @Override
+            public void onTranscript(String transcript, int sentenceCount) {
+                SseEvents.send(events, sse, "transcript",
+                        Map.of("transcript", transcript == null ? "" : transcript, "sentences", sentenceCount));
+            }
+
+            @Override
+            public void onSentence(SpeechSentence sentence) {
+                sentence.setAudioUrl(absolute(base, sentence.getAudioUrl()));
+                SseEvents.send(events, sse, "sentence", sentence);
+            }
+        };
+    }
+
+    /**
+     * Single-use token for opening the speech WebSocket from a browser, which cannot send the
+     * Authorization header there: pass it as {@code ?token=} on the handshake before it expires.
+     */
+    @POST
+    @Path("/speech/stream/token")
+    @Produces({ MediaType.APPLICATION_JSON, WireFormats.CBOR_OUT, WireFormats.SMILE_OUT })
+    public Response streamToken() {
+        Principal principal = securityContext == null ? null : securityContext.getUserPrincipal();
+        String token = StreamTokens.issue(principal == null ? SpeechStreamSession.ANONYMOUS : principal.getName());
+        return Response.ok(Map.of("token", token, "expiresInSeconds", StreamTokens.ttlSeconds()))
+                .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                .build();
+    }
+
     @POST
     @Path("/read-aloud")
-    @Consumes(MediaType.APPLICATION_JSON)
-    @Produces(MediaType.APPLICATION_JSON)
+    @Consumes({ MediaType.APPLICATION_JSON, WireFormats.CBOR, WireFormats.SMILE })
+    @Produces({ MediaType.APPLICATION_JSON, WireFormats.CBOR_OUT, WireFormats.SMILE_OUT, AUDIO_MPEG, AUDIO_WAV })
     public Response readAloud(ReadAloudRequest request) {
         try {
+            if (wantsAudio()) {
+                return AudioResponses.ok(speechService.readAloudAudio(request)).build();
+            }
             ReadAloudResponse audio = speechService.readAloud(request);
+            audio.setAudioUrl(absolute(uriInfo.getBaseUri(), audio.getAudioUrl()));
             return Response.ok(audio).build();
         } catch (IllegalArgumentException ex) {
             return Response.status(Response.Status.BAD_REQUEST)
@@ -57,4 +292,92 @@ public class SpeechResource {
                     .build();
         }
     }
+
+    @POST
+    @Path("/read-aloud")
+    @Consumes(MediaType.MULTIPART_FORM_DATA)
+    @Produces({ MediaType.APPLICATION_JSON, WireFormats.CBOR_OUT, WireFormats.SMILE_OUT, AUDIO_MPEG, AUDIO_WAV })
+    public Response readAloudUpload(@FormDataParam("text") String text, @FormDataParam("voice") String voice,
+            @FormDataParam("audioDelivery") String audioDelivery) {
+        return readAloud(readAloudOptions(text, voice, audioDelivery));
+    }
+
+    /**
+     * Raw body variant: the body is the UTF-8 text to read, the voice comes from the query string.
+     */
+    @POST
+    @Path("/read-aloud")
+    @Consumes({ MediaType.TEXT_PLAIN, MediaType.APPLICATION_OCTET_STREAM })
+    @Produces({ MediaType.APPLICATION_JSON, WireFormats.CBOR_OUT, WireFormats.SMILE_OUT, AUDIO_MPEG, AUDIO_WAV })
+    public Response readAloudBinary(InputStream body, @QueryParam("voice") String voice,
+            @QueryParam("audioDelivery") String audioDelivery) {
+        try (InputStream input = body) {
+            return readAloud(readAloudOptions(new String(input.readAllBytes(), StandardCharsets.UTF_8), voice,
+                    audioDelivery));
+        } catch (PayloadTooLargeException e) {
+            return RequestSizeFilter.tooLarge(e.getLimit());
+        } catch (IOException e) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity("Unable to read request body: " + e.getMessage())
+                    .build();
+        }
+    }
+
+    private ReadAloudRequest readAloudOptions(String text, String voice, String audioDelivery) {
+        ReadAloudRequest request = new ReadAloudRequest();
+        request.setText(text);
+        if (voice != null && !voice.isBlank()) {
+            request.setVoice(voice);
+        }
+        if (audioDelivery != null && !audioDelivery.isBlank()) {
+            request.setAudioDelivery(audioDelivery);
+        }
+        return request;
+    }
+
+    /**
+     * Published audio comes back from the service as a path under the API root.
+     */
+    private static String absolute(URI base, String path) {
+        return path == null ? null : base.resolve(path).toString();
+    }
+
+    /**
+     * True when the client ranks audio above JSON; a bare {@code *}/{@code *} means JSON.
+     */
+    private boolean wantsAudio() {
+        for (MediaType type : headers.getAcceptableMediaTypes()) {
+            if (type.isWildcardType()) {
+                return false;
+            }
+            if ("audio".equalsIgnoreCase(type.getType())) {
+                return true;
+            }
+            if (type.isCompatible(MediaType.APPLICATION_JSON_TYPE) || WireFormats.isBinary(type)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private Response spokenResponse(SpokenTranslation spoken) {
+        return AudioResponses.ok(spoken.getAudio())
+                .header("X-Transcript", headerText(spoken.getTranscript()))
+                .header("X-Translation", headerText(spoken.getTranslation()))
+                .build();
+    }
+
+    /**
+     * Headers are ASCII and bounded in practice; long texts are cut, the JSON mode has them in full.
+     */
+    private static String headerText(String text) {
+        if (text == null) {
+            return "";
+        }
+        if (text.length() > MAX_HEADER_TEXT) {
+            int end = Character.isHighSurrogate(text.charAt(MAX_HEADER_TEXT - 1)) ? MAX_HEADER_TEXT - 1 : MAX_HEADER_TEXT;
+            text = text.substring(0, end);
+        }
+        return URLEncoder.encode(text, StandardCharsets.UTF_8).replace("+", "%20");
+    }
 }
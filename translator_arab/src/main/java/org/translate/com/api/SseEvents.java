@@ -0,0 +1,27 @@
+package org.translate.com.api;
+
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+
+/**
+ * Sends named JSON events; safe to call from worker threads that complete concurrently.
+ */
+final class SseEvents {
+
+    private SseEvents() {
+    }
+
+    static void send(SseEventSink sink, Sse sse, String name, Object data) {
+        synchronized (sink) {
+            if (sink.isClosed()) {
+                return;
+            }
+            sink.send(sse.newEventBuilder()
+                    .name(name)
+                    .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                    .data(data.getClass(), data)
+                    .build());
+        }
+    }
+}
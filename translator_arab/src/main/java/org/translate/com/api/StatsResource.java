@@ -0,0 +1,40 @@
+package org.translate.com.api;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.translate.com.config.ServerStats;
+import org.translate.com.config.WireFormats;
+import org.translate.com.security.UserQuotas;
+import org.translate.com.services.ImageService;
+import org.translate.com.services.LlmService;
+import org.translate.com.services.ResultCaches;
+import org.translate.com.services.TTSService;
+import org.translate.com.services.WhisperService;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+@Path("/translator/stats")
+public class StatsResource {
+
+    @GET
+    @Produces({ MediaType.APPLICATION_JSON, WireFormats.CBOR_OUT, WireFormats.SMILE_OUT })
+    public Response stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ocrCache", ImageService.ocrCacheStats());
+        stats.put("ocrEngines", ImageService.ocrEngineStats());
+        stats.put("transcription", WhisperService.transcriptionStats());
+        stats.put("ttsCache", TTSService.audioCacheStats());
+        stats.put("ttsBackends", TTSService.backendStats());
+        stats.put("audioAssets", TTSService.audioAssetStats());
+        stats.put("translationCache", LlmService.translationCacheStats());
+        stats.put("sharedCache", ResultCaches.stats());
+        stats.put("server", ServerStats.snapshot());
+        stats.put("quotas", UserQuotas.stats());
+        return Response.ok(stats).build();
+    }
+}
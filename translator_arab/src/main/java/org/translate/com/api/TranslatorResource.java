@@ -1,5 +1,8 @@
 package org.translate.com.api;
 
+import org.translate.com.config.RequestSizeFilter;
+import org.translate.com.config.RequestSizeFilter.PayloadTooLargeException;
+import org.translate.com.config.WireFormats;
 import org.translate.com.dto.TranslationRequest;
 import org.translate.com.dto.TranslationResponse;
 import org.translate.com.services.LlmService;
@@ -7,11 +10,19 @@ import org.translate.com.dto.ImageTranslationRequest;
 import org.translate.com.dto.ImageTranslationResponse;
 import org.translate.com.services.ImageService;
 
+import java.io.InputStream;
+
+import org.glassfish.jersey.media.multipart.FormDataBodyPart;
+import org.glassfish.jersey.media.multipart.FormDataParam;
+
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 
@@ -23,8 +34,8 @@ public class TranslatorResource {
 
 	@POST
 	@Path("/translate")
-	@Consumes(MediaType.APPLICATION_JSON)
-	@Produces(MediaType.APPLICATION_JSON)
+	@Consumes({ MediaType.APPLICATION_JSON, WireFormats.CBOR, WireFormats.SMILE })
+	@Produces({ MediaType.APPLICATION_JSON, WireFormats.CBOR_OUT, WireFormats.SMILE_OUT })
 	public Response translate(TranslationRequest request) {
 
 		if (request == null || request.getText() == null || request.getText().isBlank()) {
@@ -50,8 +61,8 @@ public class TranslatorResource {
 
 	@POST
 	@Path("/image/translate")
-	@Consumes(MediaType.APPLICATION_JSON)
-	@Produces(MediaType.APPLICATION_JSON)
+	@Consumes({ MediaType.APPLICATION_JSON, WireFormats.CBOR, WireFormats.SMILE })
+	@Produces({ MediaType.APPLICATION_JSON, WireFormats.CBOR_OUT, WireFormats.SMILE_OUT })
 	public Response translateImage(ImageTranslationRequest request) {
 		try {
 			ImageTranslationResponse translated = imageService.translate(request);
@@ -68,6 +79,90 @@ public class TranslatorResource {
 		}
 	}
 
+	/**
+	 * multipart/form-data variant: the file goes in the {@code image} part, the options in
+	 * plain form fields named like the JSON properties.
+	 */
+	@POST
+	@Path("/image/translate")
+	@Consumes(MediaType.MULTIPART_FORM_DATA)
+	@Produces({ MediaType.APPLICATION_JSON, WireFormats.CBOR_OUT, WireFormats.SMILE_OUT })
+	public Response translateImageUpload(@FormDataParam("image") FormDataBodyPart image,
+			@FormDataParam("sourceLanguage") String sourceLanguage,
+			@FormDataParam("targetLanguage") String targetLanguage,
+			@FormDataParam("cropX") Integer cropX,
+			@FormDataParam("cropY") Integer cropY,
+			@FormDataParam("cropWidth") Integer cropWidth,
+			@FormDataParam("cropHeight") Integer cropHeight,
+			@FormDataParam("blockTranslation") boolean blockTranslation) {
+		if (image == null) {
+			return Response.status(Response.Status.BAD_REQUEST)
+					.entity("image part is required")
+					.build();
+		}
+		return translateImageBytes(image.getValueAs(InputStream.class), image.getMediaType().toString(),
+				imageOptions(sourceLanguage, targetLanguage, cropX, cropY, cropWidth, cropHeight, blockTranslation));
+	}
+
+	/**
+	 * Raw body variant: the request body is the image itself, its type comes from Content-Type
+	 * and the options from the query string.
+	 */
+	@POST
+	@Path("/image/translate")
+	@Consumes({ MediaType.APPLICATION_OCTET_STREAM, "image/*" })
+	@Produces({ MediaType.APPLICATION_JSON, WireFormats.CBOR_OUT, WireFormats.SMILE_OUT })
+	public Response translateImageBinary(InputStream body,
+			@HeaderParam(HttpHeaders.CONTENT_TYPE) String contentType,
+			@QueryParam("sourceLanguage") String sourceLanguage,
+			@QueryParam("targetLanguage") String targetLanguage,
+			@QueryParam("cropX") Integer cropX,
+			@QueryParam("cropY") Integer cropY,
+			@QueryParam("cropWidth") Integer cropWidth,
+			@QueryParam("cropHeight") Integer cropHeight,
+			@QueryParam("blockTranslation") boolean blockTranslation) {
+		return translateImageBytes(body, contentType,
+				imageOptions(sourceLanguage, targetLanguage, cropX, cropY, cropWidth, cropHeight, blockTranslation));
+	}
+
+	private Response translateImageBytes(InputStream body, String mimeType, ImageTranslationRequest options) {
+		try (InputStream input = body) {
+			// OCR needs the whole image (hashing, decoding), so this is the single in-heap copy.
+			ImageTranslationResponse translated = imageService.translate(input.readAllBytes(), mimeType, options);
+			return Response.ok(translated).build();
+		} catch (IllegalArgumentException ex) {
+			return Response.status(Response.Status.BAD_REQUEST)
+					.entity(ex.getMessage())
+					.build();
+		} catch (Exception e) {
+			PayloadTooLargeException tooLarge = RequestSizeFilter.findTooLarge(e);
+			if (tooLarge != null) {
+				return RequestSizeFilter.tooLarge(tooLarge.getLimit());
+			}
+			e.printStackTrace();
+			return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
+					.entity("Error while processing image translation: " + e.getMessage())
+					.build();
+		}
+	}
+
+	private ImageTranslationRequest imageOptions(String sourceLanguage, String targetLanguage, Integer cropX,
+			Integer cropY, Integer cropWidth, Integer cropHeight, boolean blockTranslation) {
+		ImageTranslationRequest options = new ImageTranslationRequest();
+		if (sourceLanguage != null && !sourceLanguage.isBlank()) {
+			options.setSourceLanguage(sourceLanguage);
+		}
+		if (targetLanguage != null && !targetLanguage.isBlank()) {
+			options.setTargetLanguage(targetLanguage);
+		}
+		options.setCropX(cropX);
+		options.setCropY(cropY);
+		options.setCropWidth(cropWidth);
+		options.setCropHeight(cropHeight);
+		options.setBlockTranslation(blockTranslation);
+		return options;
+	}
+
 	@GET
 	@Path("/ping")
 	public Response ping() {
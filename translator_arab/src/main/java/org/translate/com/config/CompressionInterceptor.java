@@ -0,0 +1,270 @@
+package org.translate.com.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import jakarta.annotation.Priority;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+
+/**
+ * gzip/deflate response compression, negotiated from Accept-Encoding. Only media types in
+ * {@code COMPRESSION_MIME_TYPES} are candidates (JSON and text by default; audio is already
+ * compressed and event streams must not be buffered). The first {@code COMPRESSION_MIN_BYTES}
+ * of a body are held back: a body that ends sooner goes out as is, since compressing a few
+ * hundred bytes costs more than it saves.
+ */
+@Provider
+@Priority(Priorities.ENTITY_CODER)
+public class CompressionInterceptor implements WriterInterceptor {
+
+    static final String GZIP = "gzip";
+    static final String DEFLATE = "deflate";
+
+    private static final boolean ENABLED = EnvConfig.getBoolean("COMPRESSION_ENABLED", true);
+    private static final int MIN_BYTES = Math.max(0, EnvConfig.getInt("COMPRESSION_MIN_BYTES", 1024));
+    private static final int LEVEL = Math.max(1, Math.min(9, EnvConfig.getInt("COMPRESSION_LEVEL", 6)));
+    private static final List<String> MIME_TYPES = parseMimeTypes(EnvConfig.getOrDefault("COMPRESSION_MIME_TYPES",
+            "application/json,text/plain,text/html,text/css,application/javascript"));
+
+    private static final AtomicLong COMPRESSED = new AtomicLong();
+    private static final AtomicLong BELOW_THRESHOLD = new AtomicLong();
+    private static final AtomicLong BYTES_IN = new AtomicLong();
+    private static final AtomicLong BYTES_OUT = new AtomicLong();
+
+    @Context
+    private HttpHeaders requestHeaders;
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+        MultivaluedMap<String, Object> headers = context.getHeaders();
+        if (!ENABLED || !compressible(context.getMediaType()) || headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            context.proceed();
+            return;
+        }
+        // Caches must not hand a compressed body to a client that did not ask for one.
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        String encoding = negotiate(requestHeaders.getHeaderString(HttpHeaders.ACCEPT_ENCODING));
+        if (encoding == null) {
+            context.proceed();
+            return;
+        }
+        ThresholdStream body = new ThresholdStream(context.getOutputStream(), headers, encoding);
+        context.setOutputStream(body);
+        context.proceed();
+        body.finish();
+    }
+
+    private static boolean compressible(MediaType mediaType) {
+        if (mediaType == null) {
+            return false;
+        }
+        String type = mediaType.getType().toLowerCase(Locale.ROOT);
+        String full = type + "/" + mediaType.getSubtype().toLowerCase(Locale.ROOT);
+        return MIME_TYPES.contains(full) || MIME_TYPES.contains(type + "/*");
+    }
+
+    private static List<String> parseMimeTypes(String value) {
+        List<String> types = new ArrayList<>();
+        for (String type : value.split(",")) {
+            if (!type.isBlank()) {
+                types.add(type.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return Collections.unmodifiableList(types);
+    }
+
+    /**
+     * The accepted coding with the highest q-value, gzip on ties; null for none.
+     */
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        // -1: not listed, so "*" decides.
+        double gzip = -1;
+        double deflate = -1;
+        double any = 0;
+        for (String part : acceptEncoding.split(",")) {
+            String[] fields = part.trim().split(";");
+            String coding = fields[0].trim().toLowerCase(Locale.ROOT);
+            double q = 1;
+            for (int i = 1; i < fields.length; i++) {
+                String param = fields[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            if (GZIP.equals(coding) || "x-gzip".equals(coding)) {
+                gzip = q;
+            } else if (DEFLATE.equals(coding)) {
+                deflate = q;
+            } else if ("*".equals(coding)) {
+                any = q;
+            }
+        }
+        gzip = gzip < 0 ? any : gzip;
+        deflate = deflate < 0 ? any : deflate;
+        if (gzip <= 0 && deflate <= 0) {
+            return null;
+        }
+        return gzip >= deflate ? GZIP : DEFLATE;
+    }
+
+    public static Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", ENABLED);
+        stats.put("minBytes", MIN_BYTES);
+        stats.put("level", LEVEL);
+        stats.put("mimeTypes", MIME_TYPES);
+        stats.put("compressed", COMPRESSED.get());
+        stats.put("belowThreshold", BELOW_THRESHOLD.get());
+        long in = BYTES_IN.get();
+        stats.put("bytesIn", in);
+        stats.put("bytesOut", BYTES_OUT.get());
+        stats.put("ratio", in == 0 ? null : Math.round(BYTES_OUT.get() * 1000.0 / in) / 1000.0);
+        return stats;
+    }
+
+    /**
+     * Buffers the head of the body until it is known to reach the threshold, then switches the
+     * response to the negotiated coding; headers are still writable because nothing has been
+     * written to the container yet.
+     */
+    private static final class ThresholdStream extends OutputStream {
+        private final OutputStream target;
+        private final MultivaluedMap<String, Object> headers;
+        private final String encoding;
+        private ByteArrayOutputStream head = new ByteArrayOutputStream();
+        private CountingStream counted;
+        private DeflaterOutputStream compressor;
+        private long written;
+
+        ThresholdStream(OutputStream target, MultivaluedMap<String, Object> headers, String encoding) {
+            this.target = target;
+            this.headers = headers;
+            this.encoding = encoding;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            written += len;
+            if (compressor != null) {
+                compressor.write(b, off, len);
+                return;
+            }
+            head.write(b, off, len);
+            if (head.size() >= MIN_BYTES) {
+                startCompressing();
+            }
+        }
+
+        /**
+         * Flushes the compressor too (sync flush), so streamed bodies still arrive piece by piece.
+         */
+        @Override
+        public void flush() throws IOException {
+            if (compressor != null) {
+                compressor.flush();
+            }
+        }
+
+        private void startCompressing() throws IOException {
+            headers.putSingle(HttpHeaders.CONTENT_ENCODING, encoding);
+            // A length set by the resource describes the uncompressed body.
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            counted = new CountingStream(target);
+            compressor = GZIP.equals(encoding) ? new LeveledGzipStream(counted) : new LeveledDeflateStream(counted);
+            head.writeTo(compressor);
+            head = null;
+        }
+
+        void finish() throws IOException {
+            if (compressor == null) {
+                BELOW_THRESHOLD.incrementAndGet();
+                head.writeTo(target);
+                head = null;
+                return;
+            }
+            // Writes the trailer and releases the native deflater; the container stream stays open.
+            compressor.close();
+            COMPRESSED.incrementAndGet();
+            BYTES_IN.addAndGet(written);
+            BYTES_OUT.addAndGet(counted.count);
+        }
+    }
+
+    private static final class LeveledGzipStream extends GZIPOutputStream {
+        LeveledGzipStream(OutputStream out) throws IOException {
+            super(out, 8192, true);
+            def.setLevel(LEVEL);
+        }
+    }
+
+    private static final class LeveledDeflateStream extends DeflaterOutputStream {
+        LeveledDeflateStream(OutputStream out) {
+            super(out, true);
+            def.setLevel(LEVEL);
+        }
+    }
+
+    /**
+     * Counts the compressed bytes; closing it does not close the container stream.
+     */
+    private static final class CountingStream extends OutputStream {
+        private final OutputStream target;
+        private long count;
+
+        CountingStream(OutputStream target) {
+            this.target = target;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            target.write(b, off, len);
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+
+        @Override
+        public void close() {
+            // the container closes its own stream
+        }
+    }
+}
@@ -16,6 +16,10 @@ import jakarta.ws.rs.Priorities;
 @Priority(Priorities.AUTHENTICATION - 1)
 public class CorsFilter implements ContainerRequestFilter, ContainerResponseFilter {
 
+    // Binary speech responses carry their texts in headers; browsers hide them unless exposed.
+    private static final String EXPOSED_HEADERS =
+            "WWW-Authenticate, Content-Length, X-Audio-Source, X-Transcript, X-Translation";
+
     @Override
     public void filter(ContainerRequestContext requestContext) {
         if (!"OPTIONS".equalsIgnoreCase(requestContext.getMethod())) {
@@ -38,9 +42,9 @@ public class CorsFilter implements ContainerRequestFilter, ContainerResponseFilt
     private void applyCorsHeaders(Response.ResponseBuilder builder, String origin) {
         String allowOrigin = (origin == null || origin.isBlank()) ? "*" : origin;
         builder.header("Access-Control-Allow-Origin", allowOrigin);
-        builder.header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS, HEAD");
+        builder.header("Access-Control-Allow-Methods", "GET, POST, PUT, PATCH, DELETE, OPTIONS, HEAD");
         builder.header("Access-Control-Allow-Headers", "Origin, Content-Type, Accept, Authorization");
-        builder.header("Access-Control-Expose-Headers", "WWW-Authenticate");
+        builder.header("Access-Control-Expose-Headers", EXPOSED_HEADERS);
         builder.header("Vary", "Origin");
         if (!"*".equals(allowOrigin)) {
             builder.header("Access-Control-Allow-Credentials", "true");
@@ -50,9 +54,9 @@ public class CorsFilter implements ContainerRequestFilter, ContainerResponseFilt
     private void applyCorsHeaders(MultivaluedMap<String, Object> headers, String origin) {
         String allowOrigin = (origin == null || origin.isBlank()) ? "*" : origin;
         headers.putSingle("Access-Control-Allow-Origin", allowOrigin);
-        headers.putSingle("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS, HEAD");
+        headers.putSingle("Access-Control-Allow-Methods", "GET, POST, PUT, PATCH, DELETE, OPTIONS, HEAD");
         headers.putSingle("Access-Control-Allow-Headers", "Origin, Content-Type, Accept, Authorization");
-        headers.putSingle("Access-Control-Expose-Headers", "WWW-Authenticate");
+        headers.putSingle("Access-Control-Expose-Headers", EXPOSED_HEADERS);
         headers.putSingle("Vary", "Origin");
         if (!"*".equals(allowOrigin)) {
             headers.putSingle("Access-Control-Allow-Credentials", "true");
@@ -6,13 +6,25 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public final class EnvConfig {
 
     private static final Map<String, String> FILE_ENV = new ConcurrentHashMap<>();
+    // Values changed while running (see Tunables); they win over the environment and the file.
+    // Replaced as a whole, so a batch of changes becomes visible at once.
+    private static volatile Map<String, String> runtime = Map.of();
+    private static final List<Path> FILES = new CopyOnWriteArrayList<>();
     private static final AtomicBoolean LOADED = new AtomicBoolean(false);
 
     private EnvConfig() {
@@ -30,12 +42,18 @@ public final class EnvConfig {
             if (candidate == null || candidate.isBlank()) {
                 continue;
             }
-            loadFile(Paths.get(candidate));
+            Path path = Paths.get(candidate).toAbsolutePath().normalize();
+            FILES.add(path);
+            readFile(path, FILE_ENV);
         }
     }
 
     public static String get(String key) {
-        String value = System.getenv(key);
+        String value = runtime.get(key);
+        if (value != null) {
+            return value;
+        }
+        value = System.getenv(key);
         if (value != null) {
             return value;
         }
@@ -43,7 +61,11 @@ public final class EnvConfig {
     }
 
     public static String getPreferringFile(String key) {
-        String value = FILE_ENV.get(key);
+        String value = runtime.get(key);
+        if (value != null) {
+            return value;
+        }
+        value = FILE_ENV.get(key);
         if (value != null && !value.isBlank()) {
             return value;
         }
@@ -62,7 +84,88 @@ public final class EnvConfig {
         return value;
     }
 
-    private static void loadFile(Path path) {
+    public static boolean getBoolean(String key, boolean fallback) {
+        String value = get(key);
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+        return "true".equalsIgnoreCase(value.trim());
+    }
+
+    public static int getInt(String key, int fallback) {
+        String value = get(key);
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * The .env candidates given to {@link #loadDotEnv}, whether or not they exist yet.
+     */
+    static List<Path> dotEnvFiles() {
+        return Collections.unmodifiableList(new ArrayList<>(FILES));
+    }
+
+    /**
+     * Reads the .env files again and returns the keys whose value there changed since they were
+     * loaded, with the new value (null if the key is gone). Nothing is applied.
+     */
+    static Map<String, String> readDotEnvChanges() {
+        Map<String, String> current = new HashMap<>();
+        for (Path path : FILES) {
+            readFile(path, current);
+        }
+        Set<String> keys = new HashSet<>(current.keySet());
+        keys.addAll(FILE_ENV.keySet());
+        Map<String, String> changes = new HashMap<>();
+        for (String key : keys) {
+            if (!Objects.equals(current.get(key), FILE_ENV.get(key))) {
+                changes.put(key, current.get(key));
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Records the file's new value for {@code key} so later reloads compare against it.
+     */
+    static void acceptFileValue(String key, String value) {
+        if (value == null) {
+            FILE_ENV.remove(key);
+        } else {
+            FILE_ENV.put(key, value);
+        }
+    }
+
+    /**
+     * Applies runtime values in one swap; a null value removes the key. Callers serialize.
+     */
+    static void setRuntime(Map<String, String> changes) {
+        Map<String, String> next = new HashMap<>(runtime);
+        changes.forEach((key, value) -> {
+            if (value == null) {
+                next.remove(key);
+            } else {
+                next.put(key, value);
+            }
+        });
+        runtime = Collections.unmodifiableMap(next);
+    }
+
+    /**
+     * The value without runtime changes: environment first, then the .env files.
+     */
+    static String getConfigured(String key) {
+        String value = System.getenv(key);
+        return value != null ? value : FILE_ENV.get(key);
+    }
+
+    private static void readFile(Path path, Map<String, String> into) {
         if (!Files.exists(path)) {
             return;
         }
@@ -84,7 +187,7 @@ public final class EnvConfig {
                 String rawValue = trimmed.substring(equalsIndex + 1).trim();
                 String value = stripQuotes(rawValue);
                 if (!key.isEmpty()) {
-                    FILE_ENV.putIfAbsent(key, value);
+                    into.putIfAbsent(key, value);
                 }
             }
         } catch (IOException e) {
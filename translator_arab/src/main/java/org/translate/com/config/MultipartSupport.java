@@ -0,0 +1,20 @@
+package org.translate.com.config;
+
+import jakarta.ws.rs.core.Feature;
+import jakarta.ws.rs.core.FeatureContext;
+import jakarta.ws.rs.ext.Provider;
+import org.glassfish.jersey.media.multipart.MultiPartFeature;
+
+/**
+ * Enables multipart/form-data uploads. Registered through package scanning so it applies
+ * both to the WAR (web.xml) and to the embedded server (TranslatorApplication).
+ */
+@Provider
+public class MultipartSupport implements Feature {
+
+    @Override
+    public boolean configure(FeatureContext context) {
+        context.register(MultiPartFeature.class);
+        return true;
+    }
+}
@@ -0,0 +1,154 @@
+package org.translate.com.config;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.PreMatching;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Per-endpoint request body limits, checked before any resource or body reader runs.
+ * A declared Content-Length over the limit is rejected with 413 right away; bodies without
+ * one (chunked) are counted while they are read and fail with 413 once they cross it.
+ * Limits apply to the bytes on the wire, so base64 JSON uses about 4/3 of the decoded size.
+ */
+@Provider
+@PreMatching
+public class RequestSizeFilter implements ContainerRequestFilter {
+
+    private static final long MB = 1024L * 1024L;
+
+    private final long defaultLimit = EnvConfig.getInt("MAX_BODY_MB", 1) * MB;
+    private final long imageLimit = EnvConfig.getInt("MAX_IMAGE_BODY_MB", 20) * MB;
+    private final long speechLimit = EnvConfig.getInt("MAX_SPEECH_BODY_MB", 35) * MB;
+    private final long documentLimit = EnvConfig.getInt("MAX_DOCUMENT_BODY_MB", 100) * MB;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) throws IOException {
+        if (!requestContext.hasEntity()) {
+            return;
+        }
+
+        long limit = limitFor(requestContext.getUriInfo().getPath());
+        if (requestContext.getLength() > limit) {
+            requestContext.abortWith(tooLarge(limit));
+            return;
+        }
+        requestContext.setEntityStream(new LimitedInputStream(requestContext.getEntityStream(), limit));
+    }
+
+    private long limitFor(String path) {
+        if (path.contains("/image/")) {
+            return imageLimit;
+        }
+        if (path.contains("/speech/")) {
+            return speechLimit;
+        }
+        if (path.contains("/document/")) {
+            return documentLimit;
+        }
+        return defaultLimit;
+    }
+
+    public static Response tooLarge(long limit) {
+        return Response.status(Response.Status.REQUEST_ENTITY_TOO_LARGE)
+                .type(MediaType.TEXT_PLAIN_TYPE)
+                .entity(tooLargeMessage(limit))
+                .build();
+    }
+
+    public static String tooLargeMessage(long limit) {
+        return "Request body exceeds the " + (limit / MB) + " MB limit for this endpoint";
+    }
+
+    /**
+     * The body limit failure behind {@code error}, or null. Resources that read the entity
+     * stream themselves catch exceptions broadly, and services wrap them, so they look for it
+     * before answering 400 or 500.
+     */
+    public static PayloadTooLargeException findTooLarge(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PayloadTooLargeException) {
+                return (PayloadTooLargeException) cause;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Raised from the entity stream when a body without Content-Length crosses its limit.
+     */
+    public static class PayloadTooLargeException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private final long limit;
+
+        PayloadTooLargeException(long limit) {
+            super("Request body exceeds " + limit + " bytes");
+            this.limit = limit;
+        }
+
+        public long getLimit() {
+            return limit;
+        }
+    }
+
+    @Provider
+    public static class PayloadTooLargeMapper implements ExceptionMapper<PayloadTooLargeException> {
+        @Override
+        public Response toResponse(PayloadTooLargeException exception) {
+            return tooLarge(exception.getLimit());
+        }
+    }
+
+    private static final class LimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private long count;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        private void count(long n) throws PayloadTooLargeException {
+            count += n;
+            if (count > limit) {
+                throw new PayloadTooLargeException(limit);
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.translate.com.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * How the HTTP server is set up and what its connections do, for the stats endpoint.
+ * {@code EmbeddedServer} fills it in; inside a servlet container it only reports that.
+ */
+public final class ServerStats {
+
+    private static volatile String container = "servlet container";
+    private static volatile String workers;
+    private static volatile String protocols;
+
+    private static final LongAdder ACCEPTED = new LongAdder();
+    private static final AtomicLong OPEN = new AtomicLong();
+    private static final AtomicLong PEAK_OPEN = new AtomicLong();
+
+    private ServerStats() {
+    }
+
+    public static void describe(String serverContainer, String serverWorkers, String serverProtocols) {
+        container = serverContainer;
+        workers = serverWorkers;
+        protocols = serverProtocols;
+    }
+
+    public static void connectionAccepted() {
+        ACCEPTED.increment();
+        PEAK_OPEN.accumulateAndGet(OPEN.incrementAndGet(), Math::max);
+    }
+
+    public static void connectionClosed() {
+        OPEN.decrementAndGet();
+    }
+
+    public static Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("container", container);
+        stats.put("workers", workers);
+        stats.put("protocols", protocols);
+        stats.put("connectionsAccepted", ACCEPTED.sum());
+        stats.put("connectionsOpen", OPEN.get());
+        stats.put("connectionsPeak", PEAK_OPEN.get());
+        stats.put("compression", CompressionInterceptor.stats());
+        return stats;
+    }
+}
@@ -2,6 +2,7 @@ package org.translate.com.config;
 
 import jakarta.ws.rs.ApplicationPath;
 import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.ServerProperties;
 
 @ApplicationPath("/api")
 public class TranslatorApplication extends ResourceConfig {
@@ -11,9 +12,14 @@ public class TranslatorApplication extends ResourceConfig {
         packages("org.translate.com.api", "org.translate.com.security", "org.translate.com.config");
 
         register(org.glassfish.jersey.jackson.JacksonFeature.class);
+        register(WireFormats.cborProvider());
+        register(WireFormats.smileProvider());
 
         register(CorsFilter.class);
 
+        // Nothing reads the generated WADL, and looking for JAXB to build it slows startup.
+        property(ServerProperties.WADL_FEATURE_DISABLE, true);
+
         System.out.println(">>> TranslatorApplication loaded successfully");
     }
 }
@@ -0,0 +1,471 @@
+package org.translate.com.config;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Settings that can change while the server runs, typed and bounded. Each is read from
+ * {@link EnvConfig} at startup and changed later by editing .env (watched with a
+ * {@link WatchService} unless {@code CONFIG_WATCH=false}) or through the admin endpoint; other
+ * keys still need a restart. A change is validated first, then published by swapping one
+ * immutable {@link Values} snapshot, so every value of a batch becomes visible at once: a
+ * request that already read the old value finishes with it, the next one sees the new one.
+ * Code that needs several settings to agree reads them from one {@link #current()}; separate
+ * {@link Tunable#get()} calls may straddle a change. Services that hold derived state (pools,
+ * caches, clients) register a listener.
+ */
+public final class Tunables {
+
+    private static final Map<String, Tunable<?>> REGISTRY = new ConcurrentHashMap<>();
+    private static final AtomicBoolean WATCHING = new AtomicBoolean();
+    // .env values of other keys already reported as needing a restart, so each is logged once.
+    private static final Map<String, String> PENDING_RESTART = new ConcurrentHashMap<>();
+    // Serializes writers; readers only read current.
+    private static final Object LOCK = new Object();
+    private static volatile Values current = new Values(Map.of(), Map.of());
+
+    // Concurrency
+    public static final IntTunable OCR_THREADS = intValue("OCR_THREADS",
+            Runtime.getRuntime().availableProcessors(), 1, 256, "Parallel Tesseract runs");
+    public static final IntTunable UPSTREAM_CONCURRENCY = intValue("UPSTREAM_CONCURRENCY", 16, 1, 1024,
+            "Threads for parallel LLM and OCR fallback calls");
+    public static final IntTunable TRANSCRIBE_PARALLELISM = intValue("TRANSCRIBE_PARALLELISM", 4, 1, 256,
+            "Parallel Whisper calls for chunked audio");
+    public static final IntTunable TTS_PARALLELISM = intValue("TTS_PARALLELISM", 4, 1, 256,
+            "Parallel TTS calls for split texts");
+
+    // Timeouts
+    public static final IntTunable TTS_TOTAL_BUDGET_MS = intValue("TTS_TOTAL_BUDGET_MS", 20000, 100, 600000,
+            "Time for one synthesis across the whole TTS chain");
+    public static final IntTunable TTS_CUSTOM_BUDGET_MS = intValue("TTS_CUSTOM_BUDGET_MS", 15000, 100, 600000,
+            "Time for one call to the custom TTS backend");
+    public static final IntTunable TTS_EDGE_BUDGET_MS = intValue("TTS_EDGE_BUDGET_MS", 8000, 100, 600000,
+            "Time for one call to Edge TTS");
+    public static final IntTunable TTS_GOOGLE_BUDGET_MS = intValue("TTS_GOOGLE_BUDGET_MS", 8000, 100, 600000,
+            "Time for one call to Google TTS");
+    public static final IntTunable WHISPER_CONNECT_TIMEOUT_SECONDS = intValue("WHISPER_CONNECT_TIMEOUT_SECONDS", 60,
+            1, 3600, "Connect timeout for Whisper calls");
+    public static final IntTunable WHISPER_READ_TIMEOUT_SECONDS = intValue("WHISPER_READ_TIMEOUT_SECONDS", 120, 1,
+            3600, "Read timeout for Whisper calls");
+    public static final IntTunable WHISPER_WRITE_TIMEOUT_SECONDS = intValue("WHISPER_WRITE_TIMEOUT_SECONDS", 60, 1,
+            3600, "Write timeout for Whisper calls");
+
+    // Cache sizes
+    public static final IntTunable TTS_CACHE_MAX_MB = intValue("TTS_CACHE_MAX_MB", 512, 1, 1_000_000,
+            "Disk used by the TTS audio cache");
+    public static final IntTunable TRANSCRIPT_CACHE_MAX_ENTRIES = intValue("TRANSCRIPT_CACHE_MAX_ENTRIES", 2000, 1,
+            10_000_000, "Transcripts kept in memory");
+    public static final IntTunable OCR_CACHE_MAX_ENTRIES = intValue("OCR_CACHE_MAX_ENTRIES", 1000, 1, 10_000_000,
+            "OCR results kept in memory");
+
+    // Backends: read by the services each time one is created, that is per request
+    public static final BooleanTunable LOCAL_LLM_PREFER = booleanValue("LOCAL_LLM_PREFER", false,
+            "Try the local LLM before Mistral");
+    public static final TextTunable MISTRAL_MODEL = textValue("MISTRAL_MODEL", "mistral-large-latest",
+            "Mistral model");
+    public static final TextTunable LOCAL_LLM_MODEL = textValue("LOCAL_LLM_MODEL", "mistral", "Local LLM model");
+    public static final TextTunable LOCAL_LLM_URL = textValue("LOCAL_LLM_URL", "", "Local LLM endpoint");
+    public static final TextTunable WHISPER_API_URL = textValue("WHISPER_API_URL", "", "Whisper endpoint");
+    public static final TextTunable TTS_API_URL = textValue("TTS_API_URL", "", "Custom TTS endpoint");
+    public static final BooleanTunable OCR_SPECULATIVE = booleanValue("OCR_SPECULATIVE", true,
+            "Start Gemini OCR early on low Tesseract confidence");
+
+    private Tunables() {
+    }
+
+    public static IntTunable intValue(String key, int fallback, int min, int max, String description) {
+        return register(new IntTunable(key, fallback, min, max, description));
+    }
+
+    public static BooleanTunable booleanValue(String key, boolean fallback, String description) {
+        return register(new BooleanTunable(key, fallback, description));
+    }
+
+    public static TextTunable textValue(String key, String fallback, String description) {
+        return register(new TextTunable(key, fallback, description));
+    }
+
+    private static <T extends Tunable<?>> T register(T tunable) {
+        if (REGISTRY.putIfAbsent(tunable.getKey(), tunable) != null) {
+            throw new IllegalStateException("Tunable " + tunable.getKey() + " is registered twice");
+        }
+        Tunable<?> setting = tunable;
+        Object value = setting.fallback;
+        String source = "default";
+        String configured = EnvConfig.getConfigured(setting.key);
+        if (configured != null && !configured.isBlank()) {
+            try {
+                value = setting.parse(configured);
+                source = "configured";
+            } catch (IllegalArgumentException e) {
+                System.err.println("Ignoring " + setting.key + ": " + e.getMessage());
+            }
+        }
+        synchronized (LOCK) {
+            current = current.with(Map.of(setting, value), source);
+        }
+        return tunable;
+    }
+
+    public static boolean isTunable(String key) {
+        return REGISTRY.containsKey(key);
+    }
+
+    /**
+     * The values of every setting at one point in time.
+     */
+    public static Values current() {
+        return current;
+    }
+
+    /**
+     * Applies several values at once: all of them are checked before any is applied, so a
+     * bad value leaves every setting as it was, and they are published in one swap. Throws
+     * IllegalArgumentException naming the first unknown key or bad value.
+     */
+    public static Map<String, Object> update(Map<String, String> values, String changedBy) {
+        Map<Tunable<?>, Object> parsed = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            Tunable<?> tunable = REGISTRY.get(entry.getKey());
+            if (tunable == null) {
+                throw new IllegalArgumentException(entry.getKey() + " is not a runtime setting");
+            }
+            parsed.put(tunable, tunable.parse(entry.getValue()));
+        }
+        Values published = publish(parsed, Set.of(), changedBy);
+        Map<String, Object> applied = new TreeMap<>();
+        parsed.keySet().forEach(tunable -> applied.put(tunable.key, tunable.describe(published)));
+        return applied;
+    }
+
+    public static Map<String, Object> snapshot() {
+        Values values = current;
+        Map<String, Object> snapshot = new TreeMap<>();
+        REGISTRY.forEach((key, tunable) -> snapshot.put(key, tunable.describe(values)));
+        return snapshot;
+    }
+
+    /**
+     * Applies .env edits to the registered settings, all in one swap. Values that do not
+     * parse are reported and skipped; changes to other keys are reported as needing a restart.
+     */
+    static void reloadDotEnv() {
+        Map<String, String> changes = EnvConfig.readDotEnvChanges();
+        Map<Tunable<?>, Object> parsed = new LinkedHashMap<>();
+        Set<Tunable<?>> removed = new HashSet<>();
+        for (Map.Entry<String, String> change : changes.entrySet()) {
+            String key = change.getKey();
+            Tunable<?> tunable = REGISTRY.get(key);
+            if (tunable == null) {
+                String value = change.getValue() == null ? "" : change.getValue();
+                if (!value.equals(PENDING_RESTART.put(key, value))) {
+                    System.out.println(".env: " + key + " changed; restart to apply it");
+                }
+                continue;
+            }
+            EnvConfig.acceptFileValue(key, change.getValue());
+            try {
+                if (change.getValue() == null) {
+                    parsed.put(tunable, tunable.configuredOrDefault());
+                    removed.add(tunable);
+                } else {
+                    parsed.put(tunable, tunable.parse(change.getValue()));
+                }
+            } catch (IllegalArgumentException e) {
+                System.err.println(".env: ignoring " + key + ": " + e.getMessage());
+            }
+        }
+        if (!parsed.isEmpty()) {
+            publish(parsed, removed, ".env");
+        }
+    }
+
+    /**
+     * Swaps in a snapshot holding {@code values}, then runs the listeners of the settings that
+     * changed. {@code removed} settings drop their runtime value in {@link EnvConfig}: the key
+     * was removed from .env and the environment's value, or the default, applies again.
+     */
+    private static Values publish(Map<Tunable<?>, Object> values, Set<Tunable<?>> removed, String changedBy) {
+        Values previous;
+        Values next;
+        synchronized (LOCK) {
+            previous = current;
+            next = previous.with(values, changedBy);
+            Map<String, String> runtime = new HashMap<>();
+            values.forEach((tunable, value) ->
+                    runtime.put(tunable.key, removed.contains(tunable) ? null : tunable.formatValue(value)));
+            EnvConfig.setRuntime(runtime);
+            current = next;
+        }
+        values.forEach((tunable, value) -> tunable.changed(previous.values.get(tunable.key), value, changedBy));
+        return next;
+    }
+
+    /**
+     * Starts watching the .env files on a daemon thread, once per process. Editors often
+     * replace the file instead of writing it in place, so the directories are watched.
+     */
+    public static void watchDotEnv() {
+        if (!EnvConfig.getBoolean("CONFIG_WATCH", true) || !WATCHING.compareAndSet(false, true)) {
+            return;
+        }
+        Set<Path> directories = new HashSet<>();
+        Set<Path> names = new HashSet<>();
+        for (Path file : EnvConfig.dotEnvFiles()) {
+            if (file.getParent() != null && Files.isDirectory(file.getParent())) {
+                directories.add(file.getParent());
+                names.add(file);
+            }
+        }
+        if (directories.isEmpty()) {
+            return;
+        }
+        WatchService watcher;
+        try {
+            watcher = FileSystems.getDefault().newWatchService();
+            for (Path directory : directories) {
+                directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        } catch (IOException e) {
+            System.err.println("Cannot watch .env for changes: " + e.getMessage());
+            return;
+        }
+        Thread thread = new Thread(() -> watch(watcher, names), "env-watch");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void watch(WatchService watcher, Set<Path> files) {
+        try {
+            for (;;) {
+                WatchKey key = watcher.take();
+                boolean relevant = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    Object context = event.context();
+                    if (context instanceof Path && files.contains(((Path) key.watchable()).resolve((Path) context))) {
+                        relevant = true;
+                    }
+                }
+                key.reset();
+                if (!relevant) {
+                    continue;
+                }
+                // One save is often several events (truncate, write, rename): let them settle.
+                TimeUnit.MILLISECONDS.sleep(200);
+                WatchKey more;
+                while ((more = watcher.poll()) != null) {
+                    more.pollEvents();
+                    more.reset();
+                }
+                try {
+                    reloadDotEnv();
+                } catch (RuntimeException e) {
+                    System.err.println("Failed to reload .env: " + e.getMessage());
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // shutting down
+        }
+    }
+
+    /**
+     * An immutable view of every setting, as published by one change.
+     */
+    public static final class Values {
+        private final Map<String, Object> values;
+        private final Map<String, String> sources;
+
+        private Values(Map<String, Object> values, Map<String, String> sources) {
+            this.values = values;
+            this.sources = sources;
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> T get(Tunable<T> tunable) {
+            return (T) values.get(tunable.key);
+        }
+
+        private Values with(Map<Tunable<?>, Object> changes, String source) {
+            Map<String, Object> nextValues = new HashMap<>(values);
+            Map<String, String> nextSources = new HashMap<>(sources);
+            changes.forEach((tunable, value) -> {
+                nextValues.put(tunable.key, value);
+                nextSources.put(tunable.key, source);
+            });
+            return new Values(Map.copyOf(nextValues), Map.copyOf(nextSources));
+        }
+    }
+
+    /**
+     * One setting. {@link #get()} reads the current snapshot; listeners run on the thread that
+     * made the change, after the whole change is visible.
+     */
+    public abstract static class Tunable<T> {
+        private final String key;
+        private final T fallback;
+        private final String description;
+        private final List<Consumer<T>> listeners = new CopyOnWriteArrayList<>();
+
+        Tunable(String key, T fallback, String description) {
+            this.key = key;
+            this.fallback = fallback;
+            this.description = description;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public T get() {
+            return current.get(this);
+        }
+
+        /**
+         * Calls {@code listener} with every new value, not with the current one.
+         */
+        public void onChange(Consumer<T> listener) {
+            listeners.add(listener);
+        }
+
+        abstract T parse(String raw);
+
+        String format(T value) {
+            return String.valueOf(value);
+        }
+
+        @SuppressWarnings("unchecked")
+        private String formatValue(Object value) {
+            return format((T) value);
+        }
+
+        /**
+         * The environment's value, or the default.
+         */
+        private T configuredOrDefault() {
+            String configured = EnvConfig.getConfigured(key);
+            if (configured != null && !configured.isBlank()) {
+                try {
+                    return parse(configured);
+                } catch (IllegalArgumentException e) {
+                    // keep the default
+                }
+            }
+            return fallback;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void changed(Object previous, Object value, String changedBy) {
+            T next = (T) value;
+            if (next.equals(previous)) {
+                return;
+            }
+            System.out.println("Setting " + key + " changed from " + previous + " to " + next + " (" + changedBy + ")");
+            for (Consumer<T> listener : listeners) {
+                try {
+                    listener.accept(next);
+                } catch (RuntimeException e) {
+                    System.err.println("Applying " + key + " failed: " + e.getMessage());
+                }
+            }
+        }
+
+        Map<String, Object> describe(Values values) {
+            Map<String, Object> description = new LinkedHashMap<>();
+            description.put("value", values.values.get(key));
+            description.put("default", fallback);
+            description.put("source", values.sources.get(key));
+            description.put("description", this.description);
+            return description;
+        }
+    }
+
+    public static final class IntTunable extends Tunable<Integer> {
+        private final int min;
+        private final int max;
+
+        IntTunable(String key, int fallback, int min, int max, String description) {
+            super(key, fallback, description);
+            this.min = min;
+            this.max = max;
+        }
+
+        public int getInt() {
+            return get();
+        }
+
+        @Override
+        Integer parse(String raw) {
+            int parsed;
+            try {
+                parsed = Integer.parseInt(raw.trim());
+            } catch (NumberFormatException | NullPointerException e) {
+                throw new IllegalArgumentException(getKey() + " must be a whole number, got '" + raw + "'");
+            }
+            if (parsed < min || parsed > max) {
+                throw new IllegalArgumentException(getKey() + " must be between " + min + " and " + max);
+            }
+            return parsed;
+        }
+
+        @Override
+        Map<String, Object> describe(Values values) {
+            Map<String, Object> description = super.describe(values);
+            description.put("min", min);
+            description.put("max", max);
+            return description;
+        }
+    }
+
+    public static final class BooleanTunable extends Tunable<Boolean> {
+        BooleanTunable(String key, boolean fallback, String description) {
+            super(key, fallback, description);
+        }
+
+        public boolean isEnabled() {
+            return get();
+        }
+
+        @Override
+        Boolean parse(String raw) {
+            String value = raw == null ? "" : raw.trim();
+            if ("true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
+                return Boolean.valueOf(value);
+            }
+            throw new IllegalArgumentException(getKey() + " must be true or false, got '" + raw + "'");
+        }
+    }
+
+    public static final class TextTunable extends Tunable<String> {
+        TextTunable(String key, String fallback, String description) {
+            super(key, fallback, description);
+        }
+
+        @Override
+        String parse(String raw) {
+            if (raw == null) {
+                throw new IllegalArgumentException(getKey() + " needs a value");
+            }
+            return raw.trim();
+        }
+    }
+}
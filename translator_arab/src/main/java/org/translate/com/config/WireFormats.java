@@ -0,0 +1,92 @@
+package org.translate.com.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.jakarta.rs.cbor.JacksonCBORProvider;
+import com.fasterxml.jackson.jakarta.rs.smile.JacksonSmileProvider;
+
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * Binary encodings of the JSON DTOs. Endpoints that take or return JSON also take and return
+ * CBOR and Smile, chosen by Content-Type and Accept; base64 fields travel as raw bytes in
+ * both. JSON stays the default: the binary types are offered with a lower quality so that
+ * clients sending {@code *}{@code /*} keep getting JSON.
+ */
+public final class WireFormats {
+
+    public static final String CBOR = "application/cbor";
+    public static final String SMILE = "application/x-jackson-smile";
+
+    /** For {@code @Produces}, next to {@link MediaType#APPLICATION_JSON}. */
+    public static final String CBOR_OUT = CBOR + ";qs=0.9";
+    public static final String SMILE_OUT = SMILE + ";qs=0.9";
+
+    private WireFormats() {
+    }
+
+    public static boolean isBinary(MediaType type) {
+        if (type == null || !"application".equalsIgnoreCase(type.getType())) {
+            return false;
+        }
+        return "cbor".equalsIgnoreCase(type.getSubtype()) || "x-jackson-smile".equalsIgnoreCase(type.getSubtype());
+    }
+
+    /**
+     * Builds its mapper on first use: loading the CBOR and Smile codecs is a noticeable part of
+     * startup, and most clients only ever send JSON.
+     */
+    public static JacksonCBORProvider cborProvider() {
+        return new JacksonCBORProvider() {
+            @Override
+            protected ObjectMapper _locateMapperViaProvider(Class<?> type, MediaType mediaType) {
+                return CborHolder.MAPPER;
+            }
+        };
+    }
+
+    /**
+     * Like {@link #cborProvider()}, the mapper is built on first use.
+     */
+    public static JacksonSmileProvider smileProvider() {
+        return new JacksonSmileProvider() {
+            @Override
+            protected ObjectMapper _locateMapperViaProvider(Class<?> type, MediaType mediaType) {
+                return SmileHolder.MAPPER;
+            }
+        };
+    }
+
+    /**
+     * Builds the providers' mappers now instead of on the first binary request.
+     */
+    public static void initMappers() {
+        CborHolder.MAPPER.getFactory();
+        SmileHolder.MAPPER.getFactory();
+    }
+
+    public static ObjectMapper cborMapper() {
+        return new CBORMapper();
+    }
+
+    /**
+     * Smile encodes binary in 7-bit units by default so that it never contains a 0xFF byte;
+     * raw is smaller and the header tells readers which is used.
+     */
+    public static ObjectMapper smileMapper() {
+        return new SmileMapper(SmileFactory.builder()
+                .disable(SmileGenerator.Feature.ENCODE_BINARY_AS_7BIT)
+                .build());
+    }
+
+    private static final class CborHolder {
+        static final ObjectMapper MAPPER = cborMapper();
+    }
+
+    private static final class SmileHolder {
+        static final ObjectMapper MAPPER = smileMapper();
+    }
+}
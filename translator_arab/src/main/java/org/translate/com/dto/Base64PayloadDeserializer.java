@@ -0,0 +1,109 @@
+package org.translate.com.dto;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+
+/**
+ * Decodes a base64 JSON string straight from the parser's input buffer into a
+ * {@link BinaryPayload}, so the encoded text is never materialized as a {@code String}.
+ * Whitespace and line breaks are skipped. CBOR and Smile bodies may carry the payload as
+ * a native byte string instead, which is copied as is; their text strings are read whole.
+ *
+ * <p>A {@code data:<mime>;base64,} URL is recognized when the streaming decode stops at the
+ * scheme's colon: the rest of the value is then read as text, its header gives the MIME type
+ * and the remainder is decoded. Only data URLs are held in memory that way; bare base64 and
+ * multipart uploads are the path for large files.
+ */
+public class Base64PayloadDeserializer extends JsonDeserializer<BinaryPayload> {
+
+    private static final String DATA_URL = "data:";
+
+    @Override
+    public BinaryPayload deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token != JsonToken.VALUE_STRING && token != JsonToken.VALUE_EMBEDDED_OBJECT) {
+            return (BinaryPayload) context.handleUnexpectedToken(BinaryPayload.class, parser);
+        }
+
+        Base64Variant variant = context.getBase64Variant().withPaddingAllowed();
+        JsonLocation start = parser.currentTokenLocation();
+        BinaryPayload.Sink sink = BinaryPayload.newSink();
+        try {
+            if (token == JsonToken.VALUE_STRING && handlesBinaryNatively(parser)) {
+                // CBOR and Smile have read the whole string already.
+                String text = parser.getText().trim();
+                return text.startsWith(DATA_URL)
+                        ? decodeDataUrl(text.substring(DATA_URL.length()), variant, sink)
+                        : decode(text, variant, sink, null);
+            }
+            try {
+                parser.readBinaryValue(variant, sink);
+                return sink.finish();
+            } catch (IllegalArgumentException ex) {
+                if (token != JsonToken.VALUE_STRING || !stoppedAfterScheme(parser, start)) {
+                    throw ex;
+                }
+                return decodeDataUrl(parser.getText(), variant, sink);
+            }
+        } catch (IllegalArgumentException ex) {
+            // Jackson and java.util.Base64 report bad base64 characters as IllegalArgumentException.
+            sink.discard();
+            throw new JsonParseException(parser,
+                    "Invalid base64 payload (send base64 or a data: URL, or use a multipart upload): "
+                            + ex.getMessage(),
+                    ex);
+        } catch (IOException | RuntimeException ex) {
+            sink.discard();
+            throw ex;
+        }
+    }
+
+    private static boolean handlesBinaryNatively(JsonParser parser) {
+        ObjectCodec codec = parser.getCodec();
+        return codec != null && codec.getFactory().canHandleBinaryNatively();
+    }
+
+    /**
+     * Whether a failed decode stopped on the colon of a {@code data:} scheme. The JSON parsers
+     * stop right after the offending character, and their text is then the rest of the value.
+     */
+    private static boolean stoppedAfterScheme(JsonParser parser, JsonLocation start) {
+        JsonLocation stop = parser.currentLocation();
+        long consumed = start.getByteOffset() >= 0
+                ? stop.getByteOffset() - start.getByteOffset()
+                : stop.getCharOffset() - start.getCharOffset();
+        // Opening quote plus the scheme.
+        return consumed == 1 + DATA_URL.length();
+    }
+
+    /**
+     * Decodes a data URL without its scheme: {@code <mime>[;params],<base64>}.
+     */
+    private static BinaryPayload decodeDataUrl(String dataUrl, Base64Variant variant, BinaryPayload.Sink sink)
+            throws IOException {
+        int comma = dataUrl.indexOf(',');
+        if (comma < 0) {
+            throw new IllegalArgumentException("data: URL without a comma");
+        }
+        return decode(dataUrl.substring(comma + 1), variant, sink, mimeType(dataUrl.substring(0, comma)));
+    }
+
+    private static BinaryPayload decode(String base64, Base64Variant variant, BinaryPayload.Sink sink,
+            String mimeType) throws IOException {
+        sink.write(variant.decode(base64));
+        return sink.finish(mimeType);
+    }
+
+    private static String mimeType(String header) {
+        String mimeType = header.split(";", 2)[0].trim();
+        return mimeType.isEmpty() ? null : mimeType;
+    }
+}
@@ -0,0 +1,268 @@
+package org.translate.com.dto;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.lang.ref.Cleaner;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.translate.com.config.EnvConfig;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+/**
+ * Binary upload decoded from a base64 JSON string while it is parsed. Small payloads stay
+ * in pooled 64 KB chunks; above {@code PAYLOAD_SPILL_BYTES} the rest is written to a temp file.
+ * Consumers read it once and {@link #close()} it, which recycles the chunks and deletes the
+ * file (a cleaner deletes forgotten files once the payload is unreachable).
+ */
+@JsonDeserialize(using = Base64PayloadDeserializer.class)
+public final class BinaryPayload implements Closeable {
+
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    private static final int SPILL_THRESHOLD = EnvConfig.getInt("PAYLOAD_SPILL_BYTES", 4 * 1024 * 1024);
+    private static final BlockingQueue<byte[]> CHUNK_POOL = new ArrayBlockingQueue<>(
+            Math.max(1, EnvConfig.getInt("PAYLOAD_POOL_CHUNKS", 256)));
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final List<byte[]> chunks;
+    private final boolean pooled;
+    private final long size;
+    private final Path file;
+    private final String mimeType;
+    private final Cleaner.Cleanable fileCleanup;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private BinaryPayload(List<byte[]> chunks, boolean pooled, long size, Path file, String mimeType) {
+        this.chunks = chunks;
+        this.pooled = pooled;
+        this.size = size;
+        this.file = file;
+        this.mimeType = mimeType;
+        this.fileCleanup = file == null ? null : CLEANER.register(this, new DeleteFile(file));
+    }
+
+    public static BinaryPayload of(byte[] bytes) {
+        return new BinaryPayload(Collections.singletonList(bytes), false, bytes.length, null, null);
+    }
+
+    /**
+     * For callers that already hold the base64 text (tests, tools); the JSON path never does.
+     */
+    public static BinaryPayload fromBase64(String base64) {
+        return of(Base64.getMimeDecoder().decode(base64));
+    }
+
+    /**
+     * Buffers a stream the same way (pooled chunks, temp file above
+     * {@code PAYLOAD_SPILL_BYTES}), for consumers that may need to read it more than once.
+     */
+    public static BinaryPayload read(InputStream input) throws IOException {
+        Sink sink = newSink();
+        try {
+            input.transferTo(sink);
+            return sink.finish();
+        } catch (IOException | RuntimeException ex) {
+            sink.discard();
+            throw ex;
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean isSpilled() {
+        return file != null;
+    }
+
+    /**
+     * MIME type named by a {@code data:} URL prefix on the base64 text, or {@code null}.
+     */
+    public String getMimeType() {
+        return mimeType;
+    }
+
+    public InputStream openStream() throws IOException {
+        ensureOpen();
+        if (file != null) {
+            return Files.newInputStream(file);
+        }
+        List<InputStream> parts = new ArrayList<>(chunks.size());
+        long remaining = size;
+        for (byte[] chunk : chunks) {
+            int length = (int) Math.min(chunk.length, remaining);
+            parts.add(new ByteArrayInputStream(chunk, 0, length));
+            remaining -= length;
+        }
+        return new SequenceInputStream(Collections.enumeration(parts));
+    }
+
+    /**
+     * Contiguous copy, for consumers that need the whole payload at once (image decoding).
+     */
+    public byte[] toBytes() throws IOException {
+        ensureOpen();
+        if (!pooled && file == null && chunks.size() == 1 && chunks.get(0).length == size) {
+            return chunks.get(0);
+        }
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IOException("Payload too large to load in memory: " + size + " bytes");
+        }
+        try (InputStream input = openStream()) {
+            return input.readAllBytes();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        if (pooled) {
+            for (byte[] chunk : chunks) {
+                CHUNK_POOL.offer(chunk);
+            }
+        }
+        if (fileCleanup != null) {
+            fileCleanup.clean();
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed.get()) {
+            throw new IllegalStateException("Payload has already been consumed");
+        }
+    }
+
+    static Sink newSink() {
+        return new Sink();
+    }
+
+    /**
+     * Target of the incremental base64 decode: fills pooled chunks, then moves everything
+     * to a temp file once {@code PAYLOAD_SPILL_BYTES} is exceeded.
+     */
+    static final class Sink extends OutputStream {
+        private final List<byte[]> chunks = new ArrayList<>();
+        private byte[] current;
+        private int position;
+        private long size;
+        private Path file;
+        private OutputStream fileOut;
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (fileOut == null && size + length > SPILL_THRESHOLD) {
+                spill();
+            }
+            size += length;
+            if (fileOut != null) {
+                fileOut.write(bytes, offset, length);
+                return;
+            }
+            while (length > 0) {
+                if (current == null || position == current.length) {
+                    current = acquireChunk();
+                    chunks.add(current);
+                    position = 0;
+                }
+                int n = Math.min(length, current.length - position);
+                System.arraycopy(bytes, offset, current, position, n);
+                position += n;
+                offset += n;
+                length -= n;
+            }
+        }
+
+        private void spill() throws IOException {
+            file = Files.createTempFile("payload_", ".bin");
+            fileOut = Files.newOutputStream(file);
+            long remaining = size;
+            for (byte[] chunk : chunks) {
+                int length = (int) Math.min(chunk.length, remaining);
+                fileOut.write(chunk, 0, length);
+                remaining -= length;
+            }
+            releaseChunks();
+        }
+
+        BinaryPayload finish() throws IOException {
+            return finish(null);
+        }
+
+        BinaryPayload finish(String mimeType) throws IOException {
+            if (fileOut != null) {
+                fileOut.close();
+                return new BinaryPayload(Collections.emptyList(), false, size, file, mimeType);
+            }
+            return new BinaryPayload(new ArrayList<>(chunks), true, size, null, mimeType);
+        }
+
+        /**
+         * Drops everything written so far (parse error, size limit).
+         */
+        void discard() {
+            releaseChunks();
+            if (fileOut != null) {
+                try {
+                    fileOut.close();
+                } catch (IOException ex) {
+                    // Best-effort cleanup.
+                }
+                new DeleteFile(file).run();
+            }
+        }
+
+        private void releaseChunks() {
+            for (byte[] chunk : chunks) {
+                CHUNK_POOL.offer(chunk);
+            }
+            chunks.clear();
+            current = null;
+        }
+
+        private static byte[] acquireChunk() {
+            byte[] chunk = CHUNK_POOL.poll();
+            return chunk != null ? chunk : new byte[CHUNK_SIZE];
+        }
+    }
+
+    private static final class DeleteFile implements Runnable {
+        private final Path file;
+
+        DeleteFile(Path file) {
+            this.file = file;
+        }
+
+        @Override
+        public void run() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ex) {
+                // Best-effort cleanup.
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.translate.com.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class DocumentTranslationRequest {
+    @JsonProperty("documentBase64")
+    private BinaryPayload document;
+    private String documentMimeType;
+    private String sourceLanguage = "en";
+    private String targetLanguage = "ary";
+
+    public DocumentTranslationRequest() {
+    }
+
+    public DocumentTranslationRequest(BinaryPayload document, String documentMimeType, String sourceLanguage,
+            String targetLanguage) {
+        this.document = document;
+        this.documentMimeType = documentMimeType;
+        this.sourceLanguage = sourceLanguage;
+        this.targetLanguage = targetLanguage;
+    }
+
+    public BinaryPayload getDocument() {
+        return document;
+    }
+
+    public void setDocument(BinaryPayload document) {
+        this.document = document;
+    }
+
+    public String getDocumentMimeType() {
+        return documentMimeType;
+    }
+
+    public void setDocumentMimeType(String documentMimeType) {
+        this.documentMimeType = documentMimeType;
+    }
+
+    public String getSourceLanguage() {
+        return sourceLanguage;
+    }
+
+    public void setSourceLanguage(String sourceLanguage) {
+        this.sourceLanguage = sourceLanguage;
+    }
+
+    public String getTargetLanguage() {
+        return targetLanguage;
+    }
+
+    public void setTargetLanguage(String targetLanguage) {
+        this.targetLanguage = targetLanguage;
+    }
+}
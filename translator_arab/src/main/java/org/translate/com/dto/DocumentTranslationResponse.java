@@ -0,0 +1,33 @@
+package org.translate.com.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DocumentTranslationResponse {
+    private int pageCount;
+    private List<PageTranslation> pages = new ArrayList<>();
+
+    public DocumentTranslationResponse() {
+    }
+
+    public DocumentTranslationResponse(List<PageTranslation> pages) {
+        this.pages = pages;
+        this.pageCount = pages.size();
+    }
+
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    public void setPageCount(int pageCount) {
+        this.pageCount = pageCount;
+    }
+
+    public List<PageTranslation> getPages() {
+        return pages;
+    }
+
+    public void setPages(List<PageTranslation> pages) {
+        this.pages = pages;
+    }
+}
@@ -1,34 +1,42 @@
 package org.translate.com.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 public class ImageTranslationRequest {
-    private String imageBase64;
+    @JsonProperty("imageBase64")
+    private BinaryPayload image;
     private String imageMimeType;
     private String sourceLanguage = "auto";
     private String targetLanguage = "ary";
+    private Integer cropX;
+    private Integer cropY;
+    private Integer cropWidth;
+    private Integer cropHeight;
+    private boolean blockTranslation;
 
     public ImageTranslationRequest() {
     }
 
-    public ImageTranslationRequest(String imageBase64, String sourceLanguage, String targetLanguage) {
-        this.imageBase64 = imageBase64;
+    public ImageTranslationRequest(BinaryPayload image, String sourceLanguage, String targetLanguage) {
+        this.image = image;
         this.sourceLanguage = sourceLanguage;
         this.targetLanguage = targetLanguage;
     }
 
-    public ImageTranslationRequest(String imageBase64, String imageMimeType, String sourceLanguage,
+    public ImageTranslationRequest(BinaryPayload image, String imageMimeType, String sourceLanguage,
             String targetLanguage) {
-        this.imageBase64 = imageBase64;
+        this.image = image;
         this.imageMimeType = imageMimeType;
         this.sourceLanguage = sourceLanguage;
         this.targetLanguage = targetLanguage;
     }
 
-    public String getImageBase64() {
-        return imageBase64;
+    public BinaryPayload getImage() {
+        return image;
     }
 
-    public void setImageBase64(String imageBase64) {
-        this.imageBase64 = imageBase64;
+    public void setImage(BinaryPayload image) {
+        this.image = image;
     }
 
     public String getImageMimeType() {
@@ -54,4 +62,44 @@ public class ImageTranslationRequest {
     public void setTargetLanguage(String targetLanguage) {
         this.targetLanguage = targetLanguage;
     }
+
+    public Integer getCropX() {
+        return cropX;
+    }
+
+    public void setCropX(Integer cropX) {
+        this.cropX = cropX;
+    }
+
+    public Integer getCropY() {
+        return cropY;
+    }
+
+    public void setCropY(Integer cropY) {
+        this.cropY = cropY;
+    }
+
+    public Integer getCropWidth() {
+        return cropWidth;
+    }
+
+    public void setCropWidth(Integer cropWidth) {
+        this.cropWidth = cropWidth;
+    }
+
+    public Integer getCropHeight() {
+        return cropHeight;
+    }
+
+    public void setCropHeight(Integer cropHeight) {
+        this.cropHeight = cropHeight;
+    }
+
+    public boolean isBlockTranslation() {
+        return blockTranslation;
+    }
+
+    public void setBlockTranslation(boolean blockTranslation) {
+        this.blockTranslation = blockTranslation;
+    }
 }
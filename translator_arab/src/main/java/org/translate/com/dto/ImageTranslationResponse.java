@@ -1,8 +1,11 @@
 package org.translate.com.dto;
 
+import java.util.List;
+
 public class ImageTranslationResponse {
     private String extractedText;
     private String translation;
+    private List<OcrBlock> blocks;
 
     public ImageTranslationResponse() {
     }
@@ -12,6 +15,12 @@ public class ImageTranslationResponse {
         this.translation = translation;
     }
 
+    public ImageTranslationResponse(String extractedText, String translation, List<OcrBlock> blocks) {
+        this.extractedText = extractedText;
+        this.translation = translation;
+        this.blocks = blocks;
+    }
+
     public String getExtractedText() {
         return extractedText;
     }
@@ -27,4 +36,12 @@ public class ImageTranslationResponse {
     public void setTranslation(String translation) {
         this.translation = translation;
     }
+
+    public List<OcrBlock> getBlocks() {
+        return blocks;
+    }
+
+    public void setBlocks(List<OcrBlock> blocks) {
+        this.blocks = blocks;
+    }
 }
@@ -0,0 +1,101 @@
+package org.translate.com.dto;
+
+public class OcrBlock {
+    private int index;
+    private String text;
+    private String translation;
+    private int left;
+    private int top;
+    private int width;
+    private int height;
+    private double confidence;
+    private String error;
+
+    public OcrBlock() {
+    }
+
+    public OcrBlock(int index, String text, String translation, int left, int top, int width, int height,
+            double confidence, String error) {
+        this.index = index;
+        this.text = text;
+        this.translation = translation;
+        this.left = left;
+        this.top = top;
+        this.width = width;
+        this.height = height;
+        this.confidence = confidence;
+        this.error = error;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public String getTranslation() {
+        return translation;
+    }
+
+    public void setTranslation(String translation) {
+        this.translation = translation;
+    }
+
+    public int getLeft() {
+        return left;
+    }
+
+    public void setLeft(int left) {
+        this.left = left;
+    }
+
+    public int getTop() {
+        return top;
+    }
+
+    public void setTop(int top) {
+        this.top = top;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public void setWidth(int width) {
+        this.width = width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public void setHeight(int height) {
+        this.height = height;
+    }
+
+    public double getConfidence() {
+        return confidence;
+    }
+
+    public void setConfidence(double confidence) {
+        this.confidence = confidence;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
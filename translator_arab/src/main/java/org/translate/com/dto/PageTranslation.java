@@ -0,0 +1,50 @@
+package org.translate.com.dto;
+
+public class PageTranslation {
+    private int page;
+    private String extractedText;
+    private String translation;
+    private String error;
+
+    public PageTranslation() {
+    }
+
+    public PageTranslation(int page, String extractedText, String translation, String error) {
+        this.page = page;
+        this.extractedText = extractedText;
+        this.translation = translation;
+        this.error = error;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public String getExtractedText() {
+        return extractedText;
+    }
+
+    public void setExtractedText(String extractedText) {
+        this.extractedText = extractedText;
+    }
+
+    public String getTranslation() {
+        return translation;
+    }
+
+    public void setTranslation(String translation) {
+        this.translation = translation;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -3,6 +3,8 @@ package org.translate.com.dto;
 public class ReadAloudRequest {
     private String text;
     private String voice = "standard";
+    // "base64" (inline, default) or "url" (short-lived link to GET /translator/audio/{id})
+    private String audioDelivery = "base64";
 
     public ReadAloudRequest() {
     }
@@ -27,4 +29,12 @@ public class ReadAloudRequest {
     public void setVoice(String voice) {
         this.voice = voice;
     }
+
+    public String getAudioDelivery() {
+        return audioDelivery;
+    }
+
+    public void setAudioDelivery(String audioDelivery) {
+        this.audioDelivery = audioDelivery;
+    }
 }
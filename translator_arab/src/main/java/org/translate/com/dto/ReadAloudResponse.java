@@ -1,20 +1,33 @@
 package org.translate.com.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 public class ReadAloudResponse {
-    private String audioBase64;
+    // base64 in JSON, a byte string in CBOR and Smile
+    @JsonProperty("audioBase64")
+    private byte[] audio;
+    private String audioUrl;
 
     public ReadAloudResponse() {
     }
 
-    public ReadAloudResponse(String audioBase64) {
-        this.audioBase64 = audioBase64;
+    public ReadAloudResponse(byte[] audio) {
+        this.audio = audio;
+    }
+
+    public byte[] getAudio() {
+        return audio;
+    }
+
+    public void setAudio(byte[] audio) {
+        this.audio = audio;
     }
 
-    public String getAudioBase64() {
-        return audioBase64;
+    public String getAudioUrl() {
+        return audioUrl;
     }
 
-    public void setAudioBase64(String audioBase64) {
-        this.audioBase64 = audioBase64;
+    public void setAudioUrl(String audioUrl) {
+        this.audioUrl = audioUrl;
     }
 }
@@ -0,0 +1,73 @@
+package org.translate.com.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class SpeechSentence {
+    private int index;
+    private String text;
+    private String translation;
+    // base64 in JSON, a byte string in CBOR and Smile
+    @JsonProperty("audioBase64")
+    private byte[] audio;
+    private String audioUrl;
+    private String error;
+
+    public SpeechSentence() {
+    }
+
+    public SpeechSentence(int index, String text, String translation, byte[] audio, String error) {
+        this.index = index;
+        this.text = text;
+        this.translation = translation;
+        this.audio = audio;
+        this.error = error;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+
+    public String getTranslation() {
+        return translation;
+    }
+
+    public void setTranslation(String translation) {
+        this.translation = translation;
+    }
+
+    public byte[] getAudio() {
+        return audio;
+    }
+
+    public void setAudio(byte[] audio) {
+        this.audio = audio;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public String getAudioUrl() {
+        return audioUrl;
+    }
+
+    public void setAudioUrl(String audioUrl) {
+        this.audioUrl = audioUrl;
+    }
+}
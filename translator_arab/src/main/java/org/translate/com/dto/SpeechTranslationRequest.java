@@ -1,37 +1,42 @@
 package org.translate.com.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 public class SpeechTranslationRequest {
-    private String audioBase64;
+    @JsonProperty("audioBase64")
+    private BinaryPayload audio;
     private String audioMimeType;
     private String sourceLanguage = "auto";
     private String targetLanguage = "ary"; // Darija locale code
     private String voice = "standard";
+    // "base64" (inline, default) or "url" (short-lived link to GET /translator/audio/{id})
+    private String audioDelivery = "base64";
 
     public SpeechTranslationRequest() {
     }
 
-    public SpeechTranslationRequest(String audioBase64, String sourceLanguage, String targetLanguage, String voice) {
-        this.audioBase64 = audioBase64;
+    public SpeechTranslationRequest(BinaryPayload audio, String sourceLanguage, String targetLanguage, String voice) {
+        this.audio = audio;
         this.sourceLanguage = sourceLanguage;
         this.targetLanguage = targetLanguage;
         this.voice = voice;
     }
 
-    public SpeechTranslationRequest(String audioBase64, String audioMimeType, String sourceLanguage, String targetLanguage,
+    public SpeechTranslationRequest(BinaryPayload audio, String audioMimeType, String sourceLanguage, String targetLanguage,
             String voice) {
-        this.audioBase64 = audioBase64;
+        this.audio = audio;
         this.audioMimeType = audioMimeType;
         this.sourceLanguage = sourceLanguage;
         this.targetLanguage = targetLanguage;
         this.voice = voice;
     }
 
-    public String getAudioBase64() {
-        return audioBase64;
+    public BinaryPayload getAudio() {
+        return audio;
     }
 
-    public void setAudioBase64(String audioBase64) {
-        this.audioBase64 = audioBase64;
+    public void setAudio(BinaryPayload audio) {
+        this.audio = audio;
     }
 
     public String getAudioMimeType() {
@@ -65,4 +70,12 @@ public class SpeechTranslationRequest {
     public void setVoice(String voice) {
         this.voice = voice;
     }
+
+    public String getAudioDelivery() {
+        return audioDelivery;
+    }
+
+    public void setAudioDelivery(String audioDelivery) {
+        this.audioDelivery = audioDelivery;
+    }
 }
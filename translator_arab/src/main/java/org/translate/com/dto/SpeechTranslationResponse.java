@@ -1,17 +1,22 @@
 package org.translate.com.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 public class SpeechTranslationResponse {
     private String transcript;
     private String translatedText;
-    private String translatedAudioBase64;
+    // base64 in JSON, a byte string in CBOR and Smile
+    @JsonProperty("translatedAudioBase64")
+    private byte[] translatedAudio;
+    private String translatedAudioUrl;
 
     public SpeechTranslationResponse() {
     }
 
-    public SpeechTranslationResponse(String transcript, String translatedText, String translatedAudioBase64) {
+    public SpeechTranslationResponse(String transcript, String translatedText, byte[] translatedAudio) {
         this.transcript = transcript;
         this.translatedText = translatedText;
-        this.translatedAudioBase64 = translatedAudioBase64;
+        this.translatedAudio = translatedAudio;
     }
 
     public String getTranscript() {
@@ -30,11 +35,19 @@ public class SpeechTranslationResponse {
         this.translatedText = translatedText;
     }
 
-    public String getTranslatedAudioBase64() {
-        return translatedAudioBase64;
+    public byte[] getTranslatedAudio() {
+        return translatedAudio;
+    }
+
+    public void setTranslatedAudio(byte[] translatedAudio) {
+        this.translatedAudio = translatedAudio;
+    }
+
+    public String getTranslatedAudioUrl() {
+        return translatedAudioUrl;
     }
 
-    public void setTranslatedAudioBase64(String translatedAudioBase64) {
-        this.translatedAudioBase64 = translatedAudioBase64;
+    public void setTranslatedAudioUrl(String translatedAudioUrl) {
+        this.translatedAudioUrl = translatedAudioUrl;
     }
 }
@@ -2,8 +2,13 @@ package org.translate.com.security;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.security.Principal;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 
 import jakarta.annotation.Priority;
@@ -11,6 +16,7 @@ import jakarta.ws.rs.Priorities;
 import jakarta.ws.rs.container.ContainerRequestContext;
 import jakarta.ws.rs.container.ContainerRequestFilter;
 import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.SecurityContext;
 import jakarta.ws.rs.ext.Provider;
@@ -19,6 +25,10 @@ import org.translate.com.config.EnvConfig;
 /**
  * Basic authentication filter implemented with Jakarta Authentication concepts.
  * This keeps the example lightweight while still exercising the Basic scheme.
+ * Accounts come from {@code TRANSLATOR_USERS} ({@code name:password} pairs, comma separated)
+ * and/or {@code TRANSLATOR_USER} / {@code TRANSLATOR_PASSWORD}. Authenticated requests are
+ * then held to the caller's {@link UserQuotas}; over them they get 429 with Retry-After.
+ * Accounts named in {@code ADMIN_USERS} also have the {@code admin} role.
  */
 @Provider
 @Priority(Priorities.AUTHENTICATION)
@@ -27,10 +37,17 @@ public class BasicAuthFilter implements ContainerRequestFilter {
     private static final String REALM = "translator-api";
     private static final String BASIC_PREFIX = "Basic ";
     private static final Set<String> PUBLIC_PATHS = Set.of("translator/ping");
+    // Published audio: the unguessable id in the path is the credential, so players can fetch it.
+    private static final String PUBLIC_AUDIO_PREFIX = "translator/audio/";
 
-    private final String expectedUsername = EnvConfig.getPreferringFile("TRANSLATOR_USER");
-    private final String expectedPassword = EnvConfig.getPreferringFile("TRANSLATOR_PASSWORD");
-    private final boolean authEnabled = hasText(expectedUsername) && hasText(expectedPassword);
+    static final String ADMIN_ROLE = "admin";
+
+    // Request property holding the admitted caller's usage until QuotaReleaseListener frees it.
+    static final String QUOTA_PROPERTY = "org.translate.com.security.quota";
+
+    private final Map<String, byte[]> users = loadUsers();
+    private final boolean authEnabled = !users.isEmpty();
+    private final Set<String> admins = loadAdmins();
 
     @Override
     public void filter(ContainerRequestContext requestContext) throws IOException {
@@ -39,7 +56,7 @@ public class BasicAuthFilter implements ContainerRequestFilter {
         }
 
         String path = requestContext.getUriInfo().getPath();
-        if (PUBLIC_PATHS.contains(path)) {
+        if (PUBLIC_PATHS.contains(path) || path.startsWith(PUBLIC_AUDIO_PREFIX)) {
             return;
         }
 
@@ -59,9 +76,33 @@ public class BasicAuthFilter implements ContainerRequestFilter {
             return;
         }
 
+        UserQuotas.Usage usage = UserQuotas.forPrincipal(credentials[0]);
+        long retryAfterMs = usage.tryAcquire();
+        if (retryAfterMs > 0) {
+            abortWithTooManyRequests(requestContext, retryAfterMs);
+            return;
+        }
+        requestContext.setProperty(QUOTA_PROPERTY, usage);
         setSecurityContext(requestContext, credentials[0]);
     }
 
+    public boolean isEnabled() {
+        return authEnabled;
+    }
+
+    /**
+     * Same credential check for transports that bypass Jersey filters (WebSocket handshakes).
+     * {@code authHeader} is the full Authorization header value; returns the account name, or
+     * {@code null} when the credentials are missing or wrong.
+     */
+    public String authenticate(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith(BASIC_PREFIX)) {
+            return null;
+        }
+        String[] credentials = decode(authHeader.substring(BASIC_PREFIX.length()).trim());
+        return credentials.length == 2 && isAuthorized(credentials[0], credentials[1]) ? credentials[0] : null;
+    }
+
     private void setSecurityContext(ContainerRequestContext requestContext, String username) {
         SecurityContext original = requestContext.getSecurityContext();
         SecurityContext authenticated = new SecurityContext() {
@@ -72,7 +113,7 @@ public class BasicAuthFilter implements ContainerRequestFilter {
 
             @Override
             public boolean isUserInRole(String role) {
-                return true;
+                return !ADMIN_ROLE.equals(role) || admins.contains(username);
             }
 
             @Override
@@ -90,10 +131,45 @@ public class BasicAuthFilter implements ContainerRequestFilter {
     }
 
     private boolean isAuthorized(String username, String password) {
-        return expectedUsername.equals(username) && expectedPassword.equals(password);
+        byte[] expected = users.get(username);
+        return expected != null && MessageDigest.isEqual(expected, password.getBytes(StandardCharsets.UTF_8));
     }
 
-    private boolean hasText(String value) {
+    private static Map<String, byte[]> loadUsers() {
+        Map<String, byte[]> users = new LinkedHashMap<>();
+        String list = EnvConfig.getPreferringFile("TRANSLATOR_USERS");
+        if (list != null) {
+            for (String entry : list.split(",")) {
+                String[] account = entry.trim().split(":", 2);
+                if (account.length == 2 && hasText(account[0]) && hasText(account[1])) {
+                    users.put(account[0], account[1].getBytes(StandardCharsets.UTF_8));
+                } else if (!entry.isBlank()) {
+                    System.err.println("Ignoring a TRANSLATOR_USERS entry without name:password");
+                }
+            }
+        }
+        String username = EnvConfig.getPreferringFile("TRANSLATOR_USER");
+        String password = EnvConfig.getPreferringFile("TRANSLATOR_PASSWORD");
+        if (hasText(username) && hasText(password)) {
+            users.put(username, password.getBytes(StandardCharsets.UTF_8));
+        }
+        return Collections.unmodifiableMap(users);
+    }
+
+    private static Set<String> loadAdmins() {
+        Set<String> admins = new HashSet<>();
+        String list = EnvConfig.getPreferringFile("ADMIN_USERS");
+        if (list != null) {
+            for (String name : list.split(",")) {
+                if (hasText(name)) {
+                    admins.add(name.trim());
+                }
+            }
+        }
+        return Collections.unmodifiableSet(admins);
+    }
+
+    private static boolean hasText(String value) {
         return value != null && !value.isBlank();
     }
 
@@ -113,4 +189,13 @@ public class BasicAuthFilter implements ContainerRequestFilter {
                 .build();
         requestContext.abortWith(unauthorized);
     }
+
+    private void abortWithTooManyRequests(ContainerRequestContext requestContext, long retryAfterMs) {
+        Response tooMany = Response.status(Response.Status.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Math.max(1, (retryAfterMs + 999) / 1000))
+                .type(MediaType.TEXT_PLAIN_TYPE)
+                .entity("Request quota exceeded, retry later")
+                .build();
+        requestContext.abortWith(tooMany);
+    }
 }
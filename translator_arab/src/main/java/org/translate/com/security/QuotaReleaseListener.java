@@ -0,0 +1,36 @@
+package org.translate.com.security;
+
+import org.glassfish.jersey.server.monitoring.ApplicationEvent;
+import org.glassfish.jersey.server.monitoring.ApplicationEventListener;
+import org.glassfish.jersey.server.monitoring.RequestEvent;
+import org.glassfish.jersey.server.monitoring.RequestEventListener;
+
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Frees the concurrency slot {@link BasicAuthFilter} took once Jersey is done with the request:
+ * after the response is written, streamed responses included, and also when it failed.
+ */
+@Provider
+public class QuotaReleaseListener implements ApplicationEventListener {
+
+    private static final RequestEventListener RELEASE = event -> {
+        if (event.getType() != RequestEvent.Type.FINISHED) {
+            return;
+        }
+        Object usage = event.getContainerRequest().getProperty(BasicAuthFilter.QUOTA_PROPERTY);
+        if (usage instanceof UserQuotas.Usage) {
+            event.getContainerRequest().removeProperty(BasicAuthFilter.QUOTA_PROPERTY);
+            ((UserQuotas.Usage) usage).release();
+        }
+    };
+
+    @Override
+    public void onEvent(ApplicationEvent event) {
+    }
+
+    @Override
+    public RequestEventListener onRequest(RequestEvent requestEvent) {
+        return RELEASE;
+    }
+}
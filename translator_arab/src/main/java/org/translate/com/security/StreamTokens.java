@@ -0,0 +1,105 @@
+package org.translate.com.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.translate.com.config.EnvConfig;
+
+/**
+ * Short-lived, single-use tokens that let browsers open the speech WebSocket without putting
+ * reusable credentials in its URL. A client authenticated with Basic credentials asks for one
+ * and passes it as the {@code token} query parameter of the handshake. A token names its
+ * principal and expiry ({@code STREAM_TOKEN_TTL_SECONDS}, 60 by default) and is signed with
+ * {@code STREAM_TOKEN_SECRET}; without one a random per-process key is used, so tokens only work
+ * on the instance that issued them.
+ */
+public final class StreamTokens {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private static final long TTL_MILLIS = TimeUnit.SECONDS.toMillis(
+            Math.max(1, EnvConfig.getInt("STREAM_TOKEN_TTL_SECONDS", 60)));
+    private static final byte[] KEY = loadKey();
+
+    // Nonces of redeemed tokens, with their expiry, so a token opens one connection only.
+    private static final ConcurrentHashMap<String, Long> REDEEMED = new ConcurrentHashMap<>();
+
+    private StreamTokens() {
+    }
+
+    public static long ttlSeconds() {
+        return TimeUnit.MILLISECONDS.toSeconds(TTL_MILLIS);
+    }
+
+    public static String issue(String principal) {
+        byte[] nonce = new byte[12];
+        RANDOM.nextBytes(nonce);
+        String body = ENCODER.encodeToString(principal.getBytes(StandardCharsets.UTF_8)) + "."
+                + (System.currentTimeMillis() + TTL_MILLIS) + "." + ENCODER.encodeToString(nonce);
+        return body + "." + ENCODER.encodeToString(sign(body));
+    }
+
+    /**
+     * The principal of a valid, unexpired token that has not been used before, or
+     * {@code null}.
+     */
+    public static String redeem(String token) {
+        if (token == null) {
+            return null;
+        }
+        String[] parts = token.trim().split("\\.");
+        if (parts.length != 4) {
+            return null;
+        }
+        try {
+            String body = parts[0] + "." + parts[1] + "." + parts[2];
+            if (!MessageDigest.isEqual(sign(body), DECODER.decode(parts[3]))) {
+                return null;
+            }
+            long expiresAt = Long.parseLong(parts[1]);
+            long now = System.currentTimeMillis();
+            if (expiresAt <= now) {
+                return null;
+            }
+            REDEEMED.values().removeIf(expiry -> expiry <= now);
+            if (REDEEMED.putIfAbsent(parts[2], expiresAt) != null) {
+                return null;
+            }
+            return new String(DECODER.decode(parts[0]), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            // Bad base64 or expiry (NumberFormatException is one too).
+            return null;
+        }
+    }
+
+    private static byte[] sign(String body) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(KEY, ALGORITHM));
+            return mac.doFinal(body.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ALGORITHM + " unavailable", ex);
+        }
+    }
+
+    private static byte[] loadKey() {
+        String secret = EnvConfig.getPreferringFile("STREAM_TOKEN_SECRET");
+        if (secret != null && !secret.isBlank()) {
+            return secret.getBytes(StandardCharsets.UTF_8);
+        }
+        byte[] key = new byte[32];
+        RANDOM.nextBytes(key);
+        return key;
+    }
+}
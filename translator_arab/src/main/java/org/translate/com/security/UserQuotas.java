@@ -0,0 +1,186 @@
+package org.translate.com.security;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.translate.com.config.EnvConfig;
+
+/**
+ * Per-principal request quotas: a rate ({@code RATE_LIMIT_PER_MINUTE}, bursts of
+ * {@code RATE_LIMIT_BURST}) and a cap on requests in progress
+ * ({@code MAX_CONCURRENT_REQUESTS_PER_USER}); 0 turns either off. {@code USER_QUOTAS} overrides
+ * both per user, as {@code name=perMinute/concurrent} pairs. Admission is a few CAS operations
+ * on the caller's own counters, so principals never contend with each other.
+ */
+public final class UserQuotas {
+
+    private static final long MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static final int DEFAULT_PER_MINUTE = Math.max(0, EnvConfig.getInt("RATE_LIMIT_PER_MINUTE", 0));
+    private static final int BURST = Math.max(0, EnvConfig.getInt("RATE_LIMIT_BURST", 0));
+    private static final int DEFAULT_CONCURRENT = Math.max(0, EnvConfig.getInt("MAX_CONCURRENT_REQUESTS_PER_USER", 0));
+    private static final Map<String, int[]> OVERRIDES = parseOverrides(EnvConfig.get("USER_QUOTAS"),
+            DEFAULT_CONCURRENT);
+
+    private static final ConcurrentHashMap<String, Usage> USAGE = new ConcurrentHashMap<>();
+
+    private UserQuotas() {
+    }
+
+    public static Usage forPrincipal(String principal) {
+        Usage usage = USAGE.get(principal);
+        return usage != null ? usage : USAGE.computeIfAbsent(principal, Usage::new);
+    }
+
+    public static Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("perMinute", DEFAULT_PER_MINUTE);
+        stats.put("concurrent", DEFAULT_CONCURRENT);
+        Map<String, Object> users = new TreeMap<>();
+        USAGE.forEach((name, usage) -> users.put(name, usage.snapshot()));
+        stats.put("users", users);
+        return stats;
+    }
+
+    static Map<String, int[]> parseOverrides(String value, int defaultConcurrent) {
+        Map<String, int[]> overrides = new HashMap<>();
+        if (value == null || value.isBlank()) {
+            return overrides;
+        }
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split("=", 2);
+            if (parts.length != 2 || parts[0].isBlank()) {
+                System.err.println("Ignoring USER_QUOTAS entry '" + entry.trim() + "' (expected name=perMinute/concurrent)");
+                continue;
+            }
+            String[] limits = parts[1].trim().split("/", 2);
+            try {
+                int perMinute = Math.max(0, Integer.parseInt(limits[0].trim()));
+                int concurrent = limits.length > 1 ? Math.max(0, Integer.parseInt(limits[1].trim())) : defaultConcurrent;
+                overrides.put(parts[0].trim(), new int[] { perMinute, concurrent });
+            } catch (NumberFormatException e) {
+                System.err.println("Ignoring USER_QUOTAS entry '" + entry.trim() + "' (expected name=perMinute/concurrent)");
+            }
+        }
+        return overrides;
+    }
+
+    /**
+     * One principal's limits and counters. The rate limit is a token bucket kept as the time
+     * the bucket is next full again (GCRA), so taking a token is a single compare-and-set.
+     */
+    public static final class Usage {
+        private final String principal;
+        private final int perMinute;
+        private final int concurrent;
+        private final long interval;
+        private final long burstWindow;
+        private final AtomicLong fullAt = new AtomicLong(System.nanoTime());
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger peakInFlight = new AtomicInteger();
+        private final LongAdder admitted = new LongAdder();
+        private final LongAdder rateLimited = new LongAdder();
+        private final LongAdder concurrencyLimited = new LongAdder();
+
+        Usage(String principal) {
+            this(principal, OVERRIDES.getOrDefault(principal, new int[] { DEFAULT_PER_MINUTE, DEFAULT_CONCURRENT }),
+                    BURST);
+        }
+
+        private Usage(String principal, int[] limits, int burst) {
+            this(principal, limits[0], limits[1], burst);
+        }
+
+        Usage(String principal, int perMinute, int concurrent, int burst) {
+            this.principal = principal;
+            this.perMinute = perMinute;
+            this.concurrent = concurrent;
+            this.interval = perMinute > 0 ? MINUTE_NANOS / perMinute : 0;
+            // Ten seconds' worth unless RATE_LIMIT_BURST says otherwise.
+            this.burstWindow = interval * (burst > 0 ? burst : Math.max(1, perMinute / 6));
+        }
+
+        public String getPrincipal() {
+            return principal;
+        }
+
+        /**
+         * Admits a request, or returns how many milliseconds to wait before retrying. An
+         * admitted request holds a concurrency slot until {@link #release()}.
+         */
+        public long tryAcquire() {
+            if (!takeSlot()) {
+                concurrencyLimited.increment();
+                // Slots free up as soon as any request ends; there is no better estimate.
+                return 1000;
+            }
+            long waitNanos = takeToken();
+            if (waitNanos > 0) {
+                releaseSlot();
+                rateLimited.increment();
+                return Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitNanos));
+            }
+            admitted.increment();
+            return 0;
+        }
+
+        public void release() {
+            releaseSlot();
+        }
+
+        private boolean takeSlot() {
+            int current;
+            do {
+                current = inFlight.get();
+                if (concurrent > 0 && current >= concurrent) {
+                    return false;
+                }
+            } while (!inFlight.compareAndSet(current, current + 1));
+            if (current + 1 > peakInFlight.get()) {
+                peakInFlight.accumulateAndGet(current + 1, Math::max);
+            }
+            return true;
+        }
+
+        private void releaseSlot() {
+            inFlight.decrementAndGet();
+        }
+
+        private long takeToken() {
+            if (interval == 0) {
+                return 0;
+            }
+            long now = System.nanoTime();
+            for (;;) {
+                long full = fullAt.get();
+                long next = Math.max(full, now) + interval;
+                long wait = next - now - burstWindow;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (fullAt.compareAndSet(full, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        Map<String, Object> snapshot() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("perMinute", perMinute);
+            stats.put("concurrent", concurrent);
+            stats.put("admitted", admitted.sum());
+            stats.put("rateLimited", rateLimited.sum());
+            stats.put("concurrencyLimited", concurrencyLimited.sum());
+            stats.put("inFlight", inFlight.get());
+            stats.put("peakInFlight", peakInFlight.get());
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package org.translate.com.services;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.translate.com.config.EnvConfig;
+
+/**
+ * Short-lived audio files handed out by URL instead of inline base64. Each asset gets a
+ * random 128-bit id, which is the only credential needed to fetch it, and expires after
+ * {@code AUDIO_URL_TTL_SECONDS}. Clips already in the {@link AudioCache} are hard-linked
+ * rather than copied, so evicting them from the cache does not break a live URL.
+ *
+ * <p>Ids only live in memory: the directory is emptied at startup.
+ */
+public class AudioAssetStore {
+
+    private static final int ID_BYTES = 16;
+
+    private final Path dir;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final SecureRandom random = new SecureRandom();
+
+    // id -> asset in creation order; with a single TTL that is also expiry order.
+    private final LinkedHashMap<String, Asset> assets = new LinkedHashMap<>();
+    private long totalBytes;
+
+    private final AtomicLong registered = new AtomicLong();
+    private final AtomicLong linked = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+
+    /**
+     * One stored clip. Immutable: its id never points at other content, so the id doubles
+     * as a strong validator.
+     */
+    public static final class Asset {
+        private final String id;
+        private final Path file;
+        private final String mediaType;
+        private final long size;
+        private final long expiresAt;
+
+        Asset(String id, Path file, String mediaType, long size, long expiresAt) {
+            this.id = id;
+            this.file = file;
+            this.mediaType = mediaType;
+            this.size = size;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Path getFile() {
+            return file;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+    }
+
+    public AudioAssetStore() {
+        this.dir = Paths.get(EnvConfig.getOrDefault("AUDIO_ASSET_DIR", "cache/assets"));
+        this.ttlMillis = Math.max(1, EnvConfig.getInt("AUDIO_URL_TTL_SECONDS", 600)) * 1000L;
+        this.maxEntries = Math.max(1, EnvConfig.getInt("AUDIO_ASSET_MAX_ENTRIES", 10000));
+        clearDir();
+        long period = Math.max(1000, Math.min(60000, ttlMillis / 4));
+        ServiceExecutors.timers().scheduleWithFixedDelay(this::purgeExpired, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stores {@code audio} and returns its id.
+     */
+    public String register(SynthesizedAudio audio) throws IOException {
+        String id = newId();
+        Path target = dir.resolve(id + "." + AudioCache.extension(audio.getMediaType()));
+        Path source = audio.getFile();
+        if (source != null && link(source, target)) {
+            linked.incrementAndGet();
+        } else if (source != null) {
+            Files.copy(source, target);
+        } else {
+            Files.write(target, audio.toBytes());
+        }
+        Asset asset = new Asset(id, target, audio.getMediaType(), Files.size(target),
+                System.currentTimeMillis() + ttlMillis);
+        List<Asset> dropped = new ArrayList<>();
+        synchronized (this) {
+            assets.put(id, asset);
+            totalBytes += asset.size;
+            Iterator<Asset> oldest = assets.values().iterator();
+            while (assets.size() > maxEntries && oldest.hasNext()) {
+                Asset old = oldest.next();
+                oldest.remove();
+                totalBytes -= old.size;
+                dropped.add(old);
+            }
+        }
+        delete(dropped);
+        registered.incrementAndGet();
+        return id;
+    }
+
+    /**
+     * The asset for {@code id}, or null when unknown or expired.
+     */
+    public Asset get(String id) {
+        Asset asset;
+        synchronized (this) {
+            asset = assets.get(id);
+        }
+        return asset == null || asset.expiresAt <= System.currentTimeMillis() ? null : asset;
+    }
+
+    private boolean link(Path source, Path target) {
+        try {
+            Files.createLink(target, source);
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            // Different file system, or no hard links: copy instead.
+            return false;
+        }
+    }
+
+    private String newId() {
+        byte[] bytes = new byte[ID_BYTES];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private void purgeExpired() {
+        long now = System.currentTimeMillis();
+        List<Asset> dropped = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Asset> oldest = assets.values().iterator();
+            while (oldest.hasNext()) {
+                Asset asset = oldest.next();
+                if (asset.expiresAt > now) {
+                    break;
+                }
+                oldest.remove();
+                totalBytes -= asset.size;
+                dropped.add(asset);
+            }
+        }
+        expired.addAndGet(dropped.size());
+        delete(dropped);
+    }
+
+    private static void delete(List<Asset> dropped) {
+        for (Asset asset : dropped) {
+            try {
+                // A download in progress keeps its open file readable.
+                Files.deleteIfExists(asset.file);
+            } catch (IOException e) {
+                System.err.println("Audio assets: failed to delete " + asset.file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void clearDir() {
+        try {
+            Files.createDirectories(dir);
+            try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(dir)) {
+                for (Path file : leftovers) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Audio assets: failed to prepare " + dir + ": " + e.getMessage());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (this) {
+            stats.put("entries", assets.size());
+            stats.put("bytes", totalBytes);
+        }
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlSeconds", ttlMillis / 1000);
+        stats.put("registered", registered.get());
+        stats.put("linkedFromCache", linked.get());
+        stats.put("expired", expired.get());
+        stats.put("dir", dir.toString());
+        return stats;
+    }
+}
@@ -0,0 +1,521 @@
+package org.translate.com.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.translate.com.config.EnvConfig;
+import org.translate.com.config.Tunables;
+
+/**
+ * Content-addressed disk cache for synthesized audio. Each clip is stored once as
+ * {@code <TTS_CACHE_DIR>/<2 hex>/<sha256>.<ext>}, where the hash covers everything that
+ * changes the audio (text, language, voice, backend, format). An in-memory index tracks
+ * sizes and recency and evicts least recently used files beyond {@code TTS_CACHE_MAX_MB}.
+ *
+ * <p>The index is rebuilt from the directory in the background at startup; until then
+ * lookups probe the file the hash maps to, which is always correct because names are
+ * derived from content.
+ *
+ * <p>With a shared {@link ResultCache} configured, clips missing here are fetched from it
+ * (under {@code tts:<hash>}) and stored on disk, and new clips up to
+ * {@code SHARED_MAX_BYTES} are published to it.
+ */
+public class AudioCache {
+
+    private static final String[] EXTENSIONS = { "mp3", "wav", "ogg", "opus", "aac", "flac" };
+    // Longer clips stay local: one would hold a shared-cache connection for too long.
+    private static final long SHARED_MAX_BYTES = 2L * 1024 * 1024;
+
+    private final ResultCache shared;
+
+    private final boolean enabled;
+    private final Path dir;
+    private volatile long maxBytes;
+
+    // hash -> entry, access ordered so the first entry is the least recently used.
+    private final LinkedHashMap<String, Entry> index = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+    private volatile boolean indexReady;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong sharedHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stores = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private volatile long rebuildMillis = -1;
+
+    private static final class Entry {
+        final Path file;
+        final long size;
+
+        Entry(Path file, long size) {
+            this.file = file;
+            this.size = size;
+        }
+    }
+
+    public AudioCache() {
+        this(EnvConfig.getBoolean("TTS_CACHE_ENABLED", true) ? EnvConfig.getOrDefault("TTS_CACHE_DIR", "cache/tts")
+                : null, Tunables.TTS_CACHE_MAX_MB.getInt() * 1024L * 1024L, ResultCaches.shared());
+    }
+
+    /**
+     * {@code directory} null or blank disables the cache.
+     */
+    AudioCache(String directory, long maxBytes, ResultCache shared) {
+        this.maxBytes = maxBytes;
+        this.shared = shared;
+        Path path = initDir(directory);
+        this.dir = path;
+        this.enabled = path != null;
+        if (enabled) {
+            Thread rebuild = new Thread(this::rebuildIndex, "tts-cache-index");
+            rebuild.setDaemon(true);
+            rebuild.start();
+        }
+    }
+
+    /**
+     * Cache key for one synthesis request.
+     */
+    public static String key(String text, String language, String voice, String backend, String format) {
+        String joined = String.join("\u0000", text, String.valueOf(language), String.valueOf(voice), backend, format);
+        return TextResultCache.sha256Hex(joined.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * File holding the audio for the first of {@code hashes} that is cached, or null on a
+     * miss. Callers pass one hash per backend that could have produced the clip.
+     */
+    public Path get(List<String> hashes) {
+        if (!enabled) {
+            return null;
+        }
+        for (String hash : hashes) {
+            Path file = lookup(hash);
+            if (file != null) {
+                hits.incrementAndGet();
+                touch(file);
+                return file;
+            }
+        }
+        Path file = fetchShared(hashes);
+        if (file != null) {
+            sharedHits.incrementAndGet();
+            return file;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Copies the first of {@code hashes} the shared cache has to disk, in one round trip.
+     */
+    private Path fetchShared(List<String> hashes) {
+        if (shared == null) {
+            return null;
+        }
+        List<String> keys = new ArrayList<>(hashes.size());
+        for (String hash : hashes) {
+            keys.add("tts:" + hash);
+        }
+        List<byte[]> values = shared.getAll(keys);
+        for (int i = 0; i < values.size(); i++) {
+            String extension = ResultCodec.audioExtension(values.get(i));
+            if (extension != null) {
+                byte[] audio = ResultCodec.audioBytes(values.get(i));
+                Writer writer = openWriter(hashes.get(i), extension);
+                if (writer == null) {
+                    return null;
+                }
+                writer.shared = true;
+                writer.write(audio, 0, audio.length);
+                return writer.commit();
+            }
+        }
+        return null;
+    }
+
+    private Path lookup(String hash) {
+        Entry entry;
+        synchronized (this) {
+            entry = index.get(hash);
+        }
+        Path file = entry != null ? entry.file : null;
+        if (file == null && !indexReady) {
+            file = probe(hash);
+        }
+        if (file != null && !Files.isRegularFile(file)) {
+            // Deleted behind our back.
+            if (entry != null) {
+                forget(hash, entry);
+            }
+            return null;
+        }
+        return file;
+    }
+
+    /**
+     * Stores a clip under {@code hash}.
+     */
+    public Path put(String hash, String extension, byte[] audio) {
+        if (audio == null || audio.length == 0) {
+            return null;
+        }
+        Writer writer = openWriter(hash, extension);
+        if (writer == null) {
+            return null;
+        }
+        writer.write(audio, 0, audio.length);
+        return writer.commit();
+    }
+
+    /**
+     * Starts storing a clip that arrives in pieces (streamed upstream responses). Returns
+     * null when the cache is disabled.
+     */
+    public Writer openWriter(String hash, String extension) {
+        if (!enabled) {
+            return null;
+        }
+        Path file = fileFor(hash, extension);
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), hash, ".part");
+            return new Writer(hash, file, temp, Files.newOutputStream(temp));
+        } catch (IOException e) {
+            System.err.println("TTS cache: failed to store entry: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Clip being written next to its final name; {@link #commit()} moves it into place, so
+     * readers never see a partial file. Write errors only disable caching of this clip, they
+     * never reach the caller.
+     */
+    public final class Writer {
+        private final String hash;
+        private final Path file;
+        private final Path temp;
+        private final OutputStream out;
+        private long size;
+        private boolean failed;
+        // Came from the shared cache: no need to publish it back.
+        private boolean shared;
+
+        private Writer(String hash, Path file, Path temp, OutputStream out) {
+            this.hash = hash;
+            this.file = file;
+            this.temp = temp;
+            this.out = out;
+        }
+
+        public void write(byte[] bytes, int offset, int length) {
+            if (failed) {
+                return;
+            }
+            size += length;
+            if (size > maxBytes) {
+                failed = true;
+                return;
+            }
+            try {
+                out.write(bytes, offset, length);
+            } catch (IOException e) {
+                failed = true;
+            }
+        }
+
+        /**
+         * Publishes the clip, or drops it if a write failed. Returns the cache file or null.
+         */
+        public Path commit() {
+            try {
+                out.close();
+                if (failed || size == 0) {
+                    return null;
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.err.println("TTS cache: failed to store entry: " + e.getMessage());
+                return null;
+            } finally {
+                discard();
+            }
+            stores.incrementAndGet();
+            record(hash, new Entry(file, size));
+            if (!shared) {
+                publish(hash, file, size);
+            }
+            return file;
+        }
+
+        /**
+         * Drops the partial clip (client went away, upstream failed mid-stream).
+         */
+        public void abort() {
+            try {
+                out.close();
+            } catch (IOException e) {
+                // Deleted below anyway.
+            }
+            discard();
+        }
+
+        private void discard() {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException e) {
+                // Removed by the next index rebuild.
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        synchronized (this) {
+            stats.put("entries", index.size());
+            stats.put("bytes", totalBytes);
+        }
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hits.get());
+        if (shared != null) {
+            stats.put("sharedHits", sharedHits.get());
+        }
+        stats.put("misses", misses.get());
+        stats.put("stores", stores.get());
+        stats.put("evictions", evictions.get());
+        stats.put("indexReady", indexReady);
+        stats.put("indexRebuildMillis", rebuildMillis);
+        if (dir != null) {
+            stats.put("dir", dir.toString());
+        }
+        return stats;
+    }
+
+    public static String mediaType(String extension) {
+        switch (extension) {
+            case "wav":
+                return "audio/wav";
+            case "ogg":
+            case "opus":
+                return "audio/ogg";
+            case "aac":
+                return "audio/aac";
+            case "flac":
+                return "audio/flac";
+            default:
+                return "audio/mpeg";
+        }
+    }
+
+    /**
+     * Extension for a response Content-Type; unknown types are assumed to be MP3, the
+     * default of every backend we call.
+     */
+    public static String extension(String mediaType) {
+        if (mediaType == null) {
+            return "mp3";
+        }
+        String type = mediaType.split(";", 2)[0].trim().toLowerCase();
+        switch (type) {
+            case "audio/wav":
+            case "audio/wave":
+            case "audio/x-wav":
+                return "wav";
+            case "audio/ogg":
+            case "audio/opus":
+                return "ogg";
+            case "audio/aac":
+                return "aac";
+            case "audio/flac":
+                return "flac";
+            default:
+                return "mp3";
+        }
+    }
+
+    private void record(String hash, Entry entry) {
+        synchronized (this) {
+            Entry previous = index.put(hash, entry);
+            if (previous != null) {
+                totalBytes -= previous.size;
+            }
+            totalBytes += entry.size;
+        }
+        evictOverflow(entry);
+    }
+
+    /**
+     * Deletes least recently used files until the total fits {@code TTS_CACHE_MAX_MB};
+     * {@code keep} (the entry just stored) is never chosen.
+     */
+    private void evictOverflow(Entry keep) {
+        List<Entry> evicted = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Entry> it = index.values().iterator();
+            while (totalBytes > maxBytes && it.hasNext()) {
+                Entry eldest = it.next();
+                if (eldest == keep) {
+                    continue;
+                }
+                totalBytes -= eldest.size;
+                evicted.add(eldest);
+                it.remove();
+            }
+        }
+        for (Entry victim : evicted) {
+            try {
+                Files.deleteIfExists(victim.file);
+                evictions.incrementAndGet();
+            } catch (IOException e) {
+                // Best-effort cleanup; the next rebuild picks the file up again.
+            }
+        }
+    }
+
+    /**
+     * Changes the size bound; lowering it deletes least recently used files at once.
+     */
+    public void setMaxMegabytes(int megabytes) {
+        maxBytes = Math.max(1, megabytes) * 1024L * 1024L;
+        if (enabled) {
+            evictOverflow(null);
+        }
+    }
+
+    private void publish(String hash, Path file, long size) {
+        if (shared == null || size > SHARED_MAX_BYTES) {
+            return;
+        }
+        String name = file.getFileName().toString();
+        try {
+            byte[] audio = Files.readAllBytes(file);
+            shared.put("tts:" + hash, ResultCodec.encodeAudio(name.substring(name.lastIndexOf('.') + 1), audio));
+        } catch (IOException e) {
+            // Evicted meanwhile; other instances synthesize it themselves.
+        }
+    }
+
+    private synchronized void forget(String hash, Entry entry) {
+        if (index.remove(hash, entry)) {
+            totalBytes -= entry.size;
+        }
+    }
+
+    /**
+     * One pass over the directory with the attributes the walk already provides, oldest
+     * first so the LRU order approximates the one before the restart.
+     */
+    private void rebuildIndex() {
+        long started = System.nanoTime();
+        Map<String, Entry> found = new LinkedHashMap<>();
+        Map<String, Long> modified = new LinkedHashMap<>();
+        try {
+            Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    String name = file.getFileName().toString();
+                    int dot = name.lastIndexOf('.');
+                    if (attrs.isRegularFile() && dot == 64) {
+                        String hash = name.substring(0, dot);
+                        found.put(hash, new Entry(file, attrs.size()));
+                        modified.put(hash, attrs.lastModifiedTime().toMillis());
+                    } else if (name.endsWith(".part")) {
+                        // Left behind by a crash while storing.
+                        file.toFile().delete();
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("TTS cache: index rebuild failed: " + e.getMessage());
+        }
+        List<String> oldestFirst = new ArrayList<>(found.keySet());
+        oldestFirst.sort(Comparator.comparingLong(modified::get));
+
+        synchronized (this) {
+            // Entries stored while the walk ran are newer: keep them at the recent end.
+            LinkedHashMap<String, Entry> stored = new LinkedHashMap<>(index);
+            index.clear();
+            totalBytes = 0;
+            for (String hash : oldestFirst) {
+                if (!stored.containsKey(hash)) {
+                    Entry entry = found.get(hash);
+                    index.put(hash, entry);
+                    totalBytes += entry.size;
+                }
+            }
+            for (Map.Entry<String, Entry> entry : stored.entrySet()) {
+                index.put(entry.getKey(), entry.getValue());
+                totalBytes += entry.getValue().size;
+            }
+        }
+        // Applies the bound to what was on disk, e.g. after TTS_CACHE_MAX_MB was lowered.
+        evictOverflow(null);
+        indexReady = true;
+        rebuildMillis = (System.nanoTime() - started) / 1_000_000;
+    }
+
+    private Path probe(String hash) {
+        for (String extension : EXTENSIONS) {
+            Path file = fileFor(hash, extension);
+            if (Files.isRegularFile(file)) {
+                return file;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Keeps the modification time in step with use so that a rebuilt index orders entries
+     * as they were last used, not as they were first stored.
+     */
+    private void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Only affects eviction order after a restart.
+        }
+    }
+
+    private Path fileFor(String hash, String extension) {
+        return dir.resolve(hash.substring(0, 2)).resolve(hash + "." + extension);
+    }
+
+    private Path initDir(String directory) {
+        if (directory == null || directory.isBlank()) {
+            return null;
+        }
+        try {
+            Path path = Paths.get(directory);
+            Files.createDirectories(path);
+            return path;
+        } catch (IOException e) {
+            System.err.println("TTS cache disabled: " + e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package org.translate.com.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits long 16-bit mono PCM into overlapping chunks cut at the quietest point near each
+ * boundary, and stitches the chunk transcripts back together without the words the
+ * overlap made Whisper hear twice.
+ */
+public final class AudioChunker {
+
+    private static final int SMOOTHING_FRAMES = 5;
+    private static final int MAX_OVERLAP_WORDS = 16;
+    private static final int MAX_EDGE_WORDS = 2;
+
+    private AudioChunker() {
+    }
+
+    /**
+     * Byte range {@code [start, end)} of one chunk within the PCM buffer.
+     */
+    public static final class Chunk {
+        private final int start;
+        private final int end;
+
+        Chunk(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        public int length() {
+            return end - start;
+        }
+    }
+
+    /**
+     * Plans chunks of at most {@code chunkMs}. Each cut is placed at the quietest ~100 ms in
+     * the last quarter of the chunk, and the next chunk starts {@code overlapMs} before it
+     * so a word split by the cut is heard whole at least once.
+     */
+    public static List<Chunk> plan(byte[] pcm, int sampleRate, int chunkMs, int overlapMs) {
+        int frameBytes = sampleRate * VoiceActivityDetector.FRAME_MS / 1000 * 2;
+        int chunkFrames = Math.max(1, chunkMs / VoiceActivityDetector.FRAME_MS);
+        int overlapFrames = Math.min(chunkFrames / 4, overlapMs / VoiceActivityDetector.FRAME_MS);
+        int totalFrames = (pcm.length + frameBytes - 1) / frameBytes;
+        double[] levels = smoothedLevels(pcm, frameBytes, totalFrames);
+
+        List<Chunk> chunks = new ArrayList<>();
+        int startFrame = 0;
+        while (startFrame < totalFrames) {
+            if (totalFrames - startFrame <= chunkFrames) {
+                chunks.add(new Chunk(startFrame * frameBytes, pcm.length));
+                break;
+            }
+            int searchFrom = startFrame + chunkFrames * 3 / 4;
+            int searchTo = startFrame + chunkFrames;
+            int cut = searchTo;
+            for (int f = searchFrom; f < searchTo; f++) {
+                if (levels[f] < levels[cut]) {
+                    cut = f;
+                }
+            }
+            chunks.add(new Chunk(startFrame * frameBytes, cut * frameBytes));
+            startFrame = Math.max(startFrame + 1, cut - overlapFrames);
+        }
+        return chunks;
+    }
+
+    private static double[] smoothedLevels(byte[] pcm, int frameBytes, int totalFrames) {
+        double[] raw = new double[totalFrames];
+        for (int f = 0; f < totalFrames; f++) {
+            int offset = f * frameBytes;
+            raw[f] = VoiceActivityDetector.levelDb(pcm, offset, Math.min(frameBytes, pcm.length - offset));
+        }
+        // Average over ~100 ms so a cut lands in a pause rather than a gap inside a word.
+        double[] smoothed = new double[totalFrames + 1];
+        for (int f = 0; f < totalFrames; f++) {
+            int from = Math.max(0, f - SMOOTHING_FRAMES / 2);
+            int to = Math.min(totalFrames, f + SMOOTHING_FRAMES / 2 + 1);
+            double sum = 0;
+            for (int i = from; i < to; i++) {
+                sum += raw[i];
+            }
+            smoothed[f] = sum / (to - from);
+        }
+        smoothed[totalFrames] = Double.MAX_VALUE;
+        return smoothed;
+    }
+
+    /**
+     * Joins chunk transcripts in order. Where the end of one transcript and the start of the
+     * next repeat the same words (the overlap), the repetition is dropped from the next one;
+     * up to {@code MAX_EDGE_WORDS} partial words at the cut may precede the repeated run.
+     */
+    public static String stitch(List<String> transcripts) {
+        List<String> words = new ArrayList<>();
+        for (String transcript : transcripts) {
+            if (transcript == null || transcript.isBlank()) {
+                continue;
+            }
+            List<String> next = Arrays.asList(transcript.trim().split("\\s+"));
+            int skip = overlap(words, next);
+            words.addAll(next.subList(skip, next.size()));
+        }
+        return String.join(" ", words);
+    }
+
+    /**
+     * Number of leading words of {@code next} already present at the end of {@code previous}.
+     */
+    private static int overlap(List<String> previous, List<String> next) {
+        int max = Math.min(MAX_OVERLAP_WORDS, Math.min(previous.size(), next.size()));
+        for (int length = max; length >= 1; length--) {
+            for (int edge = 0; edge <= MAX_EDGE_WORDS && edge + length <= next.size(); edge++) {
+                // A single repeated word only counts when it is long enough not to be a coincidence.
+                if (length == 1 && (edge > 0 || normalize(next.get(0)).length() < 4)) {
+                    continue;
+                }
+                if (matches(previous, previous.size() - length, next, edge, length)) {
+                    return edge + length;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static boolean matches(List<String> a, int aFrom, List<String> b, int bFrom, int length) {
+        for (int i = 0; i < length; i++) {
+            String left = normalize(a.get(aFrom + i));
+            if (left.isEmpty() || !left.equals(normalize(b.get(bFrom + i)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String normalize(String word) {
+        return word.replaceAll("[\\p{Punct}«»،؟“”…]", "").toLowerCase(Locale.ROOT);
+    }
+}
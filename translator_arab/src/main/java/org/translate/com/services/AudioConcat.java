@@ -0,0 +1,210 @@
+package org.translate.com.services;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Joins clips synthesized separately into one file of the same format. WAV clips are merged
+ * into a single data chunk under a rewritten header. MP3 clips are joined frame to frame:
+ * tags between clips are dropped, and so are Xing/Info/VBRI header frames, whose frame
+ * counts would describe a single clip. Returns null when the clips cannot be joined
+ * (unknown format, different sample formats).
+ */
+public final class AudioConcat {
+
+    private static final int ID3V2_HEADER = 10;
+    private static final int ID3V1_SIZE = 128;
+
+    private static final int[] MPEG1_L3_KBPS = { 0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320 };
+    private static final int[] MPEG2_L3_KBPS = { 0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160 };
+    private static final int[] MPEG1_RATES = { 44100, 48000, 32000 };
+
+    private AudioConcat() {
+    }
+
+    public static byte[] concat(List<byte[]> clips, String mediaType) {
+        if (clips.isEmpty()) {
+            return null;
+        }
+        if (clips.size() == 1) {
+            return clips.get(0);
+        }
+        String type = mediaType == null ? "" : mediaType.toLowerCase();
+        if (type.contains("wav")) {
+            return concatWav(clips);
+        }
+        if (type.equals("audio/mpeg") || type.equals("audio/mp3")) {
+            return concatMp3(clips);
+        }
+        return null;
+    }
+
+    // ----- WAV -----
+
+    private static final class WavClip {
+        byte[] format;
+        int dataOffset = -1;
+        int dataLength;
+    }
+
+    private static byte[] concatWav(List<byte[]> clips) {
+        List<WavClip> parsed = new ArrayList<>();
+        long total = 0;
+        for (byte[] clip : clips) {
+            WavClip wav = parseWav(clip);
+            if (wav == null || (!parsed.isEmpty() && !Arrays.equals(wav.format, parsed.get(0).format))) {
+                return null;
+            }
+            parsed.add(wav);
+            total += wav.dataLength;
+        }
+        byte[] format = parsed.get(0).format;
+        int headerSize = 12 + 8 + format.length + 8;
+        if (headerSize + total > Integer.MAX_VALUE) {
+            return null;
+        }
+        ByteBuffer out = ByteBuffer.allocate(headerSize + (int) total).order(ByteOrder.LITTLE_ENDIAN);
+        out.put(new byte[] { 'R', 'I', 'F', 'F' });
+        out.putInt(headerSize - 8 + (int) total);
+        out.put(new byte[] { 'W', 'A', 'V', 'E', 'f', 'm', 't', ' ' });
+        out.putInt(format.length);
+        out.put(format);
+        out.put(new byte[] { 'd', 'a', 't', 'a' });
+        out.putInt((int) total);
+        for (int i = 0; i < clips.size(); i++) {
+            out.put(clips.get(i), parsed.get(i).dataOffset, parsed.get(i).dataLength);
+        }
+        return out.array();
+    }
+
+    /**
+     * Finds the fmt and data chunks. A data length past the end of the clip (streamed WAV
+     * headers use 0 or 0xFFFFFFFF) is taken to mean "up to the end".
+     */
+    private static WavClip parseWav(byte[] clip) {
+        if (clip.length < 12 || !tag(clip, 0, "RIFF") || !tag(clip, 8, "WAVE")) {
+            return null;
+        }
+        ByteBuffer in = ByteBuffer.wrap(clip).order(ByteOrder.LITTLE_ENDIAN);
+        WavClip wav = new WavClip();
+        int offset = 12;
+        while (offset + 8 <= clip.length && wav.dataOffset < 0) {
+            long size = in.getInt(offset + 4) & 0xFFFFFFFFL;
+            int body = offset + 8;
+            if (tag(clip, offset, "fmt ")) {
+                if (size < 16 || body + size > clip.length) {
+                    return null;
+                }
+                wav.format = Arrays.copyOfRange(clip, body, body + (int) size);
+            } else if (tag(clip, offset, "data")) {
+                wav.dataOffset = body;
+                wav.dataLength = size == 0 || body + size > clip.length ? clip.length - body : (int) size;
+            }
+            offset = (int) Math.min(clip.length, body + size + (size & 1));
+        }
+        return wav.format == null || wav.dataOffset < 0 ? null : wav;
+    }
+
+    private static boolean tag(byte[] bytes, int offset, String tag) {
+        for (int i = 0; i < 4; i++) {
+            if (bytes[offset + i] != tag.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ----- MP3 -----
+
+    private static byte[] concatMp3(List<byte[]> clips) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int streamFormat = -1;
+        for (int i = 0; i < clips.size(); i++) {
+            byte[] clip = clips.get(i);
+            int start = id3v2Length(clip);
+            if (i == 0) {
+                // The leading tag (title, cover...) belongs to the whole file.
+                out.write(clip, 0, start);
+            }
+            int end = clip.length;
+            if (end - start >= ID3V1_SIZE && tag3(clip, end - ID3V1_SIZE, "TAG")) {
+                end -= ID3V1_SIZE;
+            }
+            int header = frameHeader(clip, start);
+            if (header != -1) {
+                // Version, layer and sample rate must not change between clips.
+                int format = header & 0xFFFE0C00;
+                if (streamFormat == -1) {
+                    streamFormat = format;
+                } else if (format != streamFormat) {
+                    return null;
+                }
+                if (isInfoFrame(clip, start, header)) {
+                    start = Math.min(end, start + frameLength(header));
+                }
+            }
+            out.write(clip, start, end - start);
+        }
+        return out.toByteArray();
+    }
+
+    private static int id3v2Length(byte[] clip) {
+        if (clip.length < ID3V2_HEADER || !tag3(clip, 0, "ID3") || (clip[3] & 0xFF) == 0xFF) {
+            return 0;
+        }
+        int size = 0;
+        for (int i = 6; i < 10; i++) {
+            if ((clip[i] & 0x80) != 0) {
+                return 0;
+            }
+            size = (size << 7) | clip[i];
+        }
+        boolean footer = (clip[5] & 0x10) != 0;
+        return Math.min(clip.length, ID3V2_HEADER + size + (footer ? ID3V2_HEADER : 0));
+    }
+
+    private static boolean tag3(byte[] bytes, int offset, String tag) {
+        return bytes[offset] == tag.charAt(0) && bytes[offset + 1] == tag.charAt(1)
+                && bytes[offset + 2] == tag.charAt(2);
+    }
+
+    /**
+     * The 32-bit header of the Layer III frame at {@code offset}, or -1.
+     */
+    private static int frameHeader(byte[] clip, int offset) {
+        if (offset + 4 > clip.length) {
+            return -1;
+        }
+        int header = ((clip[offset] & 0xFF) << 24) | ((clip[offset + 1] & 0xFF) << 16)
+                | ((clip[offset + 2] & 0xFF) << 8) | (clip[offset + 3] & 0xFF);
+        int version = (header >>> 19) & 3;
+        int layer = (header >>> 17) & 3;
+        int bitrate = (header >>> 12) & 0xF;
+        int rate = (header >>> 10) & 3;
+        boolean sync = (header & 0xFFE00000) == 0xFFE00000;
+        return sync && version != 1 && layer == 1 && bitrate != 0 && bitrate != 0xF && rate != 3 ? header : -1;
+    }
+
+    private static int frameLength(int header) {
+        int version = (header >>> 19) & 3;
+        boolean mpeg1 = version == 3;
+        int kbps = (mpeg1 ? MPEG1_L3_KBPS : MPEG2_L3_KBPS)[(header >>> 12) & 0xF];
+        int sampleRate = MPEG1_RATES[(header >>> 10) & 3] >> (mpeg1 ? 0 : version == 2 ? 1 : 2);
+        int padding = (header >>> 9) & 1;
+        return (mpeg1 ? 144 : 72) * kbps * 1000 / sampleRate + padding;
+    }
+
+    private static boolean isInfoFrame(byte[] clip, int offset, int header) {
+        boolean mpeg1 = ((header >>> 19) & 3) == 3;
+        boolean mono = ((header >>> 6) & 3) == 3;
+        int sideInfo = mpeg1 ? (mono ? 17 : 32) : (mono ? 9 : 17);
+        int xing = offset + 4 + sideInfo;
+        int vbri = offset + 4 + 32;
+        return (xing + 4 <= clip.length && (tag(clip, xing, "Xing") || tag(clip, xing, "Info")))
+                || (vbri + 4 <= clip.length && tag(clip, vbri, "VBRI"));
+    }
+}
@@ -0,0 +1,423 @@
+package org.translate.com.services;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import org.translate.com.config.EnvConfig;
+
+/**
+ * Normalizes uploads before Whisper: PCM / float WAV is decoded, downmixed to mono,
+ * resampled to {@code AUDIO_TARGET_RATE} (16 kHz) and stripped of leading, trailing and
+ * long internal silences by {@link VoiceActivityDetector}. Anything it cannot decode
+ * (webm, mp3, compressed WAV) is passed through untouched.
+ */
+public class AudioPreprocessor {
+
+    private static final int HEADER_PEEK = 64 * 1024;
+    private static final int FORMAT_PCM = 1;
+    private static final int FORMAT_FLOAT = 3;
+    private static final int FORMAT_EXTENSIBLE = 0xFFFE;
+    private static final int RESAMPLE_HALF_TAPS = 16;
+    private static final int MAX_PHASES = 1024;
+
+    private final boolean enabled = EnvConfig.getBoolean("AUDIO_PREPROCESS", true);
+    private final boolean trimSilence = EnvConfig.getBoolean("AUDIO_TRIM_SILENCE", true);
+    private final int targetRate = EnvConfig.getInt("AUDIO_TARGET_RATE", 16000);
+
+    /**
+     * Audio ready for upload: either the original stream ({@code converted} false) or
+     * 16-bit mono PCM at {@code sampleRate}.
+     */
+    public static class PreparedAudio {
+        private final InputStream stream;
+        private final String mimeType;
+        private final byte[] pcm;
+        private final int sampleRate;
+        private final long inputBytes;
+
+        private PreparedAudio(InputStream stream, String mimeType, byte[] pcm, int sampleRate, long inputBytes) {
+            this.stream = stream;
+            this.mimeType = mimeType;
+            this.pcm = pcm;
+            this.sampleRate = sampleRate;
+            this.inputBytes = inputBytes;
+        }
+
+        /**
+         * The bytes to upload: the original stream, or the PCM wrapped in a WAV header.
+         */
+        public InputStream getStream() {
+            return pcm == null ? stream : new ByteArrayInputStream(WavCodec.fromPcm16(pcm, sampleRate));
+        }
+
+        public String getMimeType() {
+            return mimeType;
+        }
+
+        /**
+         * Normalized PCM, null on the pass-through path.
+         */
+        public byte[] getPcm() {
+            return pcm;
+        }
+
+        public int getSampleRate() {
+            return sampleRate;
+        }
+
+        public long getDurationMs() {
+            return pcm == null ? -1 : pcm.length * 500L / sampleRate;
+        }
+
+        /**
+         * Size of the decoded upload, -1 on the pass-through path (not read yet).
+         */
+        public long getInputBytes() {
+            return inputBytes;
+        }
+
+        public boolean isConverted() {
+            return pcm != null;
+        }
+    }
+
+    public PreparedAudio prepare(InputStream audio, String mimeType) throws IOException {
+        BufferedInputStream input = new BufferedInputStream(audio, 8192);
+        if (!enabled) {
+            return passThrough(input, mimeType);
+        }
+
+        input.mark(HEADER_PEEK);
+        WavFormat format;
+        try {
+            format = readHeader(new DataInputStream(input));
+        } catch (EOFException ex) {
+            format = null;
+        }
+        if (format == null || !format.isSupported()) {
+            input.reset();
+            return passThrough(input, mimeType);
+        }
+
+        float[] mono = decode(input, format);
+        short[] resampled = resample(mono, format.sampleRate, targetRate);
+        byte[] pcm = toPcm16(resampled);
+        if (trimSilence) {
+            pcm = trim(pcm, targetRate);
+        }
+        long inputBytes = WavCodec.HEADER_SIZE + (long) format.frames * format.blockAlign;
+        return new PreparedAudio(null, "audio/wav", pcm, targetRate, inputBytes);
+    }
+
+    private PreparedAudio passThrough(InputStream input, String mimeType) {
+        return new PreparedAudio(input, mimeType, null, 0, -1);
+    }
+
+    private static final class WavFormat {
+        int format;
+        int channels;
+        int sampleRate;
+        int bitsPerSample;
+        int blockAlign;
+        long dataLength;
+        int frames;
+
+        boolean isSupported() {
+            if (channels < 1 || sampleRate < 4000 || blockAlign != channels * (bitsPerSample / 8)) {
+                return false;
+            }
+            if (format == FORMAT_PCM) {
+                return bitsPerSample == 8 || bitsPerSample == 16 || bitsPerSample == 24 || bitsPerSample == 32;
+            }
+            return format == FORMAT_FLOAT && bitsPerSample == 32;
+        }
+    }
+
+    /**
+     * Parses RIFF chunks up to the start of {@code data}. Returns null if this is not a WAV file
+     * or if the chunks before {@code data} do not fit in {@code HEADER_PEEK} bytes.
+     */
+    private WavFormat readHeader(DataInputStream in) throws IOException {
+        byte[] tag = new byte[4];
+        in.readFully(tag);
+        if (!"RIFF".equals(new String(tag, "US-ASCII"))) {
+            return null;
+        }
+        readIntLE(in);
+        in.readFully(tag);
+        if (!"WAVE".equals(new String(tag, "US-ASCII"))) {
+            return null;
+        }
+
+        WavFormat format = null;
+        long consumed = 12;
+        while (consumed < HEADER_PEEK - 8) {
+            in.readFully(tag);
+            long size = readIntLE(in) & 0xffffffffL;
+            consumed += 8;
+            String id = new String(tag, "US-ASCII");
+            long padded = size + (size & 1);
+            if (!"data".equals(id) && consumed + padded > HEADER_PEEK - 8) {
+                // Reading on would pass the mark and the caller could not reset to pass through.
+                return null;
+            }
+            if ("fmt ".equals(id)) {
+                byte[] body = new byte[(int) Math.min(size, 64)];
+                in.readFully(body);
+                skipFully(in, padded - body.length);
+                consumed += padded;
+                format = parseFormat(body);
+            } else if ("data".equals(id)) {
+                if (format == null) {
+                    return null;
+                }
+                // Streaming writers leave 0 or 0xFFFFFFFF here: read to end of stream then.
+                format.dataLength = size == 0 || size == 0xffffffffL ? Long.MAX_VALUE : size;
+                return format;
+            } else {
+                skipFully(in, padded);
+                consumed += padded;
+            }
+        }
+        return null;
+    }
+
+    private WavFormat parseFormat(byte[] body) {
+        if (body.length < 16) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN);
+        WavFormat format = new WavFormat();
+        format.format = buffer.getShort(0) & 0xffff;
+        format.channels = buffer.getShort(2) & 0xffff;
+        format.sampleRate = buffer.getInt(4);
+        format.blockAlign = buffer.getShort(12) & 0xffff;
+        format.bitsPerSample = buffer.getShort(14) & 0xffff;
+        if (format.format == FORMAT_EXTENSIBLE && body.length >= 26) {
+            // The sub-format GUID starts with the actual format code.
+            format.format = buffer.getShort(24) & 0xffff;
+        }
+        return format;
+    }
+
+    /**
+     * Reads the data chunk and averages the channels into floats in [-1, 1].
+     */
+    private float[] decode(InputStream in, WavFormat format) throws IOException {
+        int bytesPerSample = format.bitsPerSample / 8;
+        float[] mono = new float[1 << 16];
+        int frames = 0;
+        byte[] block = new byte[format.blockAlign * 4096];
+        long remaining = format.dataLength;
+        int carry = 0;
+
+        while (remaining > 0) {
+            int want = (int) Math.min(block.length - carry, remaining);
+            int read = in.read(block, carry, want);
+            if (read < 0) {
+                break;
+            }
+            remaining -= read;
+            int available = carry + read;
+            int whole = available / format.blockAlign;
+            if (frames + whole > mono.length) {
+                mono = Arrays.copyOf(mono, Math.max(mono.length * 2, frames + whole));
+            }
+            for (int f = 0; f < whole; f++) {
+                int base = f * format.blockAlign;
+                float sum = 0;
+                for (int c = 0; c < format.channels; c++) {
+                    sum += sample(block, base + c * bytesPerSample, format);
+                }
+                mono[frames++] = sum / format.channels;
+            }
+            carry = available - whole * format.blockAlign;
+            System.arraycopy(block, whole * format.blockAlign, block, 0, carry);
+        }
+        format.frames = frames;
+        return Arrays.copyOf(mono, frames);
+    }
+
+    private static float sample(byte[] b, int i, WavFormat format) {
+        switch (format.bitsPerSample) {
+            case 8:
+                return ((b[i] & 0xff) - 128) / 128f;
+            case 16:
+                return (short) ((b[i] & 0xff) | (b[i + 1] << 8)) / 32768f;
+            case 24:
+                return ((b[i] & 0xff) | ((b[i + 1] & 0xff) << 8) | (b[i + 2] << 16)) / 8388608f;
+            default:
+                int bits = (b[i] & 0xff) | ((b[i + 1] & 0xff) << 8) | ((b[i + 2] & 0xff) << 16) | (b[i + 3] << 24);
+                return format.format == FORMAT_FLOAT ? Float.intBitsToFloat(bits) : bits / 2147483648f;
+        }
+    }
+
+    /**
+     * Polyphase windowed-sinc resampling; when downsampling the cutoff follows the output
+     * Nyquist frequency so that nothing above 8 kHz aliases into the speech band. For the
+     * usual rates (48k/44.1k to 16k) the ratio has few phases, so every weight is computed
+     * once and the inner loop is a plain dot product.
+     */
+    static short[] resample(float[] in, int inRate, int outRate) {
+        if (inRate == outRate) {
+            short[] out = new short[in.length];
+            for (int i = 0; i < in.length; i++) {
+                out[i] = clip(in[i]);
+            }
+            return out;
+        }
+        int gcd = gcd(inRate, outRate);
+        long up = outRate / gcd;
+        long down = inRate / gcd;
+        int phases = (int) Math.min(up, MAX_PHASES);
+        double cutoff = Math.min(1.0, (double) up / down);
+        int halfWidth = (int) Math.ceil(RESAMPLE_HALF_TAPS / cutoff);
+        int taps = 2 * halfWidth;
+        float[][] weights = phaseWeights(phases, cutoff, halfWidth);
+
+        int length = (int) (in.length * up / down);
+        short[] out = new short[length];
+        for (int n = 0; n < length; n++) {
+            long position = n * down;
+            int center = (int) (position / up);
+            int phase = (int) ((position % up) * phases / up);
+            float[] w = weights[phase];
+            int first = center - halfWidth + 1;
+            double sum = 0;
+            if (first >= 0 && first + taps <= in.length) {
+                for (int j = 0; j < taps; j++) {
+                    sum += in[first + j] * w[j];
+                }
+            } else {
+                // Edges: renormalize over the taps that exist.
+                double total = 0;
+                for (int j = 0; j < taps; j++) {
+                    int k = first + j;
+                    if (k >= 0 && k < in.length) {
+                        sum += in[k] * w[j];
+                        total += w[j];
+                    }
+                }
+                sum = total == 0 ? 0 : sum / total;
+            }
+            out[n] = clip(sum);
+        }
+        return out;
+    }
+
+    /**
+     * Filter taps for each fractional offset, normalized to unit DC gain.
+     */
+    private static float[][] phaseWeights(int phases, double cutoff, int halfWidth) {
+        float[][] weights = new float[phases][2 * halfWidth];
+        for (int phase = 0; phase < phases; phase++) {
+            double fraction = (double) phase / phases;
+            double total = 0;
+            for (int j = 0; j < 2 * halfWidth; j++) {
+                double x = fraction + halfWidth - 1 - j;
+                double w = cutoff * sinc(cutoff * x) * blackman(x / halfWidth);
+                weights[phase][j] = (float) w;
+                total += w;
+            }
+            for (int j = 0; j < 2 * halfWidth; j++) {
+                weights[phase][j] /= total;
+            }
+        }
+        return weights;
+    }
+
+    private static int gcd(int a, int b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    private static double sinc(double x) {
+        if (Math.abs(x) < 1e-9) {
+            return 1;
+        }
+        return Math.sin(Math.PI * x) / (Math.PI * x);
+    }
+
+    private static double blackman(double x) {
+        // x in [-1, 1]
+        if (Math.abs(x) >= 1) {
+            return 0;
+        }
+        double p = Math.PI * (x + 1);
+        return 0.42 - 0.5 * Math.cos(p) + 0.08 * Math.cos(2 * p);
+    }
+
+    private static short clip(double value) {
+        double scaled = value * 32767.0;
+        if (scaled > 32767) {
+            return 32767;
+        }
+        if (scaled < -32768) {
+            return -32768;
+        }
+        return (short) Math.round(scaled);
+    }
+
+    private static byte[] toPcm16(short[] samples) {
+        ByteBuffer pcm = ByteBuffer.allocate(samples.length * 2).order(ByteOrder.LITTLE_ENDIAN);
+        for (short s : samples) {
+            pcm.putShort(s);
+        }
+        return pcm.array();
+    }
+
+    /**
+     * Keeps only the utterances the VAD finds. If it finds none (a single short word, or a
+     * recording it cannot judge), the untrimmed audio is returned so Whisper still decides.
+     */
+    private byte[] trim(byte[] pcm, int sampleRate) {
+        ByteArrayOutputStream kept = new ByteArrayOutputStream(pcm.length);
+        VoiceActivityDetector detector = new VoiceActivityDetector(sampleRate,
+                utterance -> kept.write(utterance, 0, utterance.length));
+        detector.primeNoiseFloor(noiseFloor(pcm, sampleRate));
+        detector.accept(pcm, 0, pcm.length);
+        detector.flush();
+        return kept.size() == 0 ? pcm : kept.toByteArray();
+    }
+
+    /**
+     * 10th percentile of the frame levels: the background level of the recording.
+     */
+    private static double noiseFloor(byte[] pcm, int sampleRate) {
+        int frameBytes = sampleRate * VoiceActivityDetector.FRAME_MS / 1000 * 2;
+        int frames = pcm.length / frameBytes;
+        if (frames == 0) {
+            return -100;
+        }
+        double[] levels = new double[frames];
+        for (int f = 0; f < frames; f++) {
+            levels[f] = VoiceActivityDetector.levelDb(pcm, f * frameBytes, frameBytes);
+        }
+        Arrays.sort(levels);
+        return levels[frames / 10];
+    }
+
+    private static int readIntLE(DataInputStream in) throws IOException {
+        return Integer.reverseBytes(in.readInt());
+    }
+
+    private static void skipFully(InputStream in, long bytes) throws IOException {
+        while (bytes > 0) {
+            long skipped = in.skip(bytes);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    throw new EOFException();
+                }
+                skipped = 1;
+            }
+            bytes -= skipped;
+        }
+    }
+}
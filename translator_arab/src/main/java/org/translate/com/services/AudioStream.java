@@ -0,0 +1,116 @@
+package org.translate.com.services;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Audio on its way to a client: an upstream TTS response body that is still arriving, a
+ * cache file, or bytes in memory. {@link #transferTo} copies it through a fixed buffer, so
+ * heap use does not grow with the clip, and tees upstream audio into the {@link AudioCache}.
+ */
+public final class AudioStream implements Closeable {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final InputStream input;
+    private final String mediaType;
+    private final long length;
+    private final String source;
+    private final AudioCache.Writer cacheWriter;
+    private final Closeable resource;
+    private boolean cacheSettled;
+
+    AudioStream(InputStream input, String mediaType, long length, String source, AudioCache.Writer cacheWriter,
+            Closeable resource) {
+        this.input = input;
+        this.mediaType = mediaType;
+        this.length = length;
+        this.source = source;
+        this.cacheWriter = cacheWriter;
+        this.resource = resource;
+    }
+
+    static AudioStream of(SynthesizedAudio audio) throws IOException {
+        Path file = audio.getFile();
+        if (file != null) {
+            return new AudioStream(Files.newInputStream(file), audio.getMediaType(), Files.size(file),
+                    audio.getSource(), null, null);
+        }
+        byte[] bytes = audio.toBytes();
+        return new AudioStream(new ByteArrayInputStream(bytes), audio.getMediaType(), bytes.length,
+                audio.getSource(), null, null);
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Byte count when known up front (cache hits, upstream Content-Length), otherwise -1
+     * and the response goes out chunked.
+     */
+    public long getLength() {
+        return length;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Copies the audio to {@code out}, flushing whenever the upstream has nothing more
+     * buffered so each piece reaches the client as soon as it arrives. The clip is only
+     * committed to the cache if it was read to the end.
+     */
+    public void transferTo(OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        boolean complete = false;
+        try {
+            int read;
+            while ((read = input.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+                if (cacheWriter != null) {
+                    cacheWriter.write(buffer, 0, read);
+                }
+                if (input.available() == 0) {
+                    out.flush();
+                }
+            }
+            out.flush();
+            complete = true;
+        } finally {
+            if (cacheWriter != null) {
+                if (complete) {
+                    cacheWriter.commit();
+                } else {
+                    cacheWriter.abort();
+                }
+                cacheSettled = true;
+            }
+            close();
+        }
+    }
+
+    /**
+     * Releases the upstream connection; a clip that was never transferred is not cached.
+     */
+    @Override
+    public void close() throws IOException {
+        if (cacheWriter != null && !cacheSettled) {
+            cacheWriter.abort();
+            cacheSettled = true;
+        }
+        try {
+            input.close();
+        } finally {
+            if (resource != null) {
+                resource.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.translate.com.services;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Health of one upstream backend, scored from its recent calls. Success rate and latency
+ * are exponentially weighted moving averages, so the score follows the backend as it
+ * speeds up or degrades. After {@code failureThreshold} consecutive failures the backend is
+ * unhealthy: callers skip it without trying until a cooldown ends, then a single call
+ * probes it. A failed probe doubles the cooldown (up to {@code maxCooldownMs}).
+ */
+public class BackendHealth {
+
+    private static final double ALPHA = 0.2;
+    // Latency assumed before the first success: the same for every backend, so untried
+    // backends keep their configured order.
+    private static final double PRIOR_LATENCY_MS = 1000;
+
+    private final String name;
+    private volatile long budgetMs;
+    private final int failureThreshold;
+    private final long baseCooldownMs;
+    private final long maxCooldownMs;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    private double successRate = 1.0;
+    private double latencyMs = Double.NaN;
+    private double failureLatencyMs = Double.NaN;
+    private int consecutiveFailures;
+    private long cooldownMs;
+    private long unhealthyUntil;
+    private boolean probing;
+
+    public BackendHealth(String name, long budgetMs, int failureThreshold, long baseCooldownMs, long maxCooldownMs) {
+        this.name = name;
+        this.budgetMs = budgetMs;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.baseCooldownMs = baseCooldownMs;
+        this.maxCooldownMs = Math.max(baseCooldownMs, maxCooldownMs);
+        this.cooldownMs = baseCooldownMs;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Longest a single call to this backend may take.
+     */
+    public long getBudgetMs() {
+        return budgetMs;
+    }
+
+    /**
+     * Applies to calls started afterwards.
+     */
+    public void setBudgetMs(long budgetMs) {
+        this.budgetMs = budgetMs;
+    }
+
+    /**
+     * Whether the caller may call the backend now. While unhealthy this is false, except
+     * for one caller once the cooldown has elapsed; that caller must report its result.
+     */
+    public synchronized boolean tryAcquire() {
+        if (consecutiveFailures < failureThreshold) {
+            return true;
+        }
+        if (!probing && System.currentTimeMillis() >= unhealthyUntil) {
+            probing = true;
+            return true;
+        }
+        skipped.increment();
+        return false;
+    }
+
+    public synchronized void success(long millis) {
+        calls.increment();
+        successRate += ALPHA * (1.0 - successRate);
+        latencyMs = ewma(latencyMs, millis);
+        consecutiveFailures = 0;
+        cooldownMs = baseCooldownMs;
+        probing = false;
+    }
+
+    public synchronized void failure(long millis, boolean timedOut) {
+        calls.increment();
+        failures.increment();
+        if (timedOut) {
+            timeouts.increment();
+        }
+        successRate -= ALPHA * successRate;
+        failureLatencyMs = ewma(failureLatencyMs, millis);
+        consecutiveFailures++;
+        if (consecutiveFailures >= failureThreshold) {
+            if (probing) {
+                cooldownMs = Math.min(maxCooldownMs, cooldownMs * 2);
+            }
+            unhealthyUntil = System.currentTimeMillis() + cooldownMs;
+        }
+        probing = false;
+    }
+
+    private static double ewma(double average, long sample) {
+        return Double.isNaN(average) ? sample : average + ALPHA * (sample - average);
+    }
+
+    public synchronized boolean isHealthy() {
+        return consecutiveFailures < failureThreshold;
+    }
+
+    /**
+     * Expected time spent per successful answer, lower is better: the success latency plus
+     * the time lost on the failures that come with each success. A backend that fails fast
+     * is not mistaken for a fast one, and one that hangs until its budget sinks quickly.
+     */
+    public synchronized double score() {
+        double latency = Double.isNaN(latencyMs) ? PRIOR_LATENCY_MS : latencyMs;
+        double lost = Double.isNaN(failureLatencyMs) ? 0 : failureLatencyMs;
+        double rate = Math.max(0.05, successRate);
+        return Math.max(1.0, latency + lost * (1 - rate) / rate);
+    }
+
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("healthy", isHealthy());
+        stats.put("successRate", Math.round(successRate * 1000) / 1000.0);
+        stats.put("latencyMs", Double.isNaN(latencyMs) ? null : Math.round(latencyMs));
+        stats.put("failureLatencyMs", Double.isNaN(failureLatencyMs) ? null : Math.round(failureLatencyMs));
+        stats.put("score", Math.round(score()));
+        stats.put("budgetMs", budgetMs);
+        stats.put("calls", calls.sum());
+        stats.put("failures", failures.sum());
+        stats.put("timeouts", timeouts.sum());
+        stats.put("skipped", skipped.sum());
+        stats.put("consecutiveFailures", consecutiveFailures);
+        stats.put("unhealthyForMs", isHealthy() ? 0 : Math.max(0, unhealthyUntil - System.currentTimeMillis()));
+        return stats;
+    }
+}
@@ -0,0 +1,266 @@
+package org.translate.com.services;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.translate.com.config.EnvConfig;
+import org.translate.com.dto.BinaryPayload;
+import org.translate.com.dto.DocumentTranslationRequest;
+import org.translate.com.dto.DocumentTranslationResponse;
+import org.translate.com.dto.PageTranslation;
+
+/**
+ * OCR + translation of multi-page PDF and TIFF documents. Pages are rasterized one
+ * at a time on the calling thread, OCR'd in parallel on the OCR pool and translated
+ * on the upstream pool as soon as their text is ready.
+ */
+public class DocumentService {
+
+    private static final String PDF_MIME_TYPE = "application/pdf";
+
+    private final ImageService imageService = new ImageService();
+    private final LlmService llmService = new LlmService();
+    private final ImagePreprocessor preprocessor = new ImagePreprocessor();
+    private final int maxPages = EnvConfig.getInt("DOCUMENT_MAX_PAGES", 200);
+    private final int renderDpi = EnvConfig.getInt("DOCUMENT_RENDER_DPI", 300);
+
+    public DocumentTranslationResponse translate(DocumentTranslationRequest request) throws Exception {
+        List<CompletableFuture<PageTranslation>> pages = submitPages(request, page -> {
+        });
+        List<PageTranslation> results = new ArrayList<>(pages.size());
+        for (CompletableFuture<PageTranslation> page : pages) {
+            results.add(page.join());
+        }
+        return new DocumentTranslationResponse(results);
+    }
+
+    /**
+     * Streaming variant: {@code onPage} is called from worker threads as each page completes,
+     * in completion order. Returns the number of pages once all of them are done and passed
+     * to {@code onPage}.
+     */
+    public int translate(DocumentTranslationRequest request, Consumer<PageTranslation> onPage) throws Exception {
+        List<CompletableFuture<PageTranslation>> pages = submitPages(request, onPage);
+        CompletableFuture.allOf(pages.toArray(new CompletableFuture<?>[0])).join();
+        return pages.size();
+    }
+
+    private List<CompletableFuture<PageTranslation>> submitPages(DocumentTranslationRequest request,
+            Consumer<PageTranslation> onPage) throws Exception {
+        if (request == null || request.getDocument() == null || request.getDocument().isEmpty()) {
+            throw new IllegalArgumentException("documentBase64 is required");
+        }
+        byte[] document;
+        String mimeType = request.getDocumentMimeType();
+        try (BinaryPayload payload = request.getDocument()) {
+            document = payload.toBytes();
+            if (mimeType == null || mimeType.isBlank()) {
+                mimeType = payload.getMimeType();
+            }
+        }
+        String sourceLanguage = request.getSourceLanguage();
+        String targetLanguage = request.getTargetLanguage();
+
+        // Bounds the number of rasterized pages held in memory while OCR catches up.
+        Semaphore rasterized = new Semaphore(ServiceExecutors.ocrParallelism() * 2);
+        List<CompletableFuture<PageTranslation>> futures = new ArrayList<>();
+
+        try (PageSource source = open(document, mimeType)) {
+            int count = source.pageCount();
+            if (count > maxPages) {
+                throw new IllegalArgumentException("Document has " + count + " pages; the limit is " + maxPages);
+            }
+            for (int i = 0; i < count; i++) {
+                int pageNumber = i + 1;
+                rasterized.acquire();
+                BufferedImage page;
+                try {
+                    page = source.render(i);
+                } catch (IOException | RuntimeException ex) {
+                    rasterized.release();
+                    PageTranslation failed = new PageTranslation(pageNumber, null, null,
+                            "Failed to render page: " + ex.getMessage());
+                    onPage.accept(failed);
+                    futures.add(CompletableFuture.completedFuture(failed));
+                    continue;
+                }
+
+                CompletableFuture<PageTranslation> future = CompletableFuture
+                        .supplyAsync(() -> {
+                            try {
+                                return ocrPage(page, source.dpi(), sourceLanguage);
+                            } finally {
+                                rasterized.release();
+                            }
+                        }, ServiceExecutors.ocr())
+                        .thenApplyAsync(text -> translatePage(pageNumber, text, sourceLanguage, targetLanguage),
+                                ServiceExecutors.upstream())
+                        .exceptionally(ex -> new PageTranslation(pageNumber, null, null, rootMessage(ex)));
+                // The returned stage completes once onPage has run, so joining it means the
+                // caller has seen every page.
+                futures.add(future.thenApply(translation -> {
+                    onPage.accept(translation);
+                    return translation;
+                }));
+            }
+        }
+        return futures;
+    }
+
+    private String ocrPage(BufferedImage page, double dpi, String sourceLanguage) {
+        try {
+            ImagePreprocessor.PreparedImage prepared = preprocessor.preparePage(page, dpi);
+            return imageService.extractPageText(prepared, sourceLanguage);
+        } catch (Exception ex) {
+            throw new CompletionException(ex);
+        }
+    }
+
+    private PageTranslation translatePage(int pageNumber, String text, String sourceLanguage, String targetLanguage) {
+        if (text == null || text.isBlank()) {
+            return new PageTranslation(pageNumber, "", "", null);
+        }
+        try {
+            return new PageTranslation(pageNumber, text, llmService.translate(text, sourceLanguage, targetLanguage),
+                    null);
+        } catch (Exception ex) {
+            return new PageTranslation(pageNumber, text, null, "Translation failed: " + ex.getMessage());
+        }
+    }
+
+    private String rootMessage(Throwable ex) {
+        Throwable cause = ex;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        String message = cause.getMessage();
+        return message == null || message.isBlank() ? cause.getClass().getSimpleName() : message;
+    }
+
+    private PageSource open(byte[] document, String mimeType) throws IOException {
+        if (isPdf(document, mimeType)) {
+            return new PdfPageSource(document, renderDpi);
+        }
+        return ImageIoPageSource.open(document);
+    }
+
+    private boolean isPdf(byte[] document, String mimeType) {
+        if (mimeType != null && PDF_MIME_TYPE.equalsIgnoreCase(mimeType.split(";", 2)[0].trim())) {
+            return true;
+        }
+        return document.length >= 4 && document[0] == '%' && document[1] == 'P' && document[2] == 'D'
+                && document[3] == 'F';
+    }
+
+    private interface PageSource extends Closeable {
+        int pageCount() throws IOException;
+
+        BufferedImage render(int index) throws IOException;
+
+        double dpi();
+    }
+
+    /**
+     * PDFBox renderers are not thread-safe, which is why rendering stays on the caller thread.
+     */
+    private static final class PdfPageSource implements PageSource {
+        private final PDDocument document;
+        private final PDFRenderer renderer;
+        private final int dpi;
+
+        PdfPageSource(byte[] bytes, int dpi) throws IOException {
+            try {
+                this.document = Loader.loadPDF(bytes);
+            } catch (IOException ex) {
+                throw new IllegalArgumentException("Invalid PDF document: " + ex.getMessage());
+            }
+            this.renderer = new PDFRenderer(document);
+            this.dpi = dpi;
+        }
+
+        @Override
+        public int pageCount() {
+            return document.getNumberOfPages();
+        }
+
+        @Override
+        public BufferedImage render(int index) throws IOException {
+            return renderer.renderImageWithDPI(index, dpi, ImageType.GRAY);
+        }
+
+        @Override
+        public double dpi() {
+            return dpi;
+        }
+
+        @Override
+        public void close() throws IOException {
+            document.close();
+        }
+    }
+
+    /**
+     * Multi-page TIFF (and any single image ImageIO can read).
+     */
+    private static final class ImageIoPageSource implements PageSource {
+        private final ImageInputStream input;
+        private final ImageReader reader;
+
+        private ImageIoPageSource(ImageInputStream input, ImageReader reader) {
+            this.input = input;
+            this.reader = reader;
+        }
+
+        static ImageIoPageSource open(byte[] bytes) throws IOException {
+            ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes));
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                if (input != null) {
+                    input.close();
+                }
+                throw new IllegalArgumentException("Unsupported document format; expected PDF or TIFF");
+            }
+            ImageReader reader = readers.next();
+            reader.setInput(input, false, true);
+            return new ImageIoPageSource(input, reader);
+        }
+
+        @Override
+        public int pageCount() throws IOException {
+            return reader.getNumImages(true);
+        }
+
+        @Override
+        public BufferedImage render(int index) throws IOException {
+            return reader.read(index);
+        }
+
+        @Override
+        public double dpi() {
+            return 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.dispose();
+            input.close();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.translate.com.services;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+
+/**
+ * Cheap predictor of images Tesseract is likely to struggle with (photos of textured
+ * surfaces, handwriting, heavy noise). It looks at two things on a sampled grayscale
+ * grid: how cleanly the histogram splits into ink and background (Otsu separability)
+ * and how many pixels are isolated specks after thresholding.
+ */
+public class ImageDifficultyClassifier {
+
+    private static final int MAX_SAMPLES_PER_AXIS = 400;
+    private static final double SPECKLE_SCALE = 10.0;
+
+    /**
+     * Returns a difficulty score in [0, 1]; higher means harder.
+     */
+    public double score(BufferedImage image) {
+        if (image == null) {
+            return 0;
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int step = Math.max(1, Math.max(width, height) / MAX_SAMPLES_PER_AXIS);
+        int columns = (width + step - 1) / step;
+        int rows = (height + step - 1) / step;
+        int[] gray = sample(image, step, columns, rows);
+
+        int[] histogram = new int[256];
+        double sum = 0;
+        for (int value : gray) {
+            histogram[value]++;
+            sum += value;
+        }
+        double mean = sum / gray.length;
+        double totalVariance = 0;
+        for (int value : gray) {
+            totalVariance += (value - mean) * (value - mean);
+        }
+        totalVariance /= gray.length;
+        if (totalVariance < 1e-6) {
+            return 0;
+        }
+
+        int threshold = 0;
+        double bestBetween = 0;
+        long weightBackground = 0;
+        double sumBackground = 0;
+        for (int i = 0; i < 256; i++) {
+            weightBackground += histogram[i];
+            if (weightBackground == 0) {
+                continue;
+            }
+            long weightForeground = gray.length - weightBackground;
+            if (weightForeground == 0) {
+                break;
+            }
+            sumBackground += (double) i * histogram[i];
+            double meanBackground = sumBackground / weightBackground;
+            double meanForeground = (sum - sumBackground) / weightForeground;
+            double between = (double) weightBackground * weightForeground
+                    * (meanBackground - meanForeground) * (meanBackground - meanForeground)
+                    / ((double) gray.length * gray.length);
+            if (between > bestBetween) {
+                bestBetween = between;
+                threshold = i;
+            }
+        }
+        double separability = Math.min(1.0, bestBetween / totalVariance);
+
+        int speckles = 0;
+        int interior = 0;
+        for (int y = 1; y < rows - 1; y++) {
+            for (int x = 1; x < columns - 1; x++) {
+                int index = y * columns + x;
+                boolean dark = gray[index] <= threshold;
+                interior++;
+                if (dark != (gray[index - 1] <= threshold)
+                        && dark != (gray[index + 1] <= threshold)
+                        && dark != (gray[index - columns] <= threshold)
+                        && dark != (gray[index + columns] <= threshold)) {
+                    speckles++;
+                }
+            }
+        }
+        double speckleRatio = interior == 0 ? 0 : Math.min(1.0, SPECKLE_SCALE * speckles / interior);
+
+        return 0.6 * (1.0 - separability) + 0.4 * speckleRatio;
+    }
+
+    private int[] sample(BufferedImage image, int step, int columns, int rows) {
+        Raster raster = image.getRaster();
+        int bands = raster.getNumBands();
+        boolean direct = image.getType() == BufferedImage.TYPE_BYTE_GRAY
+                || image.getType() == BufferedImage.TYPE_INT_RGB
+                || image.getType() == BufferedImage.TYPE_3BYTE_BGR;
+        int[] gray = new int[columns * rows];
+        int[] pixel = new int[bands];
+        for (int row = 0; row < rows; row++) {
+            int y = row * step;
+            for (int column = 0; column < columns; column++) {
+                int x = column * step;
+                int value;
+                if (direct) {
+                    raster.getPixel(x, y, pixel);
+                    value = bands < 3 ? pixel[0]
+                            : (int) (0.299 * pixel[0] + 0.587 * pixel[1] + 0.114 * pixel[2]);
+                } else {
+                    int rgb = image.getRGB(x, y);
+                    value = (int) (0.299 * ((rgb >> 16) & 0xFF) + 0.587 * ((rgb >> 8) & 0xFF) + 0.114 * (rgb & 0xFF));
+                }
+                gray[row * columns + column] = value;
+            }
+        }
+        return gray;
+    }
+}
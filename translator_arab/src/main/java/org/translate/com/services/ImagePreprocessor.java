@@ -0,0 +1,483 @@
+package org.translate.com.services;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.translate.com.config.EnvConfig;
+import org.w3c.dom.NodeList;
+
+/**
+ * Reduces an uploaded image to what OCR actually needs before it is handed to
+ * Tesseract or Gemini Vision. The image is decoded once; every step is optional
+ * and driven by {@code OCR_*} settings. Formats ImageIO cannot decode are passed
+ * through untouched.
+ */
+public class ImagePreprocessor {
+
+    private static final double MM_PER_INCH = 25.4;
+    private static final double MAX_SKEW_DEGREES = 5.0;
+    private static final double SKEW_STEP_DEGREES = 0.5;
+    private static final double MIN_SKEW_DEGREES = 0.25;
+    private static final int SKEW_SAMPLE_DIMENSION = 600;
+
+    private final boolean enabled;
+    private final int targetDpi;
+    private final int maxDimension;
+    private final boolean grayscale;
+    private final boolean binarize;
+    private final boolean deskew;
+    private final float jpegQuality;
+
+    public ImagePreprocessor() {
+        this.enabled = EnvConfig.getBoolean("OCR_PREPROCESS", true);
+        this.targetDpi = EnvConfig.getInt("OCR_TARGET_DPI", 300);
+        this.maxDimension = EnvConfig.getInt("OCR_MAX_DIMENSION", 2000);
+        this.grayscale = EnvConfig.getBoolean("OCR_GRAYSCALE", true);
+        this.binarize = EnvConfig.getBoolean("OCR_BINARIZE", false);
+        this.deskew = EnvConfig.getBoolean("OCR_DESKEW", false);
+        this.jpegQuality = EnvConfig.getInt("OCR_JPEG_QUALITY", 85) / 100f;
+    }
+
+    /**
+     * Result of preprocessing: the bytes to send to the OCR engines and their MIME type.
+     */
+    public static class PreparedImage {
+        private final byte[] bytes;
+        private final String mimeType;
+        private final BufferedImage image;
+        private final double scale;
+        private final int offsetX;
+        private final int offsetY;
+
+        PreparedImage(byte[] bytes, String mimeType, BufferedImage image) {
+            this(bytes, mimeType, image, 1.0, 0, 0);
+        }
+
+        PreparedImage(byte[] bytes, String mimeType, BufferedImage image, double scale, int offsetX, int offsetY) {
+            this.bytes = bytes;
+            this.mimeType = mimeType;
+            this.image = image;
+            this.scale = scale;
+            this.offsetX = offsetX;
+            this.offsetY = offsetY;
+        }
+
+        public byte[] getBytes() {
+            return bytes;
+        }
+
+        public String getMimeType() {
+            return mimeType;
+        }
+
+        /**
+         * Decoded (and reduced) raster, or {@code null} when the format could not be decoded.
+         */
+        public BufferedImage getImage() {
+            return image;
+        }
+
+        /**
+         * Maps an x coordinate of the prepared image back to the uploaded image (crop and
+         * scaling are undone; deskew rotation is small and ignored).
+         */
+        public int toSourceX(int x) {
+            return offsetX + (int) Math.round(x / scale);
+        }
+
+        public int toSourceY(int y) {
+            return offsetY + (int) Math.round(y / scale);
+        }
+
+        public int toSourceLength(int length) {
+            return (int) Math.round(length / scale);
+        }
+
+        PreparedImage withOrigin(double scale, int offsetX, int offsetY) {
+            return new PreparedImage(bytes, mimeType, image, scale, offsetX, offsetY);
+        }
+    }
+
+    /**
+     * Crop region in source pixel coordinates. Values outside the image are clamped.
+     */
+    public static class CropRegion {
+        private final int x;
+        private final int y;
+        private final int width;
+        private final int height;
+
+        public CropRegion(int x, int y, int width, int height) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+
+        public static CropRegion of(Integer x, Integer y, Integer width, Integer height) {
+            if (width == null || height == null || width <= 0 || height <= 0) {
+                return null;
+            }
+            return new CropRegion(x == null ? 0 : x, y == null ? 0 : y, width, height);
+        }
+
+        Rectangle clampTo(int imageWidth, int imageHeight) {
+            Rectangle bounds = new Rectangle(0, 0, imageWidth, imageHeight);
+            Rectangle clamped = bounds.intersection(new Rectangle(x, y, width, height));
+            return clamped.isEmpty() ? null : clamped;
+        }
+
+        @Override
+        public String toString() {
+            return x + "," + y + "," + width + "x" + height;
+        }
+    }
+
+    public PreparedImage prepare(byte[] imageBytes, String mimeType, CropRegion crop) throws IOException {
+        if (!enabled && crop == null) {
+            return new PreparedImage(imageBytes, mimeType, null);
+        }
+
+        Decoded decoded = decode(imageBytes);
+        if (decoded == null) {
+            return new PreparedImage(imageBytes, mimeType, null);
+        }
+        return reduce(decoded.image, decoded.dpi, mimeType, imageBytes, crop);
+    }
+
+    /**
+     * Prepares an already rasterized page (PDF/TIFF). {@code dpi} is the rasterization
+     * resolution, or 0 when unknown.
+     */
+    public PreparedImage preparePage(BufferedImage page, double dpi) throws IOException {
+        return reduce(page, dpi, "image/png", null, null);
+    }
+
+    private PreparedImage reduce(BufferedImage image, double dpi, String mimeType, byte[] originalBytes,
+            CropRegion crop) throws IOException {
+        boolean contentChanged = originalBytes == null;
+        BufferedImage original = image;
+        int offsetX = 0;
+        int offsetY = 0;
+
+        if (crop != null) {
+            Rectangle region = crop.clampTo(image.getWidth(), image.getHeight());
+            if (region == null) {
+                throw new IllegalArgumentException("Crop region is outside the image");
+            }
+            if (region.width != image.getWidth() || region.height != image.getHeight()) {
+                image = image.getSubimage(region.x, region.y, region.width, region.height);
+                offsetX = region.x;
+                offsetY = region.y;
+                contentChanged = true;
+            }
+        }
+
+        if (!enabled) {
+            return encode(image, original, mimeType, originalBytes, contentChanged).withOrigin(1.0, offsetX, offsetY);
+        }
+
+        double scale = Math.min(1.0, resolveScale(image.getWidth(), image.getHeight(), dpi));
+        if (scale < 1.0 || grayscale || binarize) {
+            image = scaleToGray(image, scale, grayscale || binarize);
+        }
+
+        if (binarize) {
+            image = binarize(image);
+            contentChanged = true;
+        }
+
+        if (deskew) {
+            double angle = estimateSkew(image);
+            if (Math.abs(angle) >= MIN_SKEW_DEGREES) {
+                image = rotate(image, -angle);
+                contentChanged = true;
+            }
+        }
+
+        PreparedImage prepared = encode(image, original, mimeType, originalBytes, contentChanged);
+        // Falling back to the original bytes also means falling back to the original geometry.
+        return prepared.getBytes() == originalBytes
+                ? prepared.withOrigin(1.0, offsetX, offsetY)
+                : prepared.withOrigin(scale, offsetX, offsetY);
+    }
+
+    private static class Decoded {
+        private final BufferedImage image;
+        private final double dpi;
+
+        Decoded(BufferedImage image, double dpi) {
+            this.image = image;
+            this.dpi = dpi;
+        }
+    }
+
+    private Decoded decode(byte[] imageBytes) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(imageBytes))) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, false);
+                BufferedImage image = reader.read(0);
+                double dpi = readDpi(reader.getImageMetadata(0));
+                return image == null ? null : new Decoded(image, dpi);
+            } catch (IOException | RuntimeException ex) {
+                // Unsupported variant (CMYK JPEG, exotic TIFF...): let the OCR engines try the original.
+                return null;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private double readDpi(IIOMetadata metadata) {
+        if (metadata == null || !metadata.isStandardMetadataFormatSupported()) {
+            return 0;
+        }
+        try {
+            IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree("javax_imageio_1.0");
+            NodeList nodes = root.getElementsByTagName("HorizontalPixelSize");
+            if (nodes.getLength() == 0) {
+                return 0;
+            }
+            String value = ((IIOMetadataNode) nodes.item(0)).getAttribute("value");
+            double mmPerPixel = Double.parseDouble(value);
+            return mmPerPixel > 0 ? MM_PER_INCH / mmPerPixel : 0;
+        } catch (RuntimeException ex) {
+            return 0;
+        }
+    }
+
+    private double resolveScale(int width, int height, double sourceDpi) {
+        double scale = 1.0;
+        if (sourceDpi > targetDpi && targetDpi > 0) {
+            scale = targetDpi / sourceDpi;
+        }
+        int longEdge = Math.max(width, height);
+        if (maxDimension > 0 && longEdge * scale > maxDimension) {
+            scale = (double) maxDimension / longEdge;
+        }
+        return scale;
+    }
+
+    private BufferedImage scaleToGray(BufferedImage source, double scale, boolean gray) {
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+        int type = gray ? BufferedImage.TYPE_BYTE_GRAY : BufferedImage.TYPE_INT_RGB;
+        BufferedImage target = new BufferedImage(width, height, type);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    /**
+     * Global Otsu threshold on a grayscale raster.
+     */
+    private BufferedImage binarize(BufferedImage gray) {
+        int width = gray.getWidth();
+        int height = gray.getHeight();
+        byte[] pixels = new byte[width * height];
+        gray.getRaster().getDataElements(0, 0, width, height, pixels);
+
+        int[] histogram = new int[256];
+        for (byte pixel : pixels) {
+            histogram[pixel & 0xFF]++;
+        }
+        int threshold = otsuThreshold(histogram, pixels.length);
+
+        BufferedImage binary = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_BINARY);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            int offset = y * width;
+            for (int x = 0; x < width; x++) {
+                row[x] = (pixels[offset + x] & 0xFF) > threshold ? 1 : 0;
+            }
+            binary.getRaster().setPixels(0, y, width, 1, row);
+        }
+        return binary;
+    }
+
+    private int otsuThreshold(int[] histogram, int total) {
+        long sum = 0;
+        for (int i = 0; i < 256; i++) {
+            sum += (long) i * histogram[i];
+        }
+        long sumBackground = 0;
+        int weightBackground = 0;
+        double bestVariance = -1;
+        int threshold = 127;
+        for (int i = 0; i < 256; i++) {
+            weightBackground += histogram[i];
+            if (weightBackground == 0) {
+                continue;
+            }
+            int weightForeground = total - weightBackground;
+            if (weightForeground == 0) {
+                break;
+            }
+            sumBackground += (long) i * histogram[i];
+            double meanBackground = (double) sumBackground / weightBackground;
+            double meanForeground = (double) (sum - sumBackground) / weightForeground;
+            double diff = meanBackground - meanForeground;
+            double variance = (double) weightBackground * weightForeground * diff * diff;
+            if (variance > bestVariance) {
+                bestVariance = variance;
+                threshold = i;
+            }
+        }
+        return threshold;
+    }
+
+    /**
+     * Projection-profile skew estimate: the angle whose rotated row histogram of dark
+     * pixels has the highest variance is the one where text lines are horizontal.
+     */
+    private double estimateSkew(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int step = Math.max(1, Math.max(width, height) / SKEW_SAMPLE_DIMENSION);
+
+        int capacity = (width / step + 1) * (height / step + 1);
+        int[] xs = new int[capacity];
+        int[] ys = new int[capacity];
+        int count = 0;
+        for (int y = 0; y < height; y += step) {
+            for (int x = 0; x < width; x += step) {
+                if ((image.getRGB(x, y) & 0xFF) < 128) {
+                    xs[count] = x;
+                    ys[count] = y;
+                    count++;
+                }
+            }
+        }
+        if (count < 50) {
+            return 0;
+        }
+
+        int bins = height / step + 1;
+        double bestScore = -1;
+        double bestAngle = 0;
+        for (double angle = -MAX_SKEW_DEGREES; angle <= MAX_SKEW_DEGREES + 1e-9; angle += SKEW_STEP_DEGREES) {
+            double tan = Math.tan(Math.toRadians(angle));
+            int[] profile = new int[bins * 2];
+            for (int i = 0; i < count; i++) {
+                int bin = (int) ((ys[i] - xs[i] * tan) / step) + bins / 2;
+                if (bin >= 0 && bin < profile.length) {
+                    profile[bin]++;
+                }
+            }
+            double score = 0;
+            for (int value : profile) {
+                score += (double) value * value;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestAngle = angle;
+            }
+        }
+        return bestAngle;
+    }
+
+    private BufferedImage rotate(BufferedImage source, double degrees) {
+        int type = source.getType() == BufferedImage.TYPE_BYTE_BINARY
+                ? BufferedImage.TYPE_BYTE_GRAY
+                : source.getType() == 0 ? BufferedImage.TYPE_INT_RGB : source.getType();
+        BufferedImage target = new BufferedImage(source.getWidth(), source.getHeight(), type);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, target.getWidth(), target.getHeight());
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(source, AffineTransform.getRotateInstance(
+                    Math.toRadians(degrees), source.getWidth() / 2.0, source.getHeight() / 2.0), null);
+        } finally {
+            g.dispose();
+        }
+        return binarize && type == BufferedImage.TYPE_BYTE_GRAY ? binarize(target) : target;
+    }
+
+    /**
+     * {@code original} is the decoded upload: when its bytes are kept, the image handed on
+     * (for block coordinates and the perceptual hash) must be the one they encode.
+     */
+    private PreparedImage encode(BufferedImage image, BufferedImage original, String originalMimeType,
+            byte[] originalBytes, boolean contentChanged) throws IOException {
+        boolean photo = "image/jpeg".equals(originalMimeType) || "image/jpg".equals(originalMimeType);
+        byte[] encoded = photo && image.getType() != BufferedImage.TYPE_BYTE_BINARY ? writeJpeg(image) : null;
+        String encodedType = "image/jpeg";
+        if (encoded == null) {
+            // Not a photo, or no JPEG writer installed: PNG is always available.
+            encoded = writePng(image);
+            encodedType = "image/png";
+        }
+
+        // Scaling and grayscale only exist to shrink the payload; if re-encoding did not
+        // achieve that, the original upload is the better input.
+        if (!contentChanged && encoded.length >= originalBytes.length) {
+            return new PreparedImage(originalBytes, originalMimeType, original);
+        }
+        return new PreparedImage(encoded, encodedType, image);
+    }
+
+    private byte[] writePng(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (!ImageIO.write(image, "png", out)) {
+            throw new IOException("No PNG writer available");
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * JPEG bytes at the configured quality, or {@code null} when no JPEG writer is installed.
+     */
+    private byte[] writeJpeg(BufferedImage image) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) {
+            return null;
+        }
+        ImageWriter writer = writers.next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
@@ -6,38 +6,92 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.translate.com.config.EnvConfig;
+import org.translate.com.config.Tunables;
+import org.translate.com.dto.BinaryPayload;
 import org.translate.com.dto.ImageTranslationRequest;
 import org.translate.com.dto.ImageTranslationResponse;
+import org.translate.com.dto.OcrBlock;
 
 public class ImageService {
 
     private static final String DEFAULT_MODEL = "gemini-1.5-flash";
     private static final String DEFAULT_MIME_TYPE = "image/png";
 
+    private static final int MIN_WORDS_FOR_SPECULATION = 5;
+
+    private static final OcrCache OCR_CACHE = new OcrCache();
+    private static final OcrEngineStats ENGINE_STATS = new OcrEngineStats();
+
+    static {
+        Tunables.OCR_CACHE_MAX_ENTRIES.onChange(OCR_CACHE::setMaxEntries);
+    }
+
     private final LlmService llmService = new LlmService();
-    private final HttpClient client = HttpClient.newHttpClient();
-    private final String apiKey = EnvConfig.get("GEMINI_API_KEY");
+    private final ImagePreprocessor preprocessor = new ImagePreprocessor();
+    private final TesseractRunner tesseract;
+    private final ImageDifficultyClassifier classifier = new ImageDifficultyClassifier();
+    private static final HttpClient CLIENT = HttpClient.newHttpClient();
+    private final String apiKey;
     private final String visionModel = EnvConfig.getOrDefault("GEMINI_VISION_MODEL", DEFAULT_MODEL);
-    private final String tesseractPath = EnvConfig.get("TESSERACT_PATH");
-    private final String tesseractLang = EnvConfig.get("TESSERACT_LANG");
+    private final boolean speculative = Tunables.OCR_SPECULATIVE.isEnabled();
+    private final int minConfidence = EnvConfig.getInt("OCR_MIN_CONFIDENCE", 60);
+    private final double hardImageThreshold = EnvConfig.getInt("OCR_HARD_IMAGE_SCORE", 40) / 100.0;
+
+    public ImageService() {
+        this(new TesseractRunner(), EnvConfig.get("GEMINI_API_KEY"));
+    }
+
+    ImageService(TesseractRunner tesseract, String apiKey) {
+        this.tesseract = tesseract;
+        this.apiKey = apiKey;
+    }
 
     public ImageTranslationResponse translate(ImageTranslationRequest request) throws Exception {
-        if (request == null || request.getImageBase64() == null || request.getImageBase64().isBlank()) {
+        if (request == null || request.getImage() == null || request.getImage().isEmpty()) {
             throw new IllegalArgumentException("imageBase64 is required");
         }
 
-        String base64 = normalizeBase64(request.getImageBase64());
-        String mimeType = normalizeMimeType(request.getImageMimeType(), request.getImageBase64());
-        String extractedText = extractText(base64, mimeType, request.getSourceLanguage());
+        byte[] imageBytes;
+        String mimeType = request.getImageMimeType();
+        try (BinaryPayload image = request.getImage()) {
+            imageBytes = image.toBytes();
+            // A data: URL's type stands in for a missing or non-image imageMimeType.
+            if (!isImageType(mimeType) && isImageType(image.getMimeType())) {
+                mimeType = image.getMimeType();
+            }
+        }
+        return translate(imageBytes, mimeType, request);
+    }
+
+    /**
+     * Binary upload variant: the image arrives as raw bytes (multipart part or request body),
+     * so nothing is base64-decoded. {@code options} carries languages, crop and block mode;
+     * its {@code image} is ignored.
+     */
+    public ImageTranslationResponse translate(byte[] imageBytes, String mimeType, ImageTranslationRequest request)
+            throws Exception {
+        if (imageBytes == null || imageBytes.length == 0) {
+            throw new IllegalArgumentException("image is required");
+        }
+        mimeType = normalizeMimeType(mimeType);
+        ImagePreprocessor.CropRegion crop = ImagePreprocessor.CropRegion.of(
+                request.getCropX(), request.getCropY(), request.getCropWidth(), request.getCropHeight());
+        if (request.isBlockTranslation()) {
+            return translateBlocks(preprocessor.prepare(imageBytes, mimeType, crop), request);
+        }
+
+        String extractedText = extractTextCached(imageBytes, mimeType, crop, request.getSourceLanguage());
         if (extractedText == null || extractedText.isBlank()) {
             throw new IllegalStateException("No text detected in image");
         }
@@ -50,145 +104,272 @@ public class ImageService {
         return new ImageTranslationResponse(extractedText, translation);
     }
 
-    private String extractText(String imageBase64, String mimeType, String sourceLanguage) throws Exception {
-        String tesseractText = null;
-        Exception tesseractError = null;
+    public static Map<String, Object> ocrCacheStats() {
+        return OCR_CACHE.stats();
+    }
+
+    public static Map<String, Object> ocrEngineStats() {
+        return ENGINE_STATS.snapshot();
+    }
+
+    /**
+     * Block mode: each Tesseract text block is sent to translation as soon as the TSV
+     * stream delivers it, so the response costs roughly OCR time plus the slowest block.
+     */
+    private ImageTranslationResponse translateBlocks(ImagePreprocessor.PreparedImage image,
+            ImageTranslationRequest request) throws Exception {
+        String sourceLanguage = request.getSourceLanguage();
+        String targetLanguage = request.getTargetLanguage();
+        List<CompletableFuture<String>> translations = new ArrayList<>();
+
+        List<TesseractRunner.Block> blocks;
         try {
-            tesseractText = extractTextWithTesseract(imageBase64, mimeType, sourceLanguage);
-        } catch (Exception ex) {
-            tesseractError = ex;
+            blocks = tesseract.readBlocks(image, sourceLanguage, false, block -> translations.add(
+                    CompletableFuture.supplyAsync(() -> translateBlock(block.getText(), sourceLanguage, targetLanguage),
+                            ServiceExecutors.upstream())));
+        } catch (IOException ex) {
+            // Translations already started belong to a read that is being thrown away.
+            cancelAll(translations);
+            blocks = List.of();
+        } catch (InterruptedException | RuntimeException ex) {
+            cancelAll(translations);
+            throw ex;
         }
 
-        if (tesseractText != null && !tesseractText.isBlank()) {
-            return tesseractText;
+        if (blocks.isEmpty()) {
+            // Nothing Tesseract could segment: fall back to the whole-image path (Gemini when configured).
+            String text = extractText(image, sourceLanguage);
+            if (text == null || text.isBlank()) {
+                throw new IllegalStateException("No text detected in image");
+            }
+            String translation = llmService.translate(text, sourceLanguage, targetLanguage);
+            return new ImageTranslationResponse(text, translation, new ArrayList<>());
         }
 
-        if (apiKey == null || apiKey.isBlank()) {
-            if (tesseractError != null) {
-                throw new IllegalStateException(
-                        "Tesseract OCR failed and GEMINI_API_KEY is not set: " + tesseractError.getMessage(),
-                        tesseractError);
+        List<OcrBlock> results = new ArrayList<>(blocks.size());
+        StringBuilder extracted = new StringBuilder();
+        StringBuilder translated = new StringBuilder();
+        for (int i = 0; i < blocks.size(); i++) {
+            TesseractRunner.Block block = blocks.get(i);
+            String translation = null;
+            String error = null;
+            try {
+                translation = translations.get(i).join();
+            } catch (CompletionException ex) {
+                Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                error = "Translation failed: " + cause.getMessage();
             }
-            throw new IllegalStateException("No text detected by Tesseract and GEMINI_API_KEY is not set");
-        }
 
-        return extractTextWithGemini(imageBase64, mimeType, sourceLanguage);
+            results.add(new OcrBlock(
+                    block.getIndex(),
+                    block.getText(),
+                    translation,
+                    image.toSourceX(block.getLeft()),
+                    image.toSourceY(block.getTop()),
+                    image.toSourceLength(block.getWidth()),
+                    image.toSourceLength(block.getHeight()),
+                    block.getConfidence(),
+                    error));
+            appendParagraph(extracted, block.getText());
+            appendParagraph(translated, translation);
+        }
+        return new ImageTranslationResponse(extracted.toString(), translated.toString(), results);
     }
 
-    private String extractTextWithTesseract(String imageBase64, String mimeType, String sourceLanguage)
-            throws Exception {
-        String command = resolveTesseractCommand();
-        String language = resolveTesseractLanguage(sourceLanguage);
-        String extension = resolveImageExtension(mimeType);
-
-        Path imagePath = Files.createTempFile("ocr_image_", extension);
-        Path outputBase = Files.createTempFile("ocr_text_", "");
+    /**
+     * Drops the queued translations; those already calling the LLM finish but are not waited for.
+     */
+    private static void cancelAll(List<CompletableFuture<String>> translations) {
+        for (CompletableFuture<String> translation : translations) {
+            translation.cancel(false);
+        }
+    }
 
+    private String translateBlock(String text, String sourceLanguage, String targetLanguage) {
         try {
-            Files.write(imagePath, Base64.getDecoder().decode(imageBase64));
-            Files.deleteIfExists(outputBase);
-
-            List<String> args = new ArrayList<>();
-            args.add(command);
-            args.add(imagePath.toString());
-            args.add(outputBase.toString());
-            if (language != null && !language.isBlank()) {
-                args.add("-l");
-                args.add(language);
-            }
-            args.add("--psm");
-            args.add("3");
-
-            ProcessBuilder builder = new ProcessBuilder(args);
-            builder.redirectErrorStream(true);
-            Process process = builder.start();
-            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
-            int exitCode = process.waitFor();
-            if (exitCode != 0) {
-                throw new IOException("Tesseract failed (exit " + exitCode + "): " + output);
-            }
-
-            Path textPath = Path.of(outputBase.toString() + ".txt");
-            if (!Files.exists(textPath)) {
-                throw new IOException("Tesseract output file missing");
-            }
-            return Files.readString(textPath, StandardCharsets.UTF_8).trim();
-        } finally {
-            safeDelete(imagePath);
-            safeDelete(Path.of(outputBase.toString() + ".txt"));
-            safeDelete(outputBase);
+            return llmService.translate(text, sourceLanguage, targetLanguage);
+        } catch (Exception ex) {
+            throw new CompletionException(ex);
         }
     }
 
-    private String resolveTesseractCommand() {
-        if (tesseractPath != null && !tesseractPath.isBlank()) {
-            return tesseractPath;
+    private void appendParagraph(StringBuilder target, String text) {
+        if (text == null || text.isBlank()) {
+            return;
+        }
+        if (target.length() > 0) {
+            target.append("\n\n");
         }
-        return "tesseract";
+        target.append(text);
     }
 
-    private String resolveTesseractLanguage(String sourceLanguage) {
-        if (tesseractLang != null && !tesseractLang.isBlank()) {
-            return tesseractLang;
+    private String extractTextCached(byte[] imageBytes, String mimeType, ImagePreprocessor.CropRegion crop,
+            String sourceLanguage) throws Exception {
+        String context = tesseract.resolveLanguage(sourceLanguage) + "|" + (crop == null ? "full" : crop);
+        String cacheKey = OcrCache.exactKey(imageBytes, context);
+        String cached = OCR_CACHE.getExact(cacheKey);
+        if (cached != null) {
+            return cached;
         }
-        if (sourceLanguage == null || sourceLanguage.isBlank() || "auto".equalsIgnoreCase(sourceLanguage)) {
-            return "eng";
+
+        ImagePreprocessor.PreparedImage image = preprocessor.prepare(imageBytes, mimeType, crop);
+        cached = OCR_CACHE.getSimilar(image.getImage(), context);
+        if (cached != null) {
+            return cached;
         }
-        String lang = sourceLanguage.trim().toLowerCase();
-        if (lang.startsWith("en")) {
-            return "eng";
+
+        String text = extractText(image, sourceLanguage);
+        OCR_CACHE.put(cacheKey, image.getImage(), context, text);
+        return text;
+    }
+
+    /**
+     * OCR for one page of a multi-page document. Pages run in parallel on the OCR pool,
+     * so Tesseract is limited to a single thread per process.
+     */
+    public String extractPageText(ImagePreprocessor.PreparedImage page, String sourceLanguage) throws Exception {
+        return extractText(page, sourceLanguage, true);
+    }
+
+    String extractText(ImagePreprocessor.PreparedImage image, String sourceLanguage) throws Exception {
+        return extractText(image, sourceLanguage, false);
+    }
+
+    /**
+     * Tesseract and Gemini race. Gemini starts speculatively, in parallel with Tesseract, when
+     * the image looks hard or when the running word confidence of the TSV stream drops below
+     * {@code OCR_MIN_CONFIDENCE}; otherwise it only runs once Tesseract has come back empty,
+     * failed or below the threshold. Confident Tesseract output wins; otherwise Gemini's text
+     * does, with low-confidence Tesseract text as the last resort.
+     */
+    private String extractText(ImagePreprocessor.PreparedImage image, String sourceLanguage, boolean singleThreaded)
+            throws Exception {
+        boolean geminiAvailable = apiKey != null && !apiKey.isBlank();
+        boolean speculate = geminiAvailable && speculative;
+        AtomicReference<GeminiCall> gemini = new AtomicReference<>();
+        if (speculate && classifier.score(image.getImage()) >= hardImageThreshold) {
+            gemini.set(startGemini(image, sourceLanguage));
+            ENGINE_STATS.speculativeStartByClassifier();
         }
-        if (lang.startsWith("fr")) {
-            return "fra";
+
+        List<TesseractRunner.Block> blocks = null;
+        Exception tesseractError = null;
+        double[] running = new double[2];
+        long started = System.nanoTime();
+        try {
+            blocks = tesseract.readBlocks(image, sourceLanguage, singleThreaded, block -> {
+                running[0] += block.getConfidence() * block.getWordCount();
+                running[1] += block.getWordCount();
+                if (speculate && gemini.get() == null && running[1] >= MIN_WORDS_FOR_SPECULATION
+                        && running[0] / running[1] < minConfidence) {
+                    gemini.set(startGemini(image, sourceLanguage));
+                    ENGINE_STATS.speculativeStartByConfidence();
+                }
+            });
+        } catch (Exception ex) {
+            tesseractError = ex;
+        } finally {
+            ENGINE_STATS.tesseractRun((System.nanoTime() - started) / 1_000_000);
         }
-        if (lang.startsWith("ar") || lang.startsWith("ary")) {
-            return "ara";
+
+        String tesseractText = blocks == null ? null : TesseractRunner.joinText(blocks);
+        boolean hasTesseractText = tesseractText != null && !tesseractText.isBlank();
+        if (hasTesseractText && TesseractRunner.meanConfidence(blocks) >= minConfidence) {
+            GeminiCall pending = gemini.get();
+            if (pending != null) {
+                // Best effort: the JDK 11 HttpClient keeps the exchange running after cancel.
+                pending.text.cancel(true);
+                ENGINE_STATS.geminiDiscarded(pending.requestBytes);
+            }
+            ENGINE_STATS.tesseractWon();
+            return tesseractText;
         }
-        if (lang.startsWith("es")) {
-            return "spa";
+
+        if (!geminiAvailable) {
+            if (hasTesseractText) {
+                ENGINE_STATS.tesseractWon();
+                return tesseractText;
+            }
+            if (tesseractError != null) {
+                throw new IllegalStateException(
+                        "Tesseract OCR failed and GEMINI_API_KEY is not set: " + tesseractError.getMessage(),
+                        tesseractError);
+            }
+            throw new IllegalStateException("No text detected by Tesseract and GEMINI_API_KEY is not set");
         }
-        return "eng";
-    }
 
-    private String resolveImageExtension(String mimeType) {
-        String candidate = stripParameters(mimeType);
-        if (candidate == null) {
-            return ".png";
+        GeminiCall pending = gemini.get();
+        if (pending == null) {
+            pending = startGemini(image, sourceLanguage);
+            ENGINE_STATS.fallbackStart();
+        }
+        try {
+            String geminiText = pending.text.join();
+            if (geminiText != null && !geminiText.isBlank()) {
+                ENGINE_STATS.geminiWon();
+                return geminiText;
+            }
+        } catch (CompletionException ex) {
+            ENGINE_STATS.geminiFailed();
+            if (!hasTesseractText) {
+                Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                throw cause instanceof Exception ? (Exception) cause : ex;
+            }
         }
-        switch (candidate) {
-            case "image/jpeg":
-            case "image/jpg":
-                return ".jpg";
-            case "image/webp":
-                return ".webp";
-            case "image/bmp":
-                return ".bmp";
-            case "image/tiff":
-                return ".tiff";
-            default:
-                return ".png";
+
+        if (hasTesseractText) {
+            ENGINE_STATS.tesseractWon();
+            return tesseractText;
         }
+        return "";
     }
 
-    private void safeDelete(Path path) {
-        if (path == null) {
-            return;
+    /**
+     * A Gemini request in flight, with the size of its JSON body so that used and discarded
+     * calls are counted in the same unit.
+     */
+    static final class GeminiCall {
+        private final CompletableFuture<String> text;
+        private final long requestBytes;
+
+        GeminiCall(CompletableFuture<String> text, long requestBytes) {
+            this.text = text;
+            this.requestBytes = requestBytes;
         }
+    }
+
+    GeminiCall startGemini(ImagePreprocessor.PreparedImage image, String sourceLanguage) {
+        byte[] body = buildGeminiBody(image, sourceLanguage).getBytes(StandardCharsets.UTF_8);
+        HttpRequest request;
         try {
-            Files.deleteIfExists(path);
-        } catch (IOException ex) {
-            // Best-effort cleanup.
+            request = HttpRequest.newBuilder()
+                    .uri(buildGeminiVisionUri())
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+        } catch (Exception ex) {
+            return new GeminiCall(CompletableFuture.failedFuture(ex), body.length);
         }
+
+        long started = System.nanoTime();
+        CompletableFuture<String> text = CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    ENGINE_STATS.geminiCall(body.length, (System.nanoTime() - started) / 1_000_000);
+                    if (response.statusCode() != 200) {
+                        throw new RuntimeException("Gemini Vision error: " + response.body());
+                    }
+                    return readTextFromResponse(response.body());
+                });
+        return new GeminiCall(text, body.length);
     }
 
-    private String extractTextWithGemini(String imageBase64, String mimeType, String sourceLanguage)
-            throws Exception {
+    private String buildGeminiBody(ImagePreprocessor.PreparedImage image, String sourceLanguage) {
 
         String prompt = buildOcrPrompt(sourceLanguage);
 
         JSONObject inlineData = new JSONObject()
-                .put("mime_type", mimeType)
-                .put("data", imageBase64);
+                .put("mime_type", image.getMimeType())
+                .put("data", Base64.getEncoder().encodeToString(image.getBytes()));
 
         JSONArray parts = new JSONArray()
                 .put(new JSONObject().put("text", prompt))
@@ -196,19 +377,7 @@ public class ImageService {
 
         JSONObject contents = new JSONObject().put("parts", parts);
         JSONObject body = new JSONObject().put("contents", new JSONArray().put(contents));
-
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(buildGeminiVisionUri())
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
-                .build();
-
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        if (response.statusCode() != 200) {
-            throw new RuntimeException("Gemini Vision error: " + response.body());
-        }
-
-        return readTextFromResponse(response.body());
+        return body.toString();
     }
 
     private URI buildGeminiVisionUri() throws Exception {
@@ -258,44 +427,13 @@ public class ImageService {
                 + " Return only the extracted text.";
     }
 
-    private String normalizeBase64(String imageBase64) {
-        String trimmed = imageBase64.trim();
-        String base64 = trimmed;
-        if (trimmed.startsWith("data:")) {
-            int commaIndex = trimmed.indexOf(',');
-            if (commaIndex > -1 && commaIndex < trimmed.length() - 1) {
-                base64 = trimmed.substring(commaIndex + 1).trim();
-            }
-        }
-
-        try {
-            Base64.getDecoder().decode(base64);
-        } catch (IllegalArgumentException ex) {
-            throw new IllegalArgumentException("imageBase64 must be valid base64");
-        }
-
-        return base64;
+    private String normalizeMimeType(String imageMimeType) {
+        return isImageType(imageMimeType) ? stripParameters(imageMimeType) : DEFAULT_MIME_TYPE;
     }
 
-    private String normalizeMimeType(String imageMimeType, String imageBase64) {
-        String candidate = stripParameters(imageMimeType);
-        if (candidate != null && candidate.startsWith("image/")) {
-            return candidate;
-        }
-
-        if (imageBase64 != null && imageBase64.trim().startsWith("data:")) {
-            String dataHeader = imageBase64.trim();
-            int colonIndex = dataHeader.indexOf(':');
-            int semicolonIndex = dataHeader.indexOf(';');
-            if (colonIndex > -1 && semicolonIndex > colonIndex) {
-                String fromHeader = dataHeader.substring(colonIndex + 1, semicolonIndex).trim();
-                if (fromHeader.startsWith("image/")) {
-                    return fromHeader;
-                }
-            }
-        }
-
-        return DEFAULT_MIME_TYPE;
+    private boolean isImageType(String mimeType) {
+        String candidate = stripParameters(mimeType);
+        return candidate != null && candidate.startsWith("image/");
     }
 
     private String stripParameters(String mimeType) {
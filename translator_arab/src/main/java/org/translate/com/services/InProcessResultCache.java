@@ -0,0 +1,99 @@
+package org.translate.com.services;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ResultCache} in this JVM's heap: least recently used entries go first once the
+ * total size passes {@code maxBytes}, and with a positive {@code maxAgeMillis} entries also
+ * expire that long after they were stored, which bounds how stale a near cache in front of
+ * a shared one can get.
+ */
+public class InProcessResultCache implements ResultCache {
+
+    private final long maxBytes;
+    private final long maxAgeNanos;
+
+    // Access ordered: the first entry is the least recently used.
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private static final class Entry {
+        final byte[] value;
+        final long storedAt;
+
+        Entry(byte[] value, long storedAt) {
+            this.value = value;
+            this.storedAt = storedAt;
+        }
+    }
+
+    public InProcessResultCache(long maxBytes, long maxAgeMillis) {
+        this.maxBytes = Math.max(1, maxBytes);
+        this.maxAgeNanos = maxAgeMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(maxAgeMillis) : 0;
+    }
+
+    @Override
+    public byte[] get(String key) {
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && maxAgeNanos > 0 && System.nanoTime() - entry.storedAt > maxAgeNanos) {
+                entries.remove(key);
+                totalBytes -= entry.value.length;
+                expired.incrementAndGet();
+                entry = null;
+            }
+            if (entry != null) {
+                hits.incrementAndGet();
+                return entry.value;
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    @Override
+    public void put(String key, byte[] value) {
+        if (key == null || value == null || value.length > maxBytes) {
+            return;
+        }
+        long now = System.nanoTime();
+        synchronized (this) {
+            Entry previous = entries.put(key, new Entry(value, now));
+            if (previous != null) {
+                totalBytes -= previous.value.length;
+            }
+            totalBytes += value.length;
+            Iterator<Entry> it = entries.values().iterator();
+            while (totalBytes > maxBytes && it.hasNext()) {
+                totalBytes -= it.next().value.length;
+                it.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (this) {
+            stats.put("entries", entries.size());
+            stats.put("bytes", totalBytes);
+        }
+        stats.put("maxBytes", maxBytes);
+        stats.put("maxAgeMs", TimeUnit.NANOSECONDS.toMillis(maxAgeNanos));
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("expired", expired.get());
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+}
@@ -4,15 +4,26 @@ import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.Map;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
 import org.translate.com.config.EnvConfig;
+import org.translate.com.config.Tunables;
 
 public class LlmService {
 
-    private final HttpClient client = HttpClient.newHttpClient();
+    // Shared: every client runs its own selector thread, and a service is created per request.
+    private static final HttpClient CLIENT = HttpClient.newHttpClient();
+    // Finished translations by backend, model and source text: the shared cache when one is
+    // configured (so every instance reuses them, and a corrected entry reaches all of them
+    // within the near tier's age), otherwise this process only.
+    private static final ResultCache TRANSLATIONS = translationCache();
+    // Part of the key: bump when the prompt changes what a translation looks like.
+    private static final String PROMPT_VERSION = "v1";
     private final String apiKey;
     private final String model;
     private final String localUrl;
@@ -20,16 +31,16 @@ public class LlmService {
     private final boolean preferLocal;
 
     public LlmService() {
-        this.localUrl = EnvConfig.get("LOCAL_LLM_URL");
-        this.localModel = EnvConfig.getOrDefault("LOCAL_LLM_MODEL", "mistral");
-        this.preferLocal = "true".equalsIgnoreCase(EnvConfig.getOrDefault("LOCAL_LLM_PREFER", "false"));
+        // One snapshot, so a batch that switches backend and model is seen whole.
+        Tunables.Values settings = Tunables.current();
+        this.localUrl = settings.get(Tunables.LOCAL_LLM_URL);
+        this.localModel = settings.get(Tunables.LOCAL_LLM_MODEL);
+        this.preferLocal = settings.get(Tunables.LOCAL_LLM_PREFER);
 
         this.apiKey = EnvConfig.get("MISTRAL_API_KEY");
-        this.model = EnvConfig.getOrDefault("MISTRAL_MODEL", "mistral-large-latest");
-
-        if ((localUrl == null || localUrl.isBlank()) && (apiKey == null || apiKey.isBlank())) {
-            throw new IllegalStateException("MISTRAL_API_KEY is missing");
-        }
+        this.model = settings.get(Tunables.MISTRAL_MODEL);
+        // No backend is only an error when something needs translating: endpoints that never
+        // reach the LLM (OCR only, speech synthesis...) must keep working without a key.
     }
 
     /* ============================
@@ -61,22 +72,53 @@ public class LlmService {
        ============================ */
 
     private String translateWithFallback(String text) throws Exception {
-        if (preferLocal && hasLocal()) {
-            return callLocalLlm(text);
+        if (!hasLocal() && !hasMistral()) {
+            throw new IllegalStateException("MISTRAL_API_KEY is missing");
         }
-
-        if (!hasMistral()) {
-            return callLocalLlm(text);
+        boolean localFirst = !hasMistral() || (preferLocal && hasLocal());
+        // The backend and model are part of the key: switching either must not serve the
+        // other one's translations.
+        String key = TRANSLATIONS == null ? null
+                : "translations:" + PROMPT_VERSION + ":" + (localFirst ? "local:" + localModel : "mistral:" + model)
+                        + ":" + TextResultCache.sha256Hex(text.getBytes(StandardCharsets.UTF_8));
+        if (key != null) {
+            String cached = ResultCodec.decodeText(TRANSLATIONS.get(key));
+            if (cached != null) {
+                return cached;
+            }
         }
-
+        String translation;
         try {
-            return callMistral(text);
+            translation = localFirst ? callLocalLlm(text) : callMistral(text);
         } catch (Exception e) {
-            if (hasLocal()) {
-                return callLocalLlm(text);
+            if (localFirst || !hasLocal()) {
+                throw e;
             }
-            throw e;
+            // Not cached: the key names Mistral, and the next request should try it again.
+            return callLocalLlm(text);
+        }
+        if (key != null && translation != null && !translation.isBlank()) {
+            TRANSLATIONS.put(key, ResultCodec.encodeText(translation));
+        }
+        return translation;
+    }
+
+    private static ResultCache translationCache() {
+        if (!EnvConfig.getBoolean("TRANSLATION_CACHE_ENABLED", true)) {
+            return null;
+        }
+        ResultCache shared = ResultCaches.shared();
+        return shared != null ? shared
+                : new InProcessResultCache(Math.max(1, EnvConfig.getInt("TRANSLATION_CACHE_MAX_MB", 16)) * 1024L * 1024L, 0);
+    }
+
+    public static Map<String, Object> translationCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", TRANSLATIONS != null);
+        if (TRANSLATIONS != null && TRANSLATIONS != ResultCaches.shared()) {
+            stats.putAll(TRANSLATIONS.stats());
         }
+        return stats;
     }
 
     private boolean hasMistral() {
@@ -110,7 +152,7 @@ public class LlmService {
 
         HttpResponse<String> response;
         try {
-            response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
         } catch (Exception e) {
             throw new RuntimeException("Mistral call failed: " + e, e);
         }
@@ -149,7 +191,7 @@ public class LlmService {
 
         HttpResponse<String> response;
         try {
-            response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
         } catch (Exception e) {
             throw new RuntimeException("Local LLM call failed: " + e, e);
         }
@@ -0,0 +1,309 @@
+package org.translate.com.services;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.translate.com.config.EnvConfig;
+import org.translate.com.config.Tunables;
+
+/**
+ * OCR results keyed by the SHA-256 of the uploaded image bytes, backed by a
+ * perceptual-hash index so the same picture re-encoded, resized or recompressed
+ * still hits. Only extracted text is stored, never image data.
+ *
+ * <p>A perceptual hash cannot tell apart two renderings of the same layout that differ by
+ * a few characters, so {@code OCR_CACHE_PHASH_DISTANCE} is kept tight; set it to -1 to
+ * rely on exact matches only. Near matches are looked up with multi-index hashing: the hash
+ * is cut into more bands than the allowed distance, so any match agrees exactly on at least
+ * one band and only the entries sharing a band bucket are compared. A near match is returned
+ * as is and never stored under the new image's key, so it cannot reach the disk spill or the
+ * shared tier.
+ */
+public class OcrCache {
+
+    private static final int HASH_WIDTH = 16;
+    private static final int HASH_WORDS = HASH_WIDTH * HASH_WIDTH / 64;
+    private static final int HASH_BITS = HASH_WIDTH * HASH_WIDTH;
+    private static final double MAX_ASPECT_DRIFT = 0.05;
+    private static final int MIN_BANDS = HASH_BITS / 64;
+    private static final int MAX_BANDS = 32;
+    private static final int MAX_CANDIDATES = 256;
+
+    private final TextResultCache results;
+    private final boolean enabled;
+    private final int maxDistance;
+    private final int bands;
+    private volatile int maxIndexEntries;
+
+    // Perceptual index: result key -> hash. Insertion ordered so the oldest entries go first.
+    // Guards the band buckets too.
+    private final LinkedHashMap<String, PerceptualHash> index = new LinkedHashMap<>();
+    // One map per band: band bits (mixed with the context) -> keys of the hashes sharing them.
+    private final List<Map<Long, Set<String>>> buckets = new ArrayList<>();
+
+    private final AtomicLong exactHits = new AtomicLong();
+    private final AtomicLong perceptualHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public OcrCache() {
+        this.enabled = EnvConfig.getBoolean("OCR_CACHE_ENABLED", true);
+        int maxEntries = Tunables.OCR_CACHE_MAX_ENTRIES.getInt();
+        this.results = new TextResultCache(
+                "ocr",
+                maxEntries,
+                EnvConfig.getInt("OCR_CACHE_MAX_CHARS", 2_000_000),
+                EnvConfig.get("OCR_CACHE_DIR"),
+                EnvConfig.getInt("OCR_CACHE_MAX_DISK_ENTRIES", 20_000),
+                false);
+        // Past MAX_BANDS the buckets get too coarse to prune anything, so the distance is capped.
+        this.maxDistance = Math.min(EnvConfig.getInt("OCR_CACHE_PHASH_DISTANCE", 6), MAX_BANDS - 1);
+        this.bands = Math.max(MIN_BANDS, maxDistance + 1);
+        for (int band = 0; band < bands; band++) {
+            buckets.add(new HashMap<>());
+        }
+        this.maxIndexEntries = maxEntries * 4;
+    }
+
+    /**
+     * Key for the exact tier. {@code context} carries everything besides the pixels that
+     * changes the OCR result (language, crop region...).
+     */
+    public static String exactKey(byte[] imageBytes, String context) {
+        return TextResultCache.sha256Hex(imageBytes) + "|" + context;
+    }
+
+    public String getExact(String exactKey) {
+        if (!enabled) {
+            return null;
+        }
+        String text = results.get(exactKey);
+        if (text != null) {
+            exactHits.incrementAndGet();
+        }
+        return text;
+    }
+
+    /**
+     * Looks up a near-duplicate of {@code image}. Counts a miss when nothing matches,
+     * so call it only after {@link #getExact(String)} missed. At most
+     * {@value #MAX_CANDIDATES} indexed hashes are compared per lookup.
+     */
+    public String getSimilar(BufferedImage image, String context) {
+        if (!enabled) {
+            return null;
+        }
+        if (image == null || maxDistance < 0) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        PerceptualHash hash = PerceptualHash.of(image, context);
+        String bestKey = null;
+        int bestDistance = Integer.MAX_VALUE;
+        synchronized (index) {
+            Set<String> compared = new HashSet<>();
+            search:
+            for (int band = 0; band < bands; band++) {
+                Set<String> bucket = buckets.get(band).get(hash.bandKey(band, bands));
+                if (bucket == null) {
+                    continue;
+                }
+                for (String key : bucket) {
+                    if (!compared.add(key)) {
+                        continue;
+                    }
+                    int distance = hash.distanceTo(index.get(key));
+                    if (distance < bestDistance) {
+                        bestDistance = distance;
+                        bestKey = key;
+                    }
+                    if (bestDistance == 0 || compared.size() >= MAX_CANDIDATES) {
+                        break search;
+                    }
+                }
+            }
+        }
+
+        if (bestKey != null && bestDistance <= maxDistance) {
+            String text = results.get(bestKey);
+            if (text != null) {
+                perceptualHits.incrementAndGet();
+                return text;
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(String exactKey, BufferedImage image, String context, String text) {
+        if (!enabled || text == null || text.isBlank()) {
+            return;
+        }
+        results.put(exactKey, text);
+        if (image == null || maxDistance < 0) {
+            return;
+        }
+        PerceptualHash hash = PerceptualHash.of(image, context);
+        synchronized (index) {
+            PerceptualHash previous = index.put(exactKey, hash);
+            if (previous != null) {
+                unlink(exactKey, previous);
+            }
+            link(exactKey, hash);
+            trimIndex();
+        }
+    }
+
+    /**
+     * Changes the bound on cached results (and the perceptual index with it).
+     */
+    public void setMaxEntries(int maxEntries) {
+        results.setMaxEntries(maxEntries);
+        synchronized (index) {
+            maxIndexEntries = Math.max(1, maxEntries) * 4;
+            trimIndex();
+        }
+    }
+
+    private void trimIndex() {
+        Iterator<Map.Entry<String, PerceptualHash>> it = index.entrySet().iterator();
+        while (index.size() > maxIndexEntries && it.hasNext()) {
+            Map.Entry<String, PerceptualHash> eldest = it.next();
+            unlink(eldest.getKey(), eldest.getValue());
+            it.remove();
+        }
+    }
+
+    private void link(String key, PerceptualHash hash) {
+        for (int band = 0; band < bands; band++) {
+            buckets.get(band).computeIfAbsent(hash.bandKey(band, bands), k -> new LinkedHashSet<>()).add(key);
+        }
+    }
+
+    private void unlink(String key, PerceptualHash hash) {
+        for (int band = 0; band < bands; band++) {
+            Map<Long, Set<String>> byBits = buckets.get(band);
+            long bandKey = hash.bandKey(band, bands);
+            Set<String> bucket = byBits.get(bandKey);
+            if (bucket != null && bucket.remove(key) && bucket.isEmpty()) {
+                byBits.remove(bandKey);
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("exactHits", exactHits.get());
+        stats.put("perceptualHits", perceptualHits.get());
+        stats.put("misses", misses.get());
+        synchronized (index) {
+            stats.put("perceptualIndexEntries", index.size());
+        }
+        stats.put("store", results.stats());
+        return stats;
+    }
+
+    /**
+     * 256-bit difference hash (16x16 horizontal gradients of a downscaled grayscale copy).
+     * The context and aspect ratio are part of the hash so unrelated requests never match.
+     */
+    static final class PerceptualHash {
+        private final long[] bits;
+        private final double aspect;
+        private final String context;
+
+        private PerceptualHash(long[] bits, double aspect, String context) {
+            this.bits = bits;
+            this.aspect = aspect;
+            this.context = context;
+        }
+
+        static PerceptualHash of(BufferedImage image, String context) {
+            double[] cells = blockMeans(image, HASH_WIDTH + 1, HASH_WIDTH);
+            long[] bits = new long[HASH_WORDS];
+            int bit = 0;
+            for (int y = 0; y < HASH_WIDTH; y++) {
+                int row = y * (HASH_WIDTH + 1);
+                for (int x = 0; x < HASH_WIDTH; x++) {
+                    if (cells[row + x] > cells[row + x + 1]) {
+                        bits[bit >> 6] |= 1L << (bit & 63);
+                    }
+                    bit++;
+                }
+            }
+            double aspect = (double) image.getWidth() / Math.max(1, image.getHeight());
+            return new PerceptualHash(bits, aspect, context);
+        }
+
+        /**
+         * Area-averaged luminance grid. Plain interpolated scaling only samples a few pixels
+         * per cell, which makes the hash unstable across resizes.
+         */
+        private static double[] blockMeans(BufferedImage image, int columns, int rows) {
+            int width = image.getWidth();
+            int height = image.getHeight();
+            Raster raster = image.getRaster();
+            int bands = raster.getNumBands();
+            boolean gray = bands < 3;
+            double[] sums = new double[columns * rows];
+            int[] counts = new int[columns * rows];
+            int[] line = new int[width * bands];
+            for (int y = 0; y < height; y++) {
+                raster.getPixels(0, y, width, 1, line);
+                int cellRow = (int) ((long) y * rows / height) * columns;
+                for (int x = 0; x < width; x++) {
+                    int offset = x * bands;
+                    double luminance = gray
+                            ? line[offset]
+                            : 0.299 * line[offset] + 0.587 * line[offset + 1] + 0.114 * line[offset + 2];
+                    int cell = cellRow + (int) ((long) x * columns / width);
+                    sums[cell] += luminance;
+                    counts[cell]++;
+                }
+            }
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] = counts[i] == 0 ? 0 : sums[i] / counts[i];
+            }
+            return sums;
+        }
+
+        /**
+         * Bits of {@code band} out of {@code bands} equal slices of the hash, mixed with the
+         * context so unrelated requests rarely share a bucket.
+         */
+        long bandKey(int band, int bands) {
+            int from = band * HASH_BITS / bands;
+            int to = (band + 1) * HASH_BITS / bands;
+            long value = 0;
+            for (int bit = from; bit < to; bit++) {
+                if ((bits[bit >> 6] >>> (bit & 63) & 1L) != 0) {
+                    value |= 1L << (bit - from);
+                }
+            }
+            return value ^ context.hashCode() * 0x9E3779B97F4A7C15L;
+        }
+
+        int distanceTo(PerceptualHash other) {
+            if (!context.equals(other.context)
+                    || Math.abs(aspect - other.aspect) > MAX_ASPECT_DRIFT * Math.max(aspect, other.aspect)) {
+                return Integer.MAX_VALUE;
+            }
+            int distance = 0;
+            for (int i = 0; i < bits.length; i++) {
+                distance += Long.bitCount(bits[i] ^ other.bits[i]);
+            }
+            return distance;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.translate.com.services;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for the Tesseract / Gemini race: which engine produced the returned text
+ * and what speculative Gemini calls cost. Payload sizes are bytes of the JSON request body
+ * (the base64 image plus the prompt), for used and discarded calls alike.
+ */
+public class OcrEngineStats {
+
+    private final LongAdder tesseractWins = new LongAdder();
+    private final LongAdder geminiWins = new LongAdder();
+    private final LongAdder speculativeByClassifier = new LongAdder();
+    private final LongAdder speculativeByConfidence = new LongAdder();
+    private final LongAdder fallbackAfterTesseract = new LongAdder();
+    private final LongAdder discardedGeminiCalls = new LongAdder();
+    private final LongAdder geminiFailures = new LongAdder();
+    private final LongAdder geminiPayloadBytes = new LongAdder();
+    private final LongAdder discardedGeminiPayloadBytes = new LongAdder();
+    private final LongAdder tesseractMillis = new LongAdder();
+    private final LongAdder tesseractRuns = new LongAdder();
+    private final LongAdder geminiMillis = new LongAdder();
+    private final LongAdder geminiRuns = new LongAdder();
+
+    void tesseractWon() {
+        tesseractWins.increment();
+    }
+
+    void geminiWon() {
+        geminiWins.increment();
+    }
+
+    void speculativeStartByClassifier() {
+        speculativeByClassifier.increment();
+    }
+
+    void speculativeStartByConfidence() {
+        speculativeByConfidence.increment();
+    }
+
+    void fallbackStart() {
+        fallbackAfterTesseract.increment();
+    }
+
+    void geminiDiscarded(long payloadBytes) {
+        discardedGeminiCalls.increment();
+        discardedGeminiPayloadBytes.add(payloadBytes);
+    }
+
+    void geminiFailed() {
+        geminiFailures.increment();
+    }
+
+    void geminiCall(long payloadBytes, long millis) {
+        geminiPayloadBytes.add(payloadBytes);
+        geminiMillis.add(millis);
+        geminiRuns.increment();
+    }
+
+    void tesseractRun(long millis) {
+        tesseractMillis.add(millis);
+        tesseractRuns.increment();
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("tesseractWins", tesseractWins.sum());
+        stats.put("geminiWins", geminiWins.sum());
+        stats.put("speculativeStartsByClassifier", speculativeByClassifier.sum());
+        stats.put("speculativeStartsByConfidence", speculativeByConfidence.sum());
+        stats.put("fallbackStartsAfterTesseract", fallbackAfterTesseract.sum());
+        stats.put("discardedGeminiCalls", discardedGeminiCalls.sum());
+        stats.put("discardedGeminiPayloadBytes", discardedGeminiPayloadBytes.sum());
+        stats.put("geminiFailures", geminiFailures.sum());
+        stats.put("geminiPayloadBytes", geminiPayloadBytes.sum());
+        stats.put("avgTesseractMillis", average(tesseractMillis, tesseractRuns));
+        stats.put("avgGeminiMillis", average(geminiMillis, geminiRuns));
+        return stats;
+    }
+
+    private static long average(LongAdder total, LongAdder count) {
+        long runs = count.sum();
+        return runs == 0 ? 0 : total.sum() / runs;
+    }
+}
@@ -0,0 +1,380 @@
+package org.translate.com.services;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ResultCache} on a Redis server (or anything speaking its protocol, RESP2), shared by
+ * every instance behind the load balancer. Uses GET, MGET and SET with an expiry on a small
+ * pool of connections, and needs no client library.
+ *
+ * <p>Calls are bounded by {@code timeoutMillis}, and after a failure the server is not asked
+ * again for {@code retryMillis}: while it is slow or down, requests see misses instead of
+ * waiting on it.
+ */
+public class RespResultCache implements ResultCache {
+
+    private static final byte[] CRLF = { '\r', '\n' };
+
+    private final String host;
+    private final int port;
+    private final String password;
+    private final int database;
+    private final byte[] prefix;
+    private final int timeoutMillis;
+    private final long ttlMillis;
+    private final int maxValueBytes;
+    private final long retryMillis;
+
+    private final ConcurrentLinkedDeque<Connection> idle = new ConcurrentLinkedDeque<>();
+    private final Semaphore permits;
+    private volatile long downUntil;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stores = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+
+    public RespResultCache(String host, int port, String password, int database, String prefix, int poolSize,
+            int timeoutMillis, long ttlMillis, int maxValueBytes) {
+        this.host = host;
+        this.port = port;
+        this.password = password;
+        this.database = database;
+        this.prefix = prefix.getBytes(StandardCharsets.UTF_8);
+        this.permits = new Semaphore(Math.max(1, poolSize));
+        this.timeoutMillis = Math.max(1, timeoutMillis);
+        this.ttlMillis = ttlMillis;
+        this.maxValueBytes = maxValueBytes;
+        this.retryMillis = Math.max(1000, 20L * this.timeoutMillis);
+    }
+
+    @Override
+    public byte[] get(String key) {
+        Object reply = call(command("GET", key));
+        if (reply instanceof byte[]) {
+            hits.incrementAndGet();
+            return (byte[]) reply;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    @Override
+    public List<byte[]> getAll(List<String> keys) {
+        if (keys.size() <= 1) {
+            return keys.isEmpty() ? Collections.emptyList() : Collections.singletonList(get(keys.get(0)));
+        }
+        List<byte[]> args = new ArrayList<>(keys.size() + 1);
+        args.add(ascii("MGET"));
+        for (String key : keys) {
+            args.add(key(key));
+        }
+        Object reply = call(args);
+        List<byte[]> values = new ArrayList<>(keys.size());
+        List<?> found = reply instanceof List ? (List<?>) reply : Collections.emptyList();
+        for (int i = 0; i < keys.size(); i++) {
+            Object value = i < found.size() ? found.get(i) : null;
+            if (value instanceof byte[]) {
+                hits.incrementAndGet();
+                values.add((byte[]) value);
+            } else {
+                misses.incrementAndGet();
+                values.add(null);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public void put(String key, byte[] value) {
+        if (value == null || value.length > maxValueBytes) {
+            return;
+        }
+        List<byte[]> args = new ArrayList<>(5);
+        args.add(ascii("SET"));
+        args.add(key(key));
+        args.add(value);
+        if (ttlMillis > 0) {
+            args.add(ascii("PX"));
+            args.add(ascii(Long.toString(ttlMillis)));
+        }
+        if (call(args) != null) {
+            stores.incrementAndGet();
+        }
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("server", host + ":" + port);
+        stats.put("available", System.currentTimeMillis() >= downUntil);
+        stats.put("idleConnections", idle.size());
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("stores", stores.get());
+        stats.put("errors", errors.get());
+        stats.put("skipped", skipped.get());
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        Connection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            connection.close();
+        }
+    }
+
+    private List<byte[]> command(String name, String key) {
+        List<byte[]> args = new ArrayList<>(2);
+        args.add(ascii(name));
+        args.add(key(key));
+        return args;
+    }
+
+    /**
+     * Sends one command and returns the reply, or null when the server is unavailable,
+     * answered with an error, or every connection is busy.
+     */
+    private Object call(List<byte[]> args) {
+        if (System.currentTimeMillis() < downUntil) {
+            skipped.incrementAndGet();
+            return null;
+        }
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        if (!acquired) {
+            skipped.incrementAndGet();
+            return null;
+        }
+        Connection connection = idle.pollFirst();
+        try {
+            if (connection == null) {
+                connection = connect();
+            }
+            connection.write(args);
+            Object reply = connection.read();
+            idle.offerFirst(connection);
+            if (reply instanceof RespError) {
+                errors.incrementAndGet();
+                return null;
+            }
+            return reply;
+        } catch (IOException e) {
+            if (connection != null) {
+                connection.close();
+            }
+            errors.incrementAndGet();
+            if (System.currentTimeMillis() >= downUntil) {
+                System.err.println("Result cache " + host + ":" + port + " unavailable for " + retryMillis + " ms: "
+                        + e.getMessage());
+            }
+            downUntil = System.currentTimeMillis() + retryMillis;
+            return null;
+        } finally {
+            permits.release();
+        }
+    }
+
+    private Connection connect() throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(timeoutMillis);
+            socket.connect(new InetSocketAddress(host, port), timeoutMillis);
+            Connection connection = new Connection(socket);
+            if (password != null && !password.isEmpty()) {
+                connection.expectOk(List.of(ascii("AUTH"), password.getBytes(StandardCharsets.UTF_8)));
+            }
+            if (database != 0) {
+                connection.expectOk(List.of(ascii("SELECT"), ascii(Integer.toString(database))));
+            }
+            return connection;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private byte[] key(String key) {
+        byte[] name = key.getBytes(StandardCharsets.UTF_8);
+        byte[] prefixed = new byte[prefix.length + name.length];
+        System.arraycopy(prefix, 0, prefixed, 0, prefix.length);
+        System.arraycopy(name, 0, prefixed, prefix.length, name.length);
+        return prefixed;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * An error reply ({@code -ERR ...}): the connection is still usable.
+     */
+    private static final class RespError {
+        final String message;
+
+        RespError(String message) {
+            this.message = message;
+        }
+    }
+
+    private static final class Connection {
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedInputStream(socket.getInputStream(), 16 * 1024);
+            this.out = new BufferedOutputStream(socket.getOutputStream(), 16 * 1024);
+        }
+
+        void expectOk(List<byte[]> args) throws IOException {
+            write(args);
+            Object reply = read();
+            if (reply instanceof RespError) {
+                throw new IOException(((RespError) reply).message);
+            }
+        }
+
+        /**
+         * A command as an array of bulk strings: {@code *<n>} then {@code $<length>} and the
+         * bytes for each argument.
+         */
+        void write(List<byte[]> args) throws IOException {
+            writeHeader('*', args.size());
+            for (byte[] arg : args) {
+                writeHeader('$', arg.length);
+                out.write(arg);
+                out.write(CRLF);
+            }
+            out.flush();
+        }
+
+        private void writeHeader(char type, int value) throws IOException {
+            out.write(type);
+            out.write(ascii(Integer.toString(value)));
+            out.write(CRLF);
+        }
+
+        /**
+         * Reads one reply: byte[] for bulk strings, String for status replies, Long for
+         * integers, List for arrays, null for nil, RespError for errors.
+         */
+        Object read() throws IOException {
+            int type = in.read();
+            if (type < 0) {
+                throw new EOFException("Connection closed by the cache server");
+            }
+            String line = readLine();
+            switch (type) {
+                case '+':
+                    return line;
+                case '-':
+                    return new RespError(line);
+                case ':':
+                    return number(line);
+                case '$':
+                    return readBulk(length(line));
+                case '*':
+                    int count = length(line);
+                    if (count < 0) {
+                        return null;
+                    }
+                    List<Object> items = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        items.add(read());
+                    }
+                    return items;
+                default:
+                    throw new IOException("Unexpected reply type '" + (char) type + "'");
+            }
+        }
+
+        /**
+         * Integer reply or length prefix. A line that is not a number means the stream is out
+         * of step, so it fails like any other broken reply and the connection is dropped.
+         */
+        private static long number(String line) throws IOException {
+            try {
+                return Long.parseLong(line);
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed number in reply: " + line, e);
+            }
+        }
+
+        private static int length(String line) throws IOException {
+            long length = number(line);
+            if (length > Integer.MAX_VALUE) {
+                throw new IOException("Reply length out of range: " + line);
+            }
+            return (int) length;
+        }
+
+        private byte[] readBulk(int length) throws IOException {
+            if (length < 0) {
+                return null;
+            }
+            byte[] value = new byte[length];
+            int offset = 0;
+            while (offset < length) {
+                int read = in.read(value, offset, length - offset);
+                if (read < 0) {
+                    throw new EOFException("Connection closed by the cache server");
+                }
+                offset += read;
+            }
+            if (in.read() != '\r' || in.read() != '\n') {
+                throw new IOException("Malformed bulk reply");
+            }
+            return value;
+        }
+
+        private String readLine() throws IOException {
+            StringBuilder line = new StringBuilder();
+            int c;
+            while ((c = in.read()) != '\r') {
+                if (c < 0) {
+                    throw new EOFException("Connection closed by the cache server");
+                }
+                line.append((char) c);
+            }
+            if (in.read() != '\n') {
+                throw new IOException("Malformed reply line");
+            }
+            return line.toString();
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // already gone
+            }
+        }
+    }
+}
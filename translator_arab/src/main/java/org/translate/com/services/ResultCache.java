@@ -0,0 +1,43 @@
+package org.translate.com.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A cache of finished results (translations, OCR text, transcripts, audio) shared beyond one
+ * request: in this process ({@link InProcessResultCache}), on a Redis server every instance
+ * talks to ({@link RespResultCache}), or both ({@link TieredResultCache}). Keys are built by
+ * the callers from everything that changes the result; values are opaque bytes, see
+ * {@link ResultCodec}.
+ *
+ * <p>A cache is an optimization only: implementations never throw, a failed lookup is a miss
+ * and a failed store is dropped.
+ */
+public interface ResultCache extends AutoCloseable {
+
+    /**
+     * The value stored under {@code key}, or null.
+     */
+    byte[] get(String key);
+
+    /**
+     * Values for several keys at once, in the same order, null where missing. Remote
+     * implementations answer in one round trip.
+     */
+    default List<byte[]> getAll(List<String> keys) {
+        List<byte[]> values = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            values.add(get(key));
+        }
+        return values;
+    }
+
+    void put(String key, byte[] value);
+
+    Map<String, Object> stats();
+
+    @Override
+    default void close() {
+    }
+}
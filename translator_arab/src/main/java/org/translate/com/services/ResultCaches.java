@@ -0,0 +1,95 @@
+package org.translate.com.services;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.translate.com.config.EnvConfig;
+
+/**
+ * The result cache shared between instances, from {@code RESULT_CACHE_URL}:
+ * <ul>
+ * <li>{@code redis://[:password@]host[:port][/database]}: a Redis server, behind a near cache
+ * in this process whose entries live at most {@code RESULT_CACHE_NEAR_MAX_AGE_MS};</li>
+ * <li>{@code memory}: this process only, for a single instance or trying things out;</li>
+ * <li>unset: none, each service keeps only its own local cache.</li>
+ * </ul>
+ * The services look it up once, when their local caches are created.
+ */
+public final class ResultCaches {
+
+    private static final ResultCache SHARED = create();
+
+    private ResultCaches() {
+    }
+
+    /**
+     * The shared cache, or null when none is configured.
+     */
+    public static ResultCache shared() {
+        return SHARED;
+    }
+
+    public static Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("configured", SHARED != null);
+        if (SHARED != null) {
+            stats.putAll(SHARED.stats());
+        }
+        return stats;
+    }
+
+    private static ResultCache create() {
+        // May carry a password, so .env wins like for the other credentials.
+        String url = EnvConfig.getPreferringFile("RESULT_CACHE_URL");
+        if (url == null || url.isBlank()) {
+            return null;
+        }
+        long nearBytes = Math.max(1, EnvConfig.getInt("RESULT_CACHE_NEAR_MAX_MB", 64)) * 1024L * 1024L;
+        long nearMaxAgeMs = EnvConfig.getInt("RESULT_CACHE_NEAR_MAX_AGE_MS", 30000);
+        if ("memory".equalsIgnoreCase(url.trim())) {
+            return new InProcessResultCache(nearBytes, 0);
+        }
+        RespResultCache remote;
+        try {
+            remote = redis(URI.create(url.trim()));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Ignoring RESULT_CACHE_URL: " + e.getMessage());
+            return null;
+        }
+        if (nearMaxAgeMs <= 0) {
+            return remote;
+        }
+        return new TieredResultCache(new InProcessResultCache(nearBytes, nearMaxAgeMs), remote);
+    }
+
+    private static RespResultCache redis(URI uri) {
+        if (!"redis".equalsIgnoreCase(uri.getScheme()) || uri.getHost() == null) {
+            throw new IllegalArgumentException("expected redis://[:password@]host[:port][/database] or memory");
+        }
+        String password = null;
+        if (uri.getUserInfo() != null) {
+            String userInfo = uri.getUserInfo();
+            password = userInfo.substring(userInfo.indexOf(':') + 1);
+        }
+        int database = 0;
+        String path = uri.getPath();
+        if (path != null && path.length() > 1) {
+            try {
+                database = Integer.parseInt(path.substring(1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("the database must be a number, got " + path.substring(1));
+            }
+        }
+        return new RespResultCache(
+                uri.getHost(),
+                uri.getPort() > 0 ? uri.getPort() : 6379,
+                password,
+                database,
+                EnvConfig.getOrDefault("RESULT_CACHE_PREFIX", "translator:"),
+                EnvConfig.getInt("RESULT_CACHE_POOL_SIZE", 8),
+                EnvConfig.getInt("RESULT_CACHE_TIMEOUT_MS", 250),
+                EnvConfig.getInt("RESULT_CACHE_TTL_SECONDS", 7 * 24 * 3600) * 1000L,
+                EnvConfig.getInt("RESULT_CACHE_MAX_VALUE_KB", 1024) * 1024);
+    }
+}
@@ -0,0 +1,146 @@
+package org.translate.com.services;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encoding of cached results as {@link ResultCache} values: one tag byte, then
+ * <ul>
+ * <li>text: the UTF-8 bytes, or for longer texts, when it is smaller, the length as a
+ * varint and the bytes deflated (raw, fastest level);</li>
+ * <li>audio: the file extension's length and ASCII bytes, then the clip as is (it is
+ * compressed already).</li>
+ * </ul>
+ * No field names or base64, so a value is about the size of its payload. Decoding returns
+ * null for anything else, so entries from an older encoding read as misses.
+ */
+public final class ResultCodec {
+
+    private static final byte TEXT = 1;
+    private static final byte TEXT_DEFLATED = 2;
+    private static final byte AUDIO = 3;
+
+    // Below this, deflate saves too little to pay for inflating on every hit.
+    private static final int DEFLATE_MIN_BYTES = 256;
+
+    private ResultCodec() {
+    }
+
+    public static byte[] encodeText(String text) {
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length >= DEFLATE_MIN_BYTES) {
+            byte[] deflated = deflate(utf8);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(deflated.length + 6);
+            out.write(TEXT_DEFLATED);
+            writeVarint(out, utf8.length);
+            if (out.size() + deflated.length < utf8.length + 1) {
+                out.write(deflated, 0, deflated.length);
+                return out.toByteArray();
+            }
+        }
+        byte[] encoded = new byte[utf8.length + 1];
+        encoded[0] = TEXT;
+        System.arraycopy(utf8, 0, encoded, 1, utf8.length);
+        return encoded;
+    }
+
+    public static String decodeText(byte[] encoded) {
+        if (encoded == null || encoded.length == 0) {
+            return null;
+        }
+        if (encoded[0] == TEXT) {
+            return new String(encoded, 1, encoded.length - 1, StandardCharsets.UTF_8);
+        }
+        if (encoded[0] != TEXT_DEFLATED) {
+            return null;
+        }
+        int[] position = { 1 };
+        int length = readVarint(encoded, position);
+        if (length < 0) {
+            return null;
+        }
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(encoded, position[0], encoded.length - position[0]);
+            byte[] utf8 = new byte[length];
+            int inflated = 0;
+            while (inflated < length) {
+                int read = inflater.inflate(utf8, inflated, length - inflated);
+                if (read == 0 && (inflater.finished() || inflater.needsInput() || inflater.needsDictionary())) {
+                    return null;
+                }
+                inflated += read;
+            }
+            return new String(utf8, StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            return null;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    public static byte[] encodeAudio(String extension, byte[] audio) {
+        byte[] name = extension.getBytes(StandardCharsets.US_ASCII);
+        byte[] encoded = new byte[2 + name.length + audio.length];
+        encoded[0] = AUDIO;
+        encoded[1] = (byte) name.length;
+        System.arraycopy(name, 0, encoded, 2, name.length);
+        System.arraycopy(audio, 0, encoded, 2 + name.length, audio.length);
+        return encoded;
+    }
+
+    /**
+     * The extension of an encoded clip, or null if {@code encoded} is not one.
+     */
+    public static String audioExtension(byte[] encoded) {
+        if (encoded == null || encoded.length < 2 || encoded[0] != AUDIO || encoded.length < 2 + encoded[1]) {
+            return null;
+        }
+        return new String(encoded, 2, encoded[1], StandardCharsets.US_ASCII);
+    }
+
+    public static byte[] audioBytes(byte[] encoded) {
+        return Arrays.copyOfRange(encoded, 2 + encoded[1], encoded.length);
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 16);
+            byte[] buffer = new byte[Math.min(8192, data.length + 64)];
+            while (!deflater.finished()) {
+                int written = deflater.deflate(buffer);
+                out.write(buffer, 0, written);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7f) != 0) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(byte[] data, int[] position) {
+        int value = 0;
+        for (int shift = 0; shift < 32 && position[0] < data.length; shift += 7) {
+            int b = data[position[0]++] & 0xff;
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,101 @@
+package org.translate.com.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits transcripts into sentences for the pipelined speech path. Terminators are
+ * {@code . ! ? …} and the Arabic question mark; decimals and a few common abbreviations
+ * are not split. Fragments shorter than {@link #MIN_LENGTH} are merged into the next
+ * sentence so that TTS is not called for a lone "OK.".
+ */
+public final class SentenceSplitter {
+
+    static final int MIN_LENGTH = 20;
+
+    private static final Set<String> ABBREVIATIONS = Set.of(
+            "mr", "mrs", "ms", "dr", "prof", "st", "vs", "etc", "e.g", "i.e", "m", "mme", "mlle");
+
+    private SentenceSplitter() {
+    }
+
+    public static List<String> split(String text) {
+        List<String> sentences = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return sentences;
+        }
+
+        StringBuilder current = new StringBuilder();
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '\n' || c == '\r') {
+                current.append(' ');
+                if (i + 1 < length && (text.charAt(i + 1) == '\n' || text.charAt(i + 1) == '\r')) {
+                    add(sentences, current);
+                }
+                continue;
+            }
+            current.append(c);
+            if (isTerminator(c) && isBoundary(text, i, current)) {
+                // Keep runs like "?!" or "..." with their sentence.
+                while (i + 1 < length && isTerminator(text.charAt(i + 1))) {
+                    current.append(text.charAt(++i));
+                }
+                add(sentences, current);
+            }
+        }
+        add(sentences, current);
+        mergeTail(sentences);
+        return sentences;
+    }
+
+    private static boolean isTerminator(char c) {
+        return c == '.' || c == '!' || c == '?' || c == '…' || c == '؟';
+    }
+
+    private static boolean isBoundary(String text, int index, StringBuilder current) {
+        char c = text.charAt(index);
+        boolean atEnd = index + 1 >= text.length();
+        if (!atEnd && !Character.isWhitespace(text.charAt(index + 1)) && !isTerminator(text.charAt(index + 1))) {
+            return false; // 3.5, e.g., example.com
+        }
+        if (c == '.') {
+            String word = lastWord(current);
+            boolean initial = word.length() == 1 && Character.isUpperCase(word.charAt(0));
+            return !initial && !ABBREVIATIONS.contains(word.toLowerCase());
+        }
+        return true;
+    }
+
+    private static String lastWord(StringBuilder current) {
+        int end = current.length() - 1;
+        int start = end;
+        while (start > 0 && !Character.isWhitespace(current.charAt(start - 1))) {
+            start--;
+        }
+        return current.substring(start, end);
+    }
+
+    private static void add(List<String> sentences, StringBuilder current) {
+        String sentence = current.toString().trim().replaceAll("\\s+", " ");
+        current.setLength(0);
+        if (sentence.isEmpty()) {
+            return;
+        }
+        int last = sentences.size() - 1;
+        if (last >= 0 && sentences.get(last).length() < MIN_LENGTH) {
+            sentences.set(last, sentences.get(last) + " " + sentence);
+        } else {
+            sentences.add(sentence);
+        }
+    }
+
+    private static void mergeTail(List<String> sentences) {
+        int last = sentences.size() - 1;
+        if (last > 0 && sentences.get(last).length() < MIN_LENGTH) {
+            sentences.set(last - 1, sentences.get(last - 1) + " " + sentences.remove(last));
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package org.translate.com.services;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.translate.com.config.Tunables;
+
+/**
+ * Shared worker pools. Resources are created per request, so pools live here rather
+ * than in the services. Threads are daemons and idle threads time out.
+ */
+public final class ServiceExecutors {
+
+    private ServiceExecutors() {
+    }
+
+    private static final class OcrHolder {
+        // OCR is CPU-bound (Tesseract child processes): one worker per core by default.
+        static final ExecutorService POOL = newPool("ocr", Tunables.OCR_THREADS);
+    }
+
+    private static final class UpstreamHolder {
+        // Calls to LLM / Whisper / TTS backends are I/O-bound; the bound protects upstream quotas.
+        static final ExecutorService POOL = newPool("upstream", Tunables.UPSTREAM_CONCURRENCY);
+    }
+
+    private static final class TranscriptionHolder {
+        // Chunks of one long recording sent to Whisper side by side. Separate from the upstream
+        // pool because callers (e.g. the speech WebSocket) already run on upstream threads.
+        static final ExecutorService POOL = newPool("transcription", Tunables.TRANSCRIBE_PARALLELISM);
+    }
+
+    private static final class TtsHolder {
+        // Sentences of one long text synthesized side by side; separate from the upstream pool
+        // for the same reason as transcription. The bound caps sentence calls across requests.
+        static final ExecutorService POOL = newPool("tts", Tunables.TTS_PARALLELISM);
+    }
+
+    private static final class AudioOutHolder {
+        // Audio copied out to clients: paced by the client's socket, so each stream gets a thread
+        // of its own rather than holding a slot that LLM and TTS calls need.
+        static final ExecutorService POOL = newStreamPool("audio-out");
+    }
+
+    private static final class TimerHolder {
+        // Deadlines only (e.g. cancelling an upstream call): tasks must return at once.
+        static final ScheduledExecutorService POOL = newTimer();
+    }
+
+    public static ExecutorService ocr() {
+        return OcrHolder.POOL;
+    }
+
+    public static ExecutorService upstream() {
+        return UpstreamHolder.POOL;
+    }
+
+    public static ExecutorService transcription() {
+        return TranscriptionHolder.POOL;
+    }
+
+    public static ExecutorService tts() {
+        return TtsHolder.POOL;
+    }
+
+    public static ExecutorService audioOut() {
+        return AudioOutHolder.POOL;
+    }
+
+    public static ScheduledExecutorService timers() {
+        return TimerHolder.POOL;
+    }
+
+    public static int ocrParallelism() {
+        return ((ThreadPoolExecutor) OcrHolder.POOL).getMaximumPoolSize();
+    }
+
+    /**
+     * An executor that starts one virtual thread per task, or null when the runtime has no
+     * virtual threads (before Java 21). Looked up reflectively so the sources still build for
+     * Java 11.
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor(String name) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> ofVirtual = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            builder = ofVirtual.getMethod("name", String.class, long.class).invoke(builder, name + "-", 1L);
+            ThreadFactory factory = (ThreadFactory) Class.forName("java.lang.Thread$Builder")
+                    .getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, factory);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // No such method before Java 21; preview-only (disabled) on 19 and 20.
+            return null;
+        }
+    }
+
+    /**
+     * One thread per task for work that mostly waits on a client: virtual threads when the
+     * runtime has them, otherwise platform threads that are reused while they stay busy.
+     */
+    private static ExecutorService newStreamPool(String name) {
+        ExecutorService virtual = newVirtualThreadPerTaskExecutor(name);
+        if (virtual != null) {
+            return virtual;
+        }
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                daemonFactory(name));
+    }
+
+    static ExecutorService newPool(String name, int threads) {
+        int size = Math.max(1, threads);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(size, size, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), daemonFactory(name));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * A pool sized by {@code threads} and resized when it changes. Running tasks finish; a
+     * smaller pool lets surplus threads exit as they go idle.
+     */
+    private static ExecutorService newPool(String name, Tunables.IntTunable threads) {
+        ThreadPoolExecutor pool = (ThreadPoolExecutor) newPool(name, threads.getInt());
+        threads.onChange(size -> resize(pool, size));
+        return pool;
+    }
+
+    private static synchronized void resize(ThreadPoolExecutor pool, int size) {
+        // Core may never exceed max: grow max first, shrink core first.
+        if (size > pool.getMaximumPoolSize()) {
+            pool.setMaximumPoolSize(size);
+            pool.setCorePoolSize(size);
+        } else {
+            pool.setCorePoolSize(size);
+            pool.setMaximumPoolSize(size);
+        }
+    }
+
+    private static ScheduledExecutorService newTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, daemonFactory("timer"));
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    private static ThreadFactory daemonFactory(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
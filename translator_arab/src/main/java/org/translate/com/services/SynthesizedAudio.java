@@ -0,0 +1,90 @@
+package org.translate.com.services;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+
+/**
+ * Audio produced by {@link TTSService}: either bytes just returned by a backend or a file
+ * in the {@link AudioCache}. Cached clips stay on disk until a caller actually needs them.
+ */
+public final class SynthesizedAudio {
+
+    private final byte[] bytes;
+    private final Path file;
+    private final String mediaType;
+    private final String source;
+
+    private SynthesizedAudio(byte[] bytes, Path file, String mediaType, String source) {
+        this.bytes = bytes;
+        this.file = file;
+        this.mediaType = mediaType;
+        this.source = source;
+    }
+
+    public static SynthesizedAudio of(byte[] bytes, String mediaType, String source) {
+        return new SynthesizedAudio(bytes, null, mediaType, source);
+    }
+
+    static SynthesizedAudio cached(Path file) {
+        String name = file.getFileName().toString();
+        String extension = name.substring(name.lastIndexOf('.') + 1);
+        return new SynthesizedAudio(null, file, AudioCache.mediaType(extension), "cache");
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Backend that produced the audio ({@code custom}, {@code edge}, {@code google},
+     * {@code local}) or {@code cache}.
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Cache file holding the audio, null when it only exists in memory.
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    public long size() {
+        if (bytes != null) {
+            return bytes.length;
+        }
+        try {
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public InputStream openStream() throws IOException {
+        return bytes != null ? new ByteArrayInputStream(bytes) : Files.newInputStream(file);
+    }
+
+    public byte[] toBytes() {
+        if (bytes != null) {
+            return bytes;
+        }
+        try {
+            return Files.readAllBytes(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * For callers that embed audio in text, such as the WebSocket messages.
+     */
+    public String toBase64() {
+        return Base64.getEncoder().encodeToString(toBytes());
+    }
+}
@@ -4,25 +4,58 @@ import okhttp3.*;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.translate.com.config.EnvConfig;
+import org.translate.com.config.Tunables;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 public class TTSService {
 
-    private final OkHttpClient httpClient;
+    private static final String BACKEND_CUSTOM = "custom";
+    private static final String BACKEND_EDGE = "edge";
+    private static final String BACKEND_GOOGLE = "google";
+    private static final String BACKEND_LOCAL = "local";
+    // Every backend is asked for MP3 (OpenAI-compatible default, Edge, Google audioEncoding).
+    private static final String FORMAT = "mp3";
+    private static final AudioCache AUDIO_CACHE = new AudioCache();
+    private static final AudioAssetStore AUDIO_ASSETS = new AudioAssetStore();
+    // Texts longer than this are synthesized sentence by sentence, in parallel.
+    private static final int SPLIT_MIN_CHARS = EnvConfig.getInt("TTS_SPLIT_MIN_CHARS", 200);
+    // Longer sentences are cut at a comma or a space to stay under backend length limits.
+    private static final int MAX_SEGMENT_CHARS = Math.max(40, EnvConfig.getInt("TTS_MAX_SEGMENT_CHARS", 400));
+    // Upper bound for one synthesis across the whole chain; the local fallback answers after it.
+    private static final Tunables.IntTunable TOTAL_BUDGET_MS = Tunables.TTS_TOTAL_BUDGET_MS;
+    // Not worth starting a backend call with less time than this left.
+    private static final long MIN_ATTEMPT_MS = 100;
+    // Scores within this factor of each other keep the configured order.
+    private static final double ORDER_HYSTERESIS = 1.5;
+    private static final Map<String, BackendHealth> HEALTH = createHealth();
+
+    static {
+        Tunables.TTS_CACHE_MAX_MB.onChange(AUDIO_CACHE::setMaxMegabytes);
+    }
+    // One client for all instances: resources are per request, and each client owns its
+    // own connection pool.
+    private static final OkHttpClient HTTP_CLIENT = new OkHttpClient.Builder()
+            .connectTimeout(30, TimeUnit.SECONDS)
+            .readTimeout(30, TimeUnit.SECONDS)
+            .build();
+
     private final ObjectMapper objectMapper;
     private final String ttsApiUrl;
 
     public TTSService() {
-        this.httpClient = new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(30, TimeUnit.SECONDS)
-                .build();
-
         this.objectMapper = new ObjectMapper();
 
         // Optional: Local/Custom TTS Endpoint
@@ -33,72 +66,70 @@ public class TTSService {
      * Synthétiser du texte en audio avec Google TTS (gratuit)
      */
     public String synthesizeWithGoogleTTS(String text, String language, String voiceType) throws IOException {
-        try {
-            // Google TTS API (gratuit jusqu'à 1 million de caractères/mois)
-            String googleTtsUrl = "https://texttospeech.googleapis.com/v1/text:synthesize";
-
-            // Créer le payload JSON
-            Map<String, Object> payload = new HashMap<>();
-            Map<String, Object> input = new HashMap<>();
-            input.put("text", text);
-
-            Map<String, Object> voiceConfig = new HashMap<>();
-            voiceConfig.put("languageCode", mapLanguageCode(language));
-            voiceConfig.put("name", getGoogleVoice(language, voiceType));
-            voiceConfig.put("ssmlGender", getGender(voiceType));
-
-            Map<String, Object> audioConfig = new HashMap<>();
-            audioConfig.put("audioEncoding", "MP3");
-            audioConfig.put("speakingRate", 1.0);
-            audioConfig.put("pitch", 0.0);
-
-            payload.put("input", input);
-            payload.put("voice", voiceConfig);
-            payload.put("audioConfig", audioConfig);
-
-            String jsonPayload = objectMapper.writeValueAsString(payload);
-
-            // Note: Google TTS nécessite une API key
-            // Pour une solution gratuite sans API key, voir la méthode alternative
-            // ci-dessous
-
-            RequestBody body = RequestBody.create(
-                    jsonPayload,
-                    MediaType.parse("application/json"));
-
-            Request request = new Request.Builder()
-                    .url(googleTtsUrl)
-                    .post(body)
-                    .build();
-
-            try (Response response = httpClient.newCall(request).execute()) {
-                if (!response.isSuccessful()) {
-                    throw new IOException("Google TTS API error: " + response.code());
-                }
-
-                String responseBody = response.body().string();
-                JsonNode jsonNode = objectMapper.readTree(responseBody);
-                return jsonNode.get("audioContent").asText();
-            }
+        return googleAudio(googleRequest(text, language, voiceType), HEALTH.get(BACKEND_GOOGLE).getBudgetMs());
+    }
 
+    private String googleAudio(Request request, long budgetMs) throws IOException {
+        try (Response response = openUpstream(request, "Google TTS API", budgetMs, false)) {
+            String responseBody = response.body().string();
+            JsonNode jsonNode = objectMapper.readTree(responseBody);
+            return jsonNode.get("audioContent").asText();
         } catch (Exception e) {
             // Fallback à une méthode locale
             throw new IOException("Google TTS failure", e);
         }
     }
 
+    private Request googleRequest(String text, String language, String voiceType) throws IOException {
+        // Google TTS API (gratuit jusqu'à 1 million de caractères/mois)
+        String googleTtsUrl = "https://texttospeech.googleapis.com/v1/text:synthesize";
+
+        // Créer le payload JSON
+        Map<String, Object> payload = new HashMap<>();
+        Map<String, Object> input = new HashMap<>();
+        input.put("text", text);
+
+        Map<String, Object> voiceConfig = new HashMap<>();
+        voiceConfig.put("languageCode", mapLanguageCode(language));
+        voiceConfig.put("name", getGoogleVoice(language, voiceType));
+        voiceConfig.put("ssmlGender", getGender(voiceType));
+
+        Map<String, Object> audioConfig = new HashMap<>();
+        audioConfig.put("audioEncoding", "MP3");
+        audioConfig.put("speakingRate", 1.0);
+        audioConfig.put("pitch", 0.0);
+
+        payload.put("input", input);
+        payload.put("voice", voiceConfig);
+        payload.put("audioConfig", audioConfig);
+
+        String jsonPayload = objectMapper.writeValueAsString(payload);
+
+        // Note: Google TTS nécessite une API key
+        // Pour une solution gratuite sans API key, voir la méthode alternative
+        // ci-dessous
+
+        RequestBody body = RequestBody.create(
+                jsonPayload,
+                MediaType.parse("application/json"));
+
+        return new Request.Builder()
+                .url(googleTtsUrl)
+                .post(body)
+                .build();
+    }
+
     /**
      * Alternative: Utiliser un service TTS local gratuit
      */
-    private String synthesizeLocal(String text) {
+    private SynthesizedAudio synthesizeLocal(String text) {
         try {
             // Simulation simple - en production, utilisez FreeTTS ou autre
             byte[] audioBytes = generateSimpleAudio(text);
-            return Base64.getEncoder().encodeToString(audioBytes);
+            return SynthesizedAudio.of(audioBytes, "audio/mpeg", BACKEND_LOCAL);
         } catch (Exception e) {
             // Dernier recours: retourner un message d'erreur encodé
-            return Base64.getEncoder().encodeToString(
-                    ("Audio non disponible pour: " + text).getBytes());
+            return SynthesizedAudio.of(("Audio non disponible pour: " + text).getBytes(), "audio/mpeg", BACKEND_LOCAL);
         }
     }
 
@@ -106,83 +137,109 @@ public class TTSService {
      * Utiliser Edge TTS (Microsoft) - Gratuit
      */
     public String synthesizeWithEdgeTTS(String text, String language) throws IOException {
-        try {
-            // Edge TTS via un proxy public (exemple)
-            String edgeTtsUrl = "https://edge-tts-proxy.vercel.app/api/tts";
+        return edgeAudio(edgeRequest(text, language), HEALTH.get(BACKEND_EDGE).getBudgetMs()).toBase64();
+    }
 
-            Map<String, String> params = new HashMap<>();
-            params.put("text", text);
-            params.put("language", language);
-            params.put("voice", getEdgeVoice(language));
+    private SynthesizedAudio edgeAudio(Request request, long budgetMs) throws IOException {
+        try (Response response = openUpstream(request, "Edge TTS", budgetMs, false)) {
+            // Edge TTS retourne directement l'audio
+            byte[] audioBytes = response.body().bytes();
+            return SynthesizedAudio.of(audioBytes, audioMediaType(response), BACKEND_EDGE);
+        } catch (Exception e) {
+            System.err.println("Edge TTS failed: " + e.getMessage());
+            throw new IOException("Edge TTS failed", e);
+        }
+    }
 
-            HttpUrl.Builder urlBuilder = HttpUrl.parse(edgeTtsUrl).newBuilder();
-            params.forEach(urlBuilder::addQueryParameter);
+    private Request edgeRequest(String text, String language) {
+        // Edge TTS via un proxy public (exemple)
+        String edgeTtsUrl = "https://edge-tts-proxy.vercel.app/api/tts";
 
-            Request request = new Request.Builder()
-                    .url(urlBuilder.build())
-                    .get()
-                    .build();
+        Map<String, String> params = new HashMap<>();
+        params.put("text", text);
+        if (language != null) {
+            params.put("language", language);
+        }
+        params.put("voice", getEdgeVoice(language));
 
-            try (Response response = httpClient.newCall(request).execute()) {
-                if (!response.isSuccessful()) {
-                    throw new IOException("Edge TTS error: " + response.code());
-                }
+        HttpUrl.Builder urlBuilder = HttpUrl.parse(edgeTtsUrl).newBuilder();
+        params.forEach(urlBuilder::addQueryParameter);
 
-                // Edge TTS retourne directement l'audio
-                byte[] audioBytes = response.body().bytes();
-                return Base64.getEncoder().encodeToString(audioBytes);
-            }
+        return new Request.Builder()
+                .url(urlBuilder.build())
+                .get()
+                .build();
+    }
+
+    public String synthesizeWithCustomEndpoint(String text, String language) throws IOException {
+        return customAudio(customRequest(text), HEALTH.get(BACKEND_CUSTOM).getBudgetMs()).toBase64();
+    }
 
+    private SynthesizedAudio customAudio(Request request, long budgetMs) throws IOException {
+        try (Response response = openUpstream(request, "Custom TTS API", budgetMs, false)) {
+            // The response is binary audio (standard)
+            byte[] audioBytes = response.body() != null ? response.body().bytes() : new byte[0];
+            return SynthesizedAudio.of(audioBytes, audioMediaType(response), BACKEND_CUSTOM);
         } catch (Exception e) {
-            System.err.println("Edge TTS failed: " + e.getMessage());
-            throw new IOException("Edge TTS failed", e);
+            throw new IOException("Custom TTS failed: " + e.getMessage(), e);
         }
     }
 
-    public String synthesizeWithCustomEndpoint(String text, String language) throws IOException {
+    private Request customRequest(String text) throws IOException {
         if (ttsApiUrl == null || ttsApiUrl.isBlank()) {
             throw new IOException("TTS_API_URL not configured");
         }
 
-        try {
-            // Create a generic JSON payload.
-            // Many local TTS servers (like OpenAI-compatible ones) expect "input" or "text"
-            // and "voice".
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("model", "tts-1");
-            payload.put("input", text); // OpenAI format uses 'input'
-            payload.put("voice", "alloy"); // Default voice, can be parameterized if needed
-
-            // Some might use 'text' instead of 'input', we can add both or check the
-            // specific API.
-            // For a generic implementation, let's stick to OpenAI format as a baseline dev
-            // standard.
-
-            String jsonPayload = objectMapper.writeValueAsString(payload);
-
-            RequestBody body = RequestBody.create(
-                    jsonPayload,
-                    MediaType.parse("application/json"));
-
-            Request request = new Request.Builder()
-                    .url(ttsApiUrl)
-                    .post(body)
-                    .build();
-
-            try (Response response = httpClient.newCall(request).execute()) {
-                if (!response.isSuccessful()) {
-                    throw new IOException("Custom TTS API error: " + response.code() + " - " + response.message());
-                }
+        // Create a generic JSON payload.
+        // Many local TTS servers (like OpenAI-compatible ones) expect "input" or "text"
+        // and "voice".
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("model", "tts-1");
+        payload.put("input", text); // OpenAI format uses 'input'
+        payload.put("voice", "alloy"); // Default voice, can be parameterized if needed
 
-                // If the response is binary audio (standard), encode to Base64
-                if (response.body() != null) {
-                    byte[] audioBytes = response.body().bytes();
-                    return Base64.getEncoder().encodeToString(audioBytes);
-                }
-                return "";
+        // Some might use 'text' instead of 'input', we can add both or check the
+        // specific API.
+        // For a generic implementation, let's stick to OpenAI format as a baseline dev
+        // standard.
+
+        String jsonPayload = objectMapper.writeValueAsString(payload);
+
+        RequestBody body = RequestBody.create(
+                jsonPayload,
+                MediaType.parse("application/json"));
+
+        return new Request.Builder()
+                .url(ttsApiUrl)
+                .post(body)
+                .build();
+    }
+
+    /**
+     * Executes a backend call and returns the open response; the caller closes it. The
+     * call is cancelled once {@code budgetMs} has elapsed: including reading the body, or,
+     * for a streamed body ({@code untilHeaders}), only until the response headers arrive.
+     */
+    private Response openUpstream(Request request, String backendName, long budgetMs, boolean untilHeaders)
+            throws IOException {
+        Call call = HTTP_CLIENT.newCall(request);
+        ScheduledFuture<?> watchdog = null;
+        if (untilHeaders) {
+            watchdog = ServiceExecutors.timers().schedule(call::cancel, budgetMs, TimeUnit.MILLISECONDS);
+        } else {
+            call.timeout().timeout(budgetMs, TimeUnit.MILLISECONDS);
+        }
+        try {
+            Response response = call.execute();
+            if (!response.isSuccessful()) {
+                response.close();
+                throw new IOException(backendName + " error: " + response.code() + " - " + response.message());
+            }
+            return response;
+        } finally {
+            if (watchdog != null) {
+                watchdog.cancel(false);
             }
-        } catch (Exception e) {
-            throw new IOException("Custom TTS failed: " + e.getMessage(), e);
         }
     }
 
@@ -190,29 +247,396 @@ public class TTSService {
      * Méthode principale de synthèse avec fallback
      */
     public String synthesizeText(String text, String language, String voiceType) {
-        // 1. Try Custom/Local Endpoint first if configured
-        if (ttsApiUrl != null && !ttsApiUrl.isBlank()) {
+        return synthesize(text, language, voiceType).toBase64();
+    }
+
+    /**
+     * Same fallback chain, returning the audio itself. Results are cached on disk per
+     * backend; a clip any backend of the chain already produced is served from the cache
+     * without calling out. Long texts are split into sentences that are synthesized (and
+     * cached) separately and joined, so the wait is that of the slowest sentence.
+     */
+    public SynthesizedAudio synthesize(String text, String language, String voiceType) {
+        long deadline = System.currentTimeMillis() + TOTAL_BUDGET_MS.getInt();
+        List<String> segments = segments(text);
+        if (segments.size() > 1) {
+            SynthesizedAudio joined = synthesizeSegments(text, segments, language, voiceType, deadline);
+            if (joined != null) {
+                return joined;
+            }
+        }
+        return synthesizeSegment(text, language, voiceType, deadline);
+    }
+
+    /**
+     * Sentences go to the TTS pool, which bounds how many backend calls run at once. The
+     * first clip a backend produced sets the format; sentences that came back in another
+     * format, or from the local fallback, are retried on their own with only that format
+     * accepted, within what is left of the deadline. Returns null when the clips cannot be
+     * joined (a format {@link AudioConcat} does not know, different sample formats); the
+     * caller then synthesizes the text in one piece.
+     */
+    private SynthesizedAudio synthesizeSegments(String text, List<String> segments, String language,
+            String voiceType, long deadline) {
+        List<SynthesizedAudio> clips = joinAll(segments, segment -> synthesizeSegment(segment, language, voiceType,
+                deadline, null));
+        String mediaType = null;
+        for (SynthesizedAudio clip : clips) {
+            if (!BACKEND_LOCAL.equals(clip.getSource())) {
+                mediaType = clip.getMediaType();
+                break;
+            }
+        }
+        if (mediaType == null) {
+            // Every backend is down: no point in retrying the whole text.
+            return synthesizeLocal(text);
+        }
+
+        String format = mediaType;
+        List<Integer> retries = new ArrayList<>();
+        for (int i = 0; i < clips.size(); i++) {
+            SynthesizedAudio clip = clips.get(i);
+            if (BACKEND_LOCAL.equals(clip.getSource()) || !sameFormat(clip.getMediaType(), format)) {
+                retries.add(i);
+            }
+        }
+        List<SynthesizedAudio> retried = joinAll(retries, i -> synthesizeSegment(segments.get(i), language,
+                voiceType, deadline, format));
+        for (int r = 0; r < retries.size(); r++) {
+            if (retried.get(r) == null) {
+                // No backend gave this sentence in the format of the others in time.
+                return synthesizeLocal(text);
+            }
+            clips.set(retries.get(r), retried.get(r));
+        }
+
+        List<byte[]> bytes = new ArrayList<>();
+        List<String> sources = new ArrayList<>();
+        for (SynthesizedAudio clip : clips) {
+            bytes.add(clip.toBytes());
+            if (!sources.contains(clip.getSource())) {
+                sources.add(clip.getSource());
+            }
+        }
+        byte[] joined = AudioConcat.concat(bytes, mediaType);
+        return joined == null ? null : SynthesizedAudio.of(joined, mediaType, String.join("+", sources));
+    }
+
+    private static <T> List<SynthesizedAudio> joinAll(List<T> items, Function<T, SynthesizedAudio> synthesis) {
+        List<CompletableFuture<SynthesizedAudio>> pending = new ArrayList<>();
+        for (T item : items) {
+            pending.add(CompletableFuture.supplyAsync(() -> synthesis.apply(item), ServiceExecutors.tts()));
+        }
+        List<SynthesizedAudio> clips = new ArrayList<>();
+        for (CompletableFuture<SynthesizedAudio> future : pending) {
+            clips.add(future.join());
+        }
+        return clips;
+    }
+
+    private static boolean sameFormat(String mediaType, String other) {
+        return AudioCache.extension(mediaType).equals(AudioCache.extension(other));
+    }
+
+    private SynthesizedAudio synthesizeSegment(String text, String language, String voiceType, long deadline) {
+        return synthesizeSegment(text, language, voiceType, deadline, null);
+    }
+
+    /**
+     * Tries the backends best-scored first. Unhealthy backends are skipped without a call,
+     * and each call gets its backend's budget, cut short by the overall deadline. With a
+     * {@code format}, audio in any other format does not count: a backend whose cached clip
+     * is in another format is skipped, a fresh answer in another format is cached and the
+     * next backend tried, and null is returned instead of the local fallback.
+     */
+    private SynthesizedAudio synthesizeSegment(String text, String language, String voiceType, long deadline,
+            String format) {
+        List<String> backends = backends();
+        List<String> cacheKeys = cacheKeys(backends, text, language, voiceType);
+        if (format == null) {
+            Path cached = AUDIO_CACHE.get(cacheKeys);
+            if (cached != null) {
+                return SynthesizedAudio.cached(cached);
+            }
+        }
+
+        for (int i = 0; i < backends.size(); i++) {
+            String backend = backends.get(i);
+            if (format != null) {
+                Path cached = AUDIO_CACHE.get(List.of(cacheKeys.get(i)));
+                if (cached != null) {
+                    SynthesizedAudio clip = SynthesizedAudio.cached(cached);
+                    if (sameFormat(clip.getMediaType(), format)) {
+                        return clip;
+                    }
+                    continue;
+                }
+            }
+            BackendHealth health = HEALTH.get(backend);
+            long budget = Math.min(health.getBudgetMs(), deadline - System.currentTimeMillis());
+            if (budget < MIN_ATTEMPT_MS) {
+                break;
+            }
+            Request request = backendRequest(backend, text, language, voiceType);
+            if (request == null || !health.tryAcquire()) {
+                continue;
+            }
+            long start = System.currentTimeMillis();
             try {
-                return synthesizeWithCustomEndpoint(text, language);
+                SynthesizedAudio audio = callBackend(backend, request, budget);
+                health.success(System.currentTimeMillis() - start);
+                AUDIO_CACHE.put(cacheKeys.get(i), AudioCache.extension(audio.getMediaType()), audio.toBytes());
+                if (format == null || sameFormat(audio.getMediaType(), format)) {
+                    return audio;
+                }
             } catch (Exception e) {
-                System.err.println("Custom TTS failed, falling back...");
+                long elapsed = System.currentTimeMillis() - start;
+                health.failure(elapsed, elapsed >= budget);
+                logFallback(backend);
             }
         }
+        // 4. Fallback to local simulation (never cached)
+        return format == null ? synthesizeLocal(text) : null;
+    }
 
-        // 2. Try Edge TTS (Free)
-        try {
-            return synthesizeWithEdgeTTS(text, language);
-        } catch (Exception e1) {
+    /**
+     * Streaming variant for binary responses: returns as soon as a backend has answered,
+     * with its body still unread, so the client gets the first bytes when the backend sends
+     * them. The fallback chain only applies until a backend answers successfully. Audio
+     * from a backend is written to the cache as it streams through. Backend order, health
+     * and budgets are those of {@link #synthesize}. Texts long enough to be
+     * split are synthesized first and streamed from memory.
+     */
+    public AudioStream openStream(String text, String language, String voiceType) throws IOException {
+        if (segments(text).size() > 1) {
+            // Joined clips only exist once every sentence is done.
+            return AudioStream.of(synthesize(text, language, voiceType));
+        }
+        List<String> backends = backends();
+        List<String> cacheKeys = cacheKeys(backends, text, language, voiceType);
+        Path cached = AUDIO_CACHE.get(cacheKeys);
+        if (cached != null) {
+            return AudioStream.of(SynthesizedAudio.cached(cached));
+        }
+
+        long deadline = System.currentTimeMillis() + TOTAL_BUDGET_MS.getInt();
+        for (int i = 0; i < backends.size(); i++) {
+            String backend = backends.get(i);
+            BackendHealth health = HEALTH.get(backend);
+            long budget = Math.min(health.getBudgetMs(), deadline - System.currentTimeMillis());
+            if (budget < MIN_ATTEMPT_MS) {
+                break;
+            }
+            Request request = backendRequest(backend, text, language, voiceType);
+            if (request == null || !health.tryAcquire()) {
+                continue;
+            }
+            long start = System.currentTimeMillis();
             try {
-                // 3. Try Google TTS
-                return synthesizeWithGoogleTTS(text, language, voiceType);
-            } catch (Exception e2) {
-                // 4. Fallback to local simulation
-                return synthesizeLocal(text);
+                if (BACKEND_GOOGLE.equals(backend)) {
+                    // Google answers with base64 inside JSON: nothing to stream.
+                    SynthesizedAudio audio = callBackend(backend, request, budget);
+                    health.success(System.currentTimeMillis() - start);
+                    AUDIO_CACHE.put(cacheKeys.get(i), AudioCache.extension(audio.getMediaType()), audio.toBytes());
+                    return AudioStream.of(audio);
+                }
+                Response response = openUpstream(request, backend, budget, true);
+                // Scored on time to first byte: that is what a streaming client waits for.
+                health.success(System.currentTimeMillis() - start);
+                String mediaType = audioMediaType(response);
+                ResponseBody body = response.body();
+                return new AudioStream(body.byteStream(), mediaType, body.contentLength(), backend,
+                        AUDIO_CACHE.openWriter(cacheKeys.get(i), AudioCache.extension(mediaType)), response);
+            } catch (Exception e) {
+                long elapsed = System.currentTimeMillis() - start;
+                health.failure(elapsed, elapsed >= budget);
+                logFallback(backend);
+            }
+        }
+        return AudioStream.of(synthesizeLocal(text));
+    }
+
+    /**
+     * The text as one segment when it is short, otherwise its sentences, with sentences
+     * over {@code MAX_SEGMENT_CHARS} cut at the last comma (or space) before the limit.
+     */
+    static List<String> segments(String text) {
+        List<String> segments = new ArrayList<>();
+        if (text == null || text.length() <= SPLIT_MIN_CHARS) {
+            segments.add(text);
+            return segments;
+        }
+        for (String sentence : SentenceSplitter.split(text)) {
+            String rest = sentence;
+            while (rest.length() > MAX_SEGMENT_CHARS) {
+                int cut = cutPoint(rest);
+                segments.add(rest.substring(0, cut).trim());
+                rest = rest.substring(cut).trim();
+            }
+            if (!rest.isEmpty()) {
+                segments.add(rest);
+            }
+        }
+        if (segments.isEmpty()) {
+            segments.add(text);
+        }
+        return segments;
+    }
+
+    private static int cutPoint(String sentence) {
+        int space = -1;
+        for (int i = MAX_SEGMENT_CHARS - 1; i > MAX_SEGMENT_CHARS / 2; i--) {
+            char c = sentence.charAt(i);
+            if (c == ',' || c == ';' || c == ':' || c == '،' || c == '؛') {
+                return i + 1;
+            }
+            if (space < 0 && Character.isWhitespace(c)) {
+                space = i;
+            }
+        }
+        if (space > 0) {
+            return space;
+        }
+        // A cut inside a surrogate pair would garble the character on both sides.
+        return Character.isHighSurrogate(sentence.charAt(MAX_SEGMENT_CHARS - 1)) ? MAX_SEGMENT_CHARS - 1
+                : MAX_SEGMENT_CHARS;
+    }
+
+    private List<String> backends() {
+        return orderedBackends(ttsApiUrl != null && !ttsApiUrl.isBlank());
+    }
+
+    /**
+     * Configured order (1. Custom/Local Endpoint if configured, 2. Edge TTS (Free), 3.
+     * Google TTS), re-sorted by health score: healthy backends first, then by expected
+     * time to a successful answer. Scores are compared in steps of
+     * {@code ORDER_HYSTERESIS}, so close scores keep the configured order.
+     */
+    private static List<String> orderedBackends(boolean customConfigured) {
+        return orderedBackends(HEALTH.values(), customConfigured);
+    }
+
+    static List<String> orderedBackends(Collection<BackendHealth> healths, boolean customConfigured) {
+        List<String> backends = new ArrayList<>();
+        Map<String, Integer> ranks = new HashMap<>();
+        for (BackendHealth health : healths) {
+            if (BACKEND_CUSTOM.equals(health.getName()) && !customConfigured) {
+                continue;
             }
+            backends.add(health.getName());
+            // Ranked once up front: scores move under concurrent calls while sorting.
+            int rank = (int) Math.floor(Math.log(health.score()) / Math.log(ORDER_HYSTERESIS));
+            ranks.put(health.getName(), health.isHealthy() ? rank : Integer.MAX_VALUE);
+        }
+        backends.sort((a, b) -> Integer.compare(ranks.get(a), ranks.get(b)));
+        return backends;
+    }
+
+    private static Map<String, BackendHealth> createHealth() {
+        int failureThreshold = EnvConfig.getInt("TTS_FAILURE_THRESHOLD", 2);
+        long cooldownMs = EnvConfig.getInt("TTS_COOLDOWN_MS", 30000);
+        long maxCooldownMs = EnvConfig.getInt("TTS_MAX_COOLDOWN_MS", 300000);
+        Map<String, BackendHealth> health = new LinkedHashMap<>();
+        health.put(BACKEND_CUSTOM, newHealth(BACKEND_CUSTOM, Tunables.TTS_CUSTOM_BUDGET_MS, failureThreshold,
+                cooldownMs, maxCooldownMs));
+        health.put(BACKEND_EDGE, newHealth(BACKEND_EDGE, Tunables.TTS_EDGE_BUDGET_MS, failureThreshold,
+                cooldownMs, maxCooldownMs));
+        health.put(BACKEND_GOOGLE, newHealth(BACKEND_GOOGLE, Tunables.TTS_GOOGLE_BUDGET_MS, failureThreshold,
+                cooldownMs, maxCooldownMs));
+        return health;
+    }
+
+    private static BackendHealth newHealth(String name, Tunables.IntTunable budget, int failureThreshold,
+            long cooldownMs, long maxCooldownMs) {
+        BackendHealth health = new BackendHealth(name, budget.getInt(), failureThreshold, cooldownMs, maxCooldownMs);
+        budget.onChange(health::setBudgetMs);
+        return health;
+    }
+
+    private List<String> cacheKeys(List<String> backends, String text, String language, String voiceType) {
+        List<String> keys = new ArrayList<>();
+        for (String backend : backends) {
+            keys.add(AudioCache.key(text, language, voiceType, backend, FORMAT));
+        }
+        return keys;
+    }
+
+    private void logFallback(String backend) {
+        if (BACKEND_CUSTOM.equals(backend)) {
+            System.err.println("Custom TTS failed, falling back...");
         }
     }
 
+    public static Map<String, Object> audioCacheStats() {
+        return AUDIO_CACHE.stats();
+    }
+
+    /**
+     * Stores {@code audio} for download by URL and returns its asset id.
+     */
+    public String publish(SynthesizedAudio audio) throws IOException {
+        return AUDIO_ASSETS.register(audio);
+    }
+
+    /**
+     * Published audio by id, or null when unknown or expired.
+     */
+    public static AudioAssetStore.Asset audioAsset(String id) {
+        return AUDIO_ASSETS.get(id);
+    }
+
+    public static Map<String, Object> audioAssetStats() {
+        return AUDIO_ASSETS.stats();
+    }
+
+    public static Map<String, Object> backendStats() {
+        String url = EnvConfig.get("TTS_API_URL");
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("order", orderedBackends(url != null && !url.isBlank()));
+        stats.put("totalBudgetMs", TOTAL_BUDGET_MS.getInt());
+        Map<String, Object> backends = new LinkedHashMap<>();
+        HEALTH.forEach((name, health) -> backends.put(name, health.snapshot()));
+        stats.put("backends", backends);
+        return stats;
+    }
+
+    /**
+     * Builds the backend's request, or returns null when it cannot be built. That is a local
+     * problem, so it is not held against the backend's health: only the call itself is.
+     */
+    private Request backendRequest(String backend, String text, String language, String voiceType) {
+        try {
+            switch (backend) {
+                case BACKEND_CUSTOM:
+                    return customRequest(text);
+                case BACKEND_EDGE:
+                    return edgeRequest(text, language);
+                default:
+                    return googleRequest(text, language, voiceType);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Cannot build the " + backend + " TTS request: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private SynthesizedAudio callBackend(String backend, Request request, long budgetMs) throws IOException {
+        switch (backend) {
+            case BACKEND_CUSTOM:
+                return customAudio(request, budgetMs);
+            case BACKEND_EDGE:
+                return edgeAudio(request, budgetMs);
+            default:
+                byte[] mp3 = Base64.getDecoder().decode(googleAudio(request, budgetMs));
+                return SynthesizedAudio.of(mp3, "audio/mpeg", BACKEND_GOOGLE);
+        }
+    }
+
+    private static String audioMediaType(Response response) {
+        MediaType type = response.body() != null ? response.body().contentType() : null;
+        return type != null && "audio".equals(type.type()) ? type.toString() : "audio/mpeg";
+    }
+
     // Méthodes utilitaires
     private String mapLanguageCode(String lang) {
         if (lang == null)
@@ -246,6 +670,8 @@ public class TTSService {
     }
 
     private String getEdgeVoice(String language) {
+        if (language == null)
+            return "en-US-JennyNeural";
         String lowerLang = language.toLowerCase();
         switch (lowerLang) {
             case "fr":
@@ -0,0 +1,343 @@
+package org.translate.com.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.translate.com.config.EnvConfig;
+
+/**
+ * Runs the Tesseract CLI with TSV output and groups the word boxes and confidences
+ * into text blocks.
+ */
+public class TesseractRunner {
+
+    private static final int TSV_COLUMNS = 12;
+    private static final int LEVEL_BLOCK = 2;
+    private static final int LEVEL_WORD = 5;
+
+    private final String tesseractPath = EnvConfig.get("TESSERACT_PATH");
+    private final String tesseractLang = EnvConfig.get("TESSERACT_LANG");
+
+    /**
+     * One Tesseract text block in the coordinates of the image that was OCR'd.
+     */
+    public static class Block {
+        private final int index;
+        private final String text;
+        private final int left;
+        private final int top;
+        private final int width;
+        private final int height;
+        private final double confidence;
+        private final int wordCount;
+
+        Block(int index, String text, int left, int top, int width, int height, double confidence, int wordCount) {
+            this.index = index;
+            this.text = text;
+            this.left = left;
+            this.top = top;
+            this.width = width;
+            this.height = height;
+            this.confidence = confidence;
+            this.wordCount = wordCount;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public int getLeft() {
+            return left;
+        }
+
+        public int getTop() {
+            return top;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        /**
+         * Mean word confidence, 0-100.
+         */
+        public double getConfidence() {
+            return confidence;
+        }
+
+        public int getWordCount() {
+            return wordCount;
+        }
+    }
+
+    /**
+     * Runs Tesseract with TSV output on stdout and hands each text block to {@code onBlock}
+     * as soon as its last word has been read. Returns all blocks in reading order.
+     */
+    public List<Block> readBlocks(ImagePreprocessor.PreparedImage image, String sourceLanguage,
+            boolean singleThreaded, Consumer<Block> onBlock) throws IOException, InterruptedException {
+        Path imagePath = writeImage(image);
+        Path errorPath = Files.createTempFile("ocr_err_", ".log");
+
+        try {
+            List<String> args = buildArgs(imagePath, "stdout", sourceLanguage);
+            args.add("tsv");
+            ProcessBuilder builder = new ProcessBuilder(args);
+            // stderr must not be interleaved with the TSV rows.
+            builder.redirectError(errorPath.toFile());
+            if (singleThreaded) {
+                builder.environment().put("OMP_THREAD_LIMIT", "1");
+            }
+            Process process = builder.start();
+            try {
+                List<Block> blocks;
+                try (BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                    blocks = parseTsv(reader, onBlock);
+                }
+
+                int exitCode = process.waitFor();
+                if (exitCode != 0) {
+                    String errors = Files.readString(errorPath, StandardCharsets.UTF_8).trim();
+                    throw new IOException("Tesseract failed (exit " + exitCode + "): " + errors);
+                }
+                return blocks;
+            } finally {
+                // A failed read, a throwing onBlock or an interrupt must not leave Tesseract running.
+                if (process.isAlive()) {
+                    process.destroyForcibly();
+                }
+            }
+        } finally {
+            safeDelete(imagePath);
+            safeDelete(errorPath);
+        }
+    }
+
+    /**
+     * Groups Tesseract TSV rows into blocks, handing each to {@code onBlock} once the next
+     * block starts or the input ends. Rows that are not data (the header) and words before
+     * the first block row are skipped.
+     */
+    static List<Block> parseTsv(BufferedReader reader, Consumer<Block> onBlock) throws IOException {
+        List<Block> blocks = new ArrayList<>();
+        BlockBuilder current = null;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] columns = line.split("\t", -1);
+            if (columns.length < TSV_COLUMNS || !isNumber(columns[0])) {
+                continue;
+            }
+            int level = Integer.parseInt(columns[0]);
+            if (level == LEVEL_BLOCK) {
+                emit(current, blocks, onBlock);
+                current = new BlockBuilder(columns);
+            } else if (level == LEVEL_WORD && current != null) {
+                current.addWord(columns);
+            }
+        }
+        emit(current, blocks, onBlock);
+        return blocks;
+    }
+
+    /**
+     * Plain text of the blocks, one paragraph per block (the layout of Tesseract's txt output).
+     */
+    public static String joinText(List<Block> blocks) {
+        StringBuilder text = new StringBuilder();
+        for (Block block : blocks) {
+            if (text.length() > 0) {
+                text.append("\n\n");
+            }
+            text.append(block.getText());
+        }
+        return text.toString();
+    }
+
+    /**
+     * Mean word confidence over all blocks, 0 when there are no words.
+     */
+    public static double meanConfidence(List<Block> blocks) {
+        double sum = 0;
+        int words = 0;
+        for (Block block : blocks) {
+            sum += block.getConfidence() * block.getWordCount();
+            words += block.getWordCount();
+        }
+        return words == 0 ? 0 : sum / words;
+    }
+
+    private static void emit(BlockBuilder builder, List<Block> blocks, Consumer<Block> onBlock) {
+        if (builder == null) {
+            return;
+        }
+        Block block = builder.build(blocks.size());
+        if (block != null) {
+            blocks.add(block);
+            onBlock.accept(block);
+        }
+    }
+
+    private static final class BlockBuilder {
+        private final int left;
+        private final int top;
+        private final int width;
+        private final int height;
+        private final StringBuilder text = new StringBuilder();
+        private String lineKey;
+        private double confidenceSum;
+        private int scoredWords;
+        private int words;
+
+        BlockBuilder(String[] columns) {
+            this.left = Integer.parseInt(columns[6]);
+            this.top = Integer.parseInt(columns[7]);
+            this.width = Integer.parseInt(columns[8]);
+            this.height = Integer.parseInt(columns[9]);
+        }
+
+        void addWord(String[] columns) {
+            String word = columns[11].trim();
+            if (word.isEmpty()) {
+                return;
+            }
+            String key = columns[3] + ":" + columns[4];
+            if (text.length() > 0) {
+                text.append(key.equals(lineKey) ? " " : "\n");
+            }
+            lineKey = key;
+            text.append(word);
+            words++;
+
+            double confidence = parseDouble(columns[10]);
+            if (confidence >= 0) {
+                confidenceSum += confidence;
+                scoredWords++;
+            }
+        }
+
+        Block build(int index) {
+            if (words == 0) {
+                return null;
+            }
+            double confidence = scoredWords == 0 ? 0 : confidenceSum / scoredWords;
+            return new Block(index, text.toString(), left, top, width, height, confidence, words);
+        }
+    }
+
+    public String resolveLanguage(String sourceLanguage) {
+        if (tesseractLang != null && !tesseractLang.isBlank()) {
+            return tesseractLang;
+        }
+        if (sourceLanguage == null || sourceLanguage.isBlank() || "auto".equalsIgnoreCase(sourceLanguage)) {
+            return "eng";
+        }
+        String lang = sourceLanguage.trim().toLowerCase();
+        if (lang.startsWith("en")) {
+            return "eng";
+        }
+        if (lang.startsWith("fr")) {
+            return "fra";
+        }
+        if (lang.startsWith("ar") || lang.startsWith("ary")) {
+            return "ara";
+        }
+        if (lang.startsWith("es")) {
+            return "spa";
+        }
+        return "eng";
+    }
+
+    private List<String> buildArgs(Path imagePath, String output, String sourceLanguage) {
+        String language = resolveLanguage(sourceLanguage);
+        List<String> args = new ArrayList<>();
+        args.add(resolveCommand());
+        args.add(imagePath.toString());
+        args.add(output);
+        if (language != null && !language.isBlank()) {
+            args.add("-l");
+            args.add(language);
+        }
+        args.add("--psm");
+        args.add("3");
+        return args;
+    }
+
+    private Path writeImage(ImagePreprocessor.PreparedImage image) throws IOException {
+        Path imagePath = Files.createTempFile("ocr_image_", resolveImageExtension(image.getMimeType()));
+        Files.write(imagePath, image.getBytes());
+        return imagePath;
+    }
+
+    private String resolveCommand() {
+        if (tesseractPath != null && !tesseractPath.isBlank()) {
+            return tesseractPath;
+        }
+        return "tesseract";
+    }
+
+    private String resolveImageExtension(String mimeType) {
+        if (mimeType == null || mimeType.isBlank()) {
+            return ".png";
+        }
+        switch (mimeType.split(";", 2)[0].trim().toLowerCase()) {
+            case "image/jpeg":
+            case "image/jpg":
+                return ".jpg";
+            case "image/webp":
+                return ".webp";
+            case "image/bmp":
+                return ".bmp";
+            case "image/tiff":
+                return ".tiff";
+            default:
+                return ".png";
+        }
+    }
+
+    private static boolean isNumber(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static double parseDouble(String value) {
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    private void safeDelete(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            // Best-effort cleanup.
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package org.translate.com.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Bounded LRU cache of text results (OCR output, transcripts...). The in-memory tier is
+ * limited by entry count and total characters; when a spill directory is configured,
+ * entries evicted from memory are written there and read back on a later miss. With a
+ * shared {@link ResultCache} configured, local misses are looked up there (under
+ * {@code <name>:<key>}) and new entries are stored there too, so other instances reuse them.
+ */
+public class TextResultCache {
+
+    private static final String SPILL_SUFFIX = ".txt";
+
+    private final String name;
+    private volatile int maxEntries;
+    private final long maxChars;
+    private final Path spillDir;
+    private final int maxSpillEntries;
+    private final boolean writeThrough;
+    private final ResultCache shared = ResultCaches.shared();
+
+    private final LinkedHashMap<String, String> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalChars;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong diskHits = new AtomicLong();
+    private final AtomicLong sharedHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicInteger spilledEntries = new AtomicInteger();
+
+    /**
+     * @param spillDir        directory for evicted entries, or {@code null} for memory only
+     * @param maxSpillEntries upper bound on files kept in {@code spillDir}
+     * @param writeThrough    also write every new entry to disk, so the cache survives restarts
+     */
+    public TextResultCache(String name, int maxEntries, long maxChars, String spillDir, int maxSpillEntries,
+            boolean writeThrough) {
+        this.name = name;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxChars = Math.max(1, maxChars);
+        this.maxSpillEntries = Math.max(1, maxSpillEntries);
+        this.spillDir = initSpillDir(spillDir);
+        this.writeThrough = writeThrough && this.spillDir != null;
+    }
+
+    public String get(String key) {
+        synchronized (this) {
+            String value = entries.get(key);
+            if (value != null) {
+                hits.incrementAndGet();
+                return value;
+            }
+        }
+
+        String spilled = readSpilled(key);
+        if (spilled != null) {
+            diskHits.incrementAndGet();
+            putInMemory(key, spilled);
+            return spilled;
+        }
+
+        String remote = shared != null ? ResultCodec.decodeText(shared.get(name + ":" + key)) : null;
+        if (remote != null && remote.length() <= maxChars) {
+            sharedHits.incrementAndGet();
+            putInMemory(key, remote);
+            if (writeThrough) {
+                writeSpilled(key, remote);
+            }
+            return remote;
+        }
+
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(String key, String value) {
+        if (key == null || value == null || value.length() > maxChars) {
+            return;
+        }
+        putInMemory(key, value);
+        if (writeThrough) {
+            writeSpilled(key, value);
+        }
+        if (shared != null) {
+            shared.put(name + ":" + key, ResultCodec.encodeText(value));
+        }
+    }
+
+    private void putInMemory(String key, String value) {
+        List<Map.Entry<String, String>> evicted = new ArrayList<>();
+        synchronized (this) {
+            String previous = entries.put(key, value);
+            if (previous != null) {
+                totalChars -= previous.length();
+            }
+            totalChars += value.length();
+            evictOverflow(evicted);
+        }
+        spillEvicted(evicted);
+    }
+
+    /**
+     * Changes the entry bound; a lower bound evicts (and spills) the least recently used
+     * entries at once.
+     */
+    public void setMaxEntries(int maxEntries) {
+        List<Map.Entry<String, String>> evicted = new ArrayList<>();
+        synchronized (this) {
+            this.maxEntries = Math.max(1, maxEntries);
+            evictOverflow(evicted);
+        }
+        spillEvicted(evicted);
+    }
+
+    private void evictOverflow(List<Map.Entry<String, String>> evicted) {
+        Iterator<Map.Entry<String, String>> it = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || totalChars > maxChars) && it.hasNext()) {
+            Map.Entry<String, String> eldest = it.next();
+            totalChars -= eldest.getValue().length();
+            evicted.add(Map.entry(eldest.getKey(), eldest.getValue()));
+            it.remove();
+        }
+    }
+
+    private void spillEvicted(List<Map.Entry<String, String>> evicted) {
+        evictions.addAndGet(evicted.size());
+        if (spillDir != null && !writeThrough) {
+            for (Map.Entry<String, String> entry : evicted) {
+                writeSpilled(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (this) {
+            stats.put("entries", entries.size());
+            stats.put("chars", totalChars);
+        }
+        stats.put("maxEntries", maxEntries);
+        stats.put("maxChars", maxChars);
+        stats.put("hits", hits.get());
+        stats.put("diskHits", diskHits.get());
+        if (shared != null) {
+            stats.put("sharedHits", sharedHits.get());
+        }
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        if (spillDir != null) {
+            stats.put("spillDir", spillDir.toString());
+            stats.put("spilledEntries", spilledEntries.get());
+        }
+        return stats;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private Path initSpillDir(String dir) {
+        if (dir == null || dir.isBlank()) {
+            return null;
+        }
+        try {
+            Path path = Paths.get(dir);
+            Files.createDirectories(path);
+            try (Stream<Path> files = Files.list(path)) {
+                spilledEntries.set((int) files.filter(p -> p.toString().endsWith(SPILL_SUFFIX)).count());
+            }
+            return path;
+        } catch (IOException e) {
+            System.err.println("Cache " + name + ": spill directory disabled: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private String readSpilled(String key) {
+        if (spillDir == null) {
+            return null;
+        }
+        Path file = spillFile(key);
+        try {
+            if (!Files.exists(file)) {
+                return null;
+            }
+            return Files.readString(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void writeSpilled(String key, String value) {
+        Path file = spillFile(key);
+        try {
+            boolean existed = Files.exists(file);
+            Files.writeString(file, value, StandardCharsets.UTF_8);
+            if (!existed && spilledEntries.incrementAndGet() > maxSpillEntries) {
+                trimSpillDir();
+            }
+        } catch (IOException e) {
+            System.err.println("Cache " + name + ": failed to spill entry: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Drops the oldest tenth of the spill directory once it grows past its bound.
+     */
+    private synchronized void trimSpillDir() {
+        if (spilledEntries.get() <= maxSpillEntries) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(spillDir)) {
+            List<Path> spilled = new ArrayList<>();
+            files.filter(p -> p.toString().endsWith(SPILL_SUFFIX)).forEach(spilled::add);
+            spilled.sort(Comparator.comparingLong(TextResultCache::lastModified));
+            int target = maxSpillEntries - maxSpillEntries / 10;
+            int remaining = spilled.size();
+            for (Path file : spilled) {
+                if (remaining <= target) {
+                    break;
+                }
+                Files.deleteIfExists(file);
+                remaining--;
+            }
+            spilledEntries.set(remaining);
+        } catch (IOException e) {
+            System.err.println("Cache " + name + ": failed to trim spill directory: " + e.getMessage());
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private Path spillFile(String key) {
+        return spillDir.resolve(sha256Hex(key.getBytes(StandardCharsets.UTF_8)) + SPILL_SUFFIX);
+    }
+
+    public static String sha256Hex(byte[] data) {
+        MessageDigest digest = sha256();
+        digest.update(data);
+        return hex(digest.digest());
+    }
+
+    /**
+     * Hashes a stream without holding it in memory (buffered or spilled uploads).
+     */
+    public static String sha256Hex(InputStream data) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = data.read(buffer)) > 0) {
+            digest.update(buffer, 0, read);
+        }
+        return hex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String hex(byte[] digest) {
+        StringBuilder hex = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
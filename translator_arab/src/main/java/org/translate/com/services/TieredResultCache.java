@@ -0,0 +1,99 @@
+package org.translate.com.services;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A near cache in this process in front of a shared one. Reads try the near tier first and
+ * copy shared hits into it; writes go to both. Near entries expire after a fixed age, so a
+ * value replaced or dropped in the shared tier (by another instance, or by flushing it) is
+ * seen here at most that much later.
+ */
+public class TieredResultCache implements ResultCache {
+
+    private final InProcessResultCache near;
+    private final ResultCache shared;
+
+    private final AtomicLong nearHits = new AtomicLong();
+    private final AtomicLong sharedHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public TieredResultCache(InProcessResultCache near, ResultCache shared) {
+        this.near = near;
+        this.shared = shared;
+    }
+
+    @Override
+    public byte[] get(String key) {
+        byte[] value = near.get(key);
+        if (value != null) {
+            nearHits.incrementAndGet();
+            return value;
+        }
+        value = shared.get(key);
+        if (value != null) {
+            sharedHits.incrementAndGet();
+            near.put(key, value);
+            return value;
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    @Override
+    public List<byte[]> getAll(List<String> keys) {
+        List<byte[]> values = new ArrayList<>(keys.size());
+        List<String> missing = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            byte[] value = near.get(keys.get(i));
+            values.add(value);
+            if (value != null) {
+                nearHits.incrementAndGet();
+            } else {
+                missing.add(keys.get(i));
+                positions.add(i);
+            }
+        }
+        if (missing.isEmpty()) {
+            return values;
+        }
+        List<byte[]> found = shared.getAll(missing);
+        for (int i = 0; i < missing.size(); i++) {
+            byte[] value = found.get(i);
+            if (value != null) {
+                sharedHits.incrementAndGet();
+                near.put(missing.get(i), value);
+                values.set(positions.get(i), value);
+            } else {
+                misses.incrementAndGet();
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public void put(String key, byte[] value) {
+        near.put(key, value);
+        shared.put(key, value);
+    }
+
+    @Override
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("nearHits", nearHits.get());
+        stats.put("sharedHits", sharedHits.get());
+        stats.put("misses", misses.get());
+        stats.put("near", near.stats());
+        stats.put("shared", shared.stats());
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        shared.close();
+    }
+}
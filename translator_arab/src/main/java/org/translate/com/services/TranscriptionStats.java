@@ -0,0 +1,70 @@
+package org.translate.com.services;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for audio sent to Whisper: what the client uploaded versus what
+ * {@link AudioPreprocessor} forwarded, and transcription latency per path.
+ */
+public class TranscriptionStats {
+
+    private final LongAdder convertedUploads = new LongAdder();
+    private final LongAdder passThroughUploads = new LongAdder();
+    private final LongAdder convertedInputBytes = new LongAdder();
+    private final LongAdder convertedOutputBytes = new LongAdder();
+    private final LongAdder passThroughBytes = new LongAdder();
+    private final LongAdder convertedMillis = new LongAdder();
+    private final LongAdder passThroughMillis = new LongAdder();
+    private final LongAdder preprocessMillis = new LongAdder();
+    private final LongAdder chunkedTranscriptions = new LongAdder();
+    private final LongAdder chunks = new LongAdder();
+    private final LongAdder chunkRetries = new LongAdder();
+
+    void converted(long inputBytes, long outputBytes, long preprocessMs) {
+        convertedUploads.increment();
+        convertedInputBytes.add(inputBytes);
+        convertedOutputBytes.add(outputBytes);
+        preprocessMillis.add(preprocessMs);
+    }
+
+    void passedThrough(long bytes) {
+        passThroughUploads.increment();
+        passThroughBytes.add(bytes);
+    }
+
+    void chunked(int chunkCount) {
+        chunkedTranscriptions.increment();
+        chunks.add(chunkCount);
+    }
+
+    void chunkRetried() {
+        chunkRetries.increment();
+    }
+
+    void transcribed(boolean converted, long millis) {
+        (converted ? convertedMillis : passThroughMillis).add(millis);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("convertedUploads", convertedUploads.sum());
+        stats.put("passThroughUploads", passThroughUploads.sum());
+        stats.put("convertedInputBytes", convertedInputBytes.sum());
+        stats.put("convertedUploadBytes", convertedOutputBytes.sum());
+        stats.put("passThroughUploadBytes", passThroughBytes.sum());
+        stats.put("chunkedTranscriptions", chunkedTranscriptions.sum());
+        stats.put("chunks", chunks.sum());
+        stats.put("chunkRetries", chunkRetries.sum());
+        stats.put("avgPreprocessMillis", average(preprocessMillis, convertedUploads));
+        stats.put("avgConvertedTranscriptionMillis", average(convertedMillis, convertedUploads));
+        stats.put("avgPassThroughTranscriptionMillis", average(passThroughMillis, passThroughUploads));
+        return stats;
+    }
+
+    private static long average(LongAdder total, LongAdder count) {
+        long runs = count.sum();
+        return runs == 0 ? 0 : total.sum() / runs;
+    }
+}
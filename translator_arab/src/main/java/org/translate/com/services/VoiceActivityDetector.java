@@ -0,0 +1,205 @@
+package org.translate.com.services;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayDeque;
+
+import org.translate.com.config.EnvConfig;
+
+/**
+ * Energy-based voice activity detection over 16-bit mono PCM, fed incrementally.
+ * Frames of 20 ms are compared against an adaptive noise floor; an utterance starts after
+ * a few loud frames and ends after {@code VAD_SILENCE_MS} of quiet. Utterances keep
+ * {@code VAD_PADDING_MS} of audio on both sides and are cut at {@code VAD_MAX_UTTERANCE_MS}.
+ * Not thread-safe: one instance per audio stream.
+ */
+public class VoiceActivityDetector {
+
+    static final int FRAME_MS = 20;
+
+    private static final int ONSET_FRAMES = 3;
+    private static final double MIN_SPEECH_DB = -55;
+    private static final double FLOOR_ADAPT = 0.05;
+
+    /**
+     * Receives detector events on the thread that calls {@link #accept}.
+     */
+    public interface Listener {
+        default void onSpeechStart() {
+        }
+
+        /**
+         * A complete utterance as 16-bit mono PCM at the detector's sample rate.
+         */
+        void onUtterance(byte[] pcm);
+    }
+
+    private final int sampleRate;
+    private final int frameBytes;
+    private final double thresholdDb = EnvConfig.getInt("VAD_THRESHOLD_DB", 10);
+    private final int silenceFrames = EnvConfig.getInt("VAD_SILENCE_MS", 700) / FRAME_MS;
+    private final int minSpeechFrames = EnvConfig.getInt("VAD_MIN_SPEECH_MS", 300) / FRAME_MS;
+    private final int maxFrames = EnvConfig.getInt("VAD_MAX_UTTERANCE_MS", 15000) / FRAME_MS;
+    private final int paddingFrames = EnvConfig.getInt("VAD_PADDING_MS", 200) / FRAME_MS;
+    private final Listener listener;
+
+    private final byte[] frame;
+    private int frameFill;
+    private final ArrayDeque<byte[]> preRoll = new ArrayDeque<>();
+    private final ByteArrayOutputStream utterance = new ByteArrayOutputStream();
+    private double noiseFloorDb = Double.NaN;
+    private boolean inSpeech;
+    private int loudRun;
+    private int quietRun;
+    private int voicedFrames;
+    private int utteranceFrames;
+
+    public VoiceActivityDetector(int sampleRate, Listener listener) {
+        this.sampleRate = sampleRate;
+        this.frameBytes = Math.max(2, sampleRate * FRAME_MS / 1000 * 2);
+        this.frame = new byte[frameBytes];
+        this.listener = listener;
+    }
+
+    /**
+     * Seeds the noise floor when the whole clip is known up front, so speech in the very first
+     * frames is not mistaken for background level.
+     */
+    void primeNoiseFloor(double db) {
+        noiseFloorDb = db;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * Feeds the next block of little-endian 16-bit PCM. Blocks need not be frame-aligned.
+     */
+    public void accept(byte[] pcm, int offset, int length) {
+        while (length > 0) {
+            int n = Math.min(length, frameBytes - frameFill);
+            System.arraycopy(pcm, offset, frame, frameFill, n);
+            frameFill += n;
+            offset += n;
+            length -= n;
+            if (frameFill == frameBytes) {
+                processFrame(frame.clone());
+                frameFill = 0;
+            }
+        }
+    }
+
+    /**
+     * Ends the stream: an utterance in progress is emitted as if silence had followed it.
+     */
+    public void flush() {
+        if (inSpeech) {
+            endUtterance(quietRun);
+        }
+        frameFill = 0;
+        preRoll.clear();
+    }
+
+    private void processFrame(byte[] samples) {
+        double db = levelDb(samples, 0, samples.length);
+        if (Double.isNaN(noiseFloorDb)) {
+            noiseFloorDb = db;
+        }
+        boolean loud = db > MIN_SPEECH_DB && db > noiseFloorDb + thresholdDb;
+
+        if (!inSpeech) {
+            adaptFloor(db, loud);
+            preRoll.addLast(samples);
+            loudRun = loud ? loudRun + 1 : 0;
+            if (preRoll.size() > paddingFrames + ONSET_FRAMES) {
+                preRoll.removeFirst();
+            }
+            if (loudRun >= ONSET_FRAMES) {
+                startUtterance();
+            }
+            return;
+        }
+
+        utterance.write(samples, 0, samples.length);
+        utteranceFrames++;
+        if (loud) {
+            voicedFrames++;
+            quietRun = 0;
+        } else {
+            quietRun++;
+        }
+
+        if (quietRun >= silenceFrames) {
+            endUtterance(quietRun);
+        } else if (utteranceFrames >= maxFrames) {
+            // Long monologue: cut here and keep listening without waiting for a pause.
+            emit(utterance.toByteArray());
+            utterance.reset();
+            utteranceFrames = 0;
+            voicedFrames = 0;
+        }
+    }
+
+    private void startUtterance() {
+        inSpeech = true;
+        utterance.reset();
+        utteranceFrames = 0;
+        voicedFrames = loudRun;
+        quietRun = 0;
+        for (byte[] buffered : preRoll) {
+            utterance.write(buffered, 0, buffered.length);
+            utteranceFrames++;
+        }
+        preRoll.clear();
+        loudRun = 0;
+        listener.onSpeechStart();
+    }
+
+    private void endUtterance(int trailingQuietFrames) {
+        inSpeech = false;
+        byte[] audio = utterance.toByteArray();
+        utterance.reset();
+        int trimFrames = Math.max(0, trailingQuietFrames - paddingFrames);
+        int length = Math.max(0, audio.length - trimFrames * frameBytes);
+        if (voicedFrames >= minSpeechFrames && length > 0) {
+            byte[] trimmed = new byte[length];
+            System.arraycopy(audio, 0, trimmed, 0, length);
+            emit(trimmed);
+        }
+        quietRun = 0;
+        voicedFrames = 0;
+        utteranceFrames = 0;
+    }
+
+    private void emit(byte[] pcm) {
+        listener.onUtterance(pcm);
+    }
+
+    private void adaptFloor(double db, boolean loud) {
+        if (db < noiseFloorDb) {
+            // Drop quickly when the room gets quieter, rise slowly on sustained noise.
+            noiseFloorDb = (noiseFloorDb + db) / 2;
+        } else if (!loud) {
+            noiseFloorDb += (db - noiseFloorDb) * FLOOR_ADAPT;
+        } else {
+            noiseFloorDb += (db - noiseFloorDb) * FLOOR_ADAPT / 10;
+        }
+    }
+
+    /**
+     * RMS level of a little-endian 16-bit PCM range in dBFS (-100 for digital silence).
+     */
+    static double levelDb(byte[] pcm, int offset, int length) {
+        int samples = length / 2;
+        if (samples == 0) {
+            return -100;
+        }
+        double sum = 0;
+        for (int i = offset; i + 1 < offset + length; i += 2) {
+            int sample = (short) ((pcm[i] & 0xff) | (pcm[i + 1] << 8));
+            sum += (double) sample * sample;
+        }
+        double rms = Math.sqrt(sum / samples) / 32768.0;
+        return rms <= 0.00001 ? -100 : 20 * Math.log10(rms);
+    }
+}
@@ -0,0 +1,50 @@
+package org.translate.com.services;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Minimal RIFF/WAVE helpers for 16-bit PCM.
+ */
+public final class WavCodec {
+
+    public static final int HEADER_SIZE = 44;
+
+    private WavCodec() {
+    }
+
+    /**
+     * Wraps little-endian 16-bit PCM samples in a canonical 44-byte WAV header.
+     */
+    public static byte[] fromPcm16(byte[] pcm, int offset, int length, int sampleRate, int channels) {
+        byte[] wav = new byte[HEADER_SIZE + length];
+        System.arraycopy(header(length, sampleRate, channels), 0, wav, 0, HEADER_SIZE);
+        System.arraycopy(pcm, offset, wav, HEADER_SIZE, length);
+        return wav;
+    }
+
+    /**
+     * The 44-byte header alone, for writers that stream the samples after it.
+     */
+    public static byte[] header(int dataLength, int sampleRate, int channels) {
+        int blockAlign = channels * 2;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(new byte[] { 'R', 'I', 'F', 'F' });
+        header.putInt(36 + dataLength);
+        header.put(new byte[] { 'W', 'A', 'V', 'E', 'f', 'm', 't', ' ' });
+        header.putInt(16);
+        header.putShort((short) 1);
+        header.putShort((short) channels);
+        header.putInt(sampleRate);
+        header.putInt(sampleRate * blockAlign);
+        header.putShort((short) blockAlign);
+        header.putShort((short) 16);
+        header.put(new byte[] { 'd', 'a', 't', 'a' });
+        header.putInt(dataLength);
+        return header.array();
+    }
+
+    public static byte[] fromPcm16(byte[] pcm, int sampleRate) {
+        return fromPcm16(pcm, 0, pcm.length, sampleRate, 1);
+    }
+}
@@ -4,34 +4,221 @@ import org.translate.com.dto.*;
 
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class WhisperBasedSpeechService {
 
+    /**
+     * Where published audio is served, relative to the API root.
+     */
+    public static final String AUDIO_PATH = "translator/audio/";
+    private static final String DELIVERY_URL = "url";
+
     private final LlmService llmService;
     private final WhisperService whisperService;
     private final TTSService ttsService;
 
     public WhisperBasedSpeechService() {
-        this.llmService = new LlmService();
-        this.whisperService = new WhisperService();
-        this.ttsService = new TTSService();
+        this(new LlmService(), new WhisperService(), new TTSService());
+    }
+
+    WhisperBasedSpeechService(LlmService llmService, WhisperService whisperService, TTSService ttsService) {
+        this.llmService = llmService;
+        this.whisperService = whisperService;
+        this.ttsService = ttsService;
     }
 
     
     public SpeechTranslationResponse voiceToVoice(SpeechTranslationRequest request) {
         validateRequest(request);
+        return voiceToVoice(payloadTranscription(request), request);
+    }
+
+    /**
+     * Binary upload variant: the audio is streamed from the request body to Whisper.
+     * {@code request} carries the languages, voice and mime type; its {@code audio} is ignored.
+     */
+    public SpeechTranslationResponse voiceToVoice(InputStream audio, SpeechTranslationRequest request) {
+        validateStream(audio);
+        return voiceToVoice(streamTranscription(audio, request), request);
+    }
+
+    /**
+     * Result of the binary voice-to-voice mode: the texts plus the translated speech, still
+     * to be streamed. The caller must transfer or close {@link #getAudio()}.
+     */
+    public static final class SpokenTranslation {
+        private final String transcript;
+        private final String translation;
+        private final AudioStream audio;
+
+        SpokenTranslation(String transcript, String translation, AudioStream audio) {
+            this.transcript = transcript;
+            this.translation = translation;
+            this.audio = audio;
+        }
+
+        public String getTranscript() {
+            return transcript;
+        }
+
+        public String getTranslation() {
+            return translation;
+        }
+
+        public AudioStream getAudio() {
+            return audio;
+        }
+    }
+
+    /**
+     * Same pipeline as {@link #voiceToVoice(SpeechTranslationRequest)}, but the speech is
+     * returned as a stream for a binary response instead of base64.
+     */
+    public SpokenTranslation voiceToVoiceAudio(SpeechTranslationRequest request) {
+        validateRequest(request);
+        return voiceToVoiceAudio(payloadTranscription(request), request);
+    }
 
+    public SpokenTranslation voiceToVoiceAudio(InputStream audio, SpeechTranslationRequest request) {
+        validateStream(audio);
+        return voiceToVoiceAudio(streamTranscription(audio, request), request);
+    }
+
+    private SpokenTranslation voiceToVoiceAudio(Transcription transcription, SpeechTranslationRequest request) {
         try {
-            String transcript = transcribeWithWhisper(request);
+            String transcript = transcribeWithWhisper(transcription);
+            String translatedText = translateText(transcript, request);
+            AudioStream audio = ttsService.openStream(
+                    translatedText,
+                    request.getTargetLanguage(),
+                    request.getVoice());
+            return new SpokenTranslation(transcript, translatedText, audio);
+        } catch (Exception e) {
+            handleProcessingError(e, request);
+            throw new RuntimeException("Échec du traitement vocal: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Receives the pipelined results: the transcript first, then one call per sentence,
+     * in sentence order.
+     */
+    public interface SentenceListener {
+        void onTranscript(String transcript, int sentenceCount);
+
+        void onSentence(SpeechSentence sentence);
+    }
+
+    /**
+     * Pipelined variant: the transcript is split into sentences, and every sentence is
+     * translated and synthesized on the upstream pool as soon as it is available.
+     * Sentences are delivered in order, so the first one can play while later ones are
+     * still in flight. Returns the number of sentences once all were delivered.
+     */
+    public int voiceToVoiceStreaming(SpeechTranslationRequest request, SentenceListener listener) {
+        validateRequest(request);
+        return voiceToVoiceStreaming(payloadTranscription(request), request, listener);
+    }
+
+    public int voiceToVoiceStreaming(InputStream audio, SpeechTranslationRequest request,
+            SentenceListener listener) {
+        validateStream(audio);
+        return voiceToVoiceStreaming(streamTranscription(audio, request), request, listener);
+    }
+
+    private int voiceToVoiceStreaming(Transcription transcription, SpeechTranslationRequest request,
+            SentenceListener listener) {
+        String transcript = transcribeWithWhisper(transcription);
+        List<String> sentences = SentenceSplitter.split(transcript);
+        listener.onTranscript(transcript, sentences.size());
+
+        CompletableFuture<Void> delivered = CompletableFuture.completedFuture(null);
+        for (int i = 0; i < sentences.size(); i++) {
+            int index = i;
+            String sentence = sentences.get(i);
+            CompletableFuture<SpeechSentence> result = CompletableFuture
+                    .supplyAsync(() -> translateText(sentence, request), ServiceExecutors.upstream())
+                    .thenApplyAsync(translation -> speakSentence(index, sentence, translation, request),
+                            ServiceExecutors.upstream())
+                    .exceptionally(ex -> new SpeechSentence(index, sentence, null, null, rootMessage(ex)));
+            // Chained on the previous delivery so the listener sees sentences in order.
+            delivered = delivered.thenCombine(result, (ignored, done) -> {
+                listener.onSentence(done);
+                return null;
+            });
+        }
+        delivered.join();
+        return sentences.size();
+    }
+
+    private SpeechSentence speakSentence(int index, String sentence, String translation,
+            SpeechTranslationRequest request) {
+        try {
+            SynthesizedAudio audio = synthesizeSpeech(translation, request);
+            SpeechSentence spoken = new SpeechSentence(index, sentence, translation, null, null);
+            if (wantsUrl(request.getAudioDelivery())) {
+                spoken.setAudioUrl(publish(audio));
+            } else {
+                spoken.setAudio(audio.toBytes());
+            }
+            return spoken;
+        } catch (RuntimeException ex) {
+            return new SpeechSentence(index, sentence, translation, null,
+                    "Échec de la synthèse vocale: " + ex.getMessage());
+        }
+    }
+
+    private String rootMessage(Throwable ex) {
+        Throwable cause = ex;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        String message = cause.getMessage();
+        return message == null || message.isBlank() ? cause.getClass().getSimpleName() : message;
+    }
+
+    private Transcription payloadTranscription(SpeechTranslationRequest request) {
+        return () -> {
+            try (BinaryPayload payload = request.getAudio()) {
+                String mimeType = request.getAudioMimeType();
+                return whisperService.transcribeAudio(
+                        payload,
+                        request.getSourceLanguage(),
+                        mimeType == null || mimeType.isBlank() ? payload.getMimeType() : mimeType);
+            }
+        };
+    }
+
+    private Transcription streamTranscription(InputStream audio, SpeechTranslationRequest request) {
+        return () -> whisperService.transcribeAudio(
+                audio,
+                request.getSourceLanguage(),
+                request.getAudioMimeType());
+    }
+
+    private SpeechTranslationResponse voiceToVoice(Transcription transcription, SpeechTranslationRequest request) {
+        try {
+            String transcript = transcribeWithWhisper(transcription);
 
             String translatedText = translateText(transcript, request);
 
-            String audioBase64 = synthesizeSpeech(translatedText, request);
+            SynthesizedAudio audio = synthesizeSpeech(translatedText, request);
 
-            return new SpeechTranslationResponse(
+            SpeechTranslationResponse response = new SpeechTranslationResponse(
                     transcript,
                     translatedText,
-                    audioBase64);
+                    null);
+            if (wantsUrl(request.getAudioDelivery())) {
+                response.setTranslatedAudioUrl(publish(audio));
+            } else {
+                response.setTranslatedAudio(audio.toBytes());
+            }
+            return response;
 
         } catch (Exception e) {
             handleProcessingError(e, request);
@@ -46,30 +233,52 @@ public class WhisperBasedSpeechService {
         }
 
         try {
-            String audioBase64 = ttsService.synthesizeText(
+            SynthesizedAudio audio = ttsService.synthesize(
                     request.getText(),
                     null, // No target language for read-aloud
                     request.getVoice());
 
-            return new ReadAloudResponse(audioBase64);
+            ReadAloudResponse response = new ReadAloudResponse();
+            if (wantsUrl(request.getAudioDelivery())) {
+                response.setAudioUrl(publish(audio));
+            } else {
+                response.setAudio(audio.toBytes());
+            }
+            return response;
+
+        } catch (Exception e) {
+            throw new RuntimeException("Échec de la synthèse vocale: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Binary variant of {@link #readAloud}: the audio is streamed from the TTS backend.
+     */
+    public AudioStream readAloudAudio(ReadAloudRequest request) {
+        if (request == null || request.getText() == null || request.getText().isBlank()) {
+            throw new IllegalArgumentException("Le texte est requis");
+        }
 
+        try {
+            return ttsService.openStream(request.getText(), null, request.getVoice());
         } catch (Exception e) {
             throw new RuntimeException("Échec de la synthèse vocale: " + e.getMessage(), e);
         }
     }
 
     
-    private String transcribeWithWhisper(SpeechTranslationRequest request) {
+    private interface Transcription {
+        String transcribe() throws IOException;
+    }
+
+    private String transcribeWithWhisper(Transcription transcription) {
         if (!whisperService.isAvailable()) {
             throw new IllegalStateException(
                     "Whisper API non configurée. Définissez OPENAI_API_KEY");
         }
 
         try {
-            return whisperService.transcribeAudio(
-                    request.getAudioBase64(),
-                    request.getSourceLanguage(),
-                    request.getAudioMimeType());
+            return transcription.transcribe();
         } catch (IOException e) {
             throw new RuntimeException("Erreur de transcription Whisper: " + e.getMessage(), e);
         }
@@ -90,16 +299,32 @@ public class WhisperBasedSpeechService {
         }
     }
 
-    private String synthesizeSpeech(String text, SpeechTranslationRequest request) {
-        return ttsService.synthesizeText(
+    private SynthesizedAudio synthesizeSpeech(String text, SpeechTranslationRequest request) {
+        return ttsService.synthesize(
                 text,
                 request.getTargetLanguage(),
                 request.getVoice());
     }
 
+    private static boolean wantsUrl(String audioDelivery) {
+        return DELIVERY_URL.equalsIgnoreCase(audioDelivery);
+    }
+
+    /**
+     * Stores the audio as a short-lived asset; returns its path relative to the API root,
+     * which the resource turns into an absolute URL.
+     */
+    private String publish(SynthesizedAudio audio) {
+        try {
+            return AUDIO_PATH + ttsService.publish(audio);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Échec de l'enregistrement audio: " + e.getMessage(), e);
+        }
+    }
+
     private void validateRequest(SpeechTranslationRequest request) {
-        if (request == null || request.getAudioBase64() == null ||
-                request.getAudioBase64().isBlank()) {
+        if (request == null || request.getAudio() == null ||
+                request.getAudio().isEmpty()) {
             throw new IllegalArgumentException("audioBase64 est requis");
         }
 
@@ -109,6 +334,16 @@ public class WhisperBasedSpeechService {
         }
     }
 
+    private void validateStream(InputStream audio) {
+        if (audio == null) {
+            throw new IllegalArgumentException("audio est requis");
+        }
+        if (!whisperService.isAvailable()) {
+            throw new IllegalStateException(
+                    "API Whisper non disponible. Vérifiez votre clé API OpenAI.");
+        }
+    }
+
     private void handleProcessingError(Exception e, SpeechTranslationRequest request) {
         System.err.println("Erreur de traitement vocal:");
         System.err.println("Requête: " + request);
@@ -1,14 +1,25 @@
 package org.translate.com.services;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import okhttp3.*;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
 import org.translate.com.config.EnvConfig;
+import org.translate.com.config.Tunables;
+import org.translate.com.dto.BinaryPayload;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
 
 public class WhisperService {
@@ -16,11 +27,35 @@ public class WhisperService {
     // Default to OpenAI if not set, but allow override via env var
     private static final String DEFAULT_WHISPER_API_URL = "https://api.openai.com/v1/audio/transcriptions";
     private static final String WHISPER_MODEL = "whisper-1";
+    private static final TranscriptionStats STATS = new TranscriptionStats();
+    private static final boolean CACHE_ENABLED = EnvConfig.getBoolean("TRANSCRIPT_CACHE_ENABLED", true);
+    // With TRANSCRIPT_CACHE_DIR set, every transcript is also written to disk so replays
+    // survive restarts (write-through, unlike the OCR cache which only spills evictions).
+    private static final TextResultCache TRANSCRIPT_CACHE = new TextResultCache(
+            "transcripts",
+            Tunables.TRANSCRIPT_CACHE_MAX_ENTRIES.getInt(),
+            EnvConfig.getInt("TRANSCRIPT_CACHE_MAX_CHARS", 2_000_000),
+            EnvConfig.get("TRANSCRIPT_CACHE_DIR"),
+            EnvConfig.getInt("TRANSCRIPT_CACHE_MAX_DISK_ENTRIES", 20_000),
+            true);
+
+    // Shared across instances (one per request or WebSocket session), so connections are reused.
+    // Replaced when a timeout setting changes; calls in flight keep the client they started with.
+    private static volatile OkHttpClient httpClient = withTimeouts(new OkHttpClient());
+
+    static {
+        Tunables.TRANSCRIPT_CACHE_MAX_ENTRIES.onChange(TRANSCRIPT_CACHE::setMaxEntries);
+        Tunables.WHISPER_CONNECT_TIMEOUT_SECONDS.onChange(seconds -> httpClient = withTimeouts(httpClient));
+        Tunables.WHISPER_READ_TIMEOUT_SECONDS.onChange(seconds -> httpClient = withTimeouts(httpClient));
+        Tunables.WHISPER_WRITE_TIMEOUT_SECONDS.onChange(seconds -> httpClient = withTimeouts(httpClient));
+    }
 
-    private final OkHttpClient httpClient;
     private final String apiKey;
     private final String whisperApiUrl;
     private final ObjectMapper objectMapper;
+    private final AudioPreprocessor preprocessor = new AudioPreprocessor();
+    private final int chunkMs = EnvConfig.getInt("TRANSCRIBE_CHUNK_SECONDS", 30) * 1000;
+    private final int chunkOverlapMs = EnvConfig.getInt("TRANSCRIBE_CHUNK_OVERLAP_MS", 1000);
 
     public WhisperService(String apiKey) {
         this.apiKey = resolveApiKey(apiKey);
@@ -29,12 +64,6 @@ public class WhisperService {
         // Check for local URL override
         String envUrl = EnvConfig.get("WHISPER_API_URL");
         this.whisperApiUrl = (envUrl != null && !envUrl.isBlank()) ? envUrl : DEFAULT_WHISPER_API_URL;
-
-        this.httpClient = new OkHttpClient.Builder()
-                .connectTimeout(60, TimeUnit.SECONDS) // Increased timeout for local processing
-                .readTimeout(120, TimeUnit.SECONDS) // Increased timeout for local processing
-                .writeTimeout(60, TimeUnit.SECONDS)
-                .build();
     }
 
     public WhisperService() {
@@ -46,39 +75,202 @@ public class WhisperService {
     }
 
     public String transcribeAudio(String audioBase64, String sourceLanguage, String audioMimeType) throws IOException {
-        boolean isLocal = !DEFAULT_WHISPER_API_URL.equals(whisperApiUrl);
-        if (!isLocal && (apiKey == null || apiKey.isBlank())) {
-            throw new IOException("OPENAI_API_KEY is missing and no local WHISPER_API_URL is configured.");
+        byte[] audioBytes = Base64.getDecoder().decode(audioBase64);
+        return transcribeAudio(BinaryPayload.of(audioBytes), sourceLanguage, audioMimeType);
+    }
+
+    public static Map<String, Object> transcriptionStats() {
+        Map<String, Object> stats = STATS.snapshot();
+        stats.put("cache", TRANSCRIPT_CACHE.stats());
+        return stats;
+    }
+
+    /**
+     * Transcribes an already buffered upload (JSON body). PCM WAV is first reduced to 16 kHz
+     * mono without silences by {@link AudioPreprocessor}; other formats are uploaded straight
+     * from the payload's memory chunks or spill file.
+     */
+    public String transcribeAudio(BinaryPayload audio, String sourceLanguage, String audioMimeType)
+            throws IOException {
+        ensureConfigured();
+        long started = System.nanoTime();
+        AudioPreprocessor.PreparedAudio prepared;
+        try (InputStream input = audio.openStream()) {
+            prepared = preprocessor.prepare(input, audioMimeType);
+        }
+        if (prepared.isConverted()) {
+            return transcribePrepared(prepared, sourceLanguage, started);
         }
+        return transcribePassThrough(audio, audioMimeType, sourceLanguage);
+    }
 
-        byte[] audioBytes = Base64.getDecoder().decode(audioBase64);
-        String suffix = resolveExtensionFromMimeType(audioMimeType);
-        File tempFile = File.createTempFile("whisper_audio_", suffix);
+    /**
+     * Transcribes audio read from a stream (binary uploads). Formats the preprocessor cannot
+     * decode are buffered like JSON payloads (memory, then a temp file above
+     * {@code PAYLOAD_SPILL_BYTES}) so the upload has a length and can be retried.
+     */
+    public String transcribeAudio(InputStream audio, String sourceLanguage, String audioMimeType) throws IOException {
+        ensureConfigured();
+        long started = System.nanoTime();
+        AudioPreprocessor.PreparedAudio prepared = preprocessor.prepare(audio, audioMimeType);
+        if (prepared.isConverted()) {
+            return transcribePrepared(prepared, sourceLanguage, started);
+        }
+        try (BinaryPayload buffered = BinaryPayload.read(prepared.getStream())) {
+            return transcribePassThrough(buffered, audioMimeType, sourceLanguage);
+        }
+    }
+
+    private String transcribePrepared(AudioPreprocessor.PreparedAudio prepared, String sourceLanguage, long started)
+            throws IOException {
+        byte[] pcm = prepared.getPcm();
+        String cacheKey = CACHE_ENABLED
+                ? cacheKey(TextResultCache.sha256Hex(pcm), prepared.getSampleRate() + "/pcm16", sourceLanguage)
+                : null;
+        String cached = cachedTranscript(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+        STATS.converted(prepared.getInputBytes(), WavCodec.HEADER_SIZE + pcm.length,
+                (System.nanoTime() - started) / 1_000_000);
+        long transcriptionStarted = System.nanoTime();
+        String text = prepared.getDurationMs() > chunkMs + chunkOverlapMs
+                ? transcribeChunked(prepared, sourceLanguage)
+                : transcribe(wavBody(pcm, 0, pcm.length, prepared.getSampleRate()), ".wav", sourceLanguage);
+        STATS.transcribed(true, (System.nanoTime() - transcriptionStarted) / 1_000_000);
+        cacheTranscript(cacheKey, text);
+        return text;
+    }
+
+    private String transcribePassThrough(BinaryPayload audio, String audioMimeType, String sourceLanguage)
+            throws IOException {
+        String extension = resolveExtensionFromMimeType(audioMimeType);
+        String cacheKey = null;
+        if (CACHE_ENABLED) {
+            try (InputStream input = audio.openStream()) {
+                cacheKey = cacheKey(TextResultCache.sha256Hex(input), extension, sourceLanguage);
+            }
+        }
+        String cached = cachedTranscript(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+        STATS.passedThrough(audio.size());
+        long transcriptionStarted = System.nanoTime();
+        String text = transcribe(payloadBody(audio, resolveMediaType("audio" + extension)), extension, sourceLanguage);
+        STATS.transcribed(false, (System.nanoTime() - transcriptionStarted) / 1_000_000);
+        cacheTranscript(cacheKey, text);
+        return text;
+    }
+
+    /**
+     * Transcript cache key: content hash of the audio actually sent to Whisper (normalized
+     * PCM, or the original file for pass-through formats), its format, and the language hint
+     * Whisper receives.
+     */
+    private String cacheKey(String audioHash, String format, String sourceLanguage) {
+        String language = mapToWhisperLanguage(sourceLanguage);
+        return audioHash + "|" + format + "|" + (language == null ? "auto" : language) + "|" + whisperApiUrl;
+    }
+
+    private String cachedTranscript(String cacheKey) {
+        if (!CACHE_ENABLED || cacheKey == null) {
+            return null;
+        }
+        return TRANSCRIPT_CACHE.get(cacheKey);
+    }
+
+    private void cacheTranscript(String cacheKey, String text) {
+        // Blank results (silence, a flaky local server) are not worth replaying.
+        if (CACHE_ENABLED && cacheKey != null && text != null && !text.isBlank()) {
+            TRANSCRIPT_CACHE.put(cacheKey, text);
+        }
+    }
+
+    /**
+     * Splits long normalized audio into overlapping chunks and sends them to Whisper in
+     * parallel (bounded by {@code TRANSCRIBE_PARALLELISM}). A chunk that fails is retried
+     * once, so one slow request no longer sinks the whole recording.
+     */
+    private String transcribeChunked(AudioPreprocessor.PreparedAudio prepared, String sourceLanguage)
+            throws IOException {
+        byte[] pcm = prepared.getPcm();
+        int sampleRate = prepared.getSampleRate();
+        List<AudioChunker.Chunk> chunks = AudioChunker.plan(pcm, sampleRate, chunkMs, chunkOverlapMs);
+        STATS.chunked(chunks.size());
+
+        List<CompletableFuture<String>> futures = new ArrayList<>();
+        for (AudioChunker.Chunk chunk : chunks) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                RequestBody body = wavBody(pcm, chunk.getStart(), chunk.length(), sampleRate);
+                try {
+                    return transcribeChunk(body, sourceLanguage);
+                } catch (IOException ex) {
+                    throw new CompletionException(ex);
+                }
+            }, ServiceExecutors.transcription()));
+        }
+
+        List<String> transcripts = new ArrayList<>();
         try {
-            Files.write(tempFile.toPath(), audioBytes);
-            return transcribeAudio(tempFile, sourceLanguage);
-        } finally {
-            if (tempFile.exists()) {
-                tempFile.delete();
+            for (CompletableFuture<String> future : futures) {
+                transcripts.add(future.join());
             }
+        } catch (CompletionException ex) {
+            futures.forEach(future -> future.cancel(false));
+            Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Chunked transcription failed: " + cause.getMessage(), cause);
         }
+        return AudioChunker.stitch(transcripts);
     }
 
-    public String transcribeAudio(File audioFile, String sourceLanguage) throws IOException {
-        boolean isLocal = !DEFAULT_WHISPER_API_URL.equals(whisperApiUrl);
-        if (!isLocal && (apiKey == null || apiKey.isBlank())) {
-            throw new IOException("OPENAI_API_KEY is missing and no local WHISPER_API_URL is configured.");
+    /**
+     * One retry for transient failures only: timeouts, connection errors, 429 and 5xx. A
+     * rejected request (other 4xx) or an unreadable reply would fail the same way again.
+     */
+    private String transcribeChunk(RequestBody wav, String sourceLanguage) throws IOException {
+        try {
+            return transcribe(wav, ".wav", sourceLanguage);
+        } catch (IOException first) {
+            if (!isTransient(first)) {
+                throw first;
+            }
+            STATS.chunkRetried();
+            return transcribe(wav, ".wav", sourceLanguage);
         }
+    }
+
+    static boolean isTransient(IOException ex) {
+        if (ex instanceof WhisperApiException) {
+            int status = ((WhisperApiException) ex).getStatus();
+            return status == 429 || status >= 500;
+        }
+        return !(ex instanceof JsonProcessingException);
+    }
 
+    public String transcribeAudio(File audioFile, String sourceLanguage) throws IOException {
+        ensureConfigured();
         if (!audioFile.exists()) {
             throw new IOException("Audio file not found: " + audioFile.getPath());
         }
+        String name = audioFile.getName();
+        int dot = name.lastIndexOf('.');
+        return transcribe(RequestBody.create(audioFile, MediaType.parse(resolveMediaType(name))),
+                dot >= 0 ? name.substring(dot) : "", sourceLanguage);
+    }
 
+    /**
+     * Posts one file part to Whisper. The part is named {@code audio<extension>}: the server
+     * picks the decoder from the file name, and no file needs to exist on disk.
+     */
+    private String transcribe(RequestBody audio, String extension, String sourceLanguage) throws IOException {
         MultipartBody.Builder builder = new MultipartBody.Builder()
                 .setType(MultipartBody.FORM)
                 .addFormDataPart("model", WHISPER_MODEL)
-                .addFormDataPart("file", audioFile.getName(),
-                        RequestBody.create(audioFile, MediaType.parse(resolveMediaType(audioFile))))
+                .addFormDataPart("file", "audio" + extension, audio)
                 .addFormDataPart("response_format", "json")
                 .addFormDataPart("temperature", "0.0");
 
@@ -100,7 +292,7 @@ public class WhisperService {
         try (Response response = httpClient.newCall(requestBuilder.build()).execute()) {
             if (!response.isSuccessful()) {
                 String errorBody = response.body() != null ? response.body().string() : "No body";
-                throw new IOException(
+                throw new WhisperApiException(response.code(),
                         "Whisper API error: " + response.code() + " - " + response.message() + " \nBody: " + errorBody);
             }
 
@@ -111,8 +303,61 @@ public class WhisperService {
         }
     }
 
-    private String resolveMediaType(File audioFile) {
-        String name = audioFile.getName().toLowerCase();
+    /**
+     * WAV part written from the PCM array: header, then the sample range, without a copy.
+     */
+    private static RequestBody wavBody(byte[] pcm, int offset, int length, int sampleRate) {
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return MediaType.parse("audio/wav");
+            }
+
+            @Override
+            public long contentLength() {
+                return WavCodec.HEADER_SIZE + length;
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                sink.write(WavCodec.header(length, sampleRate, 1));
+                sink.write(pcm, offset, length);
+            }
+        };
+    }
+
+    /**
+     * Part streamed from a buffered payload; it can be written again if OkHttp retries.
+     */
+    private static RequestBody payloadBody(BinaryPayload payload, String mediaType) {
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return MediaType.parse(mediaType);
+            }
+
+            @Override
+            public long contentLength() {
+                return payload.size();
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                try (InputStream input = payload.openStream(); Source source = Okio.source(input)) {
+                    sink.writeAll(source);
+                }
+            }
+        };
+    }
+
+    private void ensureConfigured() throws IOException {
+        if (!isAvailable()) {
+            throw new IOException("OPENAI_API_KEY is missing and no local WHISPER_API_URL is configured.");
+        }
+    }
+
+    private static String resolveMediaType(String fileName) {
+        String name = fileName.toLowerCase();
         if (name.endsWith(".wav")) {
             return "audio/wav";
         }
@@ -208,9 +453,36 @@ public class WhisperService {
     }
 
     public void shutdown() {
-        if (httpClient != null) {
-            httpClient.dispatcher().executorService().shutdown();
-            httpClient.connectionPool().evictAll();
+        // Nothing to release: the HTTP client is shared and its idle connections time out.
+    }
+
+    /**
+     * A client sharing {@code base}'s connection pool, with the configured timeouts (generous
+     * by default: local Whisper servers can be slow).
+     */
+    private static OkHttpClient withTimeouts(OkHttpClient base) {
+        return base.newBuilder()
+                .connectTimeout(Tunables.WHISPER_CONNECT_TIMEOUT_SECONDS.getInt(), TimeUnit.SECONDS)
+                .readTimeout(Tunables.WHISPER_READ_TIMEOUT_SECONDS.getInt(), TimeUnit.SECONDS)
+                .writeTimeout(Tunables.WHISPER_WRITE_TIMEOUT_SECONDS.getInt(), TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * Error status returned by the Whisper API.
+     */
+    static class WhisperApiException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        WhisperApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        int getStatus() {
+            return status;
         }
     }
 }
@@ -0,0 +1,120 @@
+package org.translate.com.websocket;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.glassfish.grizzly.http.HttpRequestPacket;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.server.NetworkListener;
+import org.glassfish.grizzly.websockets.DataFrame;
+import org.glassfish.grizzly.websockets.HandshakeException;
+import org.glassfish.grizzly.websockets.ProtocolHandler;
+import org.glassfish.grizzly.websockets.SimpleWebSocket;
+import org.glassfish.grizzly.websockets.WebSocket;
+import org.glassfish.grizzly.websockets.WebSocketAddOn;
+import org.glassfish.grizzly.websockets.WebSocketApplication;
+import org.glassfish.grizzly.websockets.WebSocketEngine;
+import org.glassfish.grizzly.websockets.WebSocketListener;
+
+/**
+ * Grizzly WebSocket binding of {@link SpeechStreamSession} for {@code EmbeddedServer}.
+ * The WAR uses {@link JakartaSpeechEndpoint} instead.
+ */
+public class GrizzlySpeechStream extends WebSocketApplication {
+
+    private final Map<WebSocket, SpeechStreamSession> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Adds the WebSocket add-on to every listener and maps the endpoint under {@code contextPath}.
+     * Must run before the server is started.
+     */
+    public static void install(HttpServer server, String contextPath) {
+        for (NetworkListener listener : server.getListeners()) {
+            listener.registerAddOn(new WebSocketAddOn());
+        }
+        WebSocketEngine.getEngine().register(contextPath, SpeechStreamSession.PATH, new GrizzlySpeechStream());
+    }
+
+    @Override
+    public WebSocket createSocket(ProtocolHandler handler, HttpRequestPacket request, WebSocketListener... listeners) {
+        String principal = SpeechStreamSession.authenticate(request.getHeader("Authorization"),
+                queryParam(request.getQueryString(), "token"));
+        if (principal == null) {
+            throw new HandshakeException(401, "Unauthorized");
+        }
+        return new StreamSocket(handler, principal, listeners);
+    }
+
+    @Override
+    public void onConnect(WebSocket socket) {
+        String principal = ((StreamSocket) socket).principal;
+        SpeechStreamSession session = new SpeechStreamSession(new SpeechStreamSession.Transport() {
+            @Override
+            public void sendText(String message) throws IOException {
+                if (socket.isConnected()) {
+                    socket.send(message);
+                }
+            }
+
+            @Override
+            public void close(String reason) {
+                socket.close(WebSocket.NORMAL_CLOSURE, reason);
+            }
+        }, principal);
+        sessions.put(socket, session);
+        session.onOpen();
+    }
+
+    @Override
+    public void onMessage(WebSocket socket, String text) {
+        SpeechStreamSession session = sessions.get(socket);
+        if (session != null) {
+            session.onText(text);
+        }
+    }
+
+    @Override
+    public void onMessage(WebSocket socket, byte[] bytes) {
+        SpeechStreamSession session = sessions.get(socket);
+        if (session != null) {
+            session.onBinary(bytes, 0, bytes.length);
+        }
+    }
+
+    @Override
+    public void onClose(WebSocket socket, DataFrame frame) {
+        SpeechStreamSession session = sessions.remove(socket);
+        if (session != null) {
+            session.onClose();
+        }
+    }
+
+    /**
+     * Carries the authenticated principal from the handshake to {@link #onConnect}. Extends
+     * SimpleWebSocket because the default DefaultWebSocket needs the Grizzly servlet module.
+     */
+    private static final class StreamSocket extends SimpleWebSocket {
+        private final String principal;
+
+        StreamSocket(ProtocolHandler handler, String principal, WebSocketListener... listeners) {
+            super(handler, listeners);
+            this.principal = principal;
+        }
+    }
+
+    private static String queryParam(String query, String name) {
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && name.equals(pair.substring(0, eq))) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,106 @@
+package org.translate.com.websocket;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.HandshakeResponse;
+import jakarta.websocket.OnClose;
+import jakarta.websocket.OnMessage;
+import jakarta.websocket.OnOpen;
+import jakarta.websocket.Session;
+import jakarta.websocket.server.HandshakeRequest;
+import jakarta.websocket.server.ServerEndpoint;
+import jakarta.websocket.server.ServerEndpointConfig;
+
+/**
+ * Jakarta WebSocket binding of {@link SpeechStreamSession} for the WAR deployment; the
+ * container discovers it by its annotation. {@code EmbeddedServer} uses
+ * {@link GrizzlySpeechStream} instead.
+ */
+@ServerEndpoint(value = "/api" + SpeechStreamSession.PATH, configurator = JakartaSpeechEndpoint.AuthConfigurator.class)
+public class JakartaSpeechEndpoint {
+
+    private static final String PRINCIPAL = "translator.principal";
+
+    private SpeechStreamSession speech;
+
+    /**
+     * Handshake requests are not visible to the endpoint, so the authenticated principal is
+     * passed through the user properties.
+     */
+    public static class AuthConfigurator extends ServerEndpointConfig.Configurator {
+        @Override
+        public void modifyHandshake(ServerEndpointConfig config, HandshakeRequest request,
+                HandshakeResponse response) {
+            List<String> header = request.getHeaders().get("Authorization");
+            Map<String, List<String>> params = request.getParameterMap();
+            List<String> token = params == null ? null : params.get("token");
+            String principal = SpeechStreamSession.authenticate(
+                    header == null || header.isEmpty() ? null : header.get(0),
+                    token == null || token.isEmpty() ? null : token.get(0));
+            if (principal != null) {
+                config.getUserProperties().put(PRINCIPAL, principal);
+            } else {
+                config.getUserProperties().remove(PRINCIPAL);
+            }
+        }
+    }
+
+    @OnOpen
+    public void onOpen(Session session) throws IOException {
+        Object principal = session.getUserProperties().get(PRINCIPAL);
+        if (!(principal instanceof String)) {
+            session.close(new CloseReason(CloseReason.CloseCodes.VIOLATED_POLICY, "Unauthorized"));
+            return;
+        }
+        speech = new SpeechStreamSession(new SpeechStreamSession.Transport() {
+            @Override
+            public void sendText(String message) throws IOException {
+                if (session.isOpen()) {
+                    session.getBasicRemote().sendText(message);
+                }
+            }
+
+            @Override
+            public void close(String reason) {
+                try {
+                    session.close(new CloseReason(CloseReason.CloseCodes.NORMAL_CLOSURE, reason));
+                } catch (IOException ex) {
+                    // Already closed.
+                }
+            }
+        }, (String) principal);
+        speech.onOpen();
+    }
+
+    @OnMessage
+    public void onText(String message) {
+        if (speech != null) {
+            speech.onText(message);
+        }
+    }
+
+    @OnMessage
+    public void onBinary(ByteBuffer data) {
+        if (speech == null) {
+            return;
+        }
+        if (data.hasArray()) {
+            speech.onBinary(data.array(), data.arrayOffset() + data.position(), data.remaining());
+        } else {
+            byte[] bytes = new byte[data.remaining()];
+            data.get(bytes);
+            speech.onBinary(bytes, 0, bytes.length);
+        }
+    }
+
+    @OnClose
+    public void onClose() {
+        if (speech != null) {
+            speech.onClose();
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package org.translate.com.websocket;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.translate.com.config.EnvConfig;
+import org.translate.com.security.BasicAuthFilter;
+import org.translate.com.security.StreamTokens;
+import org.translate.com.security.UserQuotas;
+import org.translate.com.services.LlmService;
+import org.translate.com.services.ServiceExecutors;
+import org.translate.com.services.TTSService;
+import org.translate.com.services.VoiceActivityDetector;
+import org.translate.com.services.WavCodec;
+import org.translate.com.services.WhisperService;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * One streaming speech translation, independent of the WebSocket implementation.
+ *
+ * <p>Protocol: the client sends an optional JSON {@code start} message
+ * ({@code sampleRate}, {@code sourceLanguage}, {@code targetLanguage}, {@code voice},
+ * {@code speak}), then binary frames of 16-bit little-endian mono PCM, then {@code stop}.
+ * Voice-activity detection splits the audio into utterances; each one is transcribed,
+ * translated and optionally spoken on the upstream pool as soon as it ends, so its latency
+ * does not depend on how long the client has been talking. The server answers with JSON
+ * events tagged with the utterance number: {@code speech-start}, {@code transcript},
+ * {@code translation}, {@code audio}, {@code error}, and a final {@code done}.
+ *
+ * <p>A connection counts against its account's {@link UserQuotas} as one request: opening it
+ * takes a rate token and a concurrency slot, held until it closes. Over quota the client gets
+ * an {@code error} event with {@code retryAfterMs} instead of {@code ready}, and the socket is
+ * closed.
+ */
+public class SpeechStreamSession {
+
+    public static final String PATH = "/translator/speech/stream";
+    public static final String ANONYMOUS = "";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final int DEFAULT_SAMPLE_RATE = 16000;
+    private static final BasicAuthFilter AUTH = new BasicAuthFilter();
+
+    /**
+     * Outbound side of the socket. Calls are serialized by the session.
+     */
+    public interface Transport {
+        void sendText(String message) throws IOException;
+
+        void close(String reason);
+    }
+
+    private final Transport transport;
+    private final String principal;
+    private final WhisperService whisperService = new WhisperService();
+    private final LlmService llmService = new LlmService();
+    private final TTSService ttsService = new TTSService();
+    private final long maxStreamSeconds = EnvConfig.getInt("SPEECH_STREAM_MAX_SECONDS", 600);
+    private final AtomicInteger utterances = new AtomicInteger();
+    private final List<CompletableFuture<Void>> pending = new ArrayList<>();
+
+    private VoiceActivityDetector detector;
+    private String sourceLanguage = "auto";
+    private String targetLanguage = "ary";
+    private String voice = "standard";
+    private boolean speak;
+    private long receivedBytes;
+    private boolean stopped;
+    private UserQuotas.Usage quota;
+
+    /**
+     * {@code principal} is what {@link #authenticate} returned for the handshake.
+     */
+    public SpeechStreamSession(Transport transport, String principal) {
+        this.transport = transport;
+        this.principal = principal;
+    }
+
+    /**
+     * Checks the handshake credentials: an Authorization header or, for browsers that cannot
+     * set headers on WebSockets, a {@code token} query parameter from
+     * {@code POST /translator/speech/stream/token} (see {@link StreamTokens}). Returns the
+     * principal, {@link #ANONYMOUS} when authentication is off, or {@code null} to refuse.
+     */
+    public static String authenticate(String authorizationHeader, String token) {
+        if (!AUTH.isEnabled()) {
+            return ANONYMOUS;
+        }
+        if (authorizationHeader != null) {
+            return AUTH.authenticate(authorizationHeader);
+        }
+        return token == null || token.isBlank() ? null : StreamTokens.redeem(token);
+    }
+
+    public synchronized void onOpen() {
+        if (!ANONYMOUS.equals(principal)) {
+            UserQuotas.Usage usage = UserQuotas.forPrincipal(principal);
+            long retryAfterMs = usage.tryAcquire();
+            if (retryAfterMs > 0) {
+                Map<String, Object> data = new LinkedHashMap<>();
+                data.put("message", "Request quota exceeded, retry later");
+                data.put("retryAfterMs", retryAfterMs);
+                send(event("error", data));
+                stopped = true;
+                transport.close("Quota exceeded");
+                return;
+            }
+            quota = usage;
+        }
+        send(event("ready", null));
+    }
+
+    public synchronized void onText(String message) {
+        JsonNode json;
+        try {
+            json = MAPPER.readTree(message);
+        } catch (IOException ex) {
+            sendError(null, "Invalid JSON message");
+            return;
+        }
+        String type = json.path("type").asText("");
+        if ("start".equals(type)) {
+            start(json);
+        } else if ("stop".equals(type)) {
+            stop();
+        } else {
+            sendError(null, "Unknown message type: " + type);
+        }
+    }
+
+    public synchronized void onBinary(byte[] data, int offset, int length) {
+        if (stopped) {
+            return;
+        }
+        if (detector == null) {
+            detector = newDetector(DEFAULT_SAMPLE_RATE);
+        }
+        receivedBytes += length;
+        if (receivedBytes > maxStreamSeconds * detector.getSampleRate() * 2) {
+            sendError(null, "Stream exceeds SPEECH_STREAM_MAX_SECONDS");
+            stop();
+            return;
+        }
+        detector.accept(data, offset, length);
+    }
+
+    /**
+     * Connection closed by the peer: nothing more can be sent, so pending work is abandoned.
+     */
+    public synchronized void onClose() {
+        stopped = true;
+        whisperService.shutdown();
+        releaseQuota();
+    }
+
+    private synchronized void releaseQuota() {
+        if (quota != null) {
+            quota.release();
+            quota = null;
+        }
+    }
+
+    private void start(JsonNode json) {
+        if (detector != null) {
+            sendError(null, "start must precede the audio");
+            return;
+        }
+        int sampleRate = json.path("sampleRate").asInt(DEFAULT_SAMPLE_RATE);
+        if (sampleRate < 8000 || sampleRate > 48000) {
+            sendError(null, "sampleRate must be between 8000 and 48000");
+            return;
+        }
+        sourceLanguage = json.path("sourceLanguage").asText(sourceLanguage);
+        targetLanguage = json.path("targetLanguage").asText(targetLanguage);
+        voice = json.path("voice").asText(voice);
+        speak = json.path("speak").asBoolean(false);
+        if (!whisperService.isAvailable()) {
+            sendError(null, "API Whisper non disponible. Vérifiez votre clé API OpenAI.");
+            transport.close("Whisper unavailable");
+            stopped = true;
+            return;
+        }
+        detector = newDetector(sampleRate);
+    }
+
+    private void stop() {
+        if (stopped) {
+            return;
+        }
+        stopped = true;
+        if (detector != null) {
+            detector.flush();
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0]))
+                .whenComplete((ignored, ex) -> {
+                    Map<String, Object> done = new LinkedHashMap<>();
+                    done.put("utterances", utterances.get());
+                    send(event("done", done));
+                    transport.close("done");
+                    whisperService.shutdown();
+                    releaseQuota();
+                });
+    }
+
+    private VoiceActivityDetector newDetector(int sampleRate) {
+        return new VoiceActivityDetector(sampleRate, new VoiceActivityDetector.Listener() {
+            @Override
+            public void onSpeechStart() {
+                Map<String, Object> data = new LinkedHashMap<>();
+                data.put("utterance", utterances.get() + 1);
+                send(event("speech-start", data));
+            }
+
+            @Override
+            public void onUtterance(byte[] pcm) {
+                int index = utterances.incrementAndGet();
+                pending.removeIf(CompletableFuture::isDone);
+                pending.add(CompletableFuture.runAsync(
+                        () -> processUtterance(index, pcm, sampleRate), ServiceExecutors.upstream()));
+            }
+        });
+    }
+
+    private void processUtterance(int index, byte[] pcm, int sampleRate) {
+        String transcript;
+        try {
+            byte[] wav = WavCodec.fromPcm16(pcm, sampleRate);
+            transcript = whisperService.transcribeAudio(new ByteArrayInputStream(wav), sourceLanguage, "audio/wav");
+        } catch (Exception ex) {
+            sendError(index, "Erreur de transcription Whisper: " + ex.getMessage());
+            return;
+        }
+        Map<String, Object> data = utteranceData(index);
+        data.put("text", transcript);
+        data.put("durationMs", pcm.length * 500L / sampleRate);
+        send(event("transcript", data));
+        if (transcript == null || transcript.isBlank()) {
+            return;
+        }
+
+        String translation;
+        try {
+            translation = llmService.translate(transcript, sourceLanguage, targetLanguage);
+        } catch (Exception ex) {
+            sendError(index, "Erreur de traduction: " + ex.getMessage());
+            return;
+        }
+        data = utteranceData(index);
+        data.put("text", translation);
+        send(event("translation", data));
+
+        if (speak) {
+            try {
+                data = utteranceData(index);
+                data.put("audioBase64", ttsService.synthesizeText(translation, targetLanguage, voice));
+                send(event("audio", data));
+            } catch (Exception ex) {
+                sendError(index, "Échec de la synthèse vocale: " + ex.getMessage());
+            }
+        }
+    }
+
+    private Map<String, Object> utteranceData(int index) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("utterance", index);
+        return data;
+    }
+
+    private void sendError(Integer index, String message) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        if (index != null) {
+            data.put("utterance", index);
+        }
+        data.put("message", message);
+        send(event("error", data));
+    }
+
+    private String event(String type, Map<String, Object> data) {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("type", type);
+        if (data != null) {
+            message.putAll(data);
+        }
+        try {
+            return MAPPER.writeValueAsString(message);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private void send(String message) {
+        synchronized (transport) {
+            try {
+                transport.sendText(message);
+            } catch (IOException | RuntimeException ex) {
+                // Peer is gone; the close callback stops the session.
+            }
+        }
+    }
+}
@@ -0,0 +1,400 @@
+package org.translate.com;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.glassfish.grizzly.http.server.HttpHandler;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.server.Request;
+import org.glassfish.grizzly.http.server.Response;
+
+/**
+ * Pieces shared by the benchmarks: a stub LLM, a stand-in Redis (also used by the cache
+ * tests) and {@link EmbeddedServer} in a child JVM.
+ */
+public final class BenchSupport {
+
+    static final String USER = "bench";
+    static final String PASSWORD = "bench";
+
+    private BenchSupport() {
+    }
+
+    static String basicAuth() {
+        return "Basic " + Base64.getEncoder().encodeToString((USER + ":" + PASSWORD).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * LLM stand-in: suspends each call and answers it after a fixed delay, so it never holds
+     * a thread and is not the bottleneck.
+     */
+    static final class StubLlm implements Closeable {
+        private final HttpServer server;
+        private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger peak = new AtomicInteger();
+
+        StubLlm(int port, long delayMs, String reply) throws IOException {
+            String body = "{\"response\":\"" + reply.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+            server = HttpServer.createSimpleServer(null, "127.0.0.1", port);
+            server.getServerConfiguration().addHttpHandler(new HttpHandler() {
+                @Override
+                public void service(Request request, Response response) {
+                    peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    response.suspend();
+                    timer.schedule(() -> {
+                        try {
+                            inFlight.decrementAndGet();
+                            response.setContentType("application/json");
+                            response.setCharacterEncoding("UTF-8");
+                            response.getWriter().write(body);
+                        } catch (IOException e) {
+                            // client gone
+                        } finally {
+                            response.resume();
+                        }
+                    }, delayMs, TimeUnit.MILLISECONDS);
+                }
+            }, "/");
+            server.start();
+        }
+
+        int peakInFlight() {
+            return peak.get();
+        }
+
+        void resetPeak() {
+            peak.set(0);
+        }
+
+        @Override
+        public void close() {
+            server.shutdownNow();
+            timer.shutdownNow();
+        }
+    }
+
+    /**
+     * Redis stand-in for the result cache: GET, MGET, SET (with PX), DEL, FLUSHALL, PING, AUTH
+     * and SELECT over RESP2, a thread per connection and one map for every database. Enough to
+     * run {@link org.translate.com.services.RespResultCache} against without a Redis install.
+     * Port 0 picks a free one.
+     */
+    public static final class StubRedis implements Closeable {
+        private final ServerSocket server;
+        private final Map<String, byte[]> values = new ConcurrentHashMap<>();
+        private final Map<String, Long> expiries = new ConcurrentHashMap<>();
+        private final AtomicLong commands = new AtomicLong();
+
+        public StubRedis(int port) throws IOException {
+            server = new ServerSocket();
+            server.bind(new InetSocketAddress("127.0.0.1", port));
+            Thread acceptor = new Thread(this::accept, "stub-redis");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        public int port() {
+            return server.getLocalPort();
+        }
+
+        public long commands() {
+            return commands.get();
+        }
+
+        public int size() {
+            return values.size();
+        }
+
+        private void accept() {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    Thread connection = new Thread(() -> serve(socket), "stub-redis-connection");
+                    connection.setDaemon(true);
+                    connection.start();
+                } catch (IOException e) {
+                    // closed
+                }
+            }
+        }
+
+        private void serve(Socket socket) {
+            try (Socket s = socket;
+                    DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream()));
+                    BufferedOutputStream out = new BufferedOutputStream(s.getOutputStream())) {
+                while (true) {
+                    List<byte[]> args = readCommand(in);
+                    if (args == null) {
+                        return;
+                    }
+                    commands.incrementAndGet();
+                    reply(args, out);
+                    out.flush();
+                }
+            } catch (IOException e) {
+                // client gone
+            }
+        }
+
+        private void reply(List<byte[]> args, OutputStream out) throws IOException {
+            String name = new String(args.get(0), StandardCharsets.US_ASCII).toUpperCase(Locale.ROOT);
+            switch (name) {
+                case "GET":
+                    writeBulk(out, lookup(key(args, 1)));
+                    break;
+                case "MGET":
+                    out.write(("*" + (args.size() - 1) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                    for (int i = 1; i < args.size(); i++) {
+                        writeBulk(out, lookup(key(args, i)));
+                    }
+                    break;
+                case "SET":
+                    String key = key(args, 1);
+                    values.put(key, args.get(2));
+                    if (args.size() >= 5 && "PX".equalsIgnoreCase(new String(args.get(3), StandardCharsets.US_ASCII))) {
+                        long ttl = Long.parseLong(new String(args.get(4), StandardCharsets.US_ASCII));
+                        expiries.put(key, System.currentTimeMillis() + ttl);
+                    } else {
+                        expiries.remove(key);
+                    }
+                    out.write("+OK\r\n".getBytes(StandardCharsets.US_ASCII));
+                    break;
+                case "DEL":
+                    int removed = 0;
+                    for (int i = 1; i < args.size(); i++) {
+                        expiries.remove(key(args, i));
+                        removed += values.remove(key(args, i)) != null ? 1 : 0;
+                    }
+                    out.write((":" + removed + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                    break;
+                case "FLUSHALL":
+                    values.clear();
+                    expiries.clear();
+                    out.write("+OK\r\n".getBytes(StandardCharsets.US_ASCII));
+                    break;
+                case "PING":
+                    out.write("+PONG\r\n".getBytes(StandardCharsets.US_ASCII));
+                    break;
+                case "AUTH":
+                case "SELECT":
+                    out.write("+OK\r\n".getBytes(StandardCharsets.US_ASCII));
+                    break;
+                default:
+                    out.write(("-ERR unknown command '" + name + "'\r\n").getBytes(StandardCharsets.US_ASCII));
+            }
+        }
+
+        private byte[] lookup(String key) {
+            Long expiry = expiries.get(key);
+            if (expiry != null && System.currentTimeMillis() >= expiry) {
+                values.remove(key);
+                expiries.remove(key);
+                return null;
+            }
+            return values.get(key);
+        }
+
+        private static String key(List<byte[]> args, int i) {
+            return new String(args.get(i), StandardCharsets.UTF_8);
+        }
+
+        private static void writeBulk(OutputStream out, byte[] value) throws IOException {
+            if (value == null) {
+                out.write("$-1\r\n".getBytes(StandardCharsets.US_ASCII));
+                return;
+            }
+            out.write(("$" + value.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.write(value);
+            out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+        }
+
+        /**
+         * One command, an array of bulk strings, or null at the end of the stream.
+         */
+        private static List<byte[]> readCommand(DataInputStream in) throws IOException {
+            int type = in.read();
+            if (type < 0) {
+                return null;
+            }
+            if (type != '*') {
+                throw new IOException("Expected an array, got '" + (char) type + "'");
+            }
+            int count = Integer.parseInt(readLine(in));
+            List<byte[]> args = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                if (in.read() != '$') {
+                    throw new IOException("Expected a bulk string");
+                }
+                byte[] arg = new byte[Integer.parseInt(readLine(in))];
+                in.readFully(arg);
+                readLine(in);
+                args.add(arg);
+            }
+            return args;
+        }
+
+        private static String readLine(DataInputStream in) throws IOException {
+            StringBuilder line = new StringBuilder();
+            int c;
+            while ((c = in.read()) != '\r') {
+                if (c < 0) {
+                    throw new EOFException();
+                }
+                line.append((char) c);
+            }
+            in.read();
+            return line.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            server.close();
+        }
+    }
+
+    /**
+     * Starts the server on {@code baseUri} with the stub as its only LLM. {@code settings} are
+     * added to the environment; the working directory is empty so no .env file interferes.
+     */
+    static Process startServer(String baseUri, int stubPort, Map<String, String> settings) throws IOException {
+        return startServer(baseUri, stubPort, settings, List.of());
+    }
+
+    /**
+     * Same, with extra options for the server's JVM (JIT, GC, class data sharing...).
+     */
+    static Process startServer(String baseUri, int stubPort, Map<String, String> settings, List<String> jvmOptions)
+            throws IOException {
+        Path java = Paths.get(System.getProperty("java.home"), "bin", "java");
+        List<String> command = new ArrayList<>();
+        command.add(java.toString());
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(absoluteClassPath());
+        command.add("-Dtranslator.api.uri=" + baseUri);
+        command.add(EmbeddedServer.class.getName());
+        ProcessBuilder builder = new ProcessBuilder(command);
+        Map<String, String> env = builder.environment();
+        env.remove("MISTRAL_API_KEY");
+        env.put("LOCAL_LLM_URL", "http://127.0.0.1:" + stubPort + "/api/generate");
+        env.put("LOCAL_LLM_PREFER", "true");
+        env.put("TRANSLATOR_USER", USER);
+        env.put("TRANSLATOR_PASSWORD", PASSWORD);
+        env.putAll(settings);
+        File dir = Files.createTempDirectory("translator-bench").toFile();
+        dir.deleteOnExit();
+        builder.directory(dir);
+        builder.redirectErrorStream(true);
+        builder.redirectOutput(new File(dir, "server.log"));
+        return builder.start();
+    }
+
+    static void stopServer(Process server) throws InterruptedException {
+        server.destroy();
+        server.waitFor(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * This JVM's class path with absolute entries (the server runs in another directory) and
+     * without the benchmark classes themselves: the child only runs the server, and class
+     * data sharing refuses a class path with a non-empty directory in it.
+     */
+    private static String absoluteClassPath() {
+        File benchmarks;
+        try {
+            benchmarks = new File(BenchSupport.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+        List<String> entries = new ArrayList<>();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            File file = new File(entry).getAbsoluteFile();
+            if (!file.equals(benchmarks.getAbsoluteFile())) {
+                entries.add(file.getPath());
+            }
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    static void awaitReady(Process server, HttpClient client, String baseUri) throws Exception {
+        HttpRequest ping = HttpRequest.newBuilder(URI.create(baseUri + "api/translator/ping"))
+                .timeout(Duration.ofSeconds(2))
+                .build();
+        for (int i = 0; i < 100; i++) {
+            if (!server.isAlive()) {
+                throw new IllegalStateException("Server exited with " + server.exitValue());
+            }
+            try {
+                if (client.send(ping, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException("Server did not start on " + baseUri);
+    }
+
+    static HttpRequest translateRequest(String baseUri, int i, String acceptEncoding) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUri + "api/translator/translate"))
+                .header("Authorization", basicAuth())
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofMinutes(5))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"text\":\"hello " + i + "\"}"));
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        return request.build();
+    }
+
+    /**
+     * {@code [resident bytes, threads]} of a process, zeros where /proc is unavailable.
+     */
+    static long[] procStatus(long pid) {
+        long[] status = new long[2];
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc", String.valueOf(pid), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    status[0] = Long.parseLong(line.replaceAll("\\D", "")) * 1024;
+                } else if (line.startsWith("Threads:")) {
+                    status[1] = Long.parseLong(line.replaceAll("\\D", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // not Linux, or the process is gone
+        }
+        return status;
+    }
+}
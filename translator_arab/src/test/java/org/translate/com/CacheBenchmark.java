@@ -0,0 +1,188 @@
+package org.translate.com;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.translate.com.services.InProcessResultCache;
+import org.translate.com.services.RespResultCache;
+import org.translate.com.services.ResultCache;
+import org.translate.com.services.ResultCodec;
+import org.translate.com.services.TieredResultCache;
+
+/**
+ * Puts the {@link ResultCache} implementations under concurrent load and checks what they
+ * return. Each mode runs two cache instances, as two servers behind a load balancer would:
+ * <ul>
+ * <li>{@code memory}: one {@link InProcessResultCache} each, nothing shared;</li>
+ * <li>{@code resp}: one {@link RespResultCache} each, on the same stand-in Redis
+ * ({@link BenchSupport.StubRedis});</li>
+ * <li>{@code tiered}: the same, each behind its own near cache.</li>
+ * </ul>
+ * Threads read keys with a skewed popularity and store the value on a miss. Values are
+ * derived from the key, so every hit is checked against what was stored; a mismatch or a
+ * lost connection is reported. Afterwards the tiered mode checks how long an update made
+ * through one instance takes to show in the other, which should stay under the near cache's
+ * maximum age, and the sizes of encoded values are compared with JSON.
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes:&lt;dependencies&gt; org.translate.com.CacheBenchmark [modes]
+ * </pre>
+ *
+ * {@code modes} defaults to {@code memory,resp,tiered}. System properties:
+ * {@code bench.threads} (16), {@code bench.ops} (operations per thread, 20000),
+ * {@code bench.keys} (4000), {@code bench.nearAgeMs} (500), {@code bench.redisPort} (18379).
+ */
+public final class CacheBenchmark {
+
+    private final int threads = Integer.getInteger("bench.threads", 16);
+    private final int opsPerThread = Integer.getInteger("bench.ops", 20000);
+    private final int keys = Integer.getInteger("bench.keys", 4000);
+    private final int nearAgeMs = Integer.getInteger("bench.nearAgeMs", 500);
+    private final int redisPort = Integer.getInteger("bench.redisPort", 18379);
+
+    private CacheBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String[] modes = (args.length > 0 ? args[0] : "memory,resp,tiered").split(",");
+        new CacheBenchmark().run(modes);
+        System.exit(0);
+    }
+
+    private void run(String[] modes) throws Exception {
+        try (BenchSupport.StubRedis redis = new BenchSupport.StubRedis(redisPort)) {
+            System.out.printf("%d threads x %d operations on %d keys, Java %s%n%n", threads, opsPerThread, keys,
+                    System.getProperty("java.version"));
+            System.out.printf("%-8s %10s %8s %8s %10s %8s %8s%n", "mode", "ops/s", "hit%", "stores", "commands",
+                    "wrong", "errors");
+            for (String mode : modes) {
+                benchmarkMode(redis, mode.trim());
+            }
+            System.out.println();
+            staleness();
+            System.out.println();
+            sizes();
+        }
+    }
+
+    private void benchmarkMode(BenchSupport.StubRedis redis, String mode) throws Exception {
+        ResultCache[] instances = { create(mode), create(mode) };
+        long commandsBefore = redis.commands();
+        AtomicLong hits = new AtomicLong();
+        AtomicLong stores = new AtomicLong();
+        AtomicLong wrong = new AtomicLong();
+        List<Thread> workers = new ArrayList<>();
+        long started = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            ResultCache cache = instances[t % instances.length];
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < opsPerThread; i++) {
+                    // Squaring skews towards low ids: a few popular keys and a long tail.
+                    double r = random.nextDouble();
+                    int id = (int) (r * r * keys);
+                    String key = "bench:" + mode + ":" + id;
+                    byte[] value = cache.get(key);
+                    if (value == null) {
+                        cache.put(key, ResultCodec.encodeText(text(id, 1)));
+                        stores.incrementAndGet();
+                    } else if (text(id, 1).equals(ResultCodec.decodeText(value))) {
+                        hits.incrementAndGet();
+                    } else {
+                        wrong.incrementAndGet();
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsedNanos = System.nanoTime() - started;
+        long ops = (long) threads * opsPerThread;
+        System.out.printf("%-8s %10.0f %8.1f %8d %10d %8d %8d%n", mode, ops * 1e9 / elapsedNanos,
+                100.0 * hits.get() / ops, stores.get(), redis.commands() - commandsBefore, wrong.get(),
+                errors(instances[0].stats()) + errors(instances[1].stats()));
+        for (ResultCache instance : instances) {
+            instance.close();
+        }
+    }
+
+    /**
+     * Updates a key through one tiered instance and polls the other until it sees the new
+     * value.
+     */
+    private void staleness() throws Exception {
+        try (ResultCache first = create("tiered"); ResultCache second = create("tiered")) {
+            int samples = 5;
+            long worstMs = 0;
+            for (int i = 0; i < samples; i++) {
+                String key = "bench:stale:" + i;
+                first.put(key, ResultCodec.encodeText(text(i, 1)));
+                // Now in the second instance's near cache.
+                second.get(key);
+                long updated = System.nanoTime();
+                first.put(key, ResultCodec.encodeText(text(i, 2)));
+                while (!text(i, 2).equals(ResultCodec.decodeText(second.get(key)))) {
+                    Thread.sleep(5);
+                }
+                worstMs = Math.max(worstMs, (System.nanoTime() - updated) / 1_000_000);
+            }
+            System.out.printf("Update seen by the other tiered instance after at most %d ms (near max age %d ms): %s%n",
+                    worstMs, nearAgeMs, worstMs <= nearAgeMs + 50 ? "ok" : "TOO STALE");
+        }
+    }
+
+    private void sizes() {
+        System.out.printf("%-10s %8s %8s %8s%n", "chars", "json", "encoded", "saved%");
+        for (int id = 0; id < 3; id++) {
+            String text = text(id, 1);
+            int json = ("{\"value\":\"" + text.replace("\"", "\\\"") + "\"}").getBytes(StandardCharsets.UTF_8).length;
+            int encoded = ResultCodec.encodeText(text).length;
+            System.out.printf("%-10d %8d %8d %8.1f%n", text.length(), json, encoded, 100.0 * (json - encoded) / json);
+        }
+    }
+
+    private ResultCache create(String mode) {
+        switch (mode) {
+            case "memory":
+                return new InProcessResultCache(64L * 1024 * 1024, 0);
+            case "resp":
+                return resp();
+            case "tiered":
+                return new TieredResultCache(new InProcessResultCache(64L * 1024 * 1024, nearAgeMs), resp());
+            default:
+                throw new IllegalArgumentException("Unknown mode " + mode + ", expected memory, resp or tiered");
+        }
+    }
+
+    private RespResultCache resp() {
+        return new RespResultCache("127.0.0.1", redisPort, null, 0, "translator:", 8, 1000, 600_000L, 1024 * 1024);
+    }
+
+    /**
+     * A translation-like text for a key: short, paragraph or page length depending on the id.
+     */
+    private static String text(int id, int version) {
+        int repeat = id % 3 == 0 ? 1 : id % 3 == 1 ? 12 : 120;
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < repeat; i++) {
+            text.append("هذه ترجمة تجريبية رقم ").append(id).append(" (نسخة ").append(version).append("), الجملة ")
+                    .append(i).append(" من ").append(Integer.toHexString((id * 31 + i) * 0x9e3779b1)).append(". ");
+        }
+        return text.toString();
+    }
+
+    private static long errors(Map<String, Object> stats) {
+        Object errors = stats.get("errors");
+        if (errors == null && stats.get("shared") instanceof Map) {
+            errors = ((Map<?, ?>) stats.get("shared")).get("errors");
+        }
+        return errors instanceof Long ? (Long) errors : 0;
+    }
+}
@@ -0,0 +1,124 @@
+package org.translate.com;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Compares the request execution modes of {@link EmbeddedServer} under slow upstream calls.
+ * For each mode the server runs in a child JVM whose LLM is a local stub that answers every
+ * call after a fixed delay; the benchmark then fires bursts of concurrent translations and
+ * reports how many were in flight at the LLM at once, and the server's resident memory and
+ * thread count at that peak. Memory per request is the growth over the idle server divided
+ * by the peak in-flight count. Memory figures come from /proc, so they are Linux only.
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes:&lt;dependencies&gt; org.translate.com.ConcurrencyBenchmark [modes] [levels]
+ * </pre>
+ *
+ * {@code modes} defaults to {@code pool,virtual} (virtual needs Java 21), {@code levels} to
+ * {@code 50,200,1000}. System properties: {@code bench.delayMs} (stub latency, 2000),
+ * {@code bench.port} (server port, 18080), {@code bench.stubPort} (18090).
+ */
+public final class ConcurrencyBenchmark {
+
+    private final long delayMs = Long.getLong("bench.delayMs", 2000);
+    private final int stubPort = Integer.getInteger("bench.stubPort", 18090);
+    private final String baseUri = "http://127.0.0.1:" + Integer.getInteger("bench.port", 18080) + "/";
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private ConcurrencyBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String[] modes = (args.length > 0 ? args[0] : "pool,virtual").split(",");
+        String[] levels = (args.length > 1 ? args[1] : "50,200,1000").split(",");
+        new ConcurrencyBenchmark().run(modes, levels);
+        System.exit(0);
+    }
+
+    private void run(String[] modes, String[] levels) throws Exception {
+        try (BenchSupport.StubLlm stub = new BenchSupport.StubLlm(stubPort, delayMs, "salam")) {
+            System.out.printf("Upstream latency %d ms, Java %s%n%n", delayMs, System.getProperty("java.version"));
+            System.out.printf("%-8s %7s %9s %9s %8s %9s %10s %10s %7s%n", "mode", "sent", "inFlight", "req/s",
+                    "threads", "rssMB", "KB/request", "wallMs", "errors");
+            for (String mode : modes) {
+                benchmarkMode(stub, mode.trim(), levels);
+            }
+        }
+    }
+
+    private void benchmarkMode(BenchSupport.StubLlm stub, String mode, String[] levels) throws Exception {
+        Process server = BenchSupport.startServer(baseUri, stubPort, Collections.singletonMap("SERVER_EXECUTION", mode));
+        try {
+            BenchSupport.awaitReady(server, client, baseUri);
+            // Warm up class loading and connection setup before taking the idle baseline.
+            burst(4);
+            System.gc();
+            Thread.sleep(500);
+            long[] idle = BenchSupport.procStatus(server.pid());
+            System.out.printf("%-8s %7s %9s %9s %8d %9s %10s %10s %7s%n", mode, "idle", "-", "-", idle[1],
+                    mb(idle[0]), "-", "-", "-");
+            for (String level : levels) {
+                int requests = Integer.parseInt(level.trim());
+                stub.resetPeak();
+                long[] peak = new long[2];
+                long started = System.nanoTime();
+                List<CompletableFuture<HttpResponse<String>>> calls = fire(requests);
+                // Sample the server while the stub holds its calls.
+                CompletableFuture<Void> all = CompletableFuture.allOf(calls.toArray(new CompletableFuture<?>[0]));
+                while (!all.isDone()) {
+                    long[] sample = BenchSupport.procStatus(server.pid());
+                    peak[0] = Math.max(peak[0], sample[0]);
+                    peak[1] = Math.max(peak[1], sample[1]);
+                    Thread.sleep(100);
+                }
+                long wallMs = (System.nanoTime() - started) / 1_000_000;
+                int errors = errors(calls);
+                int inFlight = stub.peakInFlight();
+                String perRequest = peak[0] > 0 && inFlight > 0
+                        ? String.valueOf(Math.max(0, peak[0] - idle[0]) / inFlight / 1024)
+                        : "n/a";
+                System.out.printf("%-8s %7d %9d %9.1f %8d %9s %10s %10d %7d%n", mode, requests, inFlight,
+                        requests * 1000.0 / Math.max(1, wallMs), peak[1], mb(peak[0]), perRequest, wallMs, errors);
+            }
+        } finally {
+            BenchSupport.stopServer(server);
+        }
+        System.out.println();
+    }
+
+    private void burst(int requests) {
+        CompletableFuture.allOf(fire(requests).toArray(new CompletableFuture<?>[0])).join();
+    }
+
+    private List<CompletableFuture<HttpResponse<String>>> fire(int requests) {
+        List<CompletableFuture<HttpResponse<String>>> calls = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            calls.add(client.sendAsync(BenchSupport.translateRequest(baseUri, i, null),
+                    HttpResponse.BodyHandlers.ofString()));
+        }
+        return calls;
+    }
+
+    private static int errors(List<CompletableFuture<HttpResponse<String>>> calls) {
+        int errors = 0;
+        for (CompletableFuture<HttpResponse<String>> call : calls) {
+            if (call.isCompletedExceptionally() || call.join().statusCode() != 200) {
+                errors++;
+            }
+        }
+        return errors;
+    }
+
+    private static String mb(long bytes) {
+        return bytes > 0 ? String.format("%.1f", bytes / (1024.0 * 1024.0)) : "n/a";
+    }
+}
@@ -0,0 +1,151 @@
+package org.translate.com;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.translate.com.config.WireFormats;
+import org.translate.com.dto.ReadAloudResponse;
+import org.translate.com.dto.SpeechTranslationRequest;
+import org.translate.com.dto.TranslationRequest;
+import org.translate.com.dto.TranslationResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares the wire formats the API negotiates (JSON, CBOR, Smile) on its DTOs: encoded size,
+ * and CPU time to write a response or read a request, measured in process with the mappers
+ * the providers use. Audio is random bytes, as incompressible as real MP3 or Opus.
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes:&lt;dependencies&gt; org.translate.com.FormatBenchmark
+ * </pre>
+ *
+ * System properties: {@code bench.audioKB} (audio per payload, 64), {@code bench.textChars}
+ * (translation length, 600), {@code bench.seconds} (measuring time per case, 2).
+ */
+public final class FormatBenchmark {
+
+    private final int audioBytes = Integer.getInteger("bench.audioKB", 64) * 1024;
+    private final int textChars = Integer.getInteger("bench.textChars", 600);
+    private final long measureNanos = Long.getLong("bench.seconds", 2) * 1_000_000_000L;
+    private final Map<String, ObjectMapper> formats = new LinkedHashMap<>();
+    private volatile Object sink;
+
+    private FormatBenchmark() {
+        formats.put("json", new ObjectMapper());
+        formats.put("cbor", WireFormats.cborMapper());
+        formats.put("smile", WireFormats.smileMapper());
+    }
+
+    public static void main(String[] args) throws Exception {
+        new FormatBenchmark().run();
+    }
+
+    private void run() throws Exception {
+        Random random = new Random(42);
+        byte[] audio = new byte[audioBytes];
+        random.nextBytes(audio);
+        String text = text(random);
+
+        System.out.printf("%d KB audio, %d-char text, Java %s%n%n", audioBytes / 1024, textChars,
+                System.getProperty("java.version"));
+        System.out.printf("%-24s %-6s %9s %10s %10s%n", "payload", "format", "bytes", "write us", "read us");
+        List<Case> cases = new ArrayList<>();
+        cases.add(new Case("translate request", TranslationRequest.class, request(text)));
+        cases.add(new Case("translate response", TranslationResponse.class, new TranslationResponse(text)));
+        cases.add(new Case("read-aloud response", ReadAloudResponse.class,
+                new ReadAloudResponse(audio)));
+        cases.add(new Case("speech request", SpeechTranslationRequest.class, speechRequest(audio)));
+        for (Case c : cases) {
+            for (Map.Entry<String, ObjectMapper> format : formats.entrySet()) {
+                measure(c, format.getKey(), format.getValue());
+            }
+        }
+    }
+
+    private void measure(Case c, String format, ObjectMapper mapper) throws Exception {
+        byte[] encoded = mapper.writeValueAsBytes(c.value);
+        double write = perOperationMicros(() -> sink = mapper.writeValueAsBytes(c.value));
+        double read = perOperationMicros(() -> {
+            Object value = mapper.readValue(encoded, c.type);
+            if (value instanceof SpeechTranslationRequest) {
+                // Returns pooled chunks, as the service does after the upload is consumed.
+                ((SpeechTranslationRequest) value).getAudio().close();
+            }
+            sink = value;
+        });
+        System.out.printf("%-24s %-6s %9d %10.1f %10.1f%n", c.name, format, encoded.length, write, read);
+    }
+
+    /**
+     * Runs the operation for a warm-up period, then for the measuring period, and returns the
+     * mean time per call.
+     */
+    private double perOperationMicros(Operation operation) throws Exception {
+        long warmUpEnd = System.nanoTime() + measureNanos / 2;
+        while (System.nanoTime() < warmUpEnd) {
+            operation.run();
+        }
+        long started = System.nanoTime();
+        long calls = 0;
+        long now;
+        do {
+            for (int i = 0; i < 16; i++) {
+                operation.run();
+            }
+            calls += 16;
+            now = System.nanoTime();
+        } while (now - started < measureNanos);
+        return (now - started) / 1000.0 / calls;
+    }
+
+    private static TranslationRequest request(String text) {
+        TranslationRequest request = new TranslationRequest(text);
+        request.setSourceLanguage("en");
+        request.setTargetLanguage("ary");
+        return request;
+    }
+
+    /**
+     * What a client sends: the audio as bytes, which JSON writes as base64 and CBOR and Smile
+     * as byte strings.
+     */
+    private static Map<String, Object> speechRequest(byte[] audio) {
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("audioBase64", audio);
+        request.put("audioMimeType", "audio/webm");
+        request.put("sourceLanguage", "en");
+        request.put("targetLanguage", "ary");
+        request.put("voice", "standard");
+        return request;
+    }
+
+    private String text(Random random) {
+        String[] words = { "salam", "kifach", "bghit", "daba", "mzyan", "wakha", "chwiya", "bzaf", "hna", "ghadi",
+            "lyoum", "ghedda", "smehli", "chokran", "fin", "3lach", "dyali", "mezyan", "sahel", "l-khedma" };
+        StringBuilder text = new StringBuilder();
+        while (text.length() < textChars) {
+            text.append(words[random.nextInt(words.length)]).append(' ');
+        }
+        return text.substring(0, textChars);
+    }
+
+    private interface Operation {
+        void run() throws Exception;
+    }
+
+    private static final class Case {
+        final String name;
+        final Class<?> type;
+        final Object value;
+
+        Case(String name, Class<?> type, Object value) {
+            this.name = name;
+            this.type = type;
+            this.value = value;
+        }
+    }
+}
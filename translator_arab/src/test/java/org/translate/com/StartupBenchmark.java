@@ -0,0 +1,206 @@
+package org.translate.com;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how soon a new {@link EmbeddedServer} is useful: the time from launching its JVM
+ * until the first translation succeeds (against a stub LLM that answers at once), and how
+ * long that first request itself took. Each mode starts the server several times in a child
+ * JVM and reports the median and the best run.
+ *
+ * <pre>
+ * java -cp target/translator-api-server.jar:target/test-classes org.translate.com.StartupBenchmark [modes]
+ * java -cp target/translator-api-server.jar:target/test-classes org.translate.com.StartupBenchmark train target/translator.jsa
+ * </pre>
+ *
+ * Modes ({@code lazy,warmup,tuned,cds} by default): {@code lazy} initializes everything on
+ * first use ({@code SERVER_WARMUP=false}); {@code warmup} initializes the services while
+ * Jersey starts; {@code tuned} adds the JVM flags for a fast start (C1 only, serial GC);
+ * {@code cds} adds the class data archive from {@code bench.archive}. {@code train} writes that
+ * archive: it starts the server with {@code -XX:ArchiveClassesAtExit}, sends the requests a
+ * new instance typically sees, and stops it. Class data sharing needs the classes in jars, so
+ * run it from the server jar the {@code appcds} profile builds, not from target/classes; the
+ * child servers get this class path without target/test-classes.
+ * System properties: {@code bench.runs} (5), {@code bench.archive} (target/translator.jsa),
+ * {@code bench.port} (18080), {@code bench.stubPort} (18090).
+ */
+public final class StartupBenchmark {
+
+    private static final List<String> FAST_START = List.of("-XX:TieredStopAtLevel=1", "-XX:+UseSerialGC");
+
+    private final int runs = Integer.getInteger("bench.runs", 5);
+    private final String archive = System.getProperty("bench.archive", "target/translator.jsa");
+    private final int stubPort = Integer.getInteger("bench.stubPort", 18090);
+    private final String baseUri = "http://127.0.0.1:" + Integer.getInteger("bench.port", 18080) + "/";
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        StartupBenchmark benchmark = new StartupBenchmark();
+        if (args.length > 0 && "train".equals(args[0])) {
+            benchmark.train(Paths.get(args.length > 1 ? args[1] : benchmark.archive));
+        } else {
+            benchmark.run((args.length > 0 ? args[0] : "lazy,warmup,tuned,cds").split(","));
+        }
+        System.exit(0);
+    }
+
+    private void run(String[] modes) throws Exception {
+        BenchSupport.StubLlm stub = new BenchSupport.StubLlm(stubPort, 0, "salam");
+        try {
+            System.out.printf("%d runs per mode, %d CPUs, Java %s%n%n", runs, Runtime.getRuntime().availableProcessors(),
+                    System.getProperty("java.version"));
+            System.out.printf("%-8s %12s %12s %14s%n", "mode", "ready med", "ready min", "1st request");
+            for (String mode : modes) {
+                benchmarkMode(mode.trim());
+            }
+        } finally {
+            stub.close();
+        }
+    }
+
+    private void benchmarkMode(String mode) throws Exception {
+        List<String> jvmOptions = new ArrayList<>();
+        Map<String, String> settings = Collections.singletonMap("SERVER_WARMUP", String.valueOf(!"lazy".equals(mode)));
+        switch (mode) {
+            case "lazy":
+            case "warmup":
+                break;
+            case "tuned":
+                jvmOptions.addAll(FAST_START);
+                break;
+            case "cds":
+                if (!Files.isRegularFile(Paths.get(archive))) {
+                    System.out.printf("%-8s skipped: no archive at %s (run with 'train' first)%n", mode, archive);
+                    return;
+                }
+                jvmOptions.addAll(FAST_START);
+                jvmOptions.add("-XX:SharedArchiveFile=" + Paths.get(archive).toAbsolutePath());
+                break;
+            default:
+                System.out.printf("%-8s skipped: unknown mode%n", mode);
+                return;
+        }
+        long[] ready = new long[runs];
+        long[] firstRequest = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long started = System.nanoTime();
+            Process server = BenchSupport.startServer(baseUri, stubPort, settings, jvmOptions);
+            try {
+                long[] times = awaitFirstTranslation(server, started);
+                ready[i] = times[0];
+                firstRequest[i] = times[1];
+            } finally {
+                BenchSupport.stopServer(server);
+            }
+        }
+        Arrays.sort(ready);
+        Arrays.sort(firstRequest);
+        System.out.printf("%-8s %9d ms %9d ms %11d ms%n", mode, ready[runs / 2], ready[0], firstRequest[runs / 2]);
+    }
+
+    /**
+     * Sends translations until one succeeds; returns the milliseconds from {@code started} to
+     * its answer, and how long that request took.
+     */
+    private long[] awaitFirstTranslation(Process server, long started) throws Exception {
+        for (int i = 0;; i++) {
+            if (!server.isAlive()) {
+                throw new IllegalStateException("Server exited with " + server.exitValue());
+            }
+            long sent = System.nanoTime();
+            try {
+                int status = client.send(BenchSupport.translateRequest(baseUri, i, null),
+                        HttpResponse.BodyHandlers.discarding()).statusCode();
+                long answered = System.nanoTime();
+                if (status == 200) {
+                    return new long[] { (answered - started) / 1_000_000, (answered - sent) / 1_000_000 };
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            if (System.nanoTime() - started > TimeUnit.MINUTES.toNanos(2)) {
+                throw new IllegalStateException("No successful translation within two minutes");
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private void train(Path target) throws Exception {
+        Path archivePath = target.toAbsolutePath();
+        Files.createDirectories(archivePath.getParent());
+        Files.deleteIfExists(archivePath);
+        List<String> jvmOptions = new ArrayList<>(FAST_START);
+        jvmOptions.add("-XX:ArchiveClassesAtExit=" + archivePath);
+        BenchSupport.StubLlm stub = new BenchSupport.StubLlm(stubPort, 0, "salam");
+        try {
+            Process server = BenchSupport.startServer(baseUri, stubPort, Collections.emptyMap(), jvmOptions);
+            try {
+                awaitFirstTranslation(server, System.nanoTime());
+                exercise();
+            } finally {
+                // The archive is written while the JVM exits.
+                server.destroy();
+                if (!server.waitFor(2, TimeUnit.MINUTES)) {
+                    server.destroyForcibly();
+                }
+            }
+        } finally {
+            stub.close();
+        }
+        if (!Files.isRegularFile(archivePath)) {
+            throw new IllegalStateException("The server did not write " + archivePath);
+        }
+        System.out.printf("Wrote %s (%d MB)%n", archivePath, Files.size(archivePath) / (1024 * 1024));
+    }
+
+    /**
+     * The requests a new instance typically serves first, so that the classes they load are
+     * in the archive: translations in JSON and CBOR, health checks, stats and a rejected login.
+     */
+    private void exercise() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            client.send(BenchSupport.translateRequest(baseUri, i, "gzip"), HttpResponse.BodyHandlers.discarding());
+        }
+        send(HttpRequest.newBuilder(URI.create(baseUri + "api/translator/translate"))
+                .header("Authorization", BenchSupport.basicAuth())
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/cbor")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"text\":\"hello\"}")));
+        // {"text": "hello"} in CBOR
+        byte[] cbor = { (byte) 0xa1, 0x64, 't', 'e', 'x', 't', 0x65, 'h', 'e', 'l', 'l', 'o' };
+        send(HttpRequest.newBuilder(URI.create(baseUri + "api/translator/translate"))
+                .header("Authorization", BenchSupport.basicAuth())
+                .header("Content-Type", "application/cbor")
+                .header("Accept", "application/x-jackson-smile")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(cbor)));
+        send(HttpRequest.newBuilder(URI.create(baseUri + "api/translator/ping")));
+        send(HttpRequest.newBuilder(URI.create(baseUri + "api/translator/stats"))
+                .header("Authorization", BenchSupport.basicAuth()));
+        send(HttpRequest.newBuilder(URI.create(baseUri + "api/translator/stats"))
+                .header("Authorization", "Basic d3Jvbmc6d3Jvbmc="));
+    }
+
+    private void send(HttpRequest.Builder request) throws Exception {
+        client.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.discarding());
+    }
+}
@@ -0,0 +1,213 @@
+package org.translate.com;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares wire setups of {@link EmbeddedServer} on the extension's traffic pattern: many
+ * small translations sent a few at a time. Each scenario starts the server in a child JVM
+ * against a stub LLM and reports the TCP connections the server accepted, response body
+ * bytes as received (compressed when negotiated) and per-request latency.
+ *
+ * <pre>
+ * java -cp target/classes:target/test-classes:&lt;dependencies&gt; org.translate.com.WireBenchmark [scenarios]
+ * </pre>
+ *
+ * Scenarios: {@code http1}, {@code http1-gzip}, {@code h2c}, {@code h2c-gzip}, and with
+ * {@code -Dbench.keystore=<PKCS12 file>} (password {@code bench.keystorePassword}) also
+ * {@code https1-gzip} and {@code h2-gzip}. System properties: {@code bench.requests} (300),
+ * {@code bench.parallel} (12), {@code bench.delayMs} (stub latency, 50),
+ * {@code bench.replyChars} (translation length, 3000), {@code bench.workers} (server worker
+ * threads, 32), {@code bench.port}, {@code bench.stubPort}.
+ */
+public final class WireBenchmark {
+
+    private static final String[] WORDS = { "salam", "kifach", "bghit", "daba", "mzyan", "wakha", "chwiya",
+        "bzaf", "hna", "temma", "ghadi", "nmchi", "l-dar", "l-khedma", "lyoum", "ghedda", "smehli", "chokran",
+        "fin", "3lach", "ana", "nta", "hiya", "7na", "ntouma", "dyali", "dyalek", "mezyan", "khayb", "sahel" };
+
+    private final int requests = Integer.getInteger("bench.requests", 300);
+    private final int parallel = Integer.getInteger("bench.parallel", 12);
+    private final long delayMs = Long.getLong("bench.delayMs", 50);
+    private final int replyChars = Integer.getInteger("bench.replyChars", 3000);
+    private final int port = Integer.getInteger("bench.port", 18080);
+    private final int stubPort = Integer.getInteger("bench.stubPort", 18090);
+    private final String workers = System.getProperty("bench.workers", "32");
+    private final String keyStore = System.getProperty("bench.keystore");
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private WireBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Self-signed benchmark certificates rarely name 127.0.0.1.
+        System.setProperty("jdk.internal.httpclient.disableHostnameVerification", "true");
+        new WireBenchmark().run(args.length > 0 ? args[0].split(",") : null);
+        System.exit(0);
+    }
+
+    private void run(String[] selected) throws Exception {
+        List<String> scenarios = new ArrayList<>(List.of("http1", "http1-gzip", "h2c", "h2c-gzip"));
+        if (keyStore != null) {
+            scenarios.addAll(List.of("https1-gzip", "h2-gzip"));
+        }
+        if (selected != null) {
+            scenarios = List.of(selected);
+        }
+        BenchSupport.StubLlm stub = new BenchSupport.StubLlm(stubPort, delayMs, reply());
+        try {
+            System.out.printf("%d translations, %d in parallel, %d-char replies, upstream latency %d ms, Java %s%n%n",
+                    requests, parallel, replyChars, delayMs, System.getProperty("java.version"));
+            System.out.printf("%-12s %6s %9s %9s %7s %7s %7s %8s %7s%n", "scenario", "conns", "bodyKB",
+                    "B/request", "p50ms", "p95ms", "p99ms", "req/s", "errors");
+            for (String scenario : scenarios) {
+                runScenario(scenario.trim());
+            }
+        } finally {
+            stub.close();
+        }
+    }
+
+    private void runScenario(String scenario) throws Exception {
+        boolean tls = scenario.startsWith("https") || scenario.startsWith("h2-");
+        boolean http2 = scenario.startsWith("h2");
+        boolean gzip = scenario.endsWith("-gzip");
+        if (tls && keyStore == null) {
+            throw new IllegalArgumentException(scenario + " needs -Dbench.keystore");
+        }
+        Map<String, String> settings = new LinkedHashMap<>();
+        // Enough workers that requests do not queue behind each other on small machines.
+        settings.put("SERVER_WORKER_THREADS", workers);
+        settings.put("SERVER_HTTP2", String.valueOf(http2));
+        settings.put("COMPRESSION_ENABLED", String.valueOf(gzip));
+        if (tls) {
+            settings.put("SERVER_TLS_KEYSTORE", keyStore);
+            settings.put("SERVER_TLS_KEYSTORE_PASSWORD", System.getProperty("bench.keystorePassword", ""));
+        }
+        String baseUri = (tls ? "https" : "http") + "://127.0.0.1:" + port + "/";
+
+        HttpClient statsClient = client(HttpClient.Version.HTTP_1_1, tls);
+        HttpClient client = client(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1, tls);
+        Process server = BenchSupport.startServer(baseUri, stubPort, settings);
+        try {
+            BenchSupport.awaitReady(server, statsClient, baseUri);
+            // One call first: h2c upgrades on it, and later calls share that connection.
+            client.send(BenchSupport.translateRequest(baseUri, 0, gzip ? "gzip" : null),
+                    HttpResponse.BodyHandlers.discarding());
+            long acceptedBefore = acceptedConnections(statsClient, baseUri);
+
+            List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+            AtomicLong bodyBytes = new AtomicLong();
+            AtomicInteger errors = new AtomicInteger();
+            Semaphore slots = new Semaphore(parallel);
+            List<CompletableFuture<Void>> calls = new ArrayList<>();
+            long started = System.nanoTime();
+            for (int i = 1; i <= requests; i++) {
+                slots.acquire();
+                long sent = System.nanoTime();
+                calls.add(client.sendAsync(BenchSupport.translateRequest(baseUri, i, gzip ? "gzip" : null),
+                        HttpResponse.BodyHandlers.ofByteArray())
+                        .handle((response, error) -> {
+                            latencies.add((System.nanoTime() - sent) / 1_000_000);
+                            if (error != null || response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            } else {
+                                bodyBytes.addAndGet(response.body().length);
+                            }
+                            slots.release();
+                            return null;
+                        }));
+            }
+            CompletableFuture.allOf(calls.toArray(new CompletableFuture<?>[0])).join();
+            long wallMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+            long connections = acceptedConnections(statsClient, baseUri) - acceptedBefore;
+
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            System.out.printf("%-12s %6d %9.1f %9d %7d %7d %7d %8.1f %7d%n", scenario, connections,
+                    bodyBytes.get() / 1024.0, bodyBytes.get() / Math.max(1, requests - errors.get()),
+                    percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99),
+                    requests * 1000.0 / wallMs, errors.get());
+        } finally {
+            BenchSupport.stopServer(server);
+        }
+    }
+
+    private long acceptedConnections(HttpClient statsClient, String baseUri) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri + "api/translator/stats"))
+                .header("Authorization", BenchSupport.basicAuth())
+                .build();
+        JsonNode stats = mapper.readTree(statsClient.send(request, HttpResponse.BodyHandlers.ofString()).body());
+        return stats.path("server").path("connectionsAccepted").asLong();
+    }
+
+    private static long percentile(List<Long> sorted, int percent) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percent / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(sorted.size() - 1, index)));
+    }
+
+    private static HttpClient client(HttpClient.Version version, boolean tls) throws Exception {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(version)
+                .connectTimeout(Duration.ofSeconds(10));
+        if (tls) {
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(null, new TrustManager[] { new TrustAll() }, new SecureRandom());
+            builder.sslContext(context);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Made-up Darija text, varied enough that compression ratios are not flattered.
+     */
+    private String reply() {
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder();
+        while (text.length() < replyChars) {
+            text.append(WORDS[random.nextInt(WORDS.length)]);
+            text.append(random.nextInt(8) == 0 ? ". " : " ");
+        }
+        return text.substring(0, replyChars);
+    }
+
+    private static final class TrustAll implements X509TrustManager {
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType) {
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType) {
+        }
+
+        @Override
+        public X509Certificate[] getAcceptedIssuers() {
+            return new X509Certificate[0];
+        }
+    }
+}
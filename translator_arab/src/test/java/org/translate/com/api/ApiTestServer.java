@@ -0,0 +1,105 @@
+package org.translate.com.api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
+import org.translate.com.config.TranslatorApplication;
+
+/**
+ * The application on a local Grizzly server, for resource tests, plus the request helpers
+ * they share.
+ */
+final class ApiTestServer implements AutoCloseable {
+
+    static final String BOUNDARY = "xyzzy";
+    static final String MULTIPART = "multipart/form-data; boundary=" + BOUNDARY;
+
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final HttpServer server;
+    private final String baseUri;
+
+    private ApiTestServer(HttpServer server, String baseUri) {
+        this.server = server;
+        this.baseUri = baseUri;
+    }
+
+    static ApiTestServer start() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        // The application adds its /api path itself.
+        HttpServer server = GrizzlyHttpServerFactory.createHttpServer(URI.create("http://127.0.0.1:" + port + "/"),
+                new TranslatorApplication());
+        return new ApiTestServer(server, "http://127.0.0.1:" + port + "/api/");
+    }
+
+    URI uri(String path) {
+        return URI.create(baseUri + path);
+    }
+
+    HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return CLIENT.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    HttpResponse<byte[]> sendForBytes(HttpRequest.Builder request) throws Exception {
+        return CLIENT.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    HttpResponse<String> postMultipart(String path, Multipart body) throws Exception {
+        return send(HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", MULTIPART)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toBytes())));
+    }
+
+    @Override
+    public void close() {
+        server.shutdownNow();
+    }
+
+    /**
+     * A multipart/form-data body built part by part.
+     */
+    static final class Multipart {
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        Multipart field(String name, String value) throws IOException {
+            header("Content-Disposition: form-data; name=\"" + name + "\"\r\n\r\n");
+            body.write(value.getBytes(StandardCharsets.UTF_8));
+            body.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+            return this;
+        }
+
+        Multipart file(String name, String type, byte[] content) throws IOException {
+            header("Content-Disposition: form-data; name=\"" + name + "\"; filename=\"upload\"\r\nContent-Type: "
+                    + type + "\r\n\r\n");
+            body.write(content);
+            body.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+            return this;
+        }
+
+        byte[] toBytes() throws IOException {
+            ByteArrayOutputStream done = new ByteArrayOutputStream();
+            body.writeTo(done);
+            done.write(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+            return done.toByteArray();
+        }
+
+        private void header(String headers) throws IOException {
+            body.write(("--" + BOUNDARY + "\r\n" + headers).getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+}
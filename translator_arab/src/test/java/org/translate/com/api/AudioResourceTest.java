@@ -0,0 +1,122 @@
+package org.translate.com.api;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.translate.com.services.SynthesizedAudio;
+import org.translate.com.services.TTSService;
+
+class AudioResourceTest {
+
+    private static final byte[] AUDIO = new byte[1000];
+
+    private static ApiTestServer server;
+    private static String id;
+
+    @BeforeAll
+    static void publishAudio() throws Exception {
+        for (int i = 0; i < AUDIO.length; i++) {
+            AUDIO[i] = (byte) i;
+        }
+        server = ApiTestServer.start();
+        id = new TTSService().publish(SynthesizedAudio.of(AUDIO, "audio/mpeg", "test"));
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.close();
+    }
+
+    @Test
+    void servesTheWholeFileWithCachingHeaders() throws Exception {
+        HttpResponse<byte[]> response = get(request());
+
+        assertEquals(200, response.statusCode());
+        assertArrayEquals(AUDIO, response.body());
+        assertEquals("audio/mpeg", response.headers().firstValue("Content-Type").orElse(""));
+        assertEquals("bytes", response.headers().firstValue("Accept-Ranges").orElse(""));
+        assertEquals("\"" + id + "\"", response.headers().firstValue("ETag").orElse(""));
+        String cacheControl = response.headers().firstValue("Cache-Control").orElse("");
+        assertTrue(cacheControl.contains("private") && cacheControl.contains("immutable")
+                && cacheControl.contains("max-age="), cacheControl);
+    }
+
+    @Test
+    void servesByteRanges() throws Exception {
+        HttpResponse<byte[]> middle = get(request().header("Range", "bytes=100-199"));
+        assertEquals(206, middle.statusCode());
+        assertEquals("bytes 100-199/1000", middle.headers().firstValue("Content-Range").orElse(""));
+        assertArrayEquals(Arrays.copyOfRange(AUDIO, 100, 200), middle.body());
+
+        HttpResponse<byte[]> suffix = get(request().header("Range", "bytes=-50"));
+        assertEquals(206, suffix.statusCode());
+        assertArrayEquals(Arrays.copyOfRange(AUDIO, 950, 1000), suffix.body());
+
+        HttpResponse<byte[]> open = get(request().header("Range", "bytes=990-"));
+        assertEquals("bytes 990-999/1000", open.headers().firstValue("Content-Range").orElse(""));
+        assertArrayEquals(Arrays.copyOfRange(AUDIO, 990, 1000), open.body());
+
+        HttpResponse<byte[]> clamped = get(request().header("Range", "bytes=900-5000"));
+        assertEquals("bytes 900-999/1000", clamped.headers().firstValue("Content-Range").orElse(""));
+    }
+
+    @Test
+    void rejectsRangesPastTheEnd() throws Exception {
+        HttpResponse<byte[]> response = get(request().header("Range", "bytes=1000-1100"));
+
+        assertEquals(416, response.statusCode());
+        assertEquals("bytes */1000", response.headers().firstValue("Content-Range").orElse(""));
+    }
+
+    @Test
+    void servesTheWholeFileForRangesItDoesNotHandle() throws Exception {
+        for (String range : new String[] { "bytes=0-9,20-29", "items=0-9", "bytes=abc" }) {
+            HttpResponse<byte[]> response = get(request().header("Range", range));
+
+            assertEquals(200, response.statusCode(), range);
+            assertArrayEquals(AUDIO, response.body(), range);
+        }
+    }
+
+    @Test
+    void answersNotModifiedForTheSameTag() throws Exception {
+        HttpResponse<byte[]> response = get(request().header("If-None-Match", "\"" + id + "\""));
+
+        assertEquals(304, response.statusCode());
+        assertEquals(0, response.body().length);
+        assertEquals("\"" + id + "\"", response.headers().firstValue("ETag").orElse(""));
+    }
+
+    @Test
+    void ignoresTheRangeForAStaleIfRange() throws Exception {
+        HttpResponse<byte[]> current = get(request().header("Range", "bytes=0-9").header("If-Range", "\"" + id + "\""));
+        assertEquals(206, current.statusCode());
+
+        HttpResponse<byte[]> stale = get(request().header("Range", "bytes=0-9").header("If-Range", "\"other\""));
+        assertEquals(200, stale.statusCode());
+        assertArrayEquals(AUDIO, stale.body());
+    }
+
+    @Test
+    void unknownIdIsNotFound() throws Exception {
+        HttpResponse<byte[]> response = get(HttpRequest.newBuilder(server.uri("translator/audio/missing")));
+
+        assertEquals(404, response.statusCode());
+    }
+
+    private static HttpRequest.Builder request() {
+        return HttpRequest.newBuilder(server.uri("translator/audio/" + id));
+    }
+
+    private static HttpResponse<byte[]> get(HttpRequest.Builder request) throws Exception {
+        return server.sendForBytes(request.GET());
+    }
+}
@@ -0,0 +1,74 @@
+package org.translate.com.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.translate.com.api.ApiTestServer.Multipart;
+
+/**
+ * Multipart and raw-body variants of the speech endpoints: missing files and texts are
+ * reported as bad requests, in the response or as an SSE error event.
+ */
+class SpeechResourceTest {
+
+    private static ApiTestServer server;
+
+    @BeforeAll
+    static void startServer() throws Exception {
+        server = ApiTestServer.start();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.close();
+    }
+
+    @Test
+    void multipartSpeechWithoutAudioPartIsRejected() throws Exception {
+        HttpResponse<String> response = server.postMultipart("translator/speech/translate", new Multipart()
+                .field("sourceLanguage", "en")
+                .field("targetLanguage", "ary"));
+
+        assertEquals(400, response.statusCode());
+        assertEquals("audio part is required", response.body());
+    }
+
+    @Test
+    void multipartSpeechStreamReportsAMissingAudioPartAsAnEvent() throws Exception {
+        HttpResponse<String> response = server.postMultipart("translator/speech/translate/stream",
+                new Multipart().field("voice", "female"));
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/event-stream"));
+        assertTrue(response.body().contains("event: error"), response.body());
+        assertTrue(response.body().contains("\"status\":400"), response.body());
+        assertTrue(response.body().contains("audio part is required"), response.body());
+    }
+
+    @Test
+    void multipartReadAloudReadsTheTextField() throws Exception {
+        HttpResponse<String> response = server.postMultipart("translator/read-aloud", new Multipart()
+                .field("text", "   ")
+                .field("voice", "female"));
+
+        assertEquals(400, response.statusCode());
+        assertEquals("Le texte est requis", response.body());
+    }
+
+    @Test
+    void rawReadAloudReadsTheBody() throws Exception {
+        HttpResponse<String> response = server.send(HttpRequest.newBuilder(
+                server.uri("translator/read-aloud?voice=female"))
+                .header("Content-Type", "text/plain; charset=UTF-8")
+                .POST(HttpRequest.BodyPublishers.ofString("")));
+
+        assertEquals(400, response.statusCode());
+        assertEquals("Le texte est requis", response.body());
+    }
+}
@@ -0,0 +1,98 @@
+package org.translate.com.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.translate.com.api.ApiTestServer.Multipart;
+
+/**
+ * The multipart and raw-body image uploads reach the service with the file and the options
+ * the client sent. A crop outside the image is rejected once the image is decoded, before any
+ * OCR engine runs, so it shows both arrived.
+ */
+class TranslatorResourceTest {
+
+    private static ApiTestServer server;
+    private static byte[] png;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        server = ApiTestServer.start();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(40, 30, BufferedImage.TYPE_INT_RGB), "png", out);
+        png = out.toByteArray();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.close();
+    }
+
+    @Test
+    void multipartImageCarriesTheFormFields() throws Exception {
+        HttpResponse<String> response = server.postMultipart("translator/image/translate", new Multipart()
+                .file("image", "image/png", png)
+                .field("sourceLanguage", "en")
+                .field("cropX", "100")
+                .field("cropY", "100")
+                .field("cropWidth", "10")
+                .field("cropHeight", "10"));
+
+        assertEquals(400, response.statusCode());
+        assertEquals("Crop region is outside the image", response.body());
+    }
+
+    @Test
+    void multipartBlockModeCarriesTheFormFields() throws Exception {
+        HttpResponse<String> response = server.postMultipart("translator/image/translate", new Multipart()
+                .field("blockTranslation", "true")
+                .field("cropX", "50")
+                .field("cropY", "0")
+                .field("cropWidth", "10")
+                .field("cropHeight", "10")
+                .file("image", "image/png", png));
+
+        assertEquals(400, response.statusCode());
+        assertEquals("Crop region is outside the image", response.body());
+    }
+
+    @Test
+    void multipartWithoutImagePartIsRejected() throws Exception {
+        HttpResponse<String> response = server.postMultipart("translator/image/translate", new Multipart()
+                .field("sourceLanguage", "en"));
+
+        assertEquals(400, response.statusCode());
+        assertEquals("image part is required", response.body());
+    }
+
+    @Test
+    void rawImageTakesTheOptionsFromTheQuery() throws Exception {
+        HttpResponse<String> response = server.send(HttpRequest.newBuilder(
+                server.uri("translator/image/translate?cropX=0&cropY=50&cropWidth=10&cropHeight=10"))
+                .header("Content-Type", "image/png")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(png)));
+
+        assertEquals(400, response.statusCode());
+        assertEquals("Crop region is outside the image", response.body());
+    }
+
+    @Test
+    void emptyRawImageIsRejected() throws Exception {
+        HttpResponse<String> response = server.send(HttpRequest.newBuilder(server.uri("translator/image/translate"))
+                .header("Content-Type", "application/octet-stream")
+                .POST(HttpRequest.BodyPublishers.noBody()));
+
+        assertEquals(400, response.statusCode());
+        assertEquals("image is required", response.body());
+    }
+}
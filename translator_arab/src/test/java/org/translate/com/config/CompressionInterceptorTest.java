@@ -0,0 +1,169 @@
+package org.translate.com.config;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+class CompressionInterceptorTest {
+
+    private static final String LARGE = "{\"text\":\"" + "salam ".repeat(1000) + "\"}";
+
+    private static HttpServer server;
+    private static String baseUri;
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Path("/")
+    public static class Bodies {
+        @GET
+        @Path("large")
+        @Produces(MediaType.APPLICATION_JSON)
+        public String large() {
+            return LARGE;
+        }
+
+        @GET
+        @Path("small")
+        @Produces(MediaType.TEXT_PLAIN)
+        public String small() {
+            return "OK";
+        }
+
+        @GET
+        @Path("audio")
+        @Produces("audio/mpeg")
+        public byte[] audio() {
+            return LARGE.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @GET
+        @Path("encoded")
+        public Response encoded() {
+            return Response.ok(LARGE, MediaType.APPLICATION_JSON).header(HttpHeaders.CONTENT_ENCODING, "identity")
+                    .build();
+        }
+    }
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = GrizzlyHttpServerFactory.createHttpServer(URI.create("http://127.0.0.1:" + port + "/"),
+                new ResourceConfig(Bodies.class, CompressionInterceptor.class));
+        baseUri = "http://127.0.0.1:" + port + "/";
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.shutdownNow();
+    }
+
+    @Test
+    void negotiatesTheCoding() {
+        assertEquals("gzip", CompressionInterceptor.negotiate("gzip, deflate, br"));
+        assertEquals("gzip", CompressionInterceptor.negotiate("x-gzip"));
+        assertEquals("deflate", CompressionInterceptor.negotiate("gzip;q=0.5, deflate"));
+        assertEquals("gzip", CompressionInterceptor.negotiate("br, *"));
+        assertEquals("deflate", CompressionInterceptor.negotiate("gzip;q=0, *;q=0.3"));
+        assertNull(CompressionInterceptor.negotiate("br"));
+        assertNull(CompressionInterceptor.negotiate("gzip;q=0, deflate;q=0"));
+        assertNull(CompressionInterceptor.negotiate("identity, *;q=0"));
+        assertNull(CompressionInterceptor.negotiate(""));
+        assertNull(CompressionInterceptor.negotiate(null));
+    }
+
+    @Test
+    void gzipsLargeJson() throws Exception {
+        HttpResponse<byte[]> response = get("large", "gzip, deflate");
+
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(""));
+        assertTrue(response.headers().allValues("Vary").toString().contains("Accept-Encoding"));
+        assertTrue(response.body().length < LARGE.length() / 10, "sent " + response.body().length + " bytes");
+        assertEquals(LARGE, read(new GZIPInputStream(new ByteArrayInputStream(response.body()))));
+    }
+
+    @Test
+    void deflatesWhenPreferred() throws Exception {
+        HttpResponse<byte[]> response = get("large", "gzip;q=0.2, deflate;q=0.8");
+
+        assertEquals("deflate", response.headers().firstValue("Content-Encoding").orElse(""));
+        assertEquals(LARGE, read(new InflaterInputStream(new ByteArrayInputStream(response.body()))));
+    }
+
+    @Test
+    void sendsSmallBodiesAsIs() throws Exception {
+        HttpResponse<byte[]> response = get("small", "gzip");
+
+        assertFalse(response.headers().firstValue("Content-Encoding").isPresent());
+        assertTrue(response.headers().allValues("Vary").toString().contains("Accept-Encoding"));
+        assertArrayEquals("OK".getBytes(StandardCharsets.UTF_8), response.body());
+    }
+
+    @Test
+    void leavesOtherTypesAndEncodedBodiesAlone() throws Exception {
+        HttpResponse<byte[]> audio = get("audio", "gzip");
+        assertFalse(audio.headers().firstValue("Content-Encoding").isPresent());
+        assertFalse(audio.headers().firstValue("Vary").isPresent());
+        assertEquals(LARGE, new String(audio.body(), StandardCharsets.UTF_8));
+
+        HttpResponse<byte[]> encoded = get("encoded", "gzip");
+        assertEquals("identity", encoded.headers().firstValue("Content-Encoding").orElse(""));
+        assertEquals(LARGE, new String(encoded.body(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void sendsPlainBodiesWithoutAcceptEncoding() throws Exception {
+        HttpResponse<byte[]> response = get("large", null);
+
+        assertFalse(response.headers().firstValue("Content-Encoding").isPresent());
+        assertTrue(response.headers().allValues("Vary").toString().contains("Accept-Encoding"));
+        assertEquals(LARGE, new String(response.body(), StandardCharsets.UTF_8));
+    }
+
+    private static HttpResponse<byte[]> get(String path, String acceptEncoding) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUri + path)).timeout(Duration.ofSeconds(30));
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        return CLIENT.send(request.GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (InputStream stream = in) {
+            return new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
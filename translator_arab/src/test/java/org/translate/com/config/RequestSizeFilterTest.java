@@ -0,0 +1,171 @@
+package org.translate.com.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+
+import org.glassfish.grizzly.http.server.HttpHandler;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.server.Request;
+import org.glassfish.grizzly.http.server.Response;
+import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Bodies over the endpoint limit get 413, also when they are chunked (no Content-Length) and
+ * the limit is only crossed while a resource or body reader is reading them.
+ */
+class RequestSizeFilterTest {
+
+    private static final int LIMIT_MB = 1;
+    private static final byte[] OVERSIZED = new byte[LIMIT_MB * 1024 * 1024 + 64 * 1024];
+
+    private static HttpServer server;
+    private static Path dotEnv;
+    private static String baseUri;
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        Arrays.fill(OVERSIZED, (byte) 'a');
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        dotEnv = Files.createTempFile("request-size", ".env");
+        StringBuilder settings = new StringBuilder();
+        for (String key : new String[] { "MAX_BODY_MB", "MAX_IMAGE_BODY_MB", "MAX_SPEECH_BODY_MB",
+                "MAX_DOCUMENT_BODY_MB" }) {
+            settings.append(key).append('=').append(LIMIT_MB).append('\n');
+        }
+        // Resources need an LLM key to be created; no test here gets as far as calling it.
+        settings.append("MISTRAL_API_KEY=unused\n");
+        settings.append("WHISPER_API_URL=http://127.0.0.1:").append(port).append("/whisper\n");
+        Files.writeString(dotEnv, settings);
+        EnvConfig.loadDotEnv(dotEnv.toString());
+        // The application adds its /api path itself.
+        server = GrizzlyHttpServerFactory.createHttpServer(URI.create("http://127.0.0.1:" + port + "/"),
+                new TranslatorApplication());
+        baseUri = "http://127.0.0.1:" + port + "/api/";
+        // Whisper stand-in on the same server, so speech uploads are streamed (and counted) as
+        // in production instead of failing on a missing API key first.
+        server.getServerConfiguration().addHttpHandler(new HttpHandler() {
+            @Override
+            public void service(Request request, Response response) throws IOException {
+                request.getInputStream().readAllBytes();
+                response.setContentType("application/json");
+                response.getWriter().write("{\"text\":\"\"}");
+            }
+        }, "/whisper");
+    }
+
+    @AfterAll
+    static void stopServer() throws IOException {
+        server.shutdownNow();
+        Files.deleteIfExists(dotEnv);
+    }
+
+    @Test
+    void declaredLengthOverTheLimitIsRejected() throws Exception {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("translator/image/translate"))
+                .header("Content-Type", "image/png")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(OVERSIZED)));
+        assertEquals(413, response.statusCode());
+    }
+
+    @Test
+    void chunkedRawImageIsRejected() throws Exception {
+        assertEquals(413, sendChunked("translator/image/translate", "image/png", OVERSIZED).statusCode());
+    }
+
+    @Test
+    void chunkedRawSpeechIsRejected() throws Exception {
+        assertEquals(413, sendChunked("translator/speech/translate?sourceLanguage=en&targetLanguage=ary",
+                "audio/webm", OVERSIZED).statusCode());
+    }
+
+    @Test
+    void chunkedReadAloudTextIsRejected() throws Exception {
+        assertEquals(413, sendChunked("translator/read-aloud", "text/plain", OVERSIZED).statusCode());
+    }
+
+    @Test
+    void chunkedMultipartImageIsRejected() throws Exception {
+        assertEquals(413, sendChunked("translator/image/translate", MULTIPART,
+                multipart("image", "image/png", OVERSIZED)).statusCode());
+    }
+
+    @Test
+    void chunkedMultipartSpeechIsRejected() throws Exception {
+        assertEquals(413, sendChunked("translator/speech/translate", MULTIPART,
+                multipart("audio", "audio/webm", OVERSIZED)).statusCode());
+    }
+
+    @Test
+    void chunkedJsonIsRejected() throws Exception {
+        byte[] json = ("{\"text\":\"" + new String(OVERSIZED, StandardCharsets.US_ASCII) + "\"}")
+                .getBytes(StandardCharsets.US_ASCII);
+        assertEquals(413, sendChunked("translator/translate", "application/json", json).statusCode());
+    }
+
+    @Test
+    void chunkedMultipartSpeechStreamReportsTheLimit() throws Exception {
+        HttpResponse<String> response = sendChunked("translator/speech/translate/stream", MULTIPART,
+                multipart("audio", "audio/webm", OVERSIZED));
+        assertTrue(response.statusCode() == 413 || response.body().contains("\"status\":413"),
+                () -> response.statusCode() + " " + response.body());
+    }
+
+    @Test
+    void bodyUnderTheLimitIsAccepted() throws Exception {
+        HttpResponse<String> response = sendChunked("translator/read-aloud", "text/plain",
+                "".getBytes(StandardCharsets.UTF_8));
+        assertEquals(400, response.statusCode());
+    }
+
+    private static final String MULTIPART = "multipart/form-data; boundary=xyzzy";
+
+    private static byte[] multipart(String name, String type, byte[] content) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write(("--xyzzy\r\nContent-Disposition: form-data; name=\"" + name + "\"; filename=\"upload\"\r\n"
+                + "Content-Type: " + type + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        body.write(content);
+        body.write("\r\n--xyzzy--\r\n".getBytes(StandardCharsets.US_ASCII));
+        return body.toByteArray();
+    }
+
+    /**
+     * A body of unknown length, so it goes out chunked and only the stream limit can catch it.
+     */
+    private static HttpResponse<String> sendChunked(String path, String type, byte[] body) throws Exception {
+        return send(HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", type)
+                .POST(HttpRequest.BodyPublishers.ofInputStream(() -> new ByteArrayInputStream(body))));
+    }
+
+    private static HttpResponse<String> send(HttpRequest.Builder request) throws Exception {
+        return CLIENT.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static URI uri(String path) {
+        return URI.create(baseUri + path);
+    }
+}
@@ -0,0 +1,88 @@
+package org.translate.com.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.translate.com.config.Tunables.BooleanTunable;
+import org.translate.com.config.Tunables.IntTunable;
+import org.translate.com.config.Tunables.TextTunable;
+
+class TunablesTest {
+
+    @Test
+    void parsesWithinBounds() {
+        IntTunable threads = Tunables.intValue("TEST_BOUNDS_THREADS", 4, 1, 8, "test");
+
+        assertEquals(1, threads.parse("1"));
+        assertEquals(8, threads.parse(" 8 "));
+        assertThrows(IllegalArgumentException.class, () -> threads.parse("0"));
+        assertThrows(IllegalArgumentException.class, () -> threads.parse("9"));
+        assertThrows(IllegalArgumentException.class, () -> threads.parse("four"));
+        assertThrows(IllegalArgumentException.class, () -> threads.parse(null));
+
+        BooleanTunable flag = Tunables.booleanValue("TEST_BOUNDS_FLAG", false, "test");
+        assertTrue(flag.parse("TRUE"));
+        assertThrows(IllegalArgumentException.class, () -> flag.parse("yes"));
+    }
+
+    @Test
+    void rejectsTheWholeBatchOnOneBadValue() {
+        IntTunable size = Tunables.intValue("TEST_BATCH_SIZE", 10, 1, 100, "test");
+        TextTunable model = Tunables.textValue("TEST_BATCH_MODEL", "small", "test");
+        List<Object> heard = new ArrayList<>();
+        size.onChange(heard::add);
+
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("TEST_BATCH_SIZE", "20");
+        values.put("TEST_BATCH_MODEL", "large");
+        values.put("TEST_BATCH_UNKNOWN", "1");
+        assertThrows(IllegalArgumentException.class, () -> Tunables.update(values, "test"));
+
+        values.remove("TEST_BATCH_UNKNOWN");
+        values.put("TEST_BATCH_SIZE", "1000");
+        assertThrows(IllegalArgumentException.class, () -> Tunables.update(values, "test"));
+
+        assertEquals(10, size.getInt());
+        assertEquals("small", model.get());
+        assertTrue(heard.isEmpty());
+        assertNull(EnvConfig.get("TEST_BATCH_MODEL"));
+    }
+
+    @Test
+    void publishesABatchBeforeAnyListenerRuns() {
+        IntTunable size = Tunables.intValue("TEST_SWAP_SIZE", 10, 1, 100, "test");
+        TextTunable model = Tunables.textValue("TEST_SWAP_MODEL", "small", "test");
+        List<String> seen = new ArrayList<>();
+        size.onChange(value -> seen.add(value + "/" + model.get() + "/" + EnvConfig.get("TEST_SWAP_MODEL")));
+
+        Map<String, String> values = new LinkedHashMap<>();
+        values.put("TEST_SWAP_SIZE", "20");
+        values.put("TEST_SWAP_MODEL", "large");
+        Map<String, Object> applied = Tunables.update(values, "test");
+
+        assertEquals(List.of("20/large/large"), seen);
+        assertEquals(20, size.getInt());
+        Tunables.Values current = Tunables.current();
+        assertEquals(20, current.get(size));
+        assertEquals("large", current.get(model));
+        assertEquals("large", value(applied, "TEST_SWAP_MODEL"));
+        assertEquals(20, value(applied, "TEST_SWAP_SIZE"));
+
+        // Same value again: nothing changed, nobody is told.
+        Tunables.update(Map.of("TEST_SWAP_SIZE", "20"), "test");
+        assertEquals(1, seen.size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object value(Map<String, Object> applied, String key) {
+        return ((Map<String, Object>) applied.get(key)).get("value");
+    }
+}
@@ -0,0 +1,109 @@
+package org.translate.com.dto;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.translate.com.config.WireFormats;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class Base64PayloadDeserializerTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final byte[] IMAGE = "not really a png".getBytes(StandardCharsets.UTF_8);
+    private static final String BASE64 = Base64.getEncoder().encodeToString(IMAGE);
+
+    @Test
+    void decodesBareBase64() throws IOException {
+        ImageTranslationRequest request = readStream("{\"imageBase64\":\"" + BASE64 + "\"}", 8192);
+
+        try (BinaryPayload image = request.getImage()) {
+            assertArrayEquals(IMAGE, image.toBytes());
+            assertNull(image.getMimeType());
+        }
+    }
+
+    @Test
+    void stripsDataUrlFromStreamAndKeepsMimeType() throws IOException {
+        String json = "{\"imageBase64\" : \"data:image/webp;base64," + BASE64 + "\",\"sourceLanguage\":\"en\"}";
+        ImageTranslationRequest request = readStream(json, 1);
+
+        try (BinaryPayload image = request.getImage()) {
+            assertArrayEquals(IMAGE, image.toBytes());
+            assertEquals("image/webp", image.getMimeType());
+        }
+        assertEquals("en", request.getSourceLanguage());
+    }
+
+    @Test
+    void stripsDataUrlFromString() throws IOException {
+        String json = "{\"imageBase64\":\"data:image/gif;base64," + BASE64 + "\",\"sourceLanguage\":\"fr\"}";
+        ImageTranslationRequest request = MAPPER.readValue(json, ImageTranslationRequest.class);
+
+        try (BinaryPayload image = request.getImage()) {
+            assertArrayEquals(IMAGE, image.toBytes());
+            assertEquals("image/gif", image.getMimeType());
+        }
+        assertEquals("fr", request.getSourceLanguage());
+    }
+
+    @Test
+    void decodesLargeDataUrlAcrossParserBuffers() throws IOException {
+        byte[] large = new byte[300_000];
+        new Random(7).nextBytes(large);
+        String base64 = Base64.getMimeEncoder().encodeToString(large).replace("\r\n", "\\r\\n");
+        String json = "{\"imageBase64\":\"data:image/png;base64," + base64 + "\"}";
+
+        try (BinaryPayload image = readStream(json, 8192).getImage()) {
+            assertArrayEquals(large, image.toBytes());
+            assertEquals("image/png", image.getMimeType());
+        }
+    }
+
+    @Test
+    void stripsDataUrlFromCborString() throws IOException {
+        ObjectMapper cbor = WireFormats.cborMapper();
+        byte[] body = cbor.writeValueAsBytes(Map.of("imageBase64", "data:image/jpeg;base64," + BASE64));
+
+        try (BinaryPayload image = cbor.readValue(body, ImageTranslationRequest.class).getImage()) {
+            assertArrayEquals(IMAGE, image.toBytes());
+            assertEquals("image/jpeg", image.getMimeType());
+        }
+    }
+
+    @Test
+    void rejectsInvalidBase64() {
+        assertThrows(JsonMappingException.class, () -> readStream("{\"imageBase64\":\"abc@@@@\"}", 8192));
+        assertThrows(JsonMappingException.class,
+                () -> readStream("{\"imageBase64\":\"data:image/png;base64,@@@@\"}", 8192));
+        assertThrows(JsonMappingException.class, () -> readStream("{\"imageBase64\":\"data:image/png\"}", 8192));
+        assertThrows(JsonMappingException.class, () -> readStream("{\"imageBase64\":\"ab:x;base64,AAAA\"}", 1));
+    }
+
+    /**
+     * Parses from a stream that hands out at most {@code chunk} bytes per read.
+     */
+    private static ImageTranslationRequest readStream(String json, int chunk) throws IOException {
+        InputStream body = new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+        InputStream source = new FilterInputStream(body) {
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                return super.read(buffer, offset, Math.min(length, chunk));
+            }
+        };
+        return MAPPER.readValue(source, ImageTranslationRequest.class);
+    }
+}
@@ -0,0 +1,33 @@
+package org.translate.com.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+class StreamTokensTest {
+
+    @Test
+    void redeemsIssuedTokenOnce() {
+        String token = StreamTokens.issue("team-a");
+
+        assertEquals("team-a", StreamTokens.redeem(token));
+        assertNull(StreamTokens.redeem(token));
+    }
+
+    @Test
+    void rejectsTamperedPrincipal() {
+        String[] parts = StreamTokens.issue("team-a").split("\\.");
+        String forged = StreamTokens.issue("team-b").split("\\.")[0] + "." + parts[1] + "." + parts[2] + "." + parts[3];
+
+        assertNull(StreamTokens.redeem(forged));
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        assertNull(StreamTokens.redeem(null));
+        assertNull(StreamTokens.redeem(""));
+        assertNull(StreamTokens.redeem("dGVhbS1h.notanumber.abc.def"));
+        assertNull(StreamTokens.redeem("a.b.c"));
+    }
+}
@@ -0,0 +1,128 @@
+package org.translate.com.security;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class UserQuotasTest {
+
+    @Test
+    void admitsABurstThenAsksToWait() {
+        // One a second, bursts of three.
+        UserQuotas.Usage usage = new UserQuotas.Usage("burst", 60, 0, 3);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, usage.tryAcquire(), "request " + i);
+        }
+        long wait = usage.tryAcquire();
+
+        assertTrue(wait > 900 && wait <= 1000, "waited " + wait);
+        assertEquals(1L, usage.snapshot().get("rateLimited"));
+        assertEquals(3, usage.snapshot().get("inFlight"));
+    }
+
+    @Test
+    void refillsOverTime() throws InterruptedException {
+        // One every 10 ms, no burst beyond that.
+        UserQuotas.Usage usage = new UserQuotas.Usage("refill", 6000, 0, 1);
+        assertEquals(0, usage.tryAcquire());
+        assertTrue(usage.tryAcquire() > 0);
+
+        Thread.sleep(30);
+
+        assertEquals(0, usage.tryAcquire());
+    }
+
+    @Test
+    void capsRequestsInProgress() {
+        UserQuotas.Usage usage = new UserQuotas.Usage("concurrent", 0, 2, 0);
+        assertEquals(0, usage.tryAcquire());
+        assertEquals(0, usage.tryAcquire());
+
+        assertEquals(1000, usage.tryAcquire());
+        usage.release();
+        assertEquals(0, usage.tryAcquire());
+
+        Map<String, Object> stats = usage.snapshot();
+        assertEquals(3L, stats.get("admitted"));
+        assertEquals(1L, stats.get("concurrencyLimited"));
+        assertEquals(2, stats.get("inFlight"));
+        assertEquals(2, stats.get("peakInFlight"));
+    }
+
+    @Test
+    void rateLimitedRequestsDoNotHoldASlot() {
+        UserQuotas.Usage usage = new UserQuotas.Usage("slot", 60, 1, 1);
+        assertEquals(0, usage.tryAcquire());
+        usage.release();
+
+        assertTrue(usage.tryAcquire() > 0);
+
+        assertEquals(0, usage.snapshot().get("inFlight"));
+        assertEquals(1L, usage.snapshot().get("rateLimited"));
+    }
+
+    @Test
+    void neverExceedsTheCapUnderContention() throws Exception {
+        UserQuotas.Usage usage = new UserQuotas.Usage("contended", 0, 4, 0);
+        int threads = 8;
+        int attempts = 2000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                workers.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < attempts; i++) {
+                        if (usage.tryAcquire() == 0) {
+                            usage.release();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) {
+                worker.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Map<String, Object> stats = usage.snapshot();
+        assertEquals(0, stats.get("inFlight"));
+        assertTrue((int) stats.get("peakInFlight") <= 4, "peak " + stats.get("peakInFlight"));
+        assertEquals((long) threads * attempts, (long) stats.get("admitted") + (long) stats.get("concurrencyLimited"));
+    }
+
+    @Test
+    void parsesPerUserOverrides() {
+        Map<String, int[]> overrides = UserQuotas.parseOverrides(" alice=10/2, bob = 5 ,=3, carol=x/1, dave", 4);
+
+        assertEquals(2, overrides.size());
+        assertArrayEquals(new int[] { 10, 2 }, overrides.get("alice"));
+        assertArrayEquals(new int[] { 5, 4 }, overrides.get("bob"));
+        assertTrue(UserQuotas.parseOverrides(null, 4).isEmpty());
+    }
+
+    @Test
+    void keepsOneUsagePerPrincipal() {
+        UserQuotas.Usage usage = UserQuotas.forPrincipal("test-quota-user");
+
+        assertSame(usage, UserQuotas.forPrincipal("test-quota-user"));
+        assertEquals("test-quota-user", usage.getPrincipal());
+    }
+}
@@ -0,0 +1,165 @@
+package org.translate.com.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AudioCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void storesAndFindsClipsByContentHash() throws Exception {
+        AudioCache cache = ready(new AudioCache(dir.toString(), 1024 * 1024, null));
+        String edge = AudioCache.key("salam", "ary", "female", "edge", "mp3");
+        String google = AudioCache.key("salam", "ary", "female", "google", "mp3");
+        assertNotEquals(edge, google);
+
+        Path stored = cache.put(google, "mp3", bytes(10, 1));
+
+        assertEquals(dir.resolve(google.substring(0, 2)).resolve(google + ".mp3"), stored);
+        assertEquals(stored, cache.get(List.of(edge, google)));
+        assertNull(cache.get(List.of(edge)));
+        assertEquals(1L, cache.stats().get("hits"));
+        assertEquals(1L, cache.stats().get("misses"));
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedClip() throws Exception {
+        AudioCache cache = ready(new AudioCache(dir.toString(), 100, null));
+        Path first = cache.put(hash('a'), "mp3", bytes(40, 1));
+        Path second = cache.put(hash('b'), "mp3", bytes(40, 2));
+        cache.get(List.of(hash('a')));
+
+        Path third = cache.put(hash('c'), "wav", bytes(40, 3));
+
+        assertTrue(Files.exists(first));
+        assertFalse(Files.exists(second));
+        assertTrue(Files.exists(third));
+        assertEquals(80L, cache.stats().get("bytes"));
+        assertEquals(1L, cache.stats().get("evictions"));
+    }
+
+    @Test
+    void dropsAbortedAndOversizedWrites() throws Exception {
+        AudioCache cache = ready(new AudioCache(dir.toString(), 100, null));
+
+        AudioCache.Writer aborted = cache.openWriter(hash('a'), "mp3");
+        aborted.write(bytes(10, 1), 0, 10);
+        aborted.abort();
+        AudioCache.Writer oversized = cache.openWriter(hash('b'), "mp3");
+        oversized.write(bytes(60, 1), 0, 60);
+        oversized.write(bytes(60, 1), 0, 60);
+
+        assertNull(oversized.commit());
+        assertNull(cache.get(List.of(hash('a'), hash('b'))));
+        assertEquals(0, files());
+    }
+
+    @Test
+    void rebuildsTheIndexFromDisk() throws Exception {
+        AudioCache before = ready(new AudioCache(dir.toString(), 1024, null));
+        before.put(hash('a'), "mp3", bytes(30, 1));
+        before.put(hash('b'), "ogg", bytes(20, 2));
+        Path crashed = dir.resolve("aa").resolve(hash('a') + "123.part");
+        Files.write(crashed, bytes(5, 0));
+
+        AudioCache after = ready(new AudioCache(dir.toString(), 1024, null));
+
+        assertEquals(2, after.stats().get("entries"));
+        assertEquals(50L, after.stats().get("bytes"));
+        assertFalse(Files.exists(crashed));
+        assertArrayEquals(bytes(20, 2), Files.readAllBytes(after.get(List.of(hash('b')))));
+    }
+
+    @Test
+    void rebuildAppliesALowerBound() throws Exception {
+        AudioCache before = ready(new AudioCache(dir.toString(), 1024, null));
+        before.put(hash('a'), "mp3", bytes(60, 1));
+        before.put(hash('b'), "mp3", bytes(60, 2));
+
+        AudioCache after = ready(new AudioCache(dir.toString(), 100, null));
+
+        assertEquals(1, after.stats().get("entries"));
+        assertEquals(1, files());
+    }
+
+    @Test
+    void sharesClipsThroughTheResultCache(@TempDir Path otherDir) throws Exception {
+        InProcessResultCache shared = new InProcessResultCache(1024 * 1024, 0);
+        AudioCache one = ready(new AudioCache(dir.toString(), 1024, shared));
+        AudioCache other = ready(new AudioCache(otherDir.toString(), 1024, shared));
+        one.put(hash('a'), "wav", bytes(30, 7));
+
+        Path fetched = other.get(List.of(hash('b'), hash('a')));
+
+        assertNotNull(fetched);
+        assertTrue(fetched.startsWith(otherDir));
+        assertTrue(fetched.toString().endsWith(".wav"));
+        assertArrayEquals(bytes(30, 7), Files.readAllBytes(fetched));
+        assertEquals(1L, other.stats().get("sharedHits"));
+        // Now on this instance's disk.
+        assertEquals(fetched, other.get(List.of(hash('a'))));
+    }
+
+    @Test
+    void disabledWithoutADirectory() {
+        AudioCache cache = new AudioCache(null, 1024, null);
+
+        assertFalse(cache.isEnabled());
+        assertNull(cache.put(hash('a'), "mp3", bytes(10, 1)));
+        assertNull(cache.get(List.of(hash('a'))));
+    }
+
+    @Test
+    void mapsMediaTypesToExtensions() {
+        assertEquals("wav", AudioCache.extension("audio/x-wav"));
+        assertEquals("ogg", AudioCache.extension("audio/opus; codecs=opus"));
+        assertEquals("mp3", AudioCache.extension("application/octet-stream"));
+        assertEquals("mp3", AudioCache.extension(null));
+        assertEquals("audio/ogg", AudioCache.mediaType("opus"));
+        assertEquals("audio/mpeg", AudioCache.mediaType("mp3"));
+    }
+
+    /**
+     * Waits for the startup index rebuild, so it cannot interleave with the test.
+     */
+    private static AudioCache ready(AudioCache cache) throws InterruptedException {
+        for (int i = 0; i < 500 && !Boolean.TRUE.equals(cache.stats().get("indexReady")); i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(Boolean.TRUE, cache.stats().get("indexReady"));
+        return cache;
+    }
+
+    private long files() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    private static String hash(char c) {
+        return String.valueOf(c).repeat(64);
+    }
+
+    private static byte[] bytes(int length, int value) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) value);
+        return bytes;
+    }
+}
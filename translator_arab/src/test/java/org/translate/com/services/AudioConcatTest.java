@@ -0,0 +1,119 @@
+package org.translate.com.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class AudioConcatTest {
+
+    // MPEG-1 Layer III, 128 kbps, 44.1 kHz: 417-byte frames.
+    private static final int HEADER_44K = 0xFFFB9000;
+    // Same at 48 kHz: 384-byte frames.
+    private static final int HEADER_48K = 0xFFFB9400;
+
+    @Test
+    void mergesWavDataUnderOneHeader() {
+        byte[] first = pcm(100, (byte) 1);
+        byte[] second = pcm(60, (byte) 2);
+
+        byte[] joined = AudioConcat.concat(
+                List.of(WavCodec.fromPcm16(first, 16000), WavCodec.fromPcm16(second, 16000)), "audio/wav");
+
+        ByteBuffer header = ByteBuffer.wrap(joined).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(WavCodec.HEADER_SIZE + 160, joined.length);
+        assertEquals(joined.length - 8, header.getInt(4));
+        assertEquals(160, header.getInt(40));
+        assertArrayEquals(first, Arrays.copyOfRange(joined, 44, 144));
+        assertArrayEquals(second, Arrays.copyOfRange(joined, 144, 204));
+    }
+
+    @Test
+    void refusesWavClipsWithDifferentFormats() {
+        List<byte[]> clips = List.of(WavCodec.fromPcm16(pcm(10, (byte) 0), 16000),
+                WavCodec.fromPcm16(pcm(10, (byte) 0), 22050));
+
+        assertNull(AudioConcat.concat(clips, "audio/wav"));
+    }
+
+    @Test
+    void joinsMp3FramesAndDropsPerClipHeaders() {
+        byte[] first = mp3(HEADER_44K, 417, 2, (byte) 0x11);
+        byte[] second = mp3(HEADER_44K, 417, 3, (byte) 0x22);
+
+        byte[] joined = AudioConcat.concat(List.of(first, second), "audio/mpeg");
+
+        // The first clip's ID3v2 tag, then five audio frames: no Info frames, no ID3v1 tags.
+        assertEquals(30 + 5 * 417, joined.length);
+        assertArrayEquals(Arrays.copyOf(first, 30), Arrays.copyOf(joined, 30));
+        assertEquals((byte) 0x11, joined[30 + 4]);
+        assertEquals((byte) 0x22, joined[30 + 2 * 417 + 4]);
+        assertEquals((byte) 0x22, joined[joined.length - 1]);
+    }
+
+    @Test
+    void refusesMp3ClipsWithDifferentSampleRates() {
+        List<byte[]> clips = List.of(mp3(HEADER_44K, 417, 1, (byte) 1), mp3(HEADER_48K, 384, 1, (byte) 1));
+
+        assertNull(AudioConcat.concat(clips, "audio/mpeg"));
+    }
+
+    @Test
+    void passesSingleClipsThroughAndRefusesUnknownFormats() {
+        byte[] clip = { 1, 2, 3 };
+
+        assertSame(clip, AudioConcat.concat(List.of(clip), "audio/ogg"));
+        assertNull(AudioConcat.concat(List.of(clip, clip), "audio/ogg"));
+        assertNull(AudioConcat.concat(List.of(), "audio/mpeg"));
+    }
+
+    private static byte[] pcm(int length, byte value) {
+        byte[] pcm = new byte[length];
+        Arrays.fill(pcm, value);
+        return pcm;
+    }
+
+    /**
+     * ID3v2 tag (30 bytes), Xing/Info frame, {@code frames} audio frames filled with
+     * {@code fill}, ID3v1 tag.
+     */
+    private static byte[] mp3(int header, int frameLength, int frames, byte fill) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] id3 = new byte[30];
+        id3[0] = 'I';
+        id3[1] = 'D';
+        id3[2] = '3';
+        id3[3] = 4;
+        id3[9] = 20;
+        out.writeBytes(id3);
+
+        byte[] info = frame(header, frameLength, (byte) 0);
+        System.arraycopy(new byte[] { 'I', 'n', 'f', 'o' }, 0, info, 36, 4);
+        out.writeBytes(info);
+        for (int i = 0; i < frames; i++) {
+            out.writeBytes(frame(header, frameLength, fill));
+        }
+
+        byte[] id3v1 = new byte[128];
+        id3v1[0] = 'T';
+        id3v1[1] = 'A';
+        id3v1[2] = 'G';
+        out.writeBytes(id3v1);
+        return out.toByteArray();
+    }
+
+    private static byte[] frame(int header, int length, byte fill) {
+        byte[] frame = new byte[length];
+        Arrays.fill(frame, fill);
+        ByteBuffer.wrap(frame).putInt(header);
+        return frame;
+    }
+}
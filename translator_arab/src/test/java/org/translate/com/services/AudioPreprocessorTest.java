@@ -0,0 +1,103 @@
+package org.translate.com.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.translate.com.services.AudioPreprocessor.PreparedAudio;
+
+class AudioPreprocessorTest {
+
+    private final AudioPreprocessor preprocessor = new AudioPreprocessor();
+
+    @Test
+    void resamplesToTheTargetLength() {
+        assertEquals(16000, AudioPreprocessor.resample(new float[48000], 48000, 16000).length);
+        assertEquals(16000, AudioPreprocessor.resample(new float[44100], 44100, 16000).length);
+        assertEquals(8000, AudioPreprocessor.resample(new float[22050], 44100, 16000).length);
+    }
+
+    @Test
+    void keepsUnitGainAtDc() {
+        for (int rate : new int[] { 48000, 44100 }) {
+            float[] constant = new float[rate];
+            Arrays.fill(constant, 0.5f);
+            short[] out = AudioPreprocessor.resample(constant, rate, 16000);
+
+            // Every sample, edges included: the edge taps are renormalized too.
+            for (short sample : out) {
+                assertEquals(16384, sample, 2, "at " + rate + " Hz");
+            }
+        }
+    }
+
+    @Test
+    void trimsSilenceAroundSpeech() throws IOException {
+        int rate = 16000;
+        short[] samples = new short[rate * 4];
+        Random random = new Random(3);
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (short) (random.nextInt(61) - 30);
+        }
+        // One second of "speech" in the middle.
+        for (int i = rate * 3 / 2; i < rate * 5 / 2; i++) {
+            samples[i] += (short) (8000 * Math.sin(2 * Math.PI * 440 * i / rate));
+        }
+
+        PreparedAudio prepared = preprocessor.prepare(wav(samples, rate), "audio/wav");
+
+        assertTrue(prepared.isConverted());
+        long duration = prepared.getDurationMs();
+        assertTrue(duration >= 1000 && duration < 2500, "kept " + duration + " ms of 4000");
+    }
+
+    @Test
+    void passesThroughWhenChunksBeforeDataExceedThePeek() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(ascii("RIFF"));
+        out.write(intLE(0));
+        out.write(ascii("WAVE"));
+        out.write(ascii("LIST"));
+        out.write(intLE(70_000));
+        out.write(new byte[70_000]);
+        byte[] canonical = WavCodec.fromPcm16(new byte[3200], 16000);
+        // fmt and data chunks of a canonical file.
+        out.write(canonical, 12, canonical.length - 12);
+        byte[] upload = out.toByteArray();
+
+        PreparedAudio prepared = preprocessor.prepare(new ByteArrayInputStream(upload), "audio/wav");
+
+        assertFalse(prepared.isConverted());
+        try (InputStream stream = prepared.getStream()) {
+            assertArrayEquals(upload, stream.readAllBytes());
+        }
+    }
+
+    private static InputStream wav(short[] samples, int rate) {
+        ByteBuffer pcm = ByteBuffer.allocate(samples.length * 2).order(ByteOrder.LITTLE_ENDIAN);
+        for (short sample : samples) {
+            pcm.putShort(sample);
+        }
+        return new ByteArrayInputStream(WavCodec.fromPcm16(pcm.array(), rate));
+    }
+
+    private static byte[] ascii(String tag) {
+        return tag.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] intLE(int value) {
+        return ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(value).array();
+    }
+}
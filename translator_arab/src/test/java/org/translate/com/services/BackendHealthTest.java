@@ -0,0 +1,94 @@
+package org.translate.com.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class BackendHealthTest {
+
+    @Test
+    void opensAfterConsecutiveFailuresAndProbesAfterTheCooldown() throws InterruptedException {
+        BackendHealth health = new BackendHealth("edge", 1000, 2, 50, 1000);
+
+        health.failure(10, false);
+        assertTrue(health.isHealthy());
+        assertTrue(health.tryAcquire());
+        health.failure(10, true);
+
+        assertFalse(health.isHealthy());
+        assertFalse(health.tryAcquire());
+        assertEquals(1L, health.snapshot().get("skipped"));
+        assertEquals(1L, health.snapshot().get("timeouts"));
+
+        Thread.sleep(80);
+        assertTrue(health.tryAcquire(), "one probe once the cooldown has passed");
+        assertFalse(health.tryAcquire(), "only one probe at a time");
+
+        health.success(20);
+        assertTrue(health.isHealthy());
+        assertTrue(health.tryAcquire());
+    }
+
+    @Test
+    void failedProbeDoublesTheCooldown() throws InterruptedException {
+        BackendHealth health = new BackendHealth("edge", 1000, 1, 200, 5000);
+        health.failure(10, false);
+        Thread.sleep(250);
+
+        assertTrue(health.tryAcquire());
+        health.failure(10, false);
+
+        long remaining = ((Number) health.snapshot().get("unhealthyForMs")).longValue();
+        assertTrue(remaining > 200 && remaining <= 400, "cooldown left " + remaining);
+        Thread.sleep(250);
+        assertFalse(health.tryAcquire(), "the doubled cooldown is still running");
+    }
+
+    @Test
+    void scoresTimeLostOnFailures() {
+        BackendHealth untried = new BackendHealth("untried", 8000, 3, 50, 1000);
+        BackendHealth reliable = new BackendHealth("reliable", 8000, 3, 50, 1000);
+        BackendHealth hanging = new BackendHealth("hanging", 8000, 3, 50, 1000);
+        BackendHealth failsFast = new BackendHealth("failsFast", 8000, 3, 50, 1000);
+        for (int i = 0; i < 5; i++) {
+            reliable.success(400);
+            hanging.success(100);
+            hanging.failure(8000, true);
+            failsFast.success(100);
+            failsFast.failure(5, false);
+        }
+
+        assertEquals(1000, untried.score(), 1e-9);
+        assertTrue(reliable.score() < untried.score());
+        assertTrue(hanging.score() > reliable.score(), "hanging " + hanging.score());
+        assertTrue(failsFast.score() < reliable.score(), "fails fast " + failsFast.score());
+    }
+
+    @Test
+    void ordersBackendsByHealthAndScore() {
+        BackendHealth custom = new BackendHealth("custom", 1000, 1, 60_000, 60_000);
+        BackendHealth edge = new BackendHealth("edge", 1000, 1, 60_000, 60_000);
+        BackendHealth google = new BackendHealth("google", 1000, 1, 60_000, 60_000);
+        List<BackendHealth> all = List.of(custom, edge, google);
+
+        assertEquals(List.of("custom", "edge", "google"), TTSService.orderedBackends(all, true));
+        assertEquals(List.of("edge", "google"), TTSService.orderedBackends(all, false));
+
+        // Close scores keep the configured order; a much faster backend moves ahead.
+        edge.success(1100);
+        google.success(1200);
+        assertEquals(List.of("custom", "edge", "google"), TTSService.orderedBackends(all, true));
+        google.success(50);
+        google.success(50);
+        google.success(50);
+        assertEquals("google", TTSService.orderedBackends(all, true).get(0));
+
+        // An unhealthy backend goes last whatever its score.
+        google.failure(10, false);
+        assertEquals("google", TTSService.orderedBackends(all, true).get(2));
+    }
+}
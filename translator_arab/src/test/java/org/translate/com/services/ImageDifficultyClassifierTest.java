@@ -0,0 +1,99 @@
+package org.translate.com.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class ImageDifficultyClassifierTest {
+
+    private final ImageDifficultyClassifier classifier = new ImageDifficultyClassifier();
+
+    @Test
+    void scoresFlatImagesAsEasy() {
+        assertEquals(0, classifier.score(null));
+        assertEquals(0, classifier.score(new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB)));
+    }
+
+    @Test
+    void scoresCleanPrintBelowNoisyPhotos() {
+        double print = classifier.score(print(BufferedImage.TYPE_INT_RGB));
+        double photo = classifier.score(photo(BufferedImage.TYPE_INT_RGB));
+
+        assertTrue(print < 0.1, "print scored " + print);
+        assertTrue(photo >= 0.4, "photo scored " + photo);
+    }
+
+    @Test
+    void scoresTheSameWhateverThePixelLayout() {
+        double rgb = classifier.score(photo(BufferedImage.TYPE_INT_RGB));
+
+        assertEquals(rgb, classifier.score(photo(BufferedImage.TYPE_3BYTE_BGR)), 0.02);
+        assertEquals(rgb, classifier.score(photo(BufferedImage.TYPE_INT_ARGB)), 0.02);
+        assertEquals(rgb, classifier.score(photo(BufferedImage.TYPE_BYTE_GRAY)), 0.02);
+    }
+
+    @Test
+    void samplesLargeImages() {
+        BufferedImage large = new BufferedImage(6000, 4000, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = large.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, 6000, 4000);
+            g.setColor(Color.BLACK);
+            for (int y = 200; y < 3800; y += 300) {
+                g.fillRect(300, y, 5400, 120);
+            }
+        } finally {
+            g.dispose();
+        }
+
+        assertTrue(classifier.score(large) < 0.1);
+    }
+
+    /**
+     * Black lines of "text" on white paper.
+     */
+    static BufferedImage print(int type) {
+        BufferedImage image = new BufferedImage(400, 300, type);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, 400, 300);
+            g.setColor(Color.BLACK);
+            for (int y = 20; y < 280; y += 30) {
+                for (int x = 20; x < 380; x += 40) {
+                    g.fillRect(x, y, 30, 12);
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * Mid-gray with heavy per-pixel noise: no clean split between ink and background.
+     */
+    static BufferedImage photo(int type) {
+        BufferedImage image = new BufferedImage(400, 300, type);
+        Random random = new Random(11);
+        for (int y = 0; y < 300; y++) {
+            for (int x = 0; x < 400; x++) {
+                int level = Math.max(0, Math.min(255, (int) (128 + 50 * random.nextGaussian())));
+                if (type == BufferedImage.TYPE_BYTE_GRAY) {
+                    // As decoded from a grayscale file: setRGB would convert to linear gray.
+                    image.getRaster().setSample(x, y, 0, level);
+                } else {
+                    image.setRGB(x, y, new Color(level, level, level).getRGB());
+                }
+            }
+        }
+        return image;
+    }
+}
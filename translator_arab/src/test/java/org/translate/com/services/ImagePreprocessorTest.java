@@ -0,0 +1,123 @@
+package org.translate.com.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.spi.IIORegistry;
+import javax.imageio.spi.ImageWriterSpi;
+
+import org.junit.jupiter.api.Test;
+import org.translate.com.services.ImagePreprocessor.CropRegion;
+import org.translate.com.services.ImagePreprocessor.PreparedImage;
+
+class ImagePreprocessorTest {
+
+    private final ImagePreprocessor preprocessor = new ImagePreprocessor();
+
+    @Test
+    void scalesDownToTheMaximumDimensionAndMapsBack() throws IOException {
+        PreparedImage prepared = preprocessor.prepare(encode(noise(4000, 1000), "jpeg"), "image/jpeg", null);
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(prepared.getBytes()));
+        assertEquals(2000, image.getWidth());
+        assertEquals(500, image.getHeight());
+        assertEquals("image/jpeg", prepared.getMimeType());
+        assertEquals(200, prepared.toSourceX(100));
+        assertEquals(20, prepared.toSourceLength(10));
+    }
+
+    @Test
+    void cropOffsetsTheSourceCoordinates() throws IOException {
+        PreparedImage prepared = preprocessor.prepare(encode(noise(400, 300), "png"), "image/png",
+                new CropRegion(100, 50, 200, 100));
+
+        assertEquals(200, prepared.getImage().getWidth());
+        assertEquals(100, prepared.getImage().getHeight());
+        assertEquals(110, prepared.toSourceX(10));
+        assertEquals(60, prepared.toSourceY(10));
+    }
+
+    @Test
+    void rejectsCropOutsideTheImage() throws IOException {
+        byte[] png = encode(noise(40, 30), "png");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> preprocessor.prepare(png, "image/png", new CropRegion(100, 100, 10, 10)));
+    }
+
+    @Test
+    void passesUndecodableBytesThrough() throws IOException {
+        byte[] heic = "not an image ImageIO knows".getBytes(StandardCharsets.US_ASCII);
+        PreparedImage prepared = preprocessor.prepare(heic, "image/heic", null);
+
+        assertArrayEquals(heic, prepared.getBytes());
+        assertEquals("image/heic", prepared.getMimeType());
+        assertNull(prepared.getImage());
+    }
+
+    @Test
+    void labelsPngWhenNoJpegWriterIsInstalled() throws IOException {
+        byte[] jpeg = encode(noise(400, 300), "jpeg");
+        IIORegistry registry = IIORegistry.getDefaultInstance();
+        List<ImageWriterSpi> jpegWriters = new ArrayList<>();
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        while (writers.hasNext()) {
+            jpegWriters.add(writers.next().getOriginatingProvider());
+        }
+        jpegWriters.forEach(spi -> registry.deregisterServiceProvider(spi, ImageWriterSpi.class));
+        try {
+            // Cropped, so the re-encoded image is sent rather than the original JPEG.
+            PreparedImage prepared = preprocessor.prepare(jpeg, "image/jpeg", new CropRegion(0, 0, 200, 100));
+
+            assertEquals("image/png", prepared.getMimeType());
+            byte[] signature = { (byte) 0x89, 'P', 'N', 'G' };
+            assertArrayEquals(signature, Arrays.copyOf(prepared.getBytes(), 4));
+        } finally {
+            jpegWriters.forEach(spi -> registry.registerServiceProvider(spi, ImageWriterSpi.class));
+        }
+    }
+
+    /**
+     * Random gray levels: compresses badly, so re-encoding a reduced copy always pays off.
+     */
+    private static BufferedImage noise(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        Graphics2D g = image.createGraphics();
+        try {
+            for (int y = 0; y < height; y += 4) {
+                for (int x = 0; x < width; x += 4) {
+                    int level = random.nextInt(256);
+                    g.setColor(new Color(level, level, level));
+                    g.fillRect(x, y, 4, 4);
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,163 @@
+package org.translate.com.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+import org.translate.com.services.ImagePreprocessor.PreparedImage;
+import org.translate.com.services.TesseractRunner.Block;
+
+class ImageServiceTest {
+
+    @Test
+    void confidentTesseractWinsWithoutCallingGemini() throws Exception {
+        RacingService service = new RacingService(new FakeTesseract(90, "clear text"), "from gemini");
+
+        String text = service.extractText(prepare(ImageDifficultyClassifierTest.print(BufferedImage.TYPE_INT_RGB)),
+                "en");
+
+        assertEquals(FakeTesseract.joined("clear text"), text);
+        assertTrue(service.started.isEmpty());
+    }
+
+    @Test
+    void hardImageStartsGeminiUpFrontAndDiscardsIt() throws Exception {
+        FakeTesseract tesseract = new FakeTesseract(90, "clear text");
+        RacingService service = new RacingService(tesseract, "from gemini");
+
+        String text = service.extractText(prepare(ImageDifficultyClassifierTest.photo(BufferedImage.TYPE_INT_RGB)),
+                "en");
+
+        assertEquals(FakeTesseract.joined("clear text"), text);
+        assertEquals(1, service.started.size());
+        assertEquals(0, service.startedAfterBlocks.get(0));
+        assertTrue(service.started.get(0).isCancelled());
+    }
+
+    @Test
+    void lowConfidenceStartsGeminiWhileTesseractIsStillReading() throws Exception {
+        FakeTesseract tesseract = new FakeTesseract(30, "blurry text");
+        RacingService service = new RacingService(tesseract, "from gemini");
+
+        String text = service.extractText(prepare(ImageDifficultyClassifierTest.print(
+                BufferedImage.TYPE_INT_RGB)), "en");
+
+        assertEquals("from gemini", text);
+        assertEquals(1, service.started.size());
+        int startedAt = service.startedAfterBlocks.get(0);
+        assertTrue(startedAt > 0 && startedAt < FakeTesseract.BLOCKS, "started after " + startedAt + " blocks");
+    }
+
+    @Test
+    void fallsBackToGeminiWhenTesseractFails() throws Exception {
+        FakeTesseract tesseract = new FakeTesseract(90, "unused");
+        tesseract.fail = true;
+        RacingService service = new RacingService(tesseract, "from gemini");
+
+        assertEquals("from gemini", service.extractText(prepare(ImageDifficultyClassifierTest.print(
+                BufferedImage.TYPE_INT_RGB)), "en"));
+        assertEquals(1, service.started.size());
+        assertEquals(FakeTesseract.BLOCKS, service.startedAfterBlocks.get(0));
+    }
+
+    @Test
+    void keepsLowConfidenceTesseractTextWhenGeminiFails() throws Exception {
+        RacingService service = new RacingService(new FakeTesseract(30, "blurry text"), null);
+
+        String text = service.extractText(prepare(ImageDifficultyClassifierTest.print(
+                BufferedImage.TYPE_INT_RGB)), "en");
+
+        assertEquals(FakeTesseract.joined("blurry text"), text);
+        assertFalse(service.started.isEmpty());
+    }
+
+    private static PreparedImage prepare(BufferedImage image) throws IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        return new ImagePreprocessor().prepare(png.toByteArray(), "image/png", null);
+    }
+
+    /**
+     * Gemini answers {@code answer} (or fails when null); records when each call started.
+     */
+    private static final class RacingService extends ImageService {
+        private final FakeTesseract tesseract;
+        private final String answer;
+        private final List<CompletableFuture<String>> started = new ArrayList<>();
+        private final List<Integer> startedAfterBlocks = new ArrayList<>();
+
+        RacingService(FakeTesseract tesseract, String answer) {
+            super(tesseract, "test-key");
+            this.tesseract = tesseract;
+            this.answer = answer;
+        }
+
+        @Override
+        GeminiCall startGemini(PreparedImage image, String sourceLanguage) {
+            CompletableFuture<String> text = answer == null
+                    ? CompletableFuture.failedFuture(new IOException("Gemini is down"))
+                    : new CompletableFuture<>();
+            if (answer != null) {
+                // Completes later, so a discarded call can still be cancelled.
+                CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS)
+                        .execute(() -> text.complete(answer));
+            }
+            started.add(text);
+            startedAfterBlocks.add(tesseract.emitted);
+            return new GeminiCall(text, 100);
+        }
+    }
+
+    /**
+     * Streams {@link #BLOCKS} blocks of two words each at a fixed confidence.
+     */
+    private static final class FakeTesseract extends TesseractRunner {
+        static final int BLOCKS = 6;
+
+        private final double confidence;
+        private final String text;
+        private int emitted;
+        private boolean fail;
+
+        FakeTesseract(double confidence, String text) {
+            this.confidence = confidence;
+            this.text = text;
+        }
+
+        /**
+         * What Tesseract's text reads as once the blocks are joined.
+         */
+        static String joined(String text) {
+            return String.join("\n\n", Collections.nCopies(BLOCKS, text));
+        }
+
+        @Override
+        public List<Block> readBlocks(PreparedImage image, String sourceLanguage, boolean singleThreaded,
+                Consumer<Block> onBlock) throws IOException {
+            List<Block> blocks = new ArrayList<>();
+            for (int i = 0; i < BLOCKS; i++) {
+                Block block = new Block(i, text, 0, i * 20, 100, 20, confidence, 2);
+                blocks.add(block);
+                emitted++;
+                onBlock.accept(block);
+            }
+            if (fail) {
+                throw new IOException("tesseract crashed");
+            }
+            return blocks;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.translate.com.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class OcrCacheTest {
+
+    private static final String CONTEXT = "ara|full";
+
+    private final OcrCache cache = new OcrCache();
+
+    @Test
+    void exactKeyHits() {
+        BufferedImage page = page(1, 640, 480);
+        cache.put("a|" + CONTEXT, page, CONTEXT, "first page");
+
+        assertEquals("first page", cache.getExact("a|" + CONTEXT));
+        assertNull(cache.getExact("b|" + CONTEXT));
+    }
+
+    @Test
+    void resizedCopyHitsWithoutBeingStoredUnderItsOwnKey() {
+        cache.put("a|" + CONTEXT, page(1, 640, 480), CONTEXT, "first page");
+
+        assertEquals("first page", cache.getSimilar(scale(page(1, 640, 480), 320, 240), CONTEXT));
+        assertNull(cache.getExact("resized|" + CONTEXT));
+        assertEquals(1L, cache.stats().get("perceptualHits"));
+    }
+
+    @Test
+    void otherContextOrOtherPageMisses() {
+        cache.put("a|" + CONTEXT, page(1, 640, 480), CONTEXT, "first page");
+
+        assertNull(cache.getSimilar(page(1, 640, 480), "eng|full"));
+        assertNull(cache.getSimilar(page(2, 640, 480), CONTEXT));
+        assertEquals(2L, cache.stats().get("misses"));
+    }
+
+    @Test
+    void evictedHashesLeaveTheIndex() {
+        cache.setMaxEntries(1);
+        for (int seed = 1; seed <= 6; seed++) {
+            cache.put(seed + "|" + CONTEXT, page(seed, 640, 480), CONTEXT, "page " + seed);
+        }
+
+        Map<String, Object> stats = cache.stats();
+        assertEquals(4, stats.get("perceptualIndexEntries"));
+        assertNull(cache.getSimilar(page(1, 640, 480), CONTEXT));
+        assertEquals("page 6", cache.getSimilar(page(6, 640, 480), CONTEXT));
+    }
+
+    /**
+     * Coarse random gray blocks, a stand-in for a page layout.
+     */
+    private static BufferedImage page(int seed, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(seed);
+        Graphics2D g = image.createGraphics();
+        try {
+            for (int y = 0; y < height; y += 40) {
+                for (int x = 0; x < width; x += 40) {
+                    int level = random.nextInt(256);
+                    g.setColor(new Color(level, level, level));
+                    g.fillRect(x, y, 40, 40);
+                }
+            }
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width, int height) {
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+}
@@ -0,0 +1,193 @@
+package org.translate.com.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.translate.com.BenchSupport.StubRedis;
+
+class RespResultCacheTest {
+
+    @Test
+    void concurrentClientsReadWhatWasStored() throws Exception {
+        try (StubRedis redis = new StubRedis(0)) {
+            // Two instances sharing one server, with fewer connections than threads.
+            RespResultCache first = cache(redis.port(), 2, 1000);
+            RespResultCache second = cache(redis.port(), 2, 1000);
+            ExecutorService pool = Executors.newFixedThreadPool(8);
+            try {
+                List<Callable<Integer>> tasks = new ArrayList<>();
+                for (int t = 0; t < 8; t++) {
+                    RespResultCache cache = t % 2 == 0 ? first : second;
+                    int thread = t;
+                    tasks.add(() -> {
+                        int wrong = 0;
+                        for (int i = 0; i < 200; i++) {
+                            String key = "key-" + ((thread * 7 + i) % 50);
+                            byte[] value = cache.get(key);
+                            if (value == null) {
+                                cache.put(key, valueOf(key));
+                            } else if (!new String(value, StandardCharsets.UTF_8).equals("value of " + key)) {
+                                wrong++;
+                            }
+                        }
+                        return wrong;
+                    });
+                }
+                for (Future<Integer> result : pool.invokeAll(tasks)) {
+                    assertEquals(0, result.get());
+                }
+            } finally {
+                pool.shutdownNow();
+            }
+
+            assertArrayEquals(valueOf("key-3"), second.get("key-3"));
+            assertEquals(50, redis.size());
+            for (RespResultCache cache : List.of(first, second)) {
+                Map<String, Object> stats = cache.stats();
+                assertEquals(0L, stats.get("errors"));
+                assertEquals(true, stats.get("available"));
+                cache.close();
+            }
+        }
+    }
+
+    @Test
+    void unreachableServerIsSkippedUntilRetry() throws Exception {
+        int port;
+        try (ServerSocket closed = new ServerSocket(0)) {
+            port = closed.getLocalPort();
+        }
+        RespResultCache cache = cache(port, 2, 50);
+
+        assertNull(cache.get("key"));
+        cache.put("key", valueOf("key"));
+        Map<String, Object> stats = cache.stats();
+        assertEquals(1L, stats.get("errors"));
+        assertEquals(1L, stats.get("skipped"));
+        assertEquals(false, stats.get("available"));
+
+        // The retry window is 20 timeouts but at least a second; once over, the server is tried again.
+        Thread.sleep(1100);
+        try (StubRedis redis = new StubRedis(port)) {
+            cache.put("key", valueOf("key"));
+            assertArrayEquals(valueOf("key"), cache.get("key"));
+            assertEquals(true, cache.stats().get("available"));
+            cache.close();
+        }
+    }
+
+    @Test
+    void silentServerTimesOutAndIsSkipped() throws Exception {
+        try (ServerSocket server = new ServerSocket(0)) {
+            AtomicInteger connections = new AtomicInteger();
+            Thread silent = new Thread(() -> acceptWithoutReplying(server, connections));
+            silent.setDaemon(true);
+            silent.start();
+
+            RespResultCache cache = cache(server.getLocalPort(), 2, 200);
+            long started = System.nanoTime();
+            assertNull(cache.get("key"));
+            long waitedMillis = (System.nanoTime() - started) / 1_000_000;
+            // Inside the retry window: answered at once, without a new connection.
+            started = System.nanoTime();
+            assertNull(cache.get("key"));
+            long skippedMillis = (System.nanoTime() - started) / 1_000_000;
+
+            assertTrue(waitedMillis >= 150 && waitedMillis < 2000, "waited " + waitedMillis + " ms");
+            assertTrue(skippedMillis < 50, "skipped in " + skippedMillis + " ms");
+            Map<String, Object> stats = cache.stats();
+            assertEquals(1L, stats.get("errors"));
+            assertEquals(1L, stats.get("skipped"));
+            assertEquals(false, stats.get("available"));
+            assertEquals(1, connections.get());
+            cache.close();
+        }
+    }
+
+    @Test
+    void malformedReplyCountsAsMissAndMarksServerDown() throws Exception {
+        try (ServerSocket server = new ServerSocket(0)) {
+            AtomicInteger connections = new AtomicInteger();
+            Thread replies = new Thread(() -> answerEveryCommand(server, ":abc\r\n", connections));
+            replies.setDaemon(true);
+            replies.start();
+
+            RespResultCache cache = cache(server.getLocalPort(), 2, 1000);
+            assertNull(cache.get("key"));
+            // Inside the retry window: skipped without a new connection.
+            assertNull(cache.get("key"));
+
+            Map<String, Object> stats = cache.stats();
+            assertEquals(1L, stats.get("errors"));
+            assertEquals(1L, stats.get("skipped"));
+            assertEquals(2L, stats.get("misses"));
+            assertEquals(false, stats.get("available"));
+            assertEquals(0, stats.get("idleConnections"));
+            assertEquals(1, connections.get());
+            cache.close();
+        }
+    }
+
+    static RespResultCache cache(int port, int poolSize, int timeoutMillis) {
+        return new RespResultCache("127.0.0.1", port, null, 0, "test:", poolSize, timeoutMillis, 0, 1024);
+    }
+
+    private static byte[] valueOf(String key) {
+        return ("value of " + key).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void acceptWithoutReplying(ServerSocket server, AtomicInteger connections) {
+        List<Socket> open = new ArrayList<>();
+        while (!server.isClosed()) {
+            try {
+                open.add(server.accept());
+                connections.incrementAndGet();
+            } catch (IOException e) {
+                // Closed by the test.
+            }
+        }
+        for (Socket socket : open) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already gone.
+            }
+        }
+    }
+
+    private static void answerEveryCommand(ServerSocket server, String reply, AtomicInteger connections) {
+        byte[] buffer = new byte[4096];
+        while (!server.isClosed()) {
+            try (Socket socket = server.accept()) {
+                connections.incrementAndGet();
+                InputStream in = socket.getInputStream();
+                OutputStream out = socket.getOutputStream();
+                // Each command arrives in one write and waits for its reply.
+                while (in.read(buffer) > 0) {
+                    out.write(reply.getBytes(StandardCharsets.US_ASCII));
+                    out.flush();
+                }
+            } catch (IOException e) {
+                // Closed by the test or the client.
+            }
+        }
+    }
+}
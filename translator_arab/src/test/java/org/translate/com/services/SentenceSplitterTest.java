@@ -0,0 +1,42 @@
+package org.translate.com.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class SentenceSplitterTest {
+
+    @Test
+    void splitsOnTerminatorsAndKeepsRunsTogether() {
+        assertEquals(List.of("Where did you put the keys?!", "They were on the table yesterday…",
+                "واش كاين شي حد هنا اليوم؟", "I think it is time to leave now."),
+                SentenceSplitter.split("Where did you put the keys?! They were on the table yesterday… "
+                        + "واش كاين شي حد هنا اليوم؟ I think it is time to leave now."));
+    }
+
+    @Test
+    void doesNotSplitDecimalsAbbreviationsOrInitials() {
+        assertEquals(List.of("Dr. Smith paid 3.5 dirhams to J. R. Tolkien at example.com today.",
+                "Then everybody went home happy."),
+                SentenceSplitter.split("Dr. Smith paid 3.5 dirhams to J. R. Tolkien at example.com today. "
+                        + "Then everybody went home happy."));
+    }
+
+    @Test
+    void mergesShortFragments() {
+        assertEquals(List.of("OK. Let us start the meeting right away.", "Everyone is here, so we can go. Yes."),
+                SentenceSplitter.split("OK. Let us start the meeting right away. Everyone is here, so we can go. Yes."));
+        assertEquals(List.of("Fine. Thanks."), SentenceSplitter.split("Fine. Thanks."));
+    }
+
+    @Test
+    void blankLinesEndASentence() {
+        assertEquals(List.of("A heading without any punctuation", "And the paragraph that follows it"),
+                SentenceSplitter.split("A heading without any punctuation\n\nAnd the paragraph\nthat follows it"));
+        assertTrue(SentenceSplitter.split("  \n ").isEmpty());
+        assertTrue(SentenceSplitter.split(null).isEmpty());
+    }
+}
@@ -0,0 +1,57 @@
+package org.translate.com.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TTSServiceTest {
+
+    private static final String SENTENCE = "This sentence is long enough to stand on its own as a clip. ";
+
+    @Test
+    void keepsShortTextInOnePiece() {
+        String text = SENTENCE + SENTENCE;
+
+        assertEquals(List.of(text), TTSService.segments(text));
+    }
+
+    @Test
+    void splitsLongTextIntoSentences() {
+        List<String> segments = TTSService.segments(SENTENCE.repeat(5));
+
+        assertEquals(5, segments.size());
+        segments.forEach(segment -> assertEquals(SENTENCE.trim(), segment));
+    }
+
+    @Test
+    void cutsOverlongSentencesAtAClauseBoundary() {
+        String clause = "a clause that keeps going with more words in it, ";
+        String sentence = clause.repeat(12).trim() + " and then it ends.";
+
+        List<String> segments = TTSService.segments(sentence);
+
+        assertTrue(segments.size() > 1);
+        for (String segment : segments.subList(0, segments.size() - 1)) {
+            assertTrue(segment.length() <= 400, segment);
+            assertTrue(segment.endsWith(","), segment);
+        }
+        assertEquals(sentence, String.join(" ", segments));
+    }
+
+    @Test
+    void neverCutsInsideASurrogatePair() {
+        // 399 plain characters, then emoji without spaces or commas to cut at.
+        String sentence = "x".repeat(399) + "😀".repeat(100);
+
+        List<String> segments = TTSService.segments(sentence);
+
+        assertEquals(399, segments.get(0).length());
+        assertEquals(sentence, String.join("", segments));
+        for (String segment : segments) {
+            assertTrue(!Character.isLowSurrogate(segment.charAt(0)), "segment starts mid-character");
+        }
+    }
+}
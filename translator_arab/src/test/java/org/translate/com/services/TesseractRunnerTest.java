@@ -0,0 +1,65 @@
+package org.translate.com.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.translate.com.services.TesseractRunner.Block;
+
+class TesseractRunnerTest {
+
+    private static final String HEADER =
+            "level\tpage_num\tblock_num\tpar_num\tline_num\tword_num\tleft\ttop\twidth\theight\tconf\ttext";
+
+    @Test
+    void groupsWordsIntoBlocksInReadingOrder() throws IOException {
+        String tsv = String.join("\n",
+                HEADER,
+                "1\t1\t0\t0\t0\t0\t0\t0\t800\t600\t-1\t",
+                "2\t1\t1\t0\t0\t0\t10\t20\t300\t40\t-1\t",
+                "5\t1\t1\t1\t1\t1\t10\t20\t80\t20\t90\tHello",
+                "5\t1\t1\t1\t1\t2\t100\t20\t80\t20\t80\tworld",
+                "5\t1\t1\t1\t2\t1\t10\t45\t80\t20\t70\tagain",
+                "2\t1\t2\t0\t0\t0\t10\t200\t200\t30\t-1\t",
+                "5\t1\t2\t1\t1\t1\t10\t200\t80\t20\t60\tSecond");
+        List<Block> seen = new ArrayList<>();
+
+        List<Block> blocks = TesseractRunner.parseTsv(new BufferedReader(new StringReader(tsv)), seen::add);
+
+        assertEquals(blocks, seen);
+        assertEquals(2, blocks.size());
+        Block first = blocks.get(0);
+        assertEquals(0, first.getIndex());
+        assertEquals("Hello world\nagain", first.getText());
+        assertEquals(80.0, first.getConfidence(), 1e-9);
+        assertEquals(3, first.getWordCount());
+        assertEquals(10, first.getLeft());
+        assertEquals(300, first.getWidth());
+        assertEquals("Second", blocks.get(1).getText());
+        assertEquals(1, blocks.get(1).getIndex());
+    }
+
+    @Test
+    void skipsWordsBeforeTheFirstBlockAndEmptyBlocks() throws IOException {
+        String tsv = String.join("\n",
+                HEADER,
+                "5\t1\t0\t0\t0\t1\t0\t0\t10\t10\t95\tstray",
+                "2\t1\t1\t0\t0\t0\t0\t0\t100\t100\t-1\t",
+                "5\t1\t1\t1\t1\t1\t0\t0\t10\t10\t-1\t ",
+                "2\t1\t2\t0\t0\t0\t0\t200\t100\t100\t-1\t",
+                "5\t1\t2\t1\t1\t1\t0\t200\t10\t10\t-1\tunscored");
+
+        List<Block> blocks = TesseractRunner.parseTsv(new BufferedReader(new StringReader(tsv)), block -> {
+        });
+
+        assertEquals(1, blocks.size());
+        assertEquals("unscored", blocks.get(0).getText());
+        assertEquals(0, blocks.get(0).getIndex());
+        assertEquals(0.0, blocks.get(0).getConfidence(), 1e-9);
+    }
+}
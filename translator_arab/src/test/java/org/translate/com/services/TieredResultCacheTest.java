@@ -0,0 +1,55 @@
+package org.translate.com.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.translate.com.BenchSupport.StubRedis;
+
+class TieredResultCacheTest {
+
+    private static final byte[] OLD = "old".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] NEW = "new".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void nearEntryExpires() throws Exception {
+        InProcessResultCache near = new InProcessResultCache(1024, 200);
+        near.put("key", OLD);
+
+        assertArrayEquals(OLD, near.get("key"));
+        Thread.sleep(300);
+        assertNull(near.get("key"));
+        assertEquals(1L, near.stats().get("expired"));
+        assertEquals(0, near.stats().get("entries"));
+    }
+
+    @Test
+    void sharedUpdateIsSeenOnceNearEntryExpires() throws Exception {
+        try (StubRedis redis = new StubRedis(0)) {
+            TieredResultCache first = new TieredResultCache(new InProcessResultCache(1 << 20, 300),
+                    RespResultCacheTest.cache(redis.port(), 2, 1000));
+            TieredResultCache second = new TieredResultCache(new InProcessResultCache(1 << 20, 300),
+                    RespResultCacheTest.cache(redis.port(), 2, 1000));
+
+            first.put("key", OLD);
+            assertArrayEquals(OLD, second.get("key"));
+            second.put("key", NEW);
+
+            // Within the near TTL the first instance still serves its own copy.
+            assertArrayEquals(OLD, first.get("key"));
+            Thread.sleep(400);
+            assertArrayEquals(NEW, first.get("key"));
+
+            Map<String, Object> stats = first.stats();
+            assertEquals(1L, stats.get("nearHits"));
+            assertEquals(1L, stats.get("sharedHits"));
+            assertEquals(0L, stats.get("misses"));
+            first.close();
+            second.close();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.translate.com.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.translate.com.dto.SpeechSentence;
+import org.translate.com.dto.SpeechTranslationRequest;
+import org.translate.com.services.WhisperBasedSpeechService.SentenceListener;
+
+class WhisperBasedSpeechServiceTest {
+
+    private static final String FIRST = "The first sentence is a little slow.";
+    private static final String SECOND = "The second sentence cannot be translated.";
+    private static final String THIRD = "The third sentence ends the recording.";
+
+    @Test
+    void deliversSentencesInOrderWhileTranslatingInParallel() {
+        CountDownLatch thirdStarted = new CountDownLatch(1);
+        LlmService llm = new LlmService() {
+            @Override
+            public String translate(String text, String sourceLanguage, String targetLanguage) throws Exception {
+                if (text.equals(FIRST)) {
+                    // Finishes last, and only if the third sentence is translated at the same time.
+                    if (!thirdStarted.await(10, TimeUnit.SECONDS)) {
+                        throw new IllegalStateException("sentences were translated one by one");
+                    }
+                    Thread.sleep(100);
+                } else if (text.equals(THIRD)) {
+                    thirdStarted.countDown();
+                } else {
+                    throw new IllegalStateException("no translation");
+                }
+                return "ary:" + text;
+            }
+        };
+        WhisperBasedSpeechService service = new WhisperBasedSpeechService(llm,
+                new FixedWhisper(FIRST + " " + SECOND + " " + THIRD), new EchoTts());
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        List<SpeechSentence> sentences = Collections.synchronizedList(new ArrayList<>());
+
+        int count = service.voiceToVoiceStreaming(audio(), new SpeechTranslationRequest(), new SentenceListener() {
+            @Override
+            public void onTranscript(String transcript, int sentenceCount) {
+                events.add("transcript:" + sentenceCount);
+            }
+
+            @Override
+            public void onSentence(SpeechSentence sentence) {
+                events.add("sentence:" + sentence.getIndex());
+                sentences.add(sentence);
+            }
+        });
+
+        assertEquals(3, count);
+        assertEquals(List.of("transcript:3", "sentence:0", "sentence:1", "sentence:2"), events);
+
+        assertEquals("ary:" + FIRST, sentences.get(0).getTranslation());
+        assertArrayEquals(("ary:" + FIRST).getBytes(StandardCharsets.UTF_8), sentences.get(0).getAudio());
+        assertNull(sentences.get(0).getError());
+
+        // A failing sentence is reported in its event, the others still arrive.
+        assertEquals(SECOND, sentences.get(1).getText());
+        assertNull(sentences.get(1).getAudio());
+        assertTrue(sentences.get(1).getError().contains("no translation"), sentences.get(1).getError());
+
+        assertEquals("ary:" + THIRD, sentences.get(2).getTranslation());
+    }
+
+    @Test
+    void emptyTranscriptEndsWithoutSentences() {
+        WhisperBasedSpeechService service = new WhisperBasedSpeechService(new LlmService(), new FixedWhisper(" "),
+                new EchoTts());
+        List<String> events = new ArrayList<>();
+
+        int count = service.voiceToVoiceStreaming(audio(), new SpeechTranslationRequest(), new SentenceListener() {
+            @Override
+            public void onTranscript(String transcript, int sentenceCount) {
+                events.add("transcript:" + sentenceCount);
+            }
+
+            @Override
+            public void onSentence(SpeechSentence sentence) {
+                events.add("sentence:" + sentence.getIndex());
+            }
+        });
+
+        assertEquals(0, count);
+        assertEquals(List.of("transcript:0"), events);
+    }
+
+    private static InputStream audio() {
+        return new ByteArrayInputStream(new byte[16]);
+    }
+
+    private static final class FixedWhisper extends WhisperService {
+        private final String transcript;
+
+        FixedWhisper(String transcript) {
+            super("unused");
+            this.transcript = transcript;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public String transcribeAudio(InputStream audio, String sourceLanguage, String audioMimeType) {
+            return transcript;
+        }
+    }
+
+    /**
+     * "Speaks" the text as its UTF-8 bytes.
+     */
+    private static final class EchoTts extends TTSService {
+        @Override
+        public SynthesizedAudio synthesize(String text, String language, String voiceType) {
+            return SynthesizedAudio.of(text.getBytes(StandardCharsets.UTF_8), "audio/mpeg", "test");
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.translate.com.services;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonParseException;
+
+class WhisperServiceTest {
+
+    @Test
+    void retriesTimeoutsAndConnectionErrors() {
+        assertTrue(WhisperService.isTransient(new SocketTimeoutException("timeout")));
+        assertTrue(WhisperService.isTransient(new ConnectException("Connection refused")));
+        assertTrue(WhisperService.isTransient(new IOException("unexpected end of stream")));
+    }
+
+    @Test
+    void retriesThrottlingAndServerErrors() {
+        assertTrue(WhisperService.isTransient(new WhisperService.WhisperApiException(429, "Too Many Requests")));
+        assertTrue(WhisperService.isTransient(new WhisperService.WhisperApiException(500, "Internal Server Error")));
+        assertTrue(WhisperService.isTransient(new WhisperService.WhisperApiException(503, "Service Unavailable")));
+    }
+
+    @Test
+    void doesNotRetryRejectedRequests() {
+        assertFalse(WhisperService.isTransient(new WhisperService.WhisperApiException(400, "Bad Request")));
+        assertFalse(WhisperService.isTransient(new WhisperService.WhisperApiException(401, "Unauthorized")));
+        assertFalse(WhisperService.isTransient(new WhisperService.WhisperApiException(413, "Payload Too Large")));
+        assertFalse(WhisperService.isTransient(new JsonParseException(null, "Unexpected character")));
+    }
+}